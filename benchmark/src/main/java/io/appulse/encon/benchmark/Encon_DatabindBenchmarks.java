@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.benchmark;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Level.Trial;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import java.util.List;
+
+import io.appulse.encon.databind.SerializationMode;
+import io.appulse.encon.databind.annotation.AsErlangMap;
+import io.appulse.encon.databind.annotation.AsErlangTuple;
+import io.appulse.encon.databind.deserializer.Deserializer;
+import io.appulse.encon.databind.parser.PojoDescriptor;
+import io.appulse.encon.databind.parser.PojoParser;
+import io.appulse.encon.databind.serializer.Serializer;
+import io.appulse.encon.terms.ErlangTerm;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization/deserialization throughput of the POJOs by the reflective
+ * and the generated (de)serializers.
+ * <p>
+ * Run it with {@code -prof gc} to see the boxing of the primitive fields.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@State(Benchmark)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 10)
+@BenchmarkMode(Throughput)
+@Measurement(iterations = 20)
+public class Encon_DatabindBenchmarks {
+
+  @Param({
+      "REFLECTIVE",
+      "GENERATED"
+  })
+  SerializationMode mode;
+
+  Serializer<Object> tupleSerializer;
+
+  Deserializer<?> tupleDeserializer;
+
+  Serializer<Object> mapSerializer;
+
+  Deserializer<?> mapDeserializer;
+
+  TuplePojo tuplePojo;
+
+  MapPojo mapPojo;
+
+  ErlangTerm tupleTerm;
+
+  ErlangTerm mapTerm;
+
+  @Setup(Trial)
+  @SuppressWarnings("unchecked")
+  public void setup () {
+    PojoDescriptor tupleDescriptor = PojoParser.parse(TuplePojo.class, mode);
+    tupleSerializer = (Serializer<Object>) tupleDescriptor.getSerializer();
+    tupleDeserializer = tupleDescriptor.getDeserializer();
+
+    PojoDescriptor mapDescriptor = PojoParser.parse(MapPojo.class, mode);
+    mapSerializer = (Serializer<Object>) mapDescriptor.getSerializer();
+    mapDeserializer = mapDescriptor.getDeserializer();
+
+    tuplePojo = new TuplePojo(1L, 42, 3.14D, true, "popa", 1_546_300_800_000L);
+    mapPojo = new MapPojo(1L, 42, 3.14D, true, "popa", asList("java", "erlang"));
+
+    tupleTerm = tupleSerializer.serialize(tuplePojo);
+    mapTerm = mapSerializer.serialize(mapPojo);
+  }
+
+  @Benchmark
+  public ErlangTerm serializeTuple () {
+    return tupleSerializer.serialize(tuplePojo);
+  }
+
+  @Benchmark
+  public Object deserializeTuple () {
+    return tupleDeserializer.deserialize(tupleTerm);
+  }
+
+  @Benchmark
+  public ErlangTerm serializeMap () {
+    return mapSerializer.serialize(mapPojo);
+  }
+
+  @Benchmark
+  public Object deserializeMap () {
+    return mapDeserializer.deserialize(mapTerm);
+  }
+
+  @AsErlangTuple
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class TuplePojo {
+
+    long id;
+
+    int count;
+
+    double score;
+
+    boolean active;
+
+    String name;
+
+    long timestamp;
+  }
+
+  @AsErlangMap
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class MapPojo {
+
+    long id;
+
+    int count;
+
+    double score;
+
+    boolean active;
+
+    String name;
+
+    List<String> tags;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.benchmark;
+
+import static io.appulse.encon.handler.message.matcher.Matchers.anyInt;
+import static io.appulse.encon.handler.message.matcher.Matchers.eq;
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Level.Trial;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import io.appulse.encon.handler.message.matcher.MethodMatcherMessageHandler;
+import io.appulse.encon.terms.ErlangTerm;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dispatch latency of {@link MethodMatcherMessageHandler} for the atom-tagged
+ * messages, like {@code {tag_N, 42}}, depending on the number of the handler methods.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@State(Benchmark)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 10)
+@BenchmarkMode(AverageTime)
+@Measurement(iterations = 20)
+public class Encon_DispatchBenchmarks {
+
+  @Param({
+      "5",
+      "50",
+      "500"
+  })
+  int handlers;
+
+  Service service;
+
+  MethodMatcherMessageHandler handler;
+
+  ErlangTerm first;
+
+  ErlangTerm last;
+
+  ErlangTerm untagged;
+
+  @Setup(Trial)
+  public void setup () {
+    service = new Service();
+
+    val wrapped = MethodMatcherMessageHandler.builder()
+        .wrap(service);
+
+    // the same method is registered for the different tags,
+    // so every registration is a separate handler
+    for (int index = 0; index < handlers; index++) {
+      val tag = "tag_" + index;
+      wrapped.tuple(it -> it.handle(eq(tag), anyInt()));
+    }
+    handler = wrapped.tuple(it -> it.handle(anyInt(), anyInt()))
+        .build();
+
+    first = tuple(atom("tag_0"), number(42));
+    last = tuple(atom("tag_" + (handlers - 1)), number(42));
+    untagged = tuple(number(1), number(42));
+  }
+
+  @Benchmark
+  public long dispatchFirst () {
+    handler.handle(null, null, first);
+    return service.sum;
+  }
+
+  @Benchmark
+  public long dispatchLast () {
+    handler.handle(null, null, last);
+    return service.sum;
+  }
+
+  @Benchmark
+  public long dispatchUntagged () {
+    handler.handle(null, null, untagged);
+    return service.sum;
+  }
+
+  public static class Service {
+
+    long sum;
+
+    public void handle (String tag, int value) {
+      sum += value;
+    }
+
+    public void handle (int tag, int value) {
+      sum += tag + value;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.benchmark;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Level.Trial;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import java.math.BigInteger;
+
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.type.ErlangInteger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decode/encode/{@code asLong} throughput of {@link ErlangInteger} for
+ * the different wire representations.
+ * <p>
+ * Run it with {@code -prof gc} to see the allocation rate per operation.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@State(Benchmark)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 10)
+@BenchmarkMode(Throughput)
+@Measurement(iterations = 20)
+public class Encon_IntegerBenchmarks {
+
+  /**
+   * The values are chosen to hit every wire type: SMALL_INTEGER, INTEGER,
+   * SMALL_BIG which fits into long (a nanosecond timestamp) and
+   * SMALL_BIG which doesn't.
+   */
+  @Param({
+      "42",
+      "134217726",
+      "1546300800000000000",
+      "92233720368547758070"
+  })
+  String value;
+
+  ErlangInteger term;
+
+  ByteBuf encoded;
+
+  ByteBuf output;
+
+  @Setup(Trial)
+  public void setup () {
+    term = new ErlangInteger(new BigInteger(value));
+
+    encoded = Unpooled.buffer();
+    term.writeTo(encoded);
+
+    output = Unpooled.buffer(64);
+  }
+
+  @Benchmark
+  public ErlangTerm decode () {
+    encoded.readerIndex(0);
+    return ErlangTerm.newInstance(encoded);
+  }
+
+  @Benchmark
+  public ByteBuf encode () {
+    output.clear();
+    term.writeTo(output);
+    return output;
+  }
+
+  @Benchmark
+  public long decodeAndAsLong () {
+    encoded.readerIndex(0);
+    ErlangTerm decoded = ErlangTerm.newInstance(encoded);
+    return decoded.asLong();
+  }
+
+  @Benchmark
+  public long asLong () {
+    return term.asLong();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.benchmark;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.list;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Level.Trial;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import io.appulse.encon.terms.ErlangTerm;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding throughput of the deeply nested and the wide terms.
+ * <p>
+ * Run it with {@code -prof gc} to see the allocation rate per operation.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@State(Benchmark)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 10)
+@BenchmarkMode(Throughput)
+@Measurement(iterations = 20)
+public class Encon_NestedTermsBenchmarks {
+
+  @Param({
+      "10",
+      "100",
+      "1000"
+  })
+  int size;
+
+  ByteBuf nestedTuples;
+
+  ByteBuf nestedLists;
+
+  ByteBuf wideList;
+
+  @Setup(Trial)
+  public void setup () {
+    ErlangTerm tuple = atom("leaf");
+    ErlangTerm list = atom("leaf");
+    ErlangTerm[] elements = new ErlangTerm[size];
+    for (int index = 0; index < size; index++) {
+      tuple = tuple(number(index), tuple);
+      list = list(number(index), list);
+      elements[index] = tuple(atom("key"), number(index));
+    }
+
+    nestedTuples = Unpooled.wrappedBuffer(tuple.toBytes());
+    nestedLists = Unpooled.wrappedBuffer(list.toBytes());
+    wideList = Unpooled.wrappedBuffer(list(elements).toBytes());
+  }
+
+  @Benchmark
+  public ErlangTerm decodeNestedTuples () {
+    nestedTuples.readerIndex(0);
+    return ErlangTerm.newInstance(nestedTuples);
+  }
+
+  @Benchmark
+  public ErlangTerm decodeNestedLists () {
+    nestedLists.readerIndex(0);
+    return ErlangTerm.newInstance(nestedLists);
+  }
+
+  @Benchmark
+  public ErlangTerm decodeWideList () {
+    wideList.readerIndex(0);
+    return ErlangTerm.newInstance(wideList);
+  }
+}
@@ -37,6 +37,7 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
@@ -46,6 +47,15 @@ import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.infra.ThreadParams;
 
 /**
+ * Request-reply throughput between two nodes with the different number
+ * of the concurrent clients.
+ * <p>
+ * Every client has its own echo mailbox (and thread) on the server node,
+ * so the server's message handling doesn't serialize the clients, and
+ * the scaling depends on the connections between the nodes only. With
+ * {@code connectionsPerNode > 1} the clients' requests are spread across
+ * the several connections (and event loops) by the sender's pid, while
+ * the replies go through the connection, which the server accepted first.
  *
  * @since 1.6.3
  * @author Artem Labazin
@@ -57,13 +67,33 @@ import org.openjdk.jmh.infra.ThreadParams;
 @Measurement(iterations = 20)
 public class Encon_Node2NodeBenchmarks {
 
+  /**
+   * Maximum messages per flush: {@code 1} flushes every message,
+   * the others coalesce the concurrent clients' writes.
+   */
+  @Param({
+      "1",
+      "64"
+  })
+  int flushMaxMessages;
+
+  /**
+   * The number of the parallel connections from the client node to the server node.
+   */
+  @Param({
+      "1",
+      "2",
+      "4"
+  })
+  int connectionsPerNode;
+
   Node serverNode;
 
-  Mailbox serverMailbox;
+  Mailbox[] serverMailboxes;
 
-  ErlangPid serverMailboxPid;
+  ErlangPid[] serverMailboxPids;
 
-  Thread serverThread;
+  Thread[] serverThreads;
 
   ErlangTerm data;
 
@@ -78,30 +108,41 @@ public class Encon_Node2NodeBenchmarks {
         .server(ServerConfig.builder()
             .bossThreads(1)
             .workerThreads(1)
+            .flushMaxMessages(flushMaxMessages)
+            .connectionsPerNode(connectionsPerNode)
             .build()
         )
         .build()
     );
 
-    serverMailbox = serverNode.mailbox().build();
-    serverMailboxPid = serverMailbox.getPid();
     data = binary(new byte[] { 1, 2, 3, 4, 5 });
 
-    serverThread = new Thread(() -> {
-        try {
-          while (!java.lang.Thread.interrupted()) {
-            ErlangTerm payload = serverMailbox.receive().getBody();
-            serverMailbox.send(payload.asPid(), data);
+    serverMailboxes = new Mailbox[8];
+    serverMailboxPids = new ErlangPid[serverMailboxes.length];
+    serverThreads = new Thread[serverMailboxes.length];
+    for (int index = 0; index < serverMailboxes.length; index++) {
+      Mailbox serverMailbox = serverNode.mailbox().build();
+      serverMailboxes[index] = serverMailbox;
+      serverMailboxPids[index] = serverMailbox.getPid();
+
+      serverThreads[index] = new Thread(() -> {
+          try {
+            while (!java.lang.Thread.interrupted()) {
+              ErlangTerm payload = serverMailbox.receive().getBody();
+              serverMailbox.send(payload.asPid(), data);
+            }
+          } catch (Throwable ex) {
           }
-        } catch (Throwable ex) {
-        }
-    });
-    serverThread.start();
+      });
+      serverThreads[index].start();
+    }
 
     clientNode = Nodes.singleNode("node-client-" + System.nanoTime(), NodeConfig.builder().shortName(TRUE)
         .server(ServerConfig.builder()
             .bossThreads(1)
             .workerThreads(8)
+            .flushMaxMessages(flushMaxMessages)
+            .connectionsPerNode(connectionsPerNode)
             .build()
         )
         .build());
@@ -119,41 +160,48 @@ public class Encon_Node2NodeBenchmarks {
     }
     clientNode.close();
 
-    serverMailbox.close();
+    for (Mailbox mailbox : serverMailboxes) {
+      mailbox.close();
+    }
     serverNode.close();
 
-    serverThread.interrupt();
+    for (Thread thread : serverThreads) {
+      thread.interrupt();
+    }
   }
 
   @Threads(1)
   @Benchmark
   public void client_1 (ThreadParams thredParams, Blackhole blackHole) throws Exception {
     Mailbox mailbox = clientMailboxes[0];
-    mailbox.send(serverMailboxPid, mailbox.getPid());
+    mailbox.send(serverMailboxPids[0], mailbox.getPid());
     blackHole.consume(mailbox.receive());
   }
 
   @Threads(2)
   @Benchmark
   public void clients_2 (ThreadParams thredParams, Blackhole blackHole) throws Exception {
-    Mailbox mailbox = clientMailboxes[thredParams.getThreadIndex()];
-    mailbox.send(serverMailboxPid, mailbox.getPid());
+    int index = thredParams.getThreadIndex();
+    Mailbox mailbox = clientMailboxes[index];
+    mailbox.send(serverMailboxPids[index], mailbox.getPid());
     blackHole.consume(mailbox.receive());
   }
 
   @Threads(4)
   @Benchmark
   public void clients_4 (ThreadParams thredParams, Blackhole blackHole) throws Exception {
-    Mailbox mailbox = clientMailboxes[thredParams.getThreadIndex()];
-    mailbox.send(serverMailboxPid, mailbox.getPid());
+    int index = thredParams.getThreadIndex();
+    Mailbox mailbox = clientMailboxes[index];
+    mailbox.send(serverMailboxPids[index], mailbox.getPid());
     blackHole.consume(mailbox.receive());
   }
 
   @Threads(8)
   @Benchmark
   public void clients_8 (ThreadParams thredParams, Blackhole blackHole) throws Exception {
-    Mailbox mailbox = clientMailboxes[thredParams.getThreadIndex()];
-    mailbox.send(serverMailboxPid, mailbox.getPid());
+    int index = thredParams.getThreadIndex();
+    Mailbox mailbox = clientMailboxes[index];
+    mailbox.send(serverMailboxPids[index], mailbox.getPid());
     blackHole.consume(mailbox.receive());
   }
 }
@@ -25,6 +25,8 @@ import static org.openjdk.jmh.annotations.Scope.Benchmark;
 
 import io.appulse.encon.Node;
 import io.appulse.encon.Nodes;
+import io.appulse.encon.config.MailboxQueueType;
+import io.appulse.encon.config.MailboxWaitStrategy;
 import io.appulse.encon.config.NodeConfig;
 import io.appulse.encon.config.ServerConfig;
 import io.appulse.encon.connection.regular.Message;
@@ -36,6 +38,7 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
@@ -61,9 +64,29 @@ public class Encon_SimpleBenchmarks {
     blackHole.consume(state.mailbox1.receive());
   }
 
+  @Benchmark
+  public void mailbox2mailboxAndBackAcrossThreads (Mailbox2MailboxAndBackState state, Blackhole blackHole) {
+    state.mailbox1.send(state.echoPid, state.data);
+    blackHole.consume(state.mailbox1.receive());
+  }
+
   @State(Benchmark)
   public static class Mailbox2MailboxAndBackState {
 
+    @Param({
+        "LINKED",
+        "MPSC",
+        "RING_BUFFER",
+        "BATCHING"
+    })
+    MailboxQueueType queueType;
+
+    @Param({
+        "YIELD",
+        "PARK"
+    })
+    MailboxWaitStrategy waitStrategy;
+
     Node node;
 
     Mailbox mailbox1;
@@ -74,6 +97,13 @@ public class Encon_SimpleBenchmarks {
 
     ErlangPid pid2;
 
+    // replies from another thread, so the delivery contends with the receiving
+    Mailbox echo;
+
+    ErlangPid echoPid;
+
+    Thread echoThread;
+
     ErlangTerm data;
 
     @Setup(Trial)
@@ -89,17 +119,39 @@ public class Encon_SimpleBenchmarks {
 
       node = Nodes.singleNode("node-" + System.nanoTime(), config);
 
-      mailbox1 = node.mailbox().build();
+      mailbox1 = node.mailbox()
+          .queue(queueType, 1024, waitStrategy)
+          .build();
       pid1 = mailbox1.getPid();
 
-      mailbox2 = node.mailbox().build();
+      mailbox2 = node.mailbox()
+          .queue(queueType, 1024, waitStrategy)
+          .build();
       pid2 = mailbox2.getPid();
 
+      echo = node.mailbox()
+          .queue(queueType, 1024, waitStrategy)
+          .build();
+      echoPid = echo.getPid();
+
+      echoThread = new Thread(() -> {
+        try {
+          while (!Thread.interrupted()) {
+            Message message = echo.receive();
+            echo.send(pid1, message.getBody());
+          }
+        } catch (Throwable ex) {
+        }
+      });
+      echoThread.start();
+
       data = binary(new byte[] { 1, 2, 3, 4, 5 });
     }
 
     @TearDown(Trial)
     public void tearDown () {
+      echoThread.interrupt();
+      echo.close();
       mailbox1.close();
       mailbox2.close();
 
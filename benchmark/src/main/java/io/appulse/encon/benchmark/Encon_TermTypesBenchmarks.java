@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.benchmark;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.binary;
+import static io.appulse.encon.terms.Erlang.list;
+import static io.appulse.encon.terms.Erlang.map;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.string;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Level.Trial;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import java.util.Iterator;
+
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.type.ErlangPid;
+import io.appulse.encon.terms.type.ErlangReference;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decode/encode/iterate throughput of every term type.
+ * <p>
+ * It is an allocation regression suite, run it with {@code -prof gc} and
+ * compare the {@code gc.alloc.rate.norm} (bytes per operation) between
+ * the versions.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@State(Benchmark)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 10)
+@BenchmarkMode(Throughput)
+@Measurement(iterations = 20)
+public class Encon_TermTypesBenchmarks {
+
+  @Param({
+      "ATOM",
+      "INTEGER",
+      "FLOAT",
+      "STRING",
+      "UNICODE_STRING",
+      "BINARY",
+      "TUPLE",
+      "LIST",
+      "MAP",
+      "PID",
+      "REFERENCE"
+  })
+  String type;
+
+  ErlangTerm term;
+
+  ByteBuf encoded;
+
+  ByteBuf output;
+
+  @Setup(Trial)
+  public void setup () {
+    term = create(type);
+
+    encoded = Unpooled.buffer();
+    term.writeTo(encoded);
+
+    output = Unpooled.buffer(encoded.readableBytes());
+  }
+
+  @Benchmark
+  public ErlangTerm decode () {
+    encoded.readerIndex(0);
+    return ErlangTerm.newInstance(encoded);
+  }
+
+  @Benchmark
+  public ByteBuf encode () {
+    output.clear();
+    term.writeTo(output);
+    return output;
+  }
+
+  @Benchmark
+  public void iterate (Blackhole blackhole) {
+    Iterator<ErlangTerm> iterator = term.elements();
+    while (iterator.hasNext()) {
+      blackhole.consume(iterator.next());
+    }
+  }
+
+  private static ErlangTerm create (String type) {
+    switch (type) {
+    case "ATOM":
+      return atom("hello_world");
+    case "INTEGER":
+      return number(Integer.MAX_VALUE);
+    case "FLOAT":
+      return number(Math.PI);
+    case "STRING":
+      return string("Hello, world!");
+    case "UNICODE_STRING":
+      return string("Привет, мир!");
+    case "BINARY":
+      return binary(new byte[128]);
+    case "TUPLE":
+      return tuple(atom("ok"), number(42), string("popa"), tuple(number(1), number(2)));
+    case "LIST":
+      ErlangTerm[] elements = new ErlangTerm[32];
+      for (int index = 0; index < elements.length; index++) {
+        elements[index] = number(index);
+      }
+      return list(elements);
+    case "MAP":
+      return map(
+          atom("one"), number(1),
+          atom("two"), string("two"),
+          atom("three"), list(number(3), number(3), number(3))
+      );
+    case "PID":
+      return ErlangPid.builder()
+          .node("popa@localhost")
+          .id(1)
+          .serial(2)
+          .creation(3)
+          .build();
+    case "REFERENCE":
+      return ErlangReference.builder()
+          .node("popa@localhost")
+          .ids(new long[] { 1, 2, 3 })
+          .creation(3)
+          .build();
+    default:
+      throw new IllegalArgumentException("Unknown term type " + type);
+    }
+  }
+}
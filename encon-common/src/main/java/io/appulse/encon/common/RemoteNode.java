@@ -61,4 +61,12 @@ public class RemoteNode {
   Version low;
 
   int port;
+
+  /**
+   * Whether the remote node is an encon node too, it tells
+   * if the node accepts several connections from one node.
+   *
+   * @since 1.7.0
+   */
+  boolean encon;
 }
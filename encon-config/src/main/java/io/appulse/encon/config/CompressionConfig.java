@@ -54,6 +54,11 @@ public class CompressionConfig {
         .map(Integer::parseInt)
         .ifPresent(builder::level);
 
+    ofNullable(map.get("threshold"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::threshold);
+
     return builder.build();
   }
 
@@ -61,6 +66,14 @@ public class CompressionConfig {
 
   Integer level;
 
+  /**
+   * Minimal size (in bytes) of an encoded message's body for compression,
+   * the smaller ones are sent as is.
+   *
+   * @since 1.7.0
+   */
+  Integer threshold;
+
   /**
    * Copy constructor.
    *
@@ -69,6 +82,7 @@ public class CompressionConfig {
   public CompressionConfig (CompressionConfig compressionConfig) {
     enabled = compressionConfig.getEnabled();
     level = compressionConfig.getLevel();
+    threshold = compressionConfig.getThreshold();
   }
 
   /**
@@ -85,6 +99,9 @@ public class CompressionConfig {
     level = ofNullable(level)
         .orElse(defaults.getLevel());
 
+    threshold = ofNullable(threshold)
+        .orElse(defaults.getThreshold());
+
     return this;
   }
 }
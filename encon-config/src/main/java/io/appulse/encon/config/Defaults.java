@@ -18,6 +18,7 @@ package io.appulse.encon.config;
 
 import static io.appulse.encon.common.DistributionFlag.BIG_CREATION;
 import static io.appulse.encon.common.DistributionFlag.BIT_BINARIES;
+import static io.appulse.encon.common.DistributionFlag.DIST_HDR_ATOM_CACHE;
 import static io.appulse.encon.common.DistributionFlag.EXTENDED_PIDS_PORTS;
 import static io.appulse.encon.common.DistributionFlag.EXTENDED_REFERENCES;
 import static io.appulse.encon.common.DistributionFlag.FUN_TAGS;
@@ -223,23 +224,39 @@ public class Defaults {
       NEW_FUN_TAGS,
       UTF8_ATOMS,
       MAP_TAG,
-      BIG_CREATION
+      BIG_CREATION,
+      // only used with the peers, which have it too, see the handshake
+      DIST_HDR_ATOM_CACHE
   ));
 
   @Builder.Default
   MailboxConfig mailbox = MailboxConfig.builder()
+      .lazyDecoding(FALSE)
+      .queueType(MailboxQueueType.LINKED)
+      .queueCapacity(4096)
+      .waitStrategy(MailboxWaitStrategy.PARK)
+      .capacity(0)
+      .overflowPolicy(MailboxOverflowPolicy.BLOCK)
+      .lowWaterMark(0)
       .build();
 
   @Builder.Default
   ServerConfig server = ServerConfig.builder()
       .bossThreads(1)
       .workerThreads(2)
+      .decodeThreads(0)
+      .flushMaxMessages(64)
+      .flushMaxBytes(64 * 1024)
+      .flushDelayMicros(0L)
+      .connectionsPerNode(1)
+      .binarySliceThreshold(-1)
       .build();
 
   @Builder.Default
   CompressionConfig compression = CompressionConfig.builder()
       .enabled(FALSE)
       .level(-1)
+      .threshold(1024)
       .build();
 
   /**
@@ -249,6 +266,7 @@ public class Defaults {
    */
   public Defaults (Defaults defaults) {
     epmdPort = defaults.getEpmdPort();
+    epmdHost = defaults.getEpmdHost();
     type = defaults.getType();
     shortName = defaults.getShortName();
     cookie = defaults.getCookie();
@@ -16,6 +16,7 @@
 
 package io.appulse.encon.config;
 
+import static java.util.Locale.ENGLISH;
 import static java.util.Optional.ofNullable;
 import static lombok.AccessLevel.PRIVATE;
 
@@ -48,11 +49,104 @@ public class MailboxConfig {
         .map(Object::toString)
         .ifPresent(builder::name);
 
+    ofNullable(map.get("lazy-decoding"))
+        .map(Object::toString)
+        .map(Boolean::valueOf)
+        .ifPresent(builder::lazyDecoding);
+
+    ofNullable(map.get("queue-type"))
+        .map(Object::toString)
+        .map(it -> it.toUpperCase(ENGLISH))
+        .map(it -> it.replace('-', '_'))
+        .map(MailboxQueueType::valueOf)
+        .ifPresent(builder::queueType);
+
+    ofNullable(map.get("queue-capacity"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::queueCapacity);
+
+    ofNullable(map.get("wait-strategy"))
+        .map(Object::toString)
+        .map(it -> it.toUpperCase(ENGLISH))
+        .map(MailboxWaitStrategy::valueOf)
+        .ifPresent(builder::waitStrategy);
+
+    ofNullable(map.get("capacity"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::capacity);
+
+    ofNullable(map.get("overflow-policy"))
+        .map(Object::toString)
+        .map(it -> it.toUpperCase(ENGLISH))
+        .map(it -> it.replace('-', '_'))
+        .map(MailboxOverflowPolicy::valueOf)
+        .ifPresent(builder::overflowPolicy);
+
+    ofNullable(map.get("low-water-mark"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::lowWaterMark);
+
     return builder.build();
   }
 
   String name;
 
+  /**
+   * Deliver tuples, lists and maps to the mailbox as
+   * {@code io.appulse.encon.terms.type.LazyErlangTerm}, which decodes its
+   * elements only when they are accessed.
+   *
+   * @since 1.7.0
+   */
+  Boolean lazyDecoding;
+
+  /**
+   * The type of the mailbox's messages queue.
+   *
+   * @since 1.7.0
+   */
+  MailboxQueueType queueType;
+
+  /**
+   * The capacity of the bounded queue types ({@link MailboxQueueType#MPSC}
+   * and {@link MailboxQueueType#RING_BUFFER}).
+   *
+   * @since 1.7.0
+   */
+  Integer queueCapacity;
+
+  /**
+   * How the lock-free queues wait for a message.
+   *
+   * @since 1.7.0
+   */
+  MailboxWaitStrategy waitStrategy;
+
+  /**
+   * The maximum number of messages in the mailbox, {@code 0} means unbounded.
+   *
+   * @since 1.7.0
+   */
+  Integer capacity;
+
+  /**
+   * What to do with a new message, when the mailbox is full.
+   *
+   * @since 1.7.0
+   */
+  MailboxOverflowPolicy overflowPolicy;
+
+  /**
+   * The number of messages, below which the {@link MailboxOverflowPolicy#BLOCK}ed
+   * connections resume reading, {@code 0} means a half of the capacity.
+   *
+   * @since 1.7.0
+   */
+  Integer lowWaterMark;
+
   /**
    * Copy constructor.
    *
@@ -60,6 +154,13 @@ public class MailboxConfig {
    */
   public MailboxConfig (MailboxConfig mailboxConfig) {
     name = mailboxConfig.getName();
+    lazyDecoding = mailboxConfig.getLazyDecoding();
+    queueType = mailboxConfig.getQueueType();
+    queueCapacity = mailboxConfig.getQueueCapacity();
+    waitStrategy = mailboxConfig.getWaitStrategy();
+    capacity = mailboxConfig.getCapacity();
+    overflowPolicy = mailboxConfig.getOverflowPolicy();
+    lowWaterMark = mailboxConfig.getLowWaterMark();
   }
 
   /**
@@ -70,6 +171,27 @@ public class MailboxConfig {
    * @return reference to this object (for chain calls)
    */
   public MailboxConfig withDefaultsFrom (@NonNull MailboxConfig defaults) {
+    lazyDecoding = ofNullable(lazyDecoding)
+        .orElse(defaults.getLazyDecoding());
+
+    queueType = ofNullable(queueType)
+        .orElse(defaults.getQueueType());
+
+    queueCapacity = ofNullable(queueCapacity)
+        .orElse(defaults.getQueueCapacity());
+
+    waitStrategy = ofNullable(waitStrategy)
+        .orElse(defaults.getWaitStrategy());
+
+    capacity = ofNullable(capacity)
+        .orElse(defaults.getCapacity());
+
+    overflowPolicy = ofNullable(overflowPolicy)
+        .orElse(defaults.getOverflowPolicy());
+
+    lowWaterMark = ofNullable(lowWaterMark)
+        .orElse(defaults.getLowWaterMark());
+
     return this;
   }
 }
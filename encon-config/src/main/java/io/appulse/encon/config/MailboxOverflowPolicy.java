@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.config;
+
+/**
+ * What a bounded mailbox does with a new message, when it is full.
+ * The control messages (links, unlinks and exits) are always delivered.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public enum MailboxOverflowPolicy {
+
+  /**
+   * The message is delivered, but the connection, which it came from, stops
+   * reading until the mailbox drains below its low-water mark. So a remote node
+   * is throttled by the TCP flow control. The local senders wait for the same
+   * draining, except the mailbox itself and the inline consumers, which must not block.
+   */
+  BLOCK,
+
+  /**
+   * The new message is dropped.
+   */
+  DROP_NEWEST,
+
+  /**
+   * The oldest message in the mailbox is dropped to free a place for the new one.
+   * It requires a queue, which allows concurrent consumers, like
+   * {@link MailboxQueueType#LINKED} or {@link MailboxQueueType#RING_BUFFER}.
+   */
+  DROP_OLDEST,
+
+  /**
+   * The new message is rejected and the mailbox exits with
+   * the {@code mailbox_overflow} reason, so its linked processes receive
+   * the exit signals, like an Erlang process exceeding its {@code max_heap_size}.
+   * The mailbox exits on its consumer's thread, when the consumer reaches
+   * the exit signal after the already queued messages.
+   */
+  REJECT;
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.config;
+
+/**
+ * The types of the mailbox's messages queue.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public enum MailboxQueueType {
+
+  /**
+   * Unbounded {@link java.util.concurrent.LinkedBlockingQueue}, the default one.
+   */
+  LINKED,
+
+  /**
+   * Bounded lock-free multi-producer single-consumer array queue.
+   * Only one thread at a time could receive the mailbox's messages.
+   */
+  MPSC,
+
+  /**
+   * Bounded lock-free multi-producer multi-consumer ring buffer.
+   */
+  RING_BUFFER,
+
+  /**
+   * Unbounded lock-free multi-producer single-consumer queue, its consumer
+   * takes all the delivered messages at once and then receives them one by one
+   * without touching the shared state.
+   */
+  BATCHING;
+}
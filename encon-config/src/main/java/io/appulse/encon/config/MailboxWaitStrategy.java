@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.config;
+
+/**
+ * How the mailbox's lock-free queues wait for a message (or for a free slot).
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public enum MailboxWaitStrategy {
+
+  /**
+   * Busy spinning, the lowest latency, but it burns a CPU core per waiting thread.
+   */
+  SPIN,
+
+  /**
+   * Spinning for a while, and then yielding the CPU to other threads.
+   */
+  YIELD,
+
+  /**
+   * Spinning, yielding and then parking the waiting thread until
+   * a new message arrives.
+   */
+  PARK;
+}
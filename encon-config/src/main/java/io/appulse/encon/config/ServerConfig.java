@@ -59,6 +59,36 @@ public class ServerConfig {
         .map(Integer::parseInt)
         .ifPresent(builder::workerThreads);
 
+    ofNullable(map.get("decode-threads"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::decodeThreads);
+
+    ofNullable(map.get("flush-max-messages"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::flushMaxMessages);
+
+    ofNullable(map.get("flush-max-bytes"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::flushMaxBytes);
+
+    ofNullable(map.get("flush-delay-micros"))
+        .map(Object::toString)
+        .map(Long::parseLong)
+        .ifPresent(builder::flushDelayMicros);
+
+    ofNullable(map.get("connections-per-node"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::connectionsPerNode);
+
+    ofNullable(map.get("binary-slice-threshold"))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .ifPresent(builder::binarySliceThreshold);
+
     return builder.build();
   }
 
@@ -68,6 +98,62 @@ public class ServerConfig {
 
   Integer workerThreads;
 
+  /**
+   * Number of threads for decoding and delivering the incoming messages.
+   * The messages are only framed on the connection's event loop and decoded
+   * in this pool, one connection's messages in order. {@code 0} means
+   * decoding on the event loop.
+   *
+   * @since 1.7.0
+   */
+  Integer decodeThreads;
+
+  /**
+   * Maximum number of the outgoing messages written to a connection
+   * between two flushes.
+   *
+   * @since 1.7.0
+   */
+  Integer flushMaxMessages;
+
+  /**
+   * Maximum number of the outgoing bytes written to a connection
+   * between two flushes.
+   *
+   * @since 1.7.0
+   */
+  Integer flushMaxBytes;
+
+  /**
+   * How long (in microseconds) the first outgoing message could wait
+   * for the others before the flush. {@code 0} means flushing everything,
+   * which was sent until the connection's event loop picks up the messages.
+   *
+   * @since 1.7.0
+   */
+  Long flushDelayMicros;
+
+  /**
+   * Number of the parallel connections, which are opened to every remote node.
+   * The outgoing messages are spread across them by the sender's pid, so
+   * the messages between two processes keep their order. It is only
+   * for the encon peers, which are told by their EPMD registration's extra data,
+   * the Erlang nodes accept a single connection from a node. {@code 1} by default.
+   *
+   * @since 1.7.0
+   */
+  Integer connectionsPerNode;
+
+  /**
+   * The minimal length of the incoming binaries, which are decoded as
+   * the slices of the received buffers instead of the copies, see
+   * {@code io.appulse.encon.terms.type.ErlangBinarySlice}. A negative
+   * value turns the slices off, it is {@code -1} by default.
+   *
+   * @since 1.7.0
+   */
+  Integer binarySliceThreshold;
+
   /**
    * Copy constructor.
    *
@@ -77,6 +163,12 @@ public class ServerConfig {
     port = serverConfig.getPort();
     bossThreads = serverConfig.getBossThreads();
     workerThreads = serverConfig.getWorkerThreads();
+    decodeThreads = serverConfig.getDecodeThreads();
+    flushMaxMessages = serverConfig.getFlushMaxMessages();
+    flushMaxBytes = serverConfig.getFlushMaxBytes();
+    flushDelayMicros = serverConfig.getFlushDelayMicros();
+    connectionsPerNode = serverConfig.getConnectionsPerNode();
+    binarySliceThreshold = serverConfig.getBinarySliceThreshold();
   }
 
   /**
@@ -96,6 +188,24 @@ public class ServerConfig {
     workerThreads = ofNullable(workerThreads)
         .orElse(defaults.getWorkerThreads());
 
+    decodeThreads = ofNullable(decodeThreads)
+        .orElse(defaults.getDecodeThreads());
+
+    flushMaxMessages = ofNullable(flushMaxMessages)
+        .orElse(defaults.getFlushMaxMessages());
+
+    flushMaxBytes = ofNullable(flushMaxBytes)
+        .orElse(defaults.getFlushMaxBytes());
+
+    flushDelayMicros = ofNullable(flushDelayMicros)
+        .orElse(defaults.getFlushDelayMicros());
+
+    connectionsPerNode = ofNullable(connectionsPerNode)
+        .orElse(defaults.getConnectionsPerNode());
+
+    binarySliceThreshold = ofNullable(binarySliceThreshold)
+        .orElse(defaults.getBinarySliceThreshold());
+
     return this;
   }
 }
@@ -110,6 +110,27 @@ public class ConfigTest {
     });
   }
 
+  @Test
+  public void copiedDefaults () {
+    Config config = new Config(Config.builder()
+        .defaults(Defaults.builder()
+            .cookie("secret")
+            .build())
+        .build());
+
+    Defaults defaults = config.getDefaults();
+    SoftAssertions.assertSoftly(softly -> {
+      softly.assertThat(defaults.getEpmdPort())
+          .isEqualTo(EpmdDefaults.PORT);
+
+      softly.assertThat(defaults.getEpmdHost())
+          .isEqualTo(EpmdDefaults.ADDRESS);
+
+      softly.assertThat(defaults.getCookie())
+          .isEqualTo("secret");
+    });
+  }
+
   @Test
   public void nonDefaultDefaults () {
     int epmdPort = 4321;
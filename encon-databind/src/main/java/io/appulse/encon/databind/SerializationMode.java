@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.databind;
+
+/**
+ * How {@link TermMapper} converts the user's POJOs.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public enum SerializationMode {
+
+  /**
+   * The fields are read and written by the reflection,
+   * the primitive values are boxed.
+   */
+  REFLECTIVE,
+
+  /**
+   * Every POJO type gets its own serializer and deserializer, built once from
+   * the {@code java.lang.invoke} method handles, which the JVM compiles into
+   * direct field accesses. The primitive fields are not boxed.
+   */
+  GENERATED;
+}
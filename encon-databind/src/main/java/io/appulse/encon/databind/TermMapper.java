@@ -16,12 +16,15 @@
 
 package io.appulse.encon.databind;
 
+import static java.util.Locale.ENGLISH;
+
 import io.appulse.encon.databind.deserializer.Deserializer;
 import io.appulse.encon.databind.parser.PojoDescriptor;
 import io.appulse.encon.databind.parser.PojoParser;
 import io.appulse.encon.databind.serializer.Serializer;
 import io.appulse.encon.terms.ErlangTerm;
 
+import io.netty.buffer.ByteBuf;
 import lombok.NonNull;
 import lombok.val;
 
@@ -34,6 +37,42 @@ import lombok.val;
  */
 public final class TermMapper {
 
+  private static volatile SerializationMode serializationMode;
+
+  static {
+    String mode = System.getProperty("io.appulse.encon.databind.serializationMode");
+    serializationMode = mode == null
+                        ? SerializationMode.REFLECTIVE
+                        : SerializationMode.valueOf(mode.trim().toUpperCase(ENGLISH));
+  }
+
+  /**
+   * Returns the current POJOs serialization mode.
+   * <p>
+   * It is {@link SerializationMode#REFLECTIVE} by default, and it could be
+   * changed with the {@code io.appulse.encon.databind.serializationMode}
+   * system property.
+   *
+   * @return the serialization mode
+   *
+   * @since 1.7.0
+   */
+  public static SerializationMode getSerializationMode () {
+    return serializationMode;
+  }
+
+  /**
+   * Sets the POJOs serialization mode, for all the following
+   * {@link #serialize(Object)} and {@link #deserialize(ErlangTerm, Class)} calls.
+   *
+   * @param mode the new serialization mode
+   *
+   * @since 1.7.0
+   */
+  public static void setSerializationMode (@NonNull SerializationMode mode) {
+    serializationMode = mode;
+  }
+
   /**
    * Method to deserialize {@link ErlangTerm} content into given Java type.
    *
@@ -53,7 +92,7 @@ public final class TermMapper {
 
     Deserializer<?> deserializer = Deserializer.findInPredefined(type);
     if (deserializer == null) {
-      PojoDescriptor descriptor = PojoParser.parse(type);
+      PojoDescriptor descriptor = PojoParser.parse(type, serializationMode);
       deserializer = descriptor.getDeserializer();
     }
     return (T) deserializer.deserialize(container);
@@ -74,12 +113,73 @@ public final class TermMapper {
 
     Serializer<?> serializer = Serializer.findInPredefined(type);
     if (serializer == null) {
-      PojoDescriptor descriptor = PojoParser.parse(type);
+      PojoDescriptor descriptor = PojoParser.parse(type, serializationMode);
       serializer = descriptor.getSerializer();
     }
     return serializer.serializeUntyped(object);
   }
 
+  /**
+   * Method to serialize given Java object directly into the buffer, in the external term format.
+   * <p>
+   * Unlike {@link #serialize(Object)}, it doesn't build the intermediate {@link ErlangTerm}
+   * tree for the POJOs: the tuple/list/map headers and the primitive fields are
+   * written straight into the buffer. It always uses the {@link SerializationMode#GENERATED}
+   * (de)serializers, because the streaming needs the compiled field accessors; the
+   * produced bytes are the same as {@code serialize(object).writeTo(buffer)} writes.
+   *
+   * @param object user's POJO for serialization
+   *
+   * @param buffer byte buffer for writing
+   *
+   * @since 1.7.0
+   */
+  @SuppressWarnings("unchecked")
+  public static void writeTo (@NonNull Object object, @NonNull ByteBuf buffer) {
+    if (object instanceof ErlangTerm) {
+      ((ErlangTerm) object).writeTo(buffer);
+      return;
+    }
+    val type = object.getClass();
+
+    Serializer<?> serializer = Serializer.findInPredefined(type);
+    if (serializer == null) {
+      PojoDescriptor descriptor = PojoParser.parse(type, SerializationMode.GENERATED);
+      serializer = descriptor.getSerializer();
+    }
+    ((Serializer<Object>) serializer).write(object, buffer);
+  }
+
+  /**
+   * Method to deserialize the next term in the buffer directly into given Java type.
+   * <p>
+   * It is the counterpart of the {@link #writeTo(Object, ByteBuf)}: the POJO's fields are
+   * read one by one from the buffer, without decoding the whole container term.
+   *
+   * @param buffer byte buffer with the term's external format
+   *
+   * @param type   user's POJO class
+   *
+   * @param <T>    type of return instance
+   *
+   * @return deserialized object
+   *
+   * @since 1.7.0
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T readFrom (@NonNull ByteBuf buffer, @NonNull Class<T> type) {
+    if (ErlangTerm.class.isAssignableFrom(type)) {
+      return (T) ErlangTerm.newInstance(buffer);
+    }
+
+    Deserializer<?> deserializer = Deserializer.findInPredefined(type);
+    if (deserializer == null) {
+      PojoDescriptor descriptor = PojoParser.parse(type, SerializationMode.GENERATED);
+      deserializer = descriptor.getDeserializer();
+    }
+    return (T) deserializer.read(buffer);
+  }
+
   private TermMapper () {
   }
 }
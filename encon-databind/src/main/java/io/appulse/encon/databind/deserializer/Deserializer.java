@@ -24,6 +24,8 @@ import java.util.function.Function;
 
 import io.appulse.encon.terms.ErlangTerm;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * Deserializer interface for parsing {@link ErlangTerm} instance to user's POJO.
  *
@@ -162,4 +164,21 @@ public interface Deserializer<T> {
    * @return user's POJO type instance
    */
   T deserialize (ErlangTerm term);
+
+  /**
+   * Reads the next term from the buffer and deserializes it to user's POJO type.
+   * <p>
+   * By default, it decodes the whole term and calls {@link #deserialize(ErlangTerm)},
+   * the implementations could read the buffer directly.
+   *
+   * @param buffer byte buffer with the term's external format
+   *
+   * @return user's POJO type instance
+   *
+   * @since 1.7.0
+   */
+  default T read (ByteBuf buffer) {
+    ErlangTerm term = ErlangTerm.newInstance(buffer);
+    return deserialize(term);
+  }
 }
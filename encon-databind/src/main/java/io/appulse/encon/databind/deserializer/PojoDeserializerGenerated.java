@@ -0,0 +1,214 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.databind.deserializer;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.TermType.LARGE_TUPLE;
+import static io.appulse.encon.terms.TermType.LIST;
+import static io.appulse.encon.terms.TermType.MAP;
+import static io.appulse.encon.terms.TermType.SMALL_TUPLE;
+import static java.lang.invoke.MethodType.methodType;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+import io.appulse.encon.databind.parser.FieldAccessor;
+import io.appulse.encon.databind.parser.FieldDescriptor;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.TermEncoding;
+import io.appulse.encon.terms.TermType;
+import io.appulse.encon.terms.type.ErlangAtom;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * POJO's deserializer, compiled for the concrete type.
+ * <p>
+ * Unlike the {@link PojoDeserializerCollection} and {@link PojoDeserializerMap},
+ * it creates the instance through the no-arguments constructor's method handle
+ * and writes the fields through the {@link FieldAccessor}s. The constructor is
+ * looked up on the first deserialization, so the types without it still could
+ * be serialized. It also could
+ * {@link #read(ByteBuf) read} the POJO directly from a buffer, without creating
+ * the intermediate container terms.
+ *
+ * @param <T> the type of deserialization result
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class PojoDeserializerGenerated<T> implements Deserializer<T> {
+
+  /**
+   * Creates a new POJO's deserializer from Erlang's tuple or list.
+   *
+   * @param type   the POJO's type
+   *
+   * @param fields the POJO's fields descriptors
+   *
+   * @param <T>    the type of deserialization result
+   *
+   * @return a new deserializer
+   */
+  public static <T> PojoDeserializerGenerated<T> collection (@NonNull Class<T> type, @NonNull List<FieldDescriptor> fields) {
+    return new PojoDeserializerGenerated<>(type, fields, false);
+  }
+
+  /**
+   * Creates a new POJO's deserializer from Erlang's map.
+   *
+   * @param type   the POJO's type
+   *
+   * @param fields the POJO's fields descriptors
+   *
+   * @param <T>    the type of deserialization result
+   *
+   * @return a new deserializer
+   */
+  public static <T> PojoDeserializerGenerated<T> map (@NonNull Class<T> type, @NonNull List<FieldDescriptor> fields) {
+    return new PojoDeserializerGenerated<>(type, fields, true);
+  }
+
+  Class<T> type;
+
+  @NonFinal
+  volatile MethodHandle constructor;
+
+  FieldAccessor[] accessors;
+
+  ErlangAtom[] keys;
+
+  private PojoDeserializerGenerated (Class<T> type, List<FieldDescriptor> fields, boolean map) {
+    this.type = type;
+    accessors = new FieldAccessor[fields.size()];
+    keys = map
+           ? new ErlangAtom[fields.size()]
+           : null;
+
+    for (int index = 0; index < accessors.length; index++) {
+      accessors[index] = FieldAccessor.of(fields.get(index));
+      if (keys != null) {
+        keys[index] = atom(accessors[index].getName());
+      }
+    }
+  }
+
+  @Override
+  @SneakyThrows
+  @SuppressWarnings("unchecked")
+  public T deserialize (@NonNull ErlangTerm container) {
+    val result = newInstance();
+    for (int index = 0; index < accessors.length; index++) {
+      val term = keys == null
+                 ? container.getUnsafe(index)
+                 : container.getUnsafe(keys[index]);
+      try {
+        accessors[index].write(result, term);
+      } catch (Exception ex) {
+        log.error("\n  error with field '{}'\n  and term: {}\n  at index: {}\n  in container: {}",
+                  accessors[index], term, index, container, ex);
+        throw ex;
+      }
+    }
+    return (T) result;
+  }
+
+  @Override
+  @SneakyThrows
+  @SuppressWarnings("unchecked")
+  public T read (@NonNull ByteBuf buffer) {
+    val type = TermEncoding.peekType(buffer);
+    if (keys != null && type == MAP) {
+      return (T) readMap(buffer);
+    }
+    if (keys == null && (type == SMALL_TUPLE || type == LARGE_TUPLE || type == LIST)) {
+      return (T) readCollection(type, buffer);
+    }
+    // strings, nils and other unexpected representations
+    return deserialize(ErlangTerm.newInstance(buffer));
+  }
+
+  @SneakyThrows
+  private Object readCollection (TermType type, ByteBuf buffer) {
+    val size = type == LIST
+               ? TermEncoding.readListHeader(buffer)
+               : TermEncoding.readTupleHeader(buffer);
+
+    val result = newInstance();
+    val count = Math.min(size, accessors.length);
+    for (int index = 0; index < count; index++) {
+      accessors[index].decode(result, buffer);
+    }
+    // skips the unknown elements and the list's tail
+    for (int index = count; index < size; index++) {
+      ErlangTerm.newInstance(buffer);
+    }
+    if (type == LIST) {
+      ErlangTerm.newInstance(buffer);
+    }
+    return result;
+  }
+
+  @SneakyThrows
+  private Object readMap (ByteBuf buffer) {
+    val size = TermEncoding.readMapHeader(buffer);
+
+    val result = newInstance();
+    for (int pair = 0; pair < size; pair++) {
+      ErlangTerm key = ErlangTerm.newInstance(buffer);
+      int index = indexOf(key);
+      if (index < 0) {
+        ErlangTerm.newInstance(buffer);
+      } else {
+        accessors[index].decode(result, buffer);
+      }
+    }
+    return result;
+  }
+
+  private int indexOf (ErlangTerm key) {
+    for (int index = 0; index < keys.length; index++) {
+      if (keys[index].equals(key)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private Object newInstance () throws Throwable {
+    MethodHandle handle = constructor;
+    if (handle == null) {
+      val declaredConstructor = type.getDeclaredConstructor();
+      declaredConstructor.setAccessible(true);
+      handle = MethodHandles.lookup()
+          .unreflectConstructor(declaredConstructor)
+          .asType(methodType(Object.class));
+      constructor = handle;
+    }
+    return (Object) handle.invokeExact();
+  }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.databind.parser;
+
+import static java.lang.invoke.MethodType.methodType;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+import io.appulse.encon.databind.deserializer.Deserializer;
+import io.appulse.encon.databind.serializer.Serializer;
+import io.appulse.encon.terms.Erlang;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.TermEncoding;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * A compiled accessor of a POJO's field, which converts the field's value
+ * to and from {@link ErlangTerm} or directly its external format in {@link ByteBuf}.
+ * <p>
+ * The field is accessed through the exactly typed method handles, so
+ * the primitive fields with the default (de)serializers are not boxed and
+ * don't go through the {@link Serializer#serializeUntyped} casting.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public abstract class FieldAccessor {
+
+  /**
+   * Creates a new accessor for the field.
+   *
+   * @param descriptor the field's descriptor
+   *
+   * @return a new field accessor
+   */
+  @SneakyThrows
+  public static FieldAccessor of (@NonNull FieldDescriptor descriptor) {
+    val field = descriptor.getField();
+    val lookup = MethodHandles.lookup();
+    val getter = lookup.unreflectGetter(field);
+    val setter = lookup.unreflectSetter(field);
+
+    val type = field.getType();
+    if (type == int.class && isDefault(descriptor, Serializer.INTEGER_SERIALIZER, Deserializer.INTEGER_DESERIALIZER)) {
+      return new IntAccessor(field, getter, setter);
+    } else if (type == long.class && isDefault(descriptor, Serializer.LONG_SERIALIZER, Deserializer.LONG_DESERIALIZER)) {
+      return new LongAccessor(field, getter, setter);
+    } else if (type == double.class && isDefault(descriptor, Serializer.DOUBLE_SERIALIZER, Deserializer.DOUBLE_DESERIALIZER)) {
+      return new DoubleAccessor(field, getter, setter);
+    } else if (type == boolean.class && isDefault(descriptor, Serializer.BOOLEAN_SERIALIZER, Deserializer.BOOLEAN_DESERIALIZER)) {
+      return new BooleanAccessor(field, getter, setter);
+    }
+    return new ObjectAccessor(field, getter, setter, descriptor.getSerializer(), descriptor.getDeserializer());
+  }
+
+  private static boolean isDefault (FieldDescriptor descriptor, Serializer<?> serializer, Deserializer<?> deserializer) {
+    return descriptor.getSerializer() == serializer && descriptor.getDeserializer() == deserializer;
+  }
+
+  Field field;
+
+  FieldAccessor (Field field) {
+    this.field = field;
+  }
+
+  /**
+   * Returns the field's name.
+   *
+   * @return the field's name
+   */
+  public String getName () {
+    return field.getName();
+  }
+
+  /**
+   * Reads the field's value and serializes it.
+   *
+   * @param pojo the field's owner
+   *
+   * @return the serialized value
+   */
+  public abstract ErlangTerm read (Object pojo);
+
+  /**
+   * Deserializes the term and writes it into the field.
+   *
+   * @param pojo the field's owner
+   *
+   * @param term the field's serialized value
+   */
+  public abstract void write (Object pojo, ErlangTerm term);
+
+  /**
+   * Reads the field's value and writes it into the buffer, in the external term format.
+   *
+   * @param pojo   the field's owner
+   *
+   * @param buffer byte buffer for writing
+   */
+  public abstract void encode (Object pojo, ByteBuf buffer);
+
+  /**
+   * Reads the next term from the buffer and writes it into the field.
+   *
+   * @param pojo   the field's owner
+   *
+   * @param buffer byte buffer with the field's value
+   */
+  public abstract void decode (Object pojo, ByteBuf buffer);
+
+  @Override
+  public String toString () {
+    return field.toString();
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class IntAccessor extends FieldAccessor {
+
+    MethodHandle getter;
+
+    MethodHandle setter;
+
+    IntAccessor (Field field, MethodHandle getter, MethodHandle setter) {
+      super(field);
+      this.getter = getter.asType(methodType(int.class, Object.class));
+      this.setter = setter.asType(methodType(void.class, Object.class, int.class));
+    }
+
+    @Override
+    @SneakyThrows
+    public ErlangTerm read (Object pojo) {
+      return Erlang.number((int) getter.invokeExact(pojo));
+    }
+
+    @Override
+    @SneakyThrows
+    public void write (Object pojo, ErlangTerm term) {
+      setter.invokeExact(pojo, term.asInt());
+    }
+
+    @Override
+    @SneakyThrows
+    public void encode (Object pojo, ByteBuf buffer) {
+      TermEncoding.writeInteger(buffer, (int) getter.invokeExact(pojo));
+    }
+
+    @Override
+    @SneakyThrows
+    public void decode (Object pojo, ByteBuf buffer) {
+      setter.invokeExact(pojo, (int) TermEncoding.readInteger(buffer));
+    }
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class LongAccessor extends FieldAccessor {
+
+    MethodHandle getter;
+
+    MethodHandle setter;
+
+    LongAccessor (Field field, MethodHandle getter, MethodHandle setter) {
+      super(field);
+      this.getter = getter.asType(methodType(long.class, Object.class));
+      this.setter = setter.asType(methodType(void.class, Object.class, long.class));
+    }
+
+    @Override
+    @SneakyThrows
+    public ErlangTerm read (Object pojo) {
+      return Erlang.number((long) getter.invokeExact(pojo));
+    }
+
+    @Override
+    @SneakyThrows
+    public void write (Object pojo, ErlangTerm term) {
+      setter.invokeExact(pojo, term.asLong());
+    }
+
+    @Override
+    @SneakyThrows
+    public void encode (Object pojo, ByteBuf buffer) {
+      TermEncoding.writeInteger(buffer, (long) getter.invokeExact(pojo));
+    }
+
+    @Override
+    @SneakyThrows
+    public void decode (Object pojo, ByteBuf buffer) {
+      setter.invokeExact(pojo, TermEncoding.readInteger(buffer));
+    }
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class DoubleAccessor extends FieldAccessor {
+
+    MethodHandle getter;
+
+    MethodHandle setter;
+
+    DoubleAccessor (Field field, MethodHandle getter, MethodHandle setter) {
+      super(field);
+      this.getter = getter.asType(methodType(double.class, Object.class));
+      this.setter = setter.asType(methodType(void.class, Object.class, double.class));
+    }
+
+    @Override
+    @SneakyThrows
+    public ErlangTerm read (Object pojo) {
+      return Erlang.number((double) getter.invokeExact(pojo));
+    }
+
+    @Override
+    @SneakyThrows
+    public void write (Object pojo, ErlangTerm term) {
+      setter.invokeExact(pojo, term.asDouble());
+    }
+
+    @Override
+    @SneakyThrows
+    public void encode (Object pojo, ByteBuf buffer) {
+      TermEncoding.writeFloat(buffer, (double) getter.invokeExact(pojo));
+    }
+
+    @Override
+    @SneakyThrows
+    public void decode (Object pojo, ByteBuf buffer) {
+      setter.invokeExact(pojo, TermEncoding.readFloat(buffer));
+    }
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class BooleanAccessor extends FieldAccessor {
+
+    MethodHandle getter;
+
+    MethodHandle setter;
+
+    BooleanAccessor (Field field, MethodHandle getter, MethodHandle setter) {
+      super(field);
+      this.getter = getter.asType(methodType(boolean.class, Object.class));
+      this.setter = setter.asType(methodType(void.class, Object.class, boolean.class));
+    }
+
+    @Override
+    @SneakyThrows
+    public ErlangTerm read (Object pojo) {
+      return Erlang.atom((boolean) getter.invokeExact(pojo));
+    }
+
+    @Override
+    @SneakyThrows
+    public void write (Object pojo, ErlangTerm term) {
+      setter.invokeExact(pojo, term.asBoolean());
+    }
+
+    @Override
+    @SneakyThrows
+    public void encode (Object pojo, ByteBuf buffer) {
+      TermEncoding.writeBoolean(buffer, (boolean) getter.invokeExact(pojo));
+    }
+
+    @Override
+    @SneakyThrows
+    public void decode (Object pojo, ByteBuf buffer) {
+      setter.invokeExact(pojo, TermEncoding.readBoolean(buffer));
+    }
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class ObjectAccessor extends FieldAccessor {
+
+    MethodHandle getter;
+
+    MethodHandle setter;
+
+    Serializer<Object> serializer;
+
+    Deserializer<?> deserializer;
+
+    @SuppressWarnings("unchecked")
+    ObjectAccessor (Field field,
+                    MethodHandle getter,
+                    MethodHandle setter,
+                    Serializer<?> serializer,
+                    Deserializer<?> deserializer
+    ) {
+      super(field);
+      // the primitives, which are not specialized, are boxed here, like the reflection does
+      this.getter = getter.asType(methodType(Object.class, Object.class));
+      this.setter = setter.asType(methodType(void.class, Object.class, Object.class));
+      this.serializer = (Serializer<Object>) serializer;
+      this.deserializer = deserializer;
+    }
+
+    @Override
+    @SneakyThrows
+    public ErlangTerm read (Object pojo) {
+      val value = (Object) getter.invokeExact(pojo);
+      return serializer.serializeUntyped(value);
+    }
+
+    @Override
+    @SneakyThrows
+    public void write (Object pojo, ErlangTerm term) {
+      setter.invokeExact(pojo, (Object) deserializer.deserialize(term));
+    }
+
+    @Override
+    @SneakyThrows
+    public void encode (Object pojo, ByteBuf buffer) {
+      val value = (Object) getter.invokeExact(pojo);
+      serializer.write(value, buffer);
+    }
+
+    @Override
+    @SneakyThrows
+    public void decode (Object pojo, ByteBuf buffer) {
+      setter.invokeExact(pojo, (Object) deserializer.read(buffer));
+    }
+  }
+}
@@ -25,11 +25,13 @@ import static java.util.Comparator.comparing;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
+import io.appulse.encon.databind.SerializationMode;
 import io.appulse.encon.databind.annotation.AsErlangBinary;
 import io.appulse.encon.databind.annotation.AsErlangList;
 import io.appulse.encon.databind.annotation.AsErlangMap;
@@ -38,9 +40,11 @@ import io.appulse.encon.databind.annotation.TermDeserialize;
 import io.appulse.encon.databind.annotation.TermSerialize;
 import io.appulse.encon.databind.deserializer.PojoDeserializerBinary;
 import io.appulse.encon.databind.deserializer.PojoDeserializerCollection;
+import io.appulse.encon.databind.deserializer.PojoDeserializerGenerated;
 import io.appulse.encon.databind.deserializer.PojoDeserializerMap;
 import io.appulse.encon.databind.parser.PojoDescriptor.PojoDescriptorBuilder;
 import io.appulse.encon.databind.serializer.PojoSerializerBinary;
+import io.appulse.encon.databind.serializer.PojoSerializerGenerated;
 import io.appulse.encon.databind.serializer.PojoSerializerList;
 import io.appulse.encon.databind.serializer.PojoSerializerMap;
 import io.appulse.encon.databind.serializer.PojoSerializerTuple;
@@ -58,8 +62,11 @@ public final class PojoParser {
 
   private static final Map<Class<?>, PojoDescriptor> CACHE;
 
+  private static final Map<Class<?>, PojoDescriptor> GENERATED_CACHE;
+
   static {
     CACHE = new ConcurrentHashMap<>(5);
+    GENERATED_CACHE = new ConcurrentHashMap<>(5);
   }
 
   /**
@@ -70,11 +77,29 @@ public final class PojoParser {
    * @return cached {@link PojoDescriptor} instance
    */
   public static PojoDescriptor parse (@NonNull Class<?> type) {
-    return CACHE.computeIfAbsent(type, PojoParser::createNewDescriptor);
+    return parse(type, SerializationMode.REFLECTIVE);
+  }
+
+  /**
+   * Parses user's types to {@link PojoDescriptor} instance,
+   * with (de)serializers of the specified mode.
+   *
+   * @param type user's custom data type
+   *
+   * @param mode the (de)serializers mode
+   *
+   * @return cached {@link PojoDescriptor} instance
+   *
+   * @since 1.7.0
+   */
+  public static PojoDescriptor parse (@NonNull Class<?> type, @NonNull SerializationMode mode) {
+    return mode == SerializationMode.GENERATED
+           ? GENERATED_CACHE.computeIfAbsent(type, it -> createNewDescriptor(it, mode))
+           : CACHE.computeIfAbsent(type, it -> createNewDescriptor(it, mode));
   }
 
-  private static PojoDescriptor createNewDescriptor (Class<?> type) {
-    val builder = createDefaultDescriptor(type);
+  private static PojoDescriptor createNewDescriptor (Class<?> type, SerializationMode mode) {
+    val builder = createDefaultDescriptor(type, mode);
 
     ofNullable(type.getAnnotation(TermSerialize.class))
         .map(TermSerialize::value)
@@ -93,7 +118,7 @@ public final class PojoParser {
     return builder.build();
   }
 
-  private static PojoDescriptorBuilder createDefaultDescriptor (Class<?> type) {
+  private static PojoDescriptorBuilder createDefaultDescriptor (Class<?> type, SerializationMode mode) {
     val fields = Stream.of(type.getDeclaredFields())
         .filter(it -> !it.isSynthetic())
         .filter(it -> !it.isAnnotationPresent(IgnoreField.class))
@@ -104,6 +129,9 @@ public final class PojoParser {
     val builder = PojoDescriptor.builder()
           .type(type);
 
+    if (mode == SerializationMode.GENERATED && !findAnnotation(type, AsErlangBinary.class).isPresent()) {
+      return createGeneratedDescriptor(builder, type, fields);
+    }
     if (findAnnotation(type, AsErlangMap.class).isPresent()) {
       return builder
           .serializer(new PojoSerializerMap(fields))
@@ -125,6 +153,26 @@ public final class PojoParser {
         .deserializer(new PojoDeserializerCollection<>(type, fields));
   }
 
+  private static PojoDescriptorBuilder createGeneratedDescriptor (PojoDescriptorBuilder builder,
+                                                                  Class<?> type,
+                                                                  List<FieldDescriptor> fields
+  ) {
+    if (findAnnotation(type, AsErlangMap.class).isPresent()) {
+      return builder
+          .serializer(PojoSerializerGenerated.map(fields))
+          .deserializer(PojoDeserializerGenerated.map(type, fields));
+    }
+    if (findAnnotation(type, AsErlangList.class).isPresent()) {
+      return builder
+          .serializer(PojoSerializerGenerated.list(fields))
+          .deserializer(PojoDeserializerGenerated.collection(type, fields));
+    }
+    // default is tuple
+    return builder
+        .serializer(PojoSerializerGenerated.tuple(fields))
+        .deserializer(PojoDeserializerGenerated.collection(type, fields));
+  }
+
   private PojoParser () {
   }
 }
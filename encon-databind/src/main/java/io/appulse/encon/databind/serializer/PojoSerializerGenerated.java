@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.databind.serializer;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import io.appulse.encon.databind.parser.FieldAccessor;
+import io.appulse.encon.databind.parser.FieldDescriptor;
+import io.appulse.encon.terms.Erlang;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.TermEncoding;
+import io.appulse.encon.terms.type.ErlangAtom;
+import io.appulse.encon.terms.type.ErlangMap;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * POJO's serializer, compiled for the concrete type.
+ * <p>
+ * Unlike the {@link PojoSerializerTuple}, {@link PojoSerializerList} and
+ * {@link PojoSerializerMap}, it reads the fields through the {@link FieldAccessor}s
+ * and doesn't use the streams or the reflection per call. It also could
+ * {@link #write(Object, ByteBuf) write} the POJO directly into a buffer,
+ * without creating the intermediate terms.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class PojoSerializerGenerated implements Serializer<Object> {
+
+  /**
+   * Creates a new POJO's serializer into Erlang's tuple.
+   *
+   * @param fields the POJO's fields descriptors
+   *
+   * @return a new serializer
+   */
+  public static PojoSerializerGenerated tuple (@NonNull List<FieldDescriptor> fields) {
+    return new PojoSerializerGenerated(Container.TUPLE, fields);
+  }
+
+  /**
+   * Creates a new POJO's serializer into Erlang's list.
+   *
+   * @param fields the POJO's fields descriptors
+   *
+   * @return a new serializer
+   */
+  public static PojoSerializerGenerated list (@NonNull List<FieldDescriptor> fields) {
+    return new PojoSerializerGenerated(Container.LIST, fields);
+  }
+
+  /**
+   * Creates a new POJO's serializer into Erlang's map.
+   *
+   * @param fields the POJO's fields descriptors
+   *
+   * @return a new serializer
+   */
+  public static PojoSerializerGenerated map (@NonNull List<FieldDescriptor> fields) {
+    return new PojoSerializerGenerated(Container.MAP, fields);
+  }
+
+  Container container;
+
+  FieldAccessor[] accessors;
+
+  ErlangAtom[] keys;
+
+  private PojoSerializerGenerated (Container container, List<FieldDescriptor> fields) {
+    this.container = container;
+    accessors = new FieldAccessor[fields.size()];
+    keys = new ErlangAtom[fields.size()];
+    for (int index = 0; index < accessors.length; index++) {
+      accessors[index] = FieldAccessor.of(fields.get(index));
+      keys[index] = atom(accessors[index].getName());
+    }
+  }
+
+  @Override
+  public ErlangTerm serialize (Object object) {
+    if (container == Container.MAP) {
+      val map = new LinkedHashMap<ErlangTerm, ErlangTerm>(accessors.length * 2);
+      for (int index = 0; index < accessors.length; index++) {
+        if (map.put(keys[index], accessors[index].read(object)) != null) {
+          throw new IllegalStateException(String.format("Duplicate key %s", keys[index]));
+        }
+      }
+      return new ErlangMap(map);
+    }
+
+    val elements = new ErlangTerm[accessors.length];
+    for (int index = 0; index < accessors.length; index++) {
+      elements[index] = accessors[index].read(object);
+    }
+    return container == Container.TUPLE
+           ? Erlang.tuple(elements)
+           : Erlang.list(elements);
+  }
+
+  @Override
+  public void write (Object object, ByteBuf buffer) {
+    switch (container) {
+    case TUPLE:
+      TermEncoding.writeTupleHeader(buffer, accessors.length);
+      break;
+    case LIST:
+      TermEncoding.writeListHeader(buffer, accessors.length);
+      break;
+    default:
+      TermEncoding.writeMapHeader(buffer, accessors.length);
+    }
+
+    for (int index = 0; index < accessors.length; index++) {
+      if (container == Container.MAP) {
+        keys[index].writeTo(buffer);
+      }
+      accessors[index].encode(object, buffer);
+    }
+
+    if (container == Container.LIST) {
+      TermEncoding.writeNil(buffer);
+    }
+  }
+
+  private enum Container {
+
+    TUPLE,
+    LIST,
+    MAP;
+  }
+}
@@ -25,6 +25,8 @@ import java.util.function.Function;
 import io.appulse.encon.terms.Erlang;
 import io.appulse.encon.terms.ErlangTerm;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * Serializer interface for converting from user's POJO to {@link ErlangTerm} instance.
  *
@@ -193,4 +195,20 @@ public interface Serializer<T> {
       throw new ClassCastException(message);
     }
   }
+
+  /**
+   * Serializes user's POJO directly into the buffer, in the external term format.
+   * <p>
+   * By default, it creates the {@link ErlangTerm} via {@link #serialize(Object)}
+   * and writes it, the implementations could write the buffer directly.
+   *
+   * @param object user's POJO for serialization
+   *
+   * @param buffer byte buffer for writing
+   *
+   * @since 1.7.0
+   */
+  default void write (T object, ByteBuf buffer) {
+    serialize(object).writeTo(buffer);
+  }
 }
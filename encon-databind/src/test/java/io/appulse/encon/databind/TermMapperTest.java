@@ -17,6 +17,7 @@
 package io.appulse.encon.databind;
 
 import static io.appulse.encon.terms.TermType.LIST;
+import static io.appulse.encon.terms.TermType.MAP;
 import static io.appulse.encon.terms.TermType.SMALL_ATOM_UTF8;
 import static io.appulse.encon.terms.TermType.SMALL_INTEGER;
 import static io.appulse.encon.terms.TermType.STRING;
@@ -30,12 +31,18 @@ import java.util.Set;
 
 import io.appulse.encon.databind.annotation.AsErlangAtom;
 import io.appulse.encon.databind.annotation.AsErlangList;
+import io.appulse.encon.databind.annotation.AsErlangMap;
 import io.appulse.encon.databind.annotation.IgnoreField;
+import io.appulse.encon.databind.parser.PojoParser;
+import io.appulse.encon.databind.serializer.PojoSerializerGenerated;
 
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Value;
 import lombok.experimental.FieldDefaults;
 import lombok.val;
 import org.junit.Test;
@@ -104,6 +111,135 @@ public class TermMapperTest {
         .isNotEqualTo(result.getIgnored());
   }
 
+  @Test
+  public void generated () {
+    val pojo = new Pojo(
+        "Artem",
+        27,
+        true,
+        539,
+        asList("java", "nim", "elixir"),
+        "developer",
+        singleton("popa"),
+        "some long string...or not",
+        new Boolean[] { true, false, true }
+    );
+    val primitives = new Primitives(42L, 3.14D, (short) 7, (byte) -1, 1.5F, false, 100);
+
+    val reflectivePojo = TermMapper.serialize(pojo);
+    val reflectivePrimitives = TermMapper.serialize(primitives);
+
+    TermMapper.setSerializationMode(SerializationMode.GENERATED);
+    try {
+      assertThat(PojoParser.parse(Pojo.class, SerializationMode.GENERATED).getSerializer())
+          .isInstanceOf(PojoSerializerGenerated.class);
+
+      val generatedPojo = TermMapper.serialize(pojo);
+      assertThat(generatedPojo)
+          .isEqualTo(reflectivePojo);
+
+      val result = TermMapper.deserialize(generatedPojo, Pojo.class);
+      assertThat(result)
+          .isEqualTo(pojo);
+      assertThat(result.getIgnored())
+          .isEqualTo(0);
+
+      val generatedPrimitives = TermMapper.serialize(primitives);
+      assertThat(generatedPrimitives.getType())
+          .isEqualTo(MAP);
+      assertThat(generatedPrimitives)
+          .isEqualTo(reflectivePrimitives);
+      assertThat(TermMapper.deserialize(generatedPrimitives, Primitives.class))
+          .isEqualTo(primitives);
+    } finally {
+      TermMapper.setSerializationMode(SerializationMode.REFLECTIVE);
+    }
+  }
+
+  @Test
+  public void streaming () {
+    val pojo = new Pojo(
+        "Artem",
+        27,
+        true,
+        539,
+        asList("java", "nim", "elixir"),
+        "developer",
+        singleton("popa"),
+        "some long string...or not",
+        new Boolean[] { true, false, true }
+    );
+    val primitives = new Primitives(1L << 40, -2.5D, (short) 300, (byte) 1, 0.5F, true, -7);
+
+    val buffer = Unpooled.buffer();
+    TermMapper.writeTo(pojo, buffer);
+    TermMapper.writeTo(primitives, buffer);
+    TermMapper.writeTo("plain string", buffer);
+
+    val expected = Unpooled.buffer();
+    TermMapper.serialize(pojo).writeTo(expected);
+    TermMapper.serialize(primitives).writeTo(expected);
+    TermMapper.serialize("plain string").writeTo(expected);
+    assertThat(ByteBufUtil.equals(buffer, expected))
+        .isTrue();
+
+    val pojoResult = TermMapper.readFrom(buffer, Pojo.class);
+    assertThat(pojoResult)
+        .isEqualTo(pojo);
+
+    assertThat(TermMapper.readFrom(buffer, Primitives.class))
+        .isEqualTo(primitives);
+
+    assertThat(TermMapper.readFrom(buffer, String.class))
+        .isEqualTo("plain string");
+
+    assertThat(buffer.isReadable())
+        .isFalse();
+  }
+
+  @Test
+  public void streamingWithoutNoArgsConstructor () {
+    val point = new Point(3, "three");
+
+    val buffer = Unpooled.buffer();
+    TermMapper.writeTo(point, buffer);
+
+    val expected = Unpooled.buffer();
+    TermMapper.serialize(point).writeTo(expected);
+    assertThat(ByteBufUtil.equals(buffer, expected))
+        .isTrue();
+  }
+
+  @Value
+  public static class Point {
+
+    int x;
+
+    String label;
+  }
+
+  @Data
+  @AsErlangMap
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @FieldDefaults(level = PRIVATE)
+  public static class Primitives {
+
+    long id;
+
+    double score;
+
+    short small;
+
+    byte tiny;
+
+    float ratio;
+
+    boolean active;
+
+    Integer boxed;
+  }
+
   @Data
   @AsErlangList
   @NoArgsConstructor
@@ -70,9 +70,7 @@ public abstract class AbstractMailboxHandler implements MailboxHandler {
       return;
     }
 
-    val header = message.getHeader();
-    val body = message.getBody();
-    messageHandler.handle(self, header, body);
+    handle(message);
   }
 
   @Override
@@ -102,6 +100,26 @@ public abstract class AbstractMailboxHandler implements MailboxHandler {
     executorService.shutdown();
   }
 
+  /**
+   * Passes the received message to the message handler.
+   *
+   * @param message the received message
+   *
+   * @since 1.7.0
+   */
+  protected final void handle (@NonNull Message message) {
+    val header = message.getHeader();
+    val body = message.getBody();
+    try {
+      messageHandler.handle(self, header, body);
+    } finally {
+      val trace = message.getTrace();
+      if (trace != null) {
+        self.getNode().getTracing().handled(trace);
+      }
+    }
+  }
+
   /**
    * Abstract method for receiving message.
    *
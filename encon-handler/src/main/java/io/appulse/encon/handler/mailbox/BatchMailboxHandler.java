@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.handler.mailbox;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.List;
+
+import io.appulse.encon.connection.regular.Message;
+import io.appulse.encon.handler.message.MessageHandler;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.encon.mailbox.exception.ReceivedExitException;
+
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link AbstractMailboxHandler} implementation, which receives the messages
+ * in batches: it waits for the first message and takes the rest,
+ * which are already in the mailbox, in one operation.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class BatchMailboxHandler extends AbstractMailboxHandler {
+
+  private static final int DEFAULT_BATCH_SIZE = 256;
+
+  private static final long DEFAULT_TIMEOUT_MILLIS = 1000;
+
+  Mailbox mailbox;
+
+  int batchSize;
+
+  long timeoutMillis;
+
+  /**
+   * Constructor.
+   *
+   * @param messageHandler received messages handler
+   *
+   * @param mailbox mailbox
+   *
+   * @param batchSize the maximum number of messages in a batch,
+   *                  {@value #DEFAULT_BATCH_SIZE} by default
+   *
+   * @param timeoutMillis how long to wait for the first message of a batch,
+   *                      {@value #DEFAULT_TIMEOUT_MILLIS} milliseconds by default
+   */
+  @Builder
+  public BatchMailboxHandler (MessageHandler messageHandler,
+                              Mailbox mailbox,
+                              int batchSize,
+                              long timeoutMillis
+  ) {
+    super(messageHandler, mailbox);
+    this.mailbox = mailbox;
+    this.batchSize = batchSize > 0
+                     ? batchSize
+                     : DEFAULT_BATCH_SIZE;
+    this.timeoutMillis = timeoutMillis > 0
+                         ? timeoutMillis
+                         : DEFAULT_TIMEOUT_MILLIS;
+  }
+
+  @Override
+  public void oneTimeShot () {
+    List<Message> messages;
+    try {
+      messages = mailbox.receive(batchSize, timeoutMillis, MILLISECONDS);
+    } catch (ReceivedExitException ex) {
+      log.error("Exit exception", ex);
+      return;
+    }
+
+    for (Message message : messages) {
+      handle(message);
+    }
+  }
+
+  @Override
+  protected Message getMessage () {
+    return mailbox.receive();
+  }
+}
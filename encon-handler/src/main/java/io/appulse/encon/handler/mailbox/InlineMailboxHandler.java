@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.handler.mailbox;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.appulse.encon.connection.regular.Message;
+import io.appulse.encon.handler.message.MessageHandler;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.encon.mailbox.exception.ReceivedExitException;
+
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * {@link AbstractMailboxHandler} implementation, which handles the messages
+ * right on the delivering thread, usually the connection's event loop,
+ * see {@link Mailbox#setInlineConsumer(java.util.function.Consumer)}.
+ * There is no thread handoff neither for the request nor for the reply,
+ * so it gives the lowest latency for the short request-reply handlers.
+ * <p>
+ * A slow handler stalls all the connections of its event loop, so every
+ * handling longer than the blocking threshold is counted and reported
+ * with a warning (not more than once a second).
+ * <p>
+ * An exit from a linked process closes the mailbox and stops the handler,
+ * like it stops the handling in the other modes.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class InlineMailboxHandler extends AbstractMailboxHandler {
+
+  private static final long DEFAULT_BLOCKING_THRESHOLD_MILLIS = 10;
+
+  private static final long WARNING_INTERVAL_NANOS = SECONDS.toNanos(1);
+
+  Mailbox mailbox;
+
+  long blockingThresholdNanos;
+
+  AtomicBoolean started = new AtomicBoolean();
+
+  LongAdder blockedHandlings = new LongAdder();
+
+  AtomicLong lastWarningNanos = new AtomicLong(System.nanoTime() - WARNING_INTERVAL_NANOS);
+
+  /**
+   * Constructor.
+   *
+   * @param messageHandler received messages handler
+   *
+   * @param mailbox mailbox
+   *
+   * @param blockingThresholdMillis the handling time, after which the handler is
+   *                                considered blocking the delivering thread,
+   *                                {@value #DEFAULT_BLOCKING_THRESHOLD_MILLIS} by default
+   */
+  @Builder
+  public InlineMailboxHandler (MessageHandler messageHandler,
+                               Mailbox mailbox,
+                               long blockingThresholdMillis
+  ) {
+    super(messageHandler, mailbox);
+    this.mailbox = mailbox;
+    this.blockingThresholdNanos = MILLISECONDS.toNanos(blockingThresholdMillis > 0
+                                                       ? blockingThresholdMillis
+                                                       : DEFAULT_BLOCKING_THRESHOLD_MILLIS);
+  }
+
+  /**
+   * Switches the mailbox to the inline mode. It doesn't create any thread.
+   */
+  @Override
+  public void startExecutor () {
+    if (started.compareAndSet(false, true)) {
+      mailbox.setInlineConsumer(this::handleInline, this::handleExit);
+    }
+  }
+
+  /**
+   * Handles the messages, which are in the mailbox right now, on the current
+   * thread. It does nothing after the start, because the messages are
+   * handled as they are delivered.
+   */
+  @Override
+  public void oneTimeShot () {
+    if (!started.get()) {
+      mailbox.drain(this::handleInline);
+    }
+  }
+
+  /**
+   * Returns the mailbox to the regular queued mode.
+   */
+  @Override
+  public void close () {
+    if (started.compareAndSet(true, false)) {
+      mailbox.setInlineConsumer(null);
+    }
+  }
+
+  /**
+   * Returns the number of the handlings, which took longer than the blocking threshold.
+   *
+   * @return the number of the blocking handlings
+   */
+  public long getBlockedHandlings () {
+    return blockedHandlings.sum();
+  }
+
+  @Override
+  protected Message getMessage () {
+    return mailbox.receive();
+  }
+
+  private void handleInline (Message message) {
+    val start = System.nanoTime();
+    try {
+      handle(message);
+    } catch (RuntimeException ex) {
+      log.error("Mailbox {} message handling error", mailbox, ex);
+    } finally {
+      val now = System.nanoTime();
+      val elapsed = now - start;
+      if (elapsed > blockingThresholdNanos) {
+        reportBlocking(elapsed, now);
+      }
+    }
+  }
+
+  private void handleExit (ReceivedExitException exception) {
+    // the mailbox has left the inline mode already
+    started.set(false);
+    log.error("Exit exception", exception);
+  }
+
+  private void reportBlocking (long elapsed, long now) {
+    blockedHandlings.increment();
+
+    val last = lastWarningNanos.get();
+    if (now - last < WARNING_INTERVAL_NANOS || !lastWarningNanos.compareAndSet(last, now)) {
+      return;
+    }
+    log.warn("Mailbox {} inline handler blocked the delivering thread {} for {} ms "
+             + "(threshold is {} ms, {} blocking handlings in total), "
+             + "consider a dedicated thread or a pool for this mailbox",
+             mailbox,
+             Thread.currentThread().getName(),
+             NANOSECONDS.toMillis(elapsed),
+             NANOSECONDS.toMillis(blockingThresholdNanos),
+             blockedHandlings.sum());
+  }
+}
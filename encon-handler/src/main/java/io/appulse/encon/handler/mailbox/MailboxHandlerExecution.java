@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.handler.mailbox;
+
+/**
+ * How the mailbox handlers get their threads.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public enum MailboxHandlerExecution {
+
+  /**
+   * Every handler has its own thread, which blocks on the mailbox's receive.
+   *
+   * @see DefaultMailboxHandler
+   */
+  DEDICATED_THREAD,
+
+  /**
+   * The handlers run on a shared work-stealing pool, only when
+   * their mailboxes have messages.
+   *
+   * @see PooledMailboxHandler
+   */
+  SHARED_POOL,
+
+  /**
+   * The handlers run on the virtual threads, only when their mailboxes have messages.
+   * It falls back to {@link #SHARED_POOL}, if the JVM doesn't support the virtual threads.
+   *
+   * @see PooledMailboxHandler
+   */
+  VIRTUAL_THREADS,
+
+  /**
+   * The handlers run right on the delivering threads (the connections' event loops),
+   * without any thread handoff. Only for the short non-blocking handlers.
+   *
+   * @see InlineMailboxHandler
+   */
+  INLINE;
+}
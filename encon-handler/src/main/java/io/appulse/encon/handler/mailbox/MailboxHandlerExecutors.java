@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.handler.mailbox;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * The executors for the {@link PooledMailboxHandler}.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+@NoArgsConstructor(access = PRIVATE)
+public final class MailboxHandlerExecutors {
+
+  /**
+   * Creates a new work-stealing pool for the mailbox handlers.
+   *
+   * @param parallelism the number of the pool's threads,
+   *                    the number of the available processors if it is not positive
+   *
+   * @return a new executor service
+   */
+  public static ExecutorService newSharedPool (int parallelism) {
+    val threads = parallelism > 0
+                  ? parallelism
+                  : Runtime.getRuntime().availableProcessors();
+
+    // the async mode keeps FIFO order of the submitted tasks,
+    // which is fair for the mailboxes, which are waiting for their turn
+    return new ForkJoinPool(threads, pool -> {
+      val thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("encon-mailbox-handler-" + thread.getPoolIndex());
+      return thread;
+    }, MailboxHandlerExecutors::uncaughtException, true);
+  }
+
+  /**
+   * Creates a new virtual-thread-per-task executor, if the JVM supports it,
+   * or a new work-stealing pool otherwise.
+   *
+   * @param parallelism the number of the fallback pool's threads,
+   *                    the number of the available processors if it is not positive
+   *
+   * @return a new executor service
+   */
+  public static ExecutorService newVirtualThreadExecutor (int parallelism) {
+    try {
+      val method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) method.invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      log.warn("Virtual threads are not supported by this JVM, the shared pool is used instead");
+      return newSharedPool(parallelism);
+    }
+  }
+
+  /**
+   * Creates a new executor for the mailbox handlers.
+   *
+   * @param execution the handlers execution model
+   *
+   * @param parallelism the number of the pool's threads,
+   *                    the number of the available processors if it is not positive
+   *
+   * @return a new executor service, or {@code null} for the {@link MailboxHandlerExecution#DEDICATED_THREAD}
+   *         and the {@link MailboxHandlerExecution#INLINE}
+   */
+  public static ExecutorService newExecutor (MailboxHandlerExecution execution, int parallelism) {
+    if (execution == null) {
+      return null;
+    }
+    switch (execution) {
+    case SHARED_POOL:
+      return newSharedPool(parallelism);
+    case VIRTUAL_THREADS:
+      return newVirtualThreadExecutor(parallelism);
+    case DEDICATED_THREAD:
+    case INLINE:
+    default:
+      return null;
+    }
+  }
+
+  private static void uncaughtException (Thread thread, Throwable throwable) {
+    log.error("Uncaught exception in mailbox handler thread {}", thread.getName(), throwable);
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.handler.mailbox;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.appulse.encon.connection.regular.Message;
+import io.appulse.encon.handler.message.MessageHandler;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.encon.mailbox.exception.ReceivedExitException;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link AbstractMailboxHandler} implementation, which doesn't own a thread.
+ * It is scheduled on a shared executor only when its mailbox has messages,
+ * handles up to a batch of them and gives the thread back, so many
+ * mailboxes could be served by a few threads (or by the virtual threads).
+ * <p>
+ * Only one task per mailbox is in flight at a time, so the messages
+ * are handled sequentially in the order of their arrival.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class PooledMailboxHandler extends AbstractMailboxHandler {
+
+  private static final int DEFAULT_BATCH_SIZE = 64;
+
+  Mailbox mailbox;
+
+  Executor executor;
+
+  int batchSize;
+
+  AtomicBoolean started = new AtomicBoolean();
+
+  @NonFinal
+  volatile boolean closed;
+
+  /**
+   * Constructor.
+   *
+   * @param messageHandler received messages handler
+   *
+   * @param mailbox mailbox
+   *
+   * @param executor the shared executor, which runs the handler
+   *
+   * @param batchSize the maximum number of messages, handled before
+   *                  the thread is given to the other mailboxes,
+   *                  {@value #DEFAULT_BATCH_SIZE} by default
+   */
+  @Builder
+  public PooledMailboxHandler (MessageHandler messageHandler,
+                               Mailbox mailbox,
+                               @NonNull Executor executor,
+                               int batchSize
+  ) {
+    super(messageHandler, mailbox);
+    this.mailbox = mailbox;
+    this.executor = executor;
+    this.batchSize = batchSize > 0
+                     ? batchSize
+                     : DEFAULT_BATCH_SIZE;
+  }
+
+  /**
+   * Starts the handling of the mailbox's messages on the shared executor.
+   * It doesn't create any thread.
+   */
+  @Override
+  public void startExecutor () {
+    if (started.compareAndSet(false, true)) {
+      mailbox.whenNotEmpty(this::schedule);
+    }
+  }
+
+  /**
+   * Handles up to a batch of the messages, which are already in the mailbox,
+   * without waiting for the new ones.
+   */
+  @Override
+  public void oneTimeShot () {
+    List<Message> messages;
+    try {
+      messages = mailbox.receive(batchSize, 0, NANOSECONDS);
+    } catch (ReceivedExitException ex) {
+      log.error("Exit exception", ex);
+      return;
+    }
+
+    for (Message message : messages) {
+      handle(message);
+    }
+  }
+
+  @Override
+  public void close () {
+    closed = true;
+  }
+
+  @Override
+  protected Message getMessage () {
+    return mailbox.receive();
+  }
+
+  private void schedule () {
+    if (closed) {
+      return;
+    }
+    try {
+      executor.execute(this::run);
+    } catch (RejectedExecutionException ex) {
+      log.error("Mailbox {} handler was rejected by the executor", mailbox, ex);
+    }
+  }
+
+  private void run () {
+    try {
+      oneTimeShot();
+    } catch (RuntimeException ex) {
+      log.error("Mailbox {} message handling error", mailbox, ex);
+    } finally {
+      // it is re-scheduled immediately, if there are more messages,
+      // but after the tasks of the other mailboxes
+      if (!closed) {
+        mailbox.whenNotEmpty(this::schedule);
+      }
+    }
+  }
+}
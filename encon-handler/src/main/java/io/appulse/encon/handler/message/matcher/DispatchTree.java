@@ -0,0 +1,209 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.handler.message.matcher;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.appulse.encon.handler.message.matcher.MethodArgumentMatcher.Equals;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.type.ErlangAtom;
+
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * The handler methods, compiled into a decision tree.
+ * <p>
+ * A message is dispatched on its container type (tuple, list, map or other)
+ * and its arity, and then on the text of its first element, if some methods
+ * expect an exact atom (or string) there, which is the usual way to tag
+ * the Erlang messages. Only the methods from the chosen leaf are matched
+ * by their argument matchers, in the order of their registration.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class DispatchTree {
+
+  private static final MethodDescriptor[] EMPTY = new MethodDescriptor[0];
+
+  private static final int TUPLE = 0;
+
+  private static final int LIST = 1;
+
+  private static final int MAP = 2;
+
+  private static final int OTHER = 3;
+
+  private static final MethodArgumentsWrapper[] CONTAINERS = {
+      MethodArgumentsWrapper.TUPLE,
+      MethodArgumentsWrapper.LIST,
+      MethodArgumentsWrapper.MAP,
+      MethodArgumentsWrapper.NONE
+  };
+
+  private static int containerOf (ErlangTerm term) {
+    if (term.isTuple()) {
+      return TUPLE;
+    } else if (term.isList()) {
+      return LIST;
+    } else if (term.isMap()) {
+      return MAP;
+    }
+    return OTHER;
+  }
+
+  private static String keyOf (MethodDescriptor descriptor) {
+    val matchers = descriptor.getMatcher().getMatchers();
+    if (matchers.length == 0 || !(matchers[0] instanceof Equals)) {
+      return null;
+    }
+    val wanted = ((Equals) matchers[0]).getWanted();
+    if (wanted instanceof String) {
+      return (String) wanted;
+    } else if (wanted instanceof ErlangAtom) {
+      return ((ErlangAtom) wanted).asText();
+    }
+    return null;
+  }
+
+  // [container][arity], null for the arities without handlers
+  Branch[][] branches;
+
+  DispatchTree (Map<Integer, List<MethodDescriptor>> map) {
+    int maxArity = 0;
+    for (Integer arity : map.keySet()) {
+      maxArity = Math.max(maxArity, arity);
+    }
+
+    branches = new Branch[CONTAINERS.length][maxArity + 1];
+    for (val entry : map.entrySet()) {
+      for (int container = 0; container < CONTAINERS.length; container++) {
+        val applicable = new ArrayList<MethodDescriptor>(entry.getValue().size());
+        for (val descriptor : entry.getValue()) {
+          val wrapper = descriptor.getMatcher().getWrapper();
+          if (wrapper == CONTAINERS[container] || wrapper == MethodArgumentsWrapper.NONE) {
+            applicable.add(descriptor);
+          }
+        }
+        branches[container][entry.getKey()] = new Branch(applicable);
+      }
+    }
+  }
+
+  /**
+   * Tells if there are handlers for the term's arity at all.
+   *
+   * @param term the message's body
+   *
+   * @return {@code true} if there are handlers for the term's arity
+   */
+  boolean accepts (ErlangTerm term) {
+    return branchOf(term) != null;
+  }
+
+  /**
+   * Returns the methods, which could match the term, in the order of their registration.
+   *
+   * @param term the message's body
+   *
+   * @return the candidates, an empty array if there are no ones
+   */
+  MethodDescriptor[] candidates (ErlangTerm term) {
+    val branch = branchOf(term);
+    return branch == null
+           ? EMPTY
+           : branch.select(term);
+  }
+
+  private Branch branchOf (ErlangTerm term) {
+    val size = term.size();
+    val byArity = branches[containerOf(term)];
+    return size < 0 || size >= byArity.length
+           ? null
+           : byArity[size];
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class Branch {
+
+    MethodDescriptor[] all;
+
+    // the candidates for the textual first elements, which are expected by some methods
+    Map<String, MethodDescriptor[]> byFirstElement;
+
+    // the candidates for the other textual first elements
+    MethodDescriptor[] unkeyed;
+
+    Branch (List<MethodDescriptor> descriptors) {
+      all = descriptors.toArray(EMPTY);
+
+      val keys = new LinkedHashSet<String>();
+      val rest = new ArrayList<MethodDescriptor>();
+      for (val descriptor : descriptors) {
+        val key = keyOf(descriptor);
+        if (key == null) {
+          rest.add(descriptor);
+        } else {
+          keys.add(key);
+        }
+      }
+      unkeyed = rest.toArray(EMPTY);
+      byFirstElement = keys.isEmpty()
+                       ? null
+                       : index(descriptors, keys);
+    }
+
+    MethodDescriptor[] select (ErlangTerm term) {
+      if (byFirstElement == null) {
+        return all;
+      }
+      val first = term.getUnsafe(0);
+      if (first == null || !first.isTextual()) {
+        return all;
+      }
+      val candidates = byFirstElement.get(first.asText());
+      return candidates == null
+             ? unkeyed
+             : candidates;
+    }
+
+    private static Map<String, MethodDescriptor[]> index (Collection<MethodDescriptor> descriptors, Set<String> keys) {
+      val result = new HashMap<String, MethodDescriptor[]>(keys.size() * 2);
+      for (val key : keys) {
+        val candidates = new ArrayList<MethodDescriptor>();
+        for (val descriptor : descriptors) {
+          val descriptorKey = keyOf(descriptor);
+          if (descriptorKey == null || descriptorKey.equals(key)) {
+            candidates.add(descriptor);
+          }
+        }
+        result.put(key, candidates.toArray(EMPTY));
+      }
+      return result;
+    }
+  }
+}
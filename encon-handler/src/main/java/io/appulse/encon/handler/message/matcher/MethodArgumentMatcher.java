@@ -17,6 +17,7 @@
 package io.appulse.encon.handler.message.matcher;
 
 import static io.appulse.encon.databind.TermMapper.deserialize;
+import static lombok.AccessLevel.PACKAGE;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.util.Objects;
@@ -24,6 +25,7 @@ import java.util.regex.Pattern;
 
 import io.appulse.encon.terms.ErlangTerm;
 
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
@@ -105,6 +107,7 @@ public interface MethodArgumentMatcher {
   class Equals implements MethodArgumentMatcher {
 
     @NonNull
+    @Getter(PACKAGE)
     Object wanted;
 
     @Override
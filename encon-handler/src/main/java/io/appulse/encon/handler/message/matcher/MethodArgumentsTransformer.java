@@ -19,8 +19,6 @@ package io.appulse.encon.handler.message.matcher;
 import static io.appulse.encon.databind.TermMapper.deserialize;
 import static lombok.AccessLevel.PRIVATE;
 
-import java.util.stream.IntStream;
-
 import io.appulse.encon.terms.ErlangTerm;
 
 import lombok.AllArgsConstructor;
@@ -58,9 +56,10 @@ final class MethodArgumentsTransformer {
 
     if (userPojoType == null) {
       debug("deserialize term {} into {} arguments", term, types);
-      result = IntStream.range(0, types.length)
-          .mapToObj(index -> deserialize(term.getUnsafe(index), types[index]))
-          .toArray();
+      result = new Object[types.length];
+      for (int index = 0; index < types.length; index++) {
+        result[index] = deserialize(term.getUnsafe(index), types[index]);
+      }
     } else {
       debug("deserialize term {} into {} instance", term, userPojoType);
       result = new Object[] { deserialize(term, userPojoType) };
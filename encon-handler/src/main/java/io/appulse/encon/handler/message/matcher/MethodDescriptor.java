@@ -17,6 +17,7 @@
 package io.appulse.encon.handler.message.matcher;
 
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.joining;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.lang.reflect.Field;
@@ -63,6 +64,9 @@ final class MethodDescriptor {
 
   MethodInvoker invoker;
 
+  // the stable handler's name for the metrics, like 'MyService.handle(int, String)'
+  String name;
+
   @Builder
   private MethodDescriptor (@NonNull Object proxy,
                             @NonNull Method method,
@@ -89,6 +93,7 @@ final class MethodDescriptor {
     matcher = new MethodMatcher(wrapper, argumentMatchers);
     transformer = new MethodArgumentsTransformer(userPojoType, types);
     invoker = new MethodInvoker(proxy, method);
+    name = createName(method);
   }
 
   int elements () {
@@ -104,4 +109,15 @@ final class MethodDescriptor {
     log.debug("transforming term {} into {}", term, arguments);
     return invoker.invoke(arguments);
   }
+
+  private static String createName (Method method) {
+    return new StringBuilder()
+        .append(method.getDeclaringClass().getSimpleName()).append('.')
+        .append(method.getName()).append('(')
+        .append(Stream.of(method.getParameterTypes())
+            .map(Class::getSimpleName)
+            .collect(joining(", ")))
+        .append(')')
+        .toString();
+  }
 }
@@ -19,7 +19,9 @@ package io.appulse.encon.handler.message.matcher;
 import static java.util.stream.Collectors.joining;
 import static lombok.AccessLevel.PRIVATE;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.stream.Stream;
 
@@ -28,7 +30,7 @@ import io.appulse.encon.handler.message.exception.MethodInvocationException;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 
@@ -40,27 +42,48 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Getter
-@Builder
-@RequiredArgsConstructor
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 final class MethodInvoker {
 
+  // (Object[]) -> Object, the target is bound and the arguments are spread,
+  // so the invocation doesn't do the reflective access and arguments checks
+  private static MethodHandle createHandle (Object target, Method method) throws IllegalAccessException {
+    method.setAccessible(true);
+    return MethodHandles.lookup()
+        .unreflect(method)
+        .bindTo(target)
+        .asSpreader(Object[].class, method.getParameterCount())
+        .asType(MethodType.methodType(Object.class, Object[].class));
+  }
+
   @NonNull
   Object proxy;
 
   @NonNull
   Method method;
 
+  @Getter(PRIVATE)
+  MethodHandle handle;
+
   @Getter(value = PRIVATE, lazy = true)
   String toString = createToString();
 
+  @Builder
+  @SneakyThrows
+  MethodInvoker (@NonNull Object proxy, @NonNull Method method) {
+    this.proxy = proxy;
+    this.method = method;
+    this.handle = createHandle(proxy, method);
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingThrowable")
   Object invoke (Object... args) {
     if (log.isDebugEnabled()) {
       log.debug("invoking {}.{}({})", proxy.getClass().getSimpleName(), method.getName(), args);
     }
     try {
-      return method.invoke(proxy, args);
-    } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
+      return (Object) handle.invokeExact(args);
+    } catch (Throwable ex) {
       log.error("Exceptionally invoke method {}.{}({})",
                 proxy.getClass().getSimpleName(), method.getName(), args, ex);
 
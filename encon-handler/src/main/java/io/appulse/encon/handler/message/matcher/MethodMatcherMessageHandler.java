@@ -16,21 +16,19 @@
 
 package io.appulse.encon.handler.message.matcher;
 
-import static java.util.Optional.ofNullable;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 import io.appulse.encon.connection.control.ControlMessage;
 import io.appulse.encon.handler.message.MessageHandler;
 import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.encon.metrics.EnconMetrics;
 import io.appulse.encon.terms.ErlangTerm;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -43,8 +41,6 @@ import lombok.val;
  * @author alabazin
  */
 @Slf4j
-@Getter
-@RequiredArgsConstructor
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public class MethodMatcherMessageHandler implements MessageHandler {
 
@@ -57,19 +53,27 @@ public class MethodMatcherMessageHandler implements MessageHandler {
     return new MethodMatcherMessageHandlerBuilder();
   }
 
-  @NonNull
+  @Getter
   Map<Integer, List<MethodDescriptor>> map;
 
+  DispatchTree tree;
+
+  /**
+   * Constructor.
+   *
+   * @param map the handler methods, grouped by their number of arguments
+   */
+  public MethodMatcherMessageHandler (@NonNull Map<Integer, List<MethodDescriptor>> map) {
+    this.map = map;
+    this.tree = new DispatchTree(map);
+  }
+
   @Override
   public void handle (Mailbox self, ControlMessage header, ErlangTerm body) {
     log.debug("new message to {}\nterm: {}", self, body);
 
-    val list = ofNullable(body.size())
-        .map(map::get)
-        .filter(Objects::nonNull)
-        .orElse(null);
-
-    if (list == null) {
+    val candidates = tree.candidates(body);
+    if (candidates.length == 0 && !tree.accepts(body)) {
       val message = new StringBuilder()
           .append("There is no handler for ").append(body.size()).append(" arguments, only ")
           .append(map.keySet())
@@ -78,15 +82,32 @@ public class MethodMatcherMessageHandler implements MessageHandler {
       throw new IllegalArgumentException(message);
     }
 
-    val optional = list.stream()
-        .filter(it -> it.matches(body))
-        .findFirst();
+    for (MethodDescriptor descriptor : candidates) {
+      if (descriptor.matches(body)) {
+        log.debug("handler found");
+        invoke(self, descriptor, body);
+        return;
+      }
+    }
+    log.warn("there is no matched handler for {}", body);
+  }
+
+  private void invoke (Mailbox self, MethodDescriptor descriptor, ErlangTerm body) {
+    val metrics = self != null
+                  ? self.getNode().getMetrics()
+                  : EnconMetrics.NOOP;
+    if (!metrics.isEnabled()) {
+      descriptor.invoke(body);
+      return;
+    }
 
-    if (optional.isPresent()) {
-      log.debug("handler found");
-      optional.get().invoke(body);
-    } else {
-      log.warn("there is no matched handler for {}", body);
+    val start = System.nanoTime();
+    boolean failed = true;
+    try {
+      descriptor.invoke(body);
+      failed = false;
+    } finally {
+      metrics.handlerInvoked(self, descriptor.getName(), System.nanoTime() - start, failed);
     }
   }
 }
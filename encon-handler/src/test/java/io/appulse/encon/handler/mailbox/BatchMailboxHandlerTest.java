@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.handler.mailbox;
+
+import static io.appulse.encon.terms.Erlang.number;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.appulse.encon.Node;
+import io.appulse.encon.Nodes;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.epmd.java.server.SubcommandServer;
+import io.appulse.utils.SocketUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+public class BatchMailboxHandlerTest {
+
+  private static ExecutorService executor;
+
+  private static Future<?> future;
+
+  Node node;
+
+  @BeforeClass
+  public static void beforeClass () throws Exception {
+    if (SocketUtils.isPortAvailable(4369)) {
+      executor = Executors.newSingleThreadExecutor();
+      val server = SubcommandServer.builder()
+          .port(SocketUtils.findFreePort().orElseThrow(RuntimeException::new))
+          .ip(InetAddress.getByName("0.0.0.0"))
+          .build();
+
+      future = executor.submit(() -> {
+        try {
+          server.run();
+        } catch (Throwable ex) {
+          log.error("popa", ex);
+        }
+      });
+      SECONDS.sleep(1);
+    }
+  }
+
+  @AfterClass
+  public static void afterClass () {
+    if (future != null) {
+      future.cancel(true);
+    }
+
+    ofNullable(executor)
+      .ifPresent(ExecutorService::shutdown);
+  }
+
+  @Before
+  public void before () {
+    node = Nodes.singleNode("batch_" + ThreadLocalRandom.current().nextInt(1000) + "@localhost", true);
+  }
+
+  @After
+  public void after () throws Exception {
+    if (node != null) {
+      node.close();
+      node = null;
+    }
+    MILLISECONDS.sleep(300);
+  }
+
+  @Test
+  public void drainingOrder () {
+    Mailbox sender = node.mailbox().build();
+    Mailbox mailbox = node.mailbox().build();
+
+    val batches = new ArrayList<List<Integer>>();
+    val handler = BatchMailboxHandler.builder()
+        .messageHandler((self, header, body) -> batches.get(batches.size() - 1).add(body.asInt()))
+        .mailbox(mailbox)
+        .batchSize(4)
+        .timeoutMillis(10)
+        .build();
+
+    for (int index = 0; index < 10; index++) {
+      sender.send(mailbox.getPid(), number(index));
+    }
+
+    for (int index = 0; index < 3; index++) {
+      batches.add(new ArrayList<>());
+      handler.oneTimeShot();
+    }
+
+    assertThat(batches).containsExactly(
+        list(0, 1, 2, 3),
+        list(4, 5, 6, 7),
+        // the partial batch doesn't wait for the rest
+        list(8, 9)
+    );
+  }
+
+  @Test
+  public void partialBatches () {
+    Mailbox sender = node.mailbox().build();
+    Mailbox mailbox = node.mailbox().build();
+
+    val handled = new ArrayList<Integer>();
+    val handler = BatchMailboxHandler.builder()
+        .messageHandler((self, header, body) -> handled.add(body.asInt()))
+        .mailbox(mailbox)
+        .batchSize(100)
+        .timeoutMillis(10)
+        .build();
+
+    // an empty mailbox gives an empty batch after the timeout
+    handler.oneTimeShot();
+    assertThat(handled).isEmpty();
+
+    sender.send(mailbox.getPid(), number(1));
+    handler.oneTimeShot();
+    assertThat(handled).containsExactly(1);
+
+    // the control messages are not a part of the batch
+    sender.link(mailbox.getPid());
+    sender.send(mailbox.getPid(), number(2));
+    sender.send(mailbox.getPid(), number(3));
+    handler.oneTimeShot();
+    assertThat(handled).containsExactly(1, 2, 3);
+    assertThat(mailbox.getLinks()).contains(sender.getPid());
+  }
+
+  private static List<Integer> list (Integer... values) {
+    val result = new ArrayList<Integer>(values.length);
+    for (val value : values) {
+      result.add(value);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.handler.mailbox;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.appulse.encon.Node;
+import io.appulse.encon.Nodes;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.epmd.java.server.SubcommandServer;
+import io.appulse.utils.SocketUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+public class InlineMailboxHandlerTest {
+
+  private static ExecutorService executor;
+
+  private static Future<?> future;
+
+  Node node;
+
+  @BeforeClass
+  public static void beforeClass () throws Exception {
+    if (SocketUtils.isPortAvailable(4369)) {
+      executor = Executors.newSingleThreadExecutor();
+      val server = SubcommandServer.builder()
+          .port(SocketUtils.findFreePort().orElseThrow(RuntimeException::new))
+          .ip(InetAddress.getByName("0.0.0.0"))
+          .build();
+
+      future = executor.submit(() -> {
+        try {
+          server.run();
+        } catch (Throwable ex) {
+          log.error("popa", ex);
+        }
+      });
+      SECONDS.sleep(1);
+    }
+  }
+
+  @AfterClass
+  public static void afterClass () {
+    if (future != null) {
+      future.cancel(true);
+    }
+
+    ofNullable(executor)
+      .ifPresent(ExecutorService::shutdown);
+  }
+
+  @Before
+  public void before () {
+    node = Nodes.singleNode("inline_" + ThreadLocalRandom.current().nextInt(1000) + "@localhost", true);
+  }
+
+  @After
+  public void after () throws Exception {
+    if (node != null) {
+      node.close();
+      node = null;
+    }
+    MILLISECONDS.sleep(300);
+  }
+
+  @Test
+  public void selfSend () {
+    Mailbox mailbox = node.mailbox().build();
+
+    val events = new ArrayList<String>();
+    val depth = new AtomicInteger();
+    val maxDepth = new AtomicInteger();
+    val handler = InlineMailboxHandler.builder()
+        .messageHandler((self, header, body) -> {
+          maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+          val text = body.asText();
+          events.add(text + " start");
+          if ("ping".equals(text)) {
+            // the consumer is not re-entered, the message waits for the current handling
+            self.send(self.getPid(), atom("pong"));
+          }
+          events.add(text + " end");
+          depth.decrementAndGet();
+        })
+        .mailbox(mailbox)
+        .build();
+    handler.startExecutor();
+    assertThat(mailbox.isInline()).isTrue();
+
+    Mailbox sender = node.mailbox().build();
+    sender.send(mailbox.getPid(), atom("ping"));
+
+    // the local delivery is handled on the sender's thread
+    assertThat(events).containsExactly(
+        "ping start",
+        "ping end",
+        "pong start",
+        "pong end"
+    );
+    assertThat(maxDepth.get()).isEqualTo(1);
+
+    handler.close();
+    assertThat(mailbox.isInline()).isFalse();
+  }
+
+  @Test
+  public void blockingThreshold () {
+    Mailbox mailbox = node.mailbox().build();
+
+    val handler = InlineMailboxHandler.builder()
+        .messageHandler((self, header, body) -> {
+          if ("slow".equals(body.asText())) {
+            sleep(50);
+          }
+        })
+        .mailbox(mailbox)
+        .blockingThresholdMillis(20)
+        .build();
+    handler.startExecutor();
+
+    Mailbox sender = node.mailbox().build();
+    sender.send(mailbox.getPid(), atom("fast"));
+    assertThat(handler.getBlockedHandlings()).isEqualTo(0);
+
+    sender.send(mailbox.getPid(), atom("slow"));
+    sender.send(mailbox.getPid(), atom("fast"));
+    sender.send(mailbox.getPid(), atom("slow"));
+    // the second one is counted, but is not reported
+    assertThat(handler.getBlockedHandlings()).isEqualTo(2);
+
+    handler.close();
+  }
+
+  @Test
+  public void exit () {
+    Mailbox mailbox = node.mailbox().build();
+
+    val handled = new AtomicInteger();
+    val handler = InlineMailboxHandler.builder()
+        .messageHandler((self, header, body) -> handled.incrementAndGet())
+        .mailbox(mailbox)
+        .build();
+    handler.startExecutor();
+
+    Mailbox linked = node.mailbox().build();
+    linked.link(mailbox.getPid());
+    linked.send(mailbox.getPid(), atom("before"));
+    linked.exit("boom");
+
+    assertThat(handled.get()).isEqualTo(1);
+    assertThat(mailbox.isInline()).isFalse();
+    assertThat(node.mailbox(mailbox.getPid())).isNull();
+
+    // it is stopped already
+    handler.close();
+  }
+
+  private static void sleep (long millis) {
+    try {
+      MILLISECONDS.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
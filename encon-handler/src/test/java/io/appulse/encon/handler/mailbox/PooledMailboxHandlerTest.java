@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.handler.mailbox;
+
+import static io.appulse.encon.handler.mailbox.MailboxHandlerExecution.DEDICATED_THREAD;
+import static io.appulse.encon.handler.mailbox.MailboxHandlerExecution.INLINE;
+import static io.appulse.encon.handler.mailbox.MailboxHandlerExecution.SHARED_POOL;
+import static io.appulse.encon.terms.Erlang.number;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.appulse.encon.Node;
+import io.appulse.encon.Nodes;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.encon.terms.type.ErlangPid;
+import io.appulse.epmd.java.server.SubcommandServer;
+import io.appulse.utils.SocketUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+public class PooledMailboxHandlerTest {
+
+  private static ExecutorService executor;
+
+  private static Future<?> future;
+
+  Node node;
+
+  ExecutorService pool;
+
+  @BeforeClass
+  public static void beforeClass () throws Exception {
+    if (SocketUtils.isPortAvailable(4369)) {
+      executor = Executors.newSingleThreadExecutor();
+      val server = SubcommandServer.builder()
+          .port(SocketUtils.findFreePort().orElseThrow(RuntimeException::new))
+          .ip(InetAddress.getByName("0.0.0.0"))
+          .build();
+
+      future = executor.submit(() -> {
+        try {
+          server.run();
+        } catch (Throwable ex) {
+          log.error("popa", ex);
+        }
+      });
+      SECONDS.sleep(1);
+    }
+  }
+
+  @AfterClass
+  public static void afterClass () {
+    if (future != null) {
+      future.cancel(true);
+    }
+
+    ofNullable(executor)
+      .ifPresent(ExecutorService::shutdown);
+  }
+
+  @Before
+  public void before () {
+    node = Nodes.singleNode("pooled_" + ThreadLocalRandom.current().nextInt(1000) + "@localhost", true);
+  }
+
+  @After
+  public void after () throws Exception {
+    ofNullable(pool)
+      .ifPresent(ExecutorService::shutdownNow);
+    pool = null;
+
+    if (node != null) {
+      node.close();
+      node = null;
+    }
+    MILLISECONDS.sleep(300);
+  }
+
+  @Test
+  public void executors () throws Exception {
+    assertThat(MailboxHandlerExecutors.newExecutor(null, 2)).isNull();
+    assertThat(MailboxHandlerExecutors.newExecutor(DEDICATED_THREAD, 2)).isNull();
+    assertThat(MailboxHandlerExecutors.newExecutor(INLINE, 2)).isNull();
+
+    pool = MailboxHandlerExecutors.newExecutor(SHARED_POOL, 2);
+    assertThat(pool).isInstanceOf(ForkJoinPool.class);
+    assertThat(((ForkJoinPool) pool).getParallelism()).isEqualTo(2);
+    pool.shutdownNow();
+
+    pool = MailboxHandlerExecutors.newVirtualThreadExecutor(3);
+    if (hasVirtualThreads()) {
+      assertThat(pool).isNotInstanceOf(ForkJoinPool.class);
+    } else {
+      // the fallback to the shared pool
+      assertThat(pool).isInstanceOf(ForkJoinPool.class);
+      assertThat(((ForkJoinPool) pool).getParallelism()).isEqualTo(3);
+    }
+
+    val ran = new CountDownLatch(1);
+    pool.execute(ran::countDown);
+    assertThat(ran.await(5, SECONDS)).isTrue();
+  }
+
+  @Test
+  public void serialization () throws Exception {
+    pool = MailboxHandlerExecutors.newSharedPool(4);
+
+    val mailboxesCount = 8;
+    val messagesCount = 200;
+
+    val handled = new ConcurrentHashMap<ErlangPid, List<Integer>>();
+    val active = new ConcurrentHashMap<ErlangPid, AtomicInteger>();
+    val overlapped = new AtomicBoolean();
+    val done = new CountDownLatch(mailboxesCount * messagesCount);
+
+    val mailboxes = new ArrayList<Mailbox>(mailboxesCount);
+    val handlers = new ArrayList<PooledMailboxHandler>(mailboxesCount);
+    for (int index = 0; index < mailboxesCount; index++) {
+      Mailbox mailbox = node.mailbox().build();
+      handled.put(mailbox.getPid(), new ArrayList<>());
+      active.put(mailbox.getPid(), new AtomicInteger());
+      mailboxes.add(mailbox);
+
+      val handler = PooledMailboxHandler.builder()
+          .messageHandler((self, header, body) -> {
+            val counter = active.get(self.getPid());
+            if (counter.incrementAndGet() > 1) {
+              overlapped.set(true);
+            }
+            // not synchronized, the handlings of one mailbox must not overlap
+            handled.get(self.getPid()).add(body.asInt());
+            Thread.yield();
+            counter.decrementAndGet();
+            done.countDown();
+          })
+          .mailbox(mailbox)
+          .executor(pool)
+          .batchSize(3)
+          .build();
+      handler.startExecutor();
+      handlers.add(handler);
+    }
+
+    Mailbox sender = node.mailbox().build();
+    for (int index = 0; index < messagesCount; index++) {
+      for (val mailbox : mailboxes) {
+        sender.send(mailbox.getPid(), number(index));
+      }
+    }
+
+    assertThat(done.await(10, SECONDS)).isTrue();
+    assertThat(overlapped.get()).isFalse();
+
+    val expected = new ArrayList<Integer>(messagesCount);
+    for (int index = 0; index < messagesCount; index++) {
+      expected.add(index);
+    }
+    for (Map.Entry<ErlangPid, List<Integer>> entry : handled.entrySet()) {
+      assertThat(entry.getValue())
+          .describedAs("mailbox %s", entry.getKey())
+          .isEqualTo(expected);
+    }
+
+    handlers.forEach(PooledMailboxHandler::close);
+  }
+
+  @Test
+  public void closed () throws Exception {
+    pool = MailboxHandlerExecutors.newSharedPool(1);
+
+    Mailbox mailbox = node.mailbox().build();
+    val handled = new AtomicInteger();
+    val handler = PooledMailboxHandler.builder()
+        .messageHandler((self, header, body) -> handled.incrementAndGet())
+        .mailbox(mailbox)
+        .executor(pool)
+        .build();
+    handler.startExecutor();
+
+    Mailbox sender = node.mailbox().build();
+    sender.send(mailbox.getPid(), number(1));
+    for (int attempt = 0; attempt < 100 && handled.get() == 0; attempt++) {
+      MILLISECONDS.sleep(10);
+    }
+    assertThat(handled.get()).isEqualTo(1);
+
+    handler.close();
+    sender.send(mailbox.getPid(), number(2));
+    MILLISECONDS.sleep(100);
+
+    // the message stays in the mailbox
+    assertThat(handled.get()).isEqualTo(1);
+    assertThat(mailbox.receive(1, SECONDS).getBody().asInt()).isEqualTo(2);
+  }
+
+  private static boolean hasVirtualThreads () {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (NoSuchMethodException ex) {
+      return false;
+    }
+  }
+}
@@ -69,6 +69,40 @@ public class MethodMatcherMessageHandlerTest {
     );
   }
 
+  @Test
+  public void dispatchByFirstElement () {
+    list.clear();
+    MyService3 service = new MyService3();
+
+    val handler = MethodMatcherMessageHandler.builder()
+        .wrap(service)
+            .tuple(it -> it.tagged(eq("ping"), anyInt()))
+            .tuple(it -> it.any(any(), anyInt()))
+            .tuple(it -> it.tagged(eq("pong"), anyInt()))
+            .list(it -> it.tagged(eq("ping"), anyInt()))
+        .build();
+
+    handler.handle(null, null, tuple(atom("ping"), number(1)));
+    handler.handle(null, null, tuple(atom("pong"), number(2)));
+    handler.handle(null, null, tuple(atom("other"), number(3)));
+    handler.handle(null, null, tuple(number(4), number(5)));
+    handler.handle(null, null, list(atom("ping"), number(6)));
+
+    assertThat(list).containsExactly(
+        "tagged(ping, 1)",
+        // the first registered matching method wins
+        "any(pong, 2)",
+        "any(other, 3)",
+        "any(4, 5)",
+        "tagged(ping, 6)"
+    );
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> handler.handle(null, null, tuple(atom("ping"))));
+
+    list.clear();
+  }
+
   @Test
   public void throwsAmbigousException () {
     MyService2 service = new MyService2();
@@ -91,6 +125,20 @@ public class MethodMatcherMessageHandlerTest {
     }
   }
 
+  public static class MyService3 {
+
+    public void tagged (String tag, int value) {
+      list.add("tagged(" + tag + ", " + value + ")");
+    }
+
+    public void any (ErlangTerm term, int value) {
+      Object first = term.isTextual()
+                     ? term.asText()
+                     : term.asInt();
+      list.add("any(" + first + ", " + value + ")");
+    }
+  }
+
   public static class MyService2 {
 
     public void popa1 (int age) throws Exception {
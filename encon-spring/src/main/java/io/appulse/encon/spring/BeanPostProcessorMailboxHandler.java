@@ -22,22 +22,31 @@ import static lombok.AccessLevel.PRIVATE;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
 import io.appulse.encon.Node;
 import io.appulse.encon.Nodes;
 import io.appulse.encon.handler.mailbox.DefaultMailboxHandler;
+import io.appulse.encon.handler.mailbox.InlineMailboxHandler;
+import io.appulse.encon.handler.mailbox.MailboxHandler;
+import io.appulse.encon.handler.mailbox.MailboxHandlerExecution;
+import io.appulse.encon.handler.mailbox.MailboxHandlerExecutors;
+import io.appulse.encon.handler.mailbox.PooledMailboxHandler;
 import io.appulse.encon.handler.message.MessageHandler;
 import io.appulse.encon.handler.message.matcher.MethodMatcherMessageHandler;
 import io.appulse.encon.handler.message.matcher.MethodMatcherMessageHandlerBuilder.ConsumerWithException;
+import io.appulse.encon.mailbox.Mailbox;
 import io.appulse.utils.AnnotationUtils;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.core.Ordered;
 import org.springframework.util.ReflectionUtils;
@@ -50,7 +59,7 @@ import org.springframework.util.ReflectionUtils;
 @Slf4j
 @RequiredArgsConstructor
 @FieldDefaults(level = PRIVATE, makeFinal = true)
-class BeanPostProcessorMailboxHandler implements BeanPostProcessor, Ordered {
+class BeanPostProcessorMailboxHandler implements BeanPostProcessor, Ordered, DisposableBean {
 
   @NonNull
   Nodes nodes;
@@ -58,6 +67,13 @@ class BeanPostProcessorMailboxHandler implements BeanPostProcessor, Ordered {
   @NonNull
   Node defaultNode;
 
+  @NonNull
+  EnconProperties properties;
+
+  // the shared executor of the pooled handlers, it is created on demand
+  @NonFinal
+  ExecutorService executor;
+
   @Override
   public int getOrder () {
     return 300;
@@ -100,15 +116,50 @@ class BeanPostProcessorMailboxHandler implements BeanPostProcessor, Ordered {
         .collect(toList());
 
     if (!methods.isEmpty()) {
-      DefaultMailboxHandler.builder()
-          .mailbox(mailbox)
-          .messageHandler(createMessageHandler(bean, methods))
-          .build()
+      createMailboxHandler(mailbox, createMessageHandler(bean, methods))
           .startExecutor();
     }
     return bean;
   }
 
+  @Override
+  public synchronized void destroy () {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  private MailboxHandler createMailboxHandler (Mailbox mailbox, MessageHandler messageHandler) {
+    val execution = properties.getHandlerExecution();
+    if (execution == null || execution == MailboxHandlerExecution.DEDICATED_THREAD) {
+      return DefaultMailboxHandler.builder()
+          .mailbox(mailbox)
+          .messageHandler(messageHandler)
+          .build();
+    }
+    if (execution == MailboxHandlerExecution.INLINE) {
+      return InlineMailboxHandler.builder()
+          .mailbox(mailbox)
+          .messageHandler(messageHandler)
+          .build();
+    }
+    return PooledMailboxHandler.builder()
+        .mailbox(mailbox)
+        .messageHandler(messageHandler)
+        .executor(getExecutor(execution))
+        .build();
+  }
+
+  private synchronized ExecutorService getExecutor (MailboxHandlerExecution execution) {
+    if (executor == null) {
+      val parallelism = properties.getHandlerPoolParallelism();
+      executor = MailboxHandlerExecutors.newExecutor(execution, parallelism == null
+                                                                ? 0
+                                                                : parallelism);
+    }
+    return executor;
+  }
+
   private MessageHandler createMessageHandler (Object object, List<Method> methodDescriptors) {
     val result = MethodMatcherMessageHandler.builder();
     val wrapped = result.wrap(object);
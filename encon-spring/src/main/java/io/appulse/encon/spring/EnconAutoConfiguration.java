@@ -32,6 +32,7 @@ import io.appulse.encon.handler.mailbox.MailboxHandler;
 import io.appulse.encon.mailbox.Mailbox;
 import io.appulse.encon.spring.EnconAutoConfiguration.MailboxOperationsConfiguration;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.experimental.FieldDefaults;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -137,7 +138,28 @@ class EnconAutoConfiguration {
 
   @Bean
   public BeanPostProcessorMailboxHandler beanPostProcessorMailboxHandler (Nodes nodes, Node defaultNode) {
-    return new BeanPostProcessorMailboxHandler(nodes, defaultNode);
+    return new BeanPostProcessorMailboxHandler(nodes, defaultNode, enconProperties);
+  }
+
+  /**
+   * Reports the nodes' metrics into the Micrometer's registries,
+   * if the Micrometer is on the classpath.
+   *
+   * @since 1.7.0
+   */
+  @Configuration
+  @ConditionalOnClass(MeterBinder.class)
+  public static class MetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "enconMeterBinder")
+    public MeterBinder enconMeterBinder (Nodes nodes) {
+      return registry -> {
+        for (Node node : nodes) {
+          MicrometerEnconMetrics.bind(node, registry);
+        }
+      };
+    }
   }
 
   @Configuration
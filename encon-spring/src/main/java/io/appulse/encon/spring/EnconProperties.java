@@ -28,6 +28,7 @@ import javax.annotation.PostConstruct;
 import io.appulse.encon.config.Config;
 import io.appulse.encon.config.Defaults;
 import io.appulse.encon.config.NodeConfig;
+import io.appulse.encon.handler.mailbox.MailboxHandlerExecution;
 
 import lombok.Data;
 import lombok.Getter;
@@ -59,6 +60,22 @@ public class EnconProperties {
   @NonNull
   Map<String, NodeConfig> nodes = new LinkedHashMap<>();
 
+  /**
+   * How the {@link ErlangMailbox} beans handlers get their threads,
+   * {@link MailboxHandlerExecution#DEDICATED_THREAD} by default.
+   *
+   * @since 1.7.0
+   */
+  MailboxHandlerExecution handlerExecution;
+
+  /**
+   * The number of the shared pool's threads, the number of
+   * the available processors by default.
+   *
+   * @since 1.7.0
+   */
+  Integer handlerPoolParallelism;
+
   /**
    * Post construct. Initialize with default values the fields.
    */
@@ -70,6 +87,12 @@ public class EnconProperties {
     if (defaults == null) {
       defaults = Defaults.INSTANCE;
     }
+    if (handlerExecution == null) {
+      handlerExecution = MailboxHandlerExecution.DEDICATED_THREAD;
+    }
+    if (handlerPoolParallelism == null) {
+      handlerPoolParallelism = 0;
+    }
   }
 
   private Config createConfig () {
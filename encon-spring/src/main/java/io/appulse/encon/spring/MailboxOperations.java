@@ -30,7 +30,10 @@ import io.appulse.encon.databind.TermMapper;
 import io.appulse.encon.mailbox.Mailbox;
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.type.ErlangPid;
+import io.appulse.encon.terms.type.LazyErlangTerm;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -47,6 +50,10 @@ import lombok.val;
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public class MailboxOperations {
 
+  private static final int MAX_RETAINED_BUFFER_CAPACITY = 64 * 1024;
+
+  private static final ThreadLocal<ByteBuf> BUFFERS = ThreadLocal.withInitial(Unpooled::buffer);
+
   static String generateName (Node node) {
     return new StringBuilder()
         .append(node.getDescriptor().getNodeName())
@@ -67,6 +74,29 @@ public class MailboxOperations {
         .toString();
   }
 
+  /**
+   * Streams the object into its external format and wraps the bytes into a lazy term,
+   * which is written to the connection as is, without the intermediate terms tree.
+   * It makes sense only for the remote destinations, the local ones get the terms tree.
+   */
+  static ErlangTerm toTerm (Object object) {
+    if (object instanceof ErlangTerm) {
+      return (ErlangTerm) object;
+    }
+
+    ByteBuf buffer = BUFFERS.get();
+    try {
+      TermMapper.writeTo(object, buffer);
+      return LazyErlangTerm.read(buffer);
+    } finally {
+      if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+        BUFFERS.remove();
+      } else {
+        buffer.clear();
+      }
+    }
+  }
+
   @NonNull
   Mailbox self;
 
@@ -105,7 +135,7 @@ public class MailboxOperations {
    * @param object  message payload
    */
   public void send (@NonNull ErlangPid to, @NonNull Object object) {
-    val term = TermMapper.serialize(object);
+    val term = toTerm(to.getDescriptor(), object);
     self.send(to, term);
   }
 
@@ -131,7 +161,7 @@ public class MailboxOperations {
    * @param object  message payload
    */
   public void send (@NonNull String node, @NonNull String mailbox, @NonNull Object object) {
-    val term = TermMapper.serialize(object);
+    val term = toTerm(NodeDescriptor.from(node), object);
     self.send(node, mailbox, term);
   }
 
@@ -145,7 +175,7 @@ public class MailboxOperations {
    * @param object      message payload
    */
   public void send (@NonNull NodeDescriptor descriptor, @NonNull String mailbox, @NonNull Object object) {
-    val term = TermMapper.serialize(object);
+    val term = toTerm(descriptor, object);
     self.send(descriptor, mailbox, term);
   }
 
@@ -159,7 +189,7 @@ public class MailboxOperations {
    * @param object  message payload
    */
   public void send (@NonNull RemoteNode remote, @NonNull String mailbox, @NonNull Object object) {
-    val term = TermMapper.serialize(object);
+    val term = toTerm(remote.getDescriptor(), object);
     self.send(remote, mailbox, term);
   }
 
@@ -215,4 +245,12 @@ public class MailboxOperations {
     return receive(timeout, unit)
         .map(it -> TermMapper.deserialize(it, type));
   }
+
+  private ErlangTerm toTerm (NodeDescriptor destination, Object object) {
+    val node = self.getNode();
+    // the local and the co-located mailboxes take the terms as is, without encoding
+    return node.getDescriptor().equals(destination) || node.colocatedNode(destination) != null
+           ? TermMapper.serialize(object)
+           : toTerm(object);
+  }
 }
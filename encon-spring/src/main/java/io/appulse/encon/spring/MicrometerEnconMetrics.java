@@ -0,0 +1,304 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.spring;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.appulse.encon.Node;
+import io.appulse.encon.common.RemoteNode;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.encon.metrics.EnconMetrics;
+import io.appulse.encon.terms.type.ErlangPid;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * {@link EnconMetrics} implementation, which records the node's events
+ * into a Micrometer's {@link MeterRegistry}.
+ * <p>
+ * The meters are tagged with the local node's name, and the remote node's name,
+ * the mailbox's name or the handler's method, depending on the event.
+ * The meters are created once and cached, so the recording doesn't build
+ * the meter identifiers on every event.
+ * <p>
+ * The anonymous mailboxes share the {@code mailbox=anonymous} tag and
+ * they don't have the queue size gauge. A named mailbox's meters, including
+ * its handlers' ones, are removed from the registry with the mailbox.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class MicrometerEnconMetrics implements EnconMetrics {
+
+  private static final String ANONYMOUS = "anonymous";
+
+  /**
+   * Creates the metrics for the node, registers the already existing
+   * mailboxes and sets the metrics into the node.
+   *
+   * @param node the node for instrumentation
+   *
+   * @param registry the meters registry
+   *
+   * @return the node's metrics
+   */
+  public static MicrometerEnconMetrics bind (@NonNull Node node, @NonNull MeterRegistry registry) {
+    val metrics = new MicrometerEnconMetrics(node, registry);
+    node.mailboxes()
+        .values()
+        .forEach(metrics::mailboxCreated);
+    node.setMetrics(metrics);
+    return metrics;
+  }
+
+  MeterRegistry registry;
+
+  Tags tags;
+
+  Counter handshakeFailures;
+
+  Map<RemoteNode, RemoteMeters> remotes = new ConcurrentHashMap<>();
+
+  Map<ErlangPid, MailboxMeters> mailboxes = new ConcurrentHashMap<>();
+
+  MailboxMeters anonymous;
+
+  /**
+   * Constructor.
+   *
+   * @param node the node for instrumentation
+   *
+   * @param registry the meters registry
+   */
+  public MicrometerEnconMetrics (@NonNull Node node, @NonNull MeterRegistry registry) {
+    this.registry = registry;
+    tags = Tags.of("node", node.getDescriptor().getFullName());
+    handshakeFailures = registry.counter("encon.handshake.failures", tags);
+    anonymous = new MailboxMeters(ANONYMOUS, null);
+  }
+
+  @Override
+  public void connectionOpened (RemoteNode remote) {
+    remote(remote).opened.increment();
+  }
+
+  @Override
+  public void connectionClosed (RemoteNode remote) {
+    remote(remote).closed.increment();
+  }
+
+  @Override
+  public void handshakeFailed (RemoteNode remote, Throwable cause) {
+    handshakeFailures.increment();
+  }
+
+  @Override
+  public void tickReceived (RemoteNode remote) {
+    remote(remote).ticks.increment();
+  }
+
+  @Override
+  public void frameReceived (RemoteNode remote, int bytes) {
+    remote(remote).received.record(bytes);
+  }
+
+  @Override
+  public void frameSent (RemoteNode remote, int bytes) {
+    remote(remote).sent.record(bytes);
+  }
+
+  @Override
+  public void messageDecoded (RemoteNode remote, long nanos) {
+    remote(remote).decode.record(nanos, NANOSECONDS);
+  }
+
+  @Override
+  public void messageDropped (RemoteNode remote) {
+    remote(remote).dropped.increment();
+  }
+
+  @Override
+  public void mailboxCreated (Mailbox mailbox) {
+    val name = mailbox.getName();
+    if (name == null || name.isEmpty()) {
+      return;
+    }
+    mailboxes.computeIfAbsent(mailbox.getPid(), it -> new MailboxMeters(name, mailbox));
+  }
+
+  @Override
+  public void mailboxRemoved (Mailbox mailbox) {
+    val meters = mailboxes.remove(mailbox.getPid());
+    if (meters != null) {
+      meters.remove();
+    }
+  }
+
+  @Override
+  public void messageDequeued (Mailbox mailbox, long nanos) {
+    mailbox(mailbox).latency.record(nanos, NANOSECONDS);
+  }
+
+  @Override
+  public void handlerInvoked (Mailbox mailbox, String handler, long nanos, boolean failed) {
+    val meters = mailbox(mailbox).handler(handler);
+    val timer = failed
+                ? meters.failure
+                : meters.success;
+    timer.record(nanos, NANOSECONDS);
+  }
+
+  private RemoteMeters remote (RemoteNode remote) {
+    val meters = remotes.get(remote);
+    return meters != null
+           ? meters
+           : remotes.computeIfAbsent(remote, it -> new RemoteMeters(registry, tags, it));
+  }
+
+  private MailboxMeters mailbox (Mailbox mailbox) {
+    val meters = mailboxes.get(mailbox.getPid());
+    return meters != null
+           ? meters
+           : anonymous;
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static class RemoteMeters {
+
+    Counter opened;
+
+    Counter closed;
+
+    Counter ticks;
+
+    Counter dropped;
+
+    DistributionSummary received;
+
+    DistributionSummary sent;
+
+    Timer decode;
+
+    RemoteMeters (MeterRegistry registry, Tags tags, RemoteNode remote) {
+      val remoteTags = tags.and("remote", remote.getDescriptor().getFullName());
+
+      opened = registry.counter("encon.connections.opened", remoteTags);
+      closed = registry.counter("encon.connections.closed", remoteTags);
+      ticks = registry.counter("encon.ticks.received", remoteTags);
+      dropped = registry.counter("encon.messages.dropped", remoteTags);
+
+      received = DistributionSummary.builder("encon.frames.received")
+          .baseUnit("bytes")
+          .tags(remoteTags)
+          .register(registry);
+
+      sent = DistributionSummary.builder("encon.frames.sent")
+          .baseUnit("bytes")
+          .tags(remoteTags)
+          .register(registry);
+
+      decode = Timer.builder("encon.messages.decode")
+          .tags(remoteTags)
+          .publishPercentileHistogram()
+          .register(registry);
+    }
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private class MailboxMeters {
+
+    String name;
+
+    Timer latency;
+
+    Gauge size;
+
+    // the handlers' names are the same instances for every invocation
+    Map<String, HandlerMeters> handlers = new ConcurrentHashMap<>();
+
+    MailboxMeters (String name, Mailbox mailbox) {
+      this.name = name;
+      val mailboxTags = tags.and("mailbox", name);
+
+      latency = Timer.builder("encon.mailbox.latency")
+          .description("The time the messages spend in the mailbox's queue")
+          .tags(mailboxTags)
+          .publishPercentileHistogram()
+          .register(registry);
+
+      size = mailbox != null
+             ? Gauge.builder("encon.mailbox.size", mailbox, Mailbox::size)
+                 .tags(mailboxTags)
+                 .register(registry)
+             : null;
+    }
+
+    HandlerMeters handler (String handler) {
+      val meters = handlers.get(handler);
+      return meters != null
+             ? meters
+             : handlers.computeIfAbsent(handler, it -> new HandlerMeters(name, it));
+    }
+
+    void remove () {
+      registry.remove(latency);
+      if (size != null) {
+        registry.remove(size);
+      }
+      handlers.values().forEach(HandlerMeters::remove);
+    }
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private class HandlerMeters {
+
+    Timer success;
+
+    Timer failure;
+
+    HandlerMeters (String mailbox, String handler) {
+      val handlerTags = tags.and("mailbox", mailbox, "handler", handler);
+      success = timer(handlerTags.and("outcome", "success"));
+      failure = timer(handlerTags.and("outcome", "failure"));
+    }
+
+    void remove () {
+      registry.remove(success);
+      registry.remove(failure);
+    }
+
+    private Timer timer (Tags handlerTags) {
+      return Timer.builder("encon.handler.invocations")
+          .tags(handlerTags)
+          .publishPercentileHistogram()
+          .register(registry);
+    }
+  }
+}
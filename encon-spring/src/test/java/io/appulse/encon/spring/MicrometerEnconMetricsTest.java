@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.spring;
+
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.epmd.java.core.model.NodeType.R6_ERLANG;
+import static io.appulse.epmd.java.core.model.Protocol.TCP;
+import static io.appulse.epmd.java.core.model.Version.R6;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.appulse.encon.Node;
+import io.appulse.encon.Nodes;
+import io.appulse.encon.common.NodeDescriptor;
+import io.appulse.encon.common.RemoteNode;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.epmd.java.server.SubcommandServer;
+import io.appulse.utils.SocketUtils;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Slf4j
+public class MicrometerEnconMetricsTest {
+
+  private static ExecutorService executor;
+
+  private static Future<?> future;
+
+  Node node;
+
+  SimpleMeterRegistry registry;
+
+  MicrometerEnconMetrics metrics;
+
+  @BeforeClass
+  public static void beforeClass () throws Exception {
+    if (SocketUtils.isPortAvailable(4369)) {
+      executor = Executors.newSingleThreadExecutor();
+      val server = SubcommandServer.builder()
+          .port(SocketUtils.findFreePort().orElseThrow(RuntimeException::new))
+          .ip(InetAddress.getByName("0.0.0.0"))
+          .build();
+
+      future = executor.submit(() -> {
+        try {
+          server.run();
+        } catch (Throwable ex) {
+          log.error("popa", ex);
+        }
+      });
+      SECONDS.sleep(1);
+    }
+  }
+
+  @AfterClass
+  public static void afterClass () {
+    if (future != null) {
+      future.cancel(true);
+    }
+
+    ofNullable(executor)
+      .ifPresent(ExecutorService::shutdown);
+  }
+
+  @Before
+  public void before () {
+    node = Nodes.singleNode("metrics_" + ThreadLocalRandom.current().nextInt(1000) + "@localhost", true);
+    registry = new SimpleMeterRegistry();
+    metrics = MicrometerEnconMetrics.bind(node, registry);
+  }
+
+  @After
+  public void after () throws Exception {
+    if (node != null) {
+      node.close();
+      node = null;
+    }
+    registry.close();
+    MILLISECONDS.sleep(300);
+  }
+
+  @Test
+  public void remote () {
+    val remote = RemoteNode.builder()
+        .descriptor(NodeDescriptor.from("remote@localhost"))
+        .protocol(TCP)
+        .type(R6_ERLANG)
+        .high(R6)
+        .low(R6)
+        .port(4321)
+        .build();
+
+    metrics.connectionOpened(remote);
+    metrics.frameReceived(remote, 100);
+    metrics.frameReceived(remote, 50);
+    metrics.frameSent(remote, 10);
+    metrics.messageDecoded(remote, 1000);
+    metrics.messageDropped(remote);
+    metrics.connectionClosed(remote);
+
+    val remoteName = remote.getDescriptor().getFullName();
+    assertThat(registry.get("encon.connections.opened").tag("remote", remoteName).counter().count())
+        .isEqualTo(1);
+    assertThat(registry.get("encon.connections.closed").tag("remote", remoteName).counter().count())
+        .isEqualTo(1);
+    assertThat(registry.get("encon.messages.dropped").tag("remote", remoteName).counter().count())
+        .isEqualTo(1);
+
+    val received = registry.get("encon.frames.received").tag("remote", remoteName).summary();
+    assertThat(received.count()).isEqualTo(2);
+    assertThat(received.totalAmount()).isEqualTo(150);
+
+    assertThat(registry.get("encon.frames.sent").tag("remote", remoteName).summary().totalAmount())
+        .isEqualTo(10);
+    assertThat(registry.get("encon.messages.decode").tag("remote", remoteName).timer().totalTime(MILLISECONDS))
+        .isEqualTo(0.001);
+
+    // the node's tag is on all the meters
+    assertThat(registry.get("encon.connections.opened")
+        .tag("node", node.getDescriptor().getFullName())
+        .counter()
+        .count()
+    ).isEqualTo(1);
+  }
+
+  @Test
+  public void mailbox () {
+    Mailbox mailbox = node.mailbox().name("named").build();
+    Mailbox sender = node.mailbox().build();
+
+    sender.send(mailbox.getPid(), number(1));
+    sender.send(mailbox.getPid(), number(2));
+    assertThat(registry.get("encon.mailbox.size").tag("mailbox", "named").gauge().value())
+        .isEqualTo(2);
+
+    metrics.messageDequeued(mailbox, 1000);
+    metrics.messageDequeued(sender, 1000);
+    assertThat(registry.get("encon.mailbox.latency").tag("mailbox", "named").timer().count())
+        .isEqualTo(1);
+    assertThat(registry.get("encon.mailbox.latency").tag("mailbox", "anonymous").timer().count())
+        .isEqualTo(1);
+
+    // the anonymous mailboxes don't have the size gauge
+    assertThat(registry.find("encon.mailbox.size").tag("mailbox", "anonymous").gauge())
+        .isNull();
+  }
+
+  @Test
+  public void handler () {
+    Mailbox mailbox = node.mailbox().name("named").build();
+    Mailbox anonymous = node.mailbox().build();
+
+    val handler = "Service.handle(int)";
+    metrics.handlerInvoked(mailbox, handler, 1000, false);
+    metrics.handlerInvoked(mailbox, handler, 1000, false);
+    metrics.handlerInvoked(mailbox, handler, 1000, true);
+    metrics.handlerInvoked(anonymous, handler, 1000, false);
+
+    assertThat(handlerTimer("named", handler, "success").count()).isEqualTo(2);
+    assertThat(handlerTimer("named", handler, "failure").count()).isEqualTo(1);
+    assertThat(handlerTimer("anonymous", handler, "success").count()).isEqualTo(1);
+    assertThat(handlerTimer("anonymous", handler, "failure").count()).isEqualTo(0);
+  }
+
+  @Test
+  public void mailboxRemoved () {
+    Mailbox mailbox = node.mailbox().name("named").build();
+    Mailbox anonymous = node.mailbox().build();
+
+    val handler = "Service.handle(int)";
+    metrics.messageDequeued(mailbox, 1000);
+    metrics.handlerInvoked(mailbox, handler, 1000, false);
+    metrics.handlerInvoked(anonymous, handler, 1000, false);
+
+    assertThat(registry.find("encon.mailbox.size").tag("mailbox", "named").gauge()).isNotNull();
+    assertThat(registry.find("encon.mailbox.latency").tag("mailbox", "named").timer()).isNotNull();
+    assertThat(registry.find("encon.handler.invocations").tag("mailbox", "named").timers()).hasSize(2);
+
+    mailbox.close();
+
+    assertThat(registry.find("encon.mailbox.size").tag("mailbox", "named").gauge()).isNull();
+    assertThat(registry.find("encon.mailbox.latency").tag("mailbox", "named").timer()).isNull();
+    assertThat(registry.find("encon.handler.invocations").tag("mailbox", "named").timers()).isEmpty();
+
+    // the shared anonymous meters stay
+    assertThat(handlerTimer("anonymous", handler, "success").count()).isEqualTo(1);
+
+    // a new mailbox with the same name gets the new meters
+    Mailbox renewed = node.mailbox().name("named").build();
+    metrics.handlerInvoked(renewed, handler, 1000, false);
+    assertThat(handlerTimer("named", handler, "success").count()).isEqualTo(1);
+  }
+
+  private Timer handlerTimer (String mailbox, String handler, String outcome) {
+    return registry.get("encon.handler.invocations")
+        .tag("mailbox", mailbox)
+        .tag("handler", handler)
+        .tag("outcome", outcome)
+        .timer();
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+import io.appulse.encon.terms.type.ErlangAtom;
+
+/**
+ * The atom cache references of a
+ * <a href="http://erlang.org/doc/apps/erts/erl_ext_dist.html#distribution_header">distribution header</a>,
+ * which are bound to the current thread while the message's terms are decoded or encoded.
+ * <p>
+ * While references are bound, {@link TermType#ATOM_CACHE_REF} terms are resolved through
+ * {@link #get(int)} and atoms are written as {@link TermType#ATOM_CACHE_REF} if
+ * {@link #indexOf(ErlangAtom)} returns a valid index.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public interface AtomCacheReferences {
+
+  /**
+   * Returns references, bound to the current thread.
+   *
+   * @return current references or {@code null}
+   */
+  static AtomCacheReferences current () {
+    return AtomCacheReferencesHolder.CURRENT.get();
+  }
+
+  /**
+   * Binds references to the current thread.
+   *
+   * @param references atom cache references of the current message
+   */
+  static void bind (AtomCacheReferences references) {
+    AtomCacheReferencesHolder.CURRENT.set(references);
+  }
+
+  /**
+   * Unbinds references from the current thread.
+   */
+  static void unbind () {
+    AtomCacheReferencesHolder.CURRENT.set(null);
+  }
+
+  /**
+   * Returns an atom by its atom cache reference index (decoding).
+   *
+   * @param index AtomCacheReferenceIndex from the {@link TermType#ATOM_CACHE_REF} term
+   *
+   * @return referenced atom
+   *
+   * @throws io.appulse.encon.terms.exception.ErlangTermDecodeException if there is no such reference
+   */
+  ErlangAtom get (int index);
+
+  /**
+   * Returns an atom cache reference index for the atom (encoding).
+   *
+   * @param atom an atom for writing
+   *
+   * @return AtomCacheReferenceIndex or {@code -1} if the atom must be written as is
+   */
+  int indexOf (ErlangAtom atom);
+}
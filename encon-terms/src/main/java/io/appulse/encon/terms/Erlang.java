@@ -27,6 +27,7 @@ import java.util.List;
 import io.appulse.encon.terms.exception.ErlangTermValidationException;
 import io.appulse.encon.terms.type.ErlangAtom;
 import io.appulse.encon.terms.type.ErlangBinary;
+import io.appulse.encon.terms.type.ErlangBinarySlice;
 import io.appulse.encon.terms.type.ErlangBitString;
 import io.appulse.encon.terms.type.ErlangFloat;
 import io.appulse.encon.terms.type.ErlangInteger;
@@ -37,6 +38,7 @@ import io.appulse.encon.terms.type.ErlangString;
 import io.appulse.encon.terms.type.ErlangTuple;
 import io.appulse.utils.SerializationUtils;
 
+import io.netty.buffer.ByteBuf;
 import lombok.NonNull;
 
 /**
@@ -71,14 +73,14 @@ public final class Erlang {
   }
 
   /**
-   * Creates new {@link ErlangAtom} instance from {@link String}.
+   * Returns {@link ErlangAtom} instance from {@link String}, interned in the atom table.
    *
    * @param value atom's value
    *
-   * @return {@link ErlangAtom} new instance
+   * @return {@link ErlangAtom} new or cached instance
    */
   public static ErlangAtom atom (@NonNull String value) {
-    return new ErlangAtom(value);
+    return ErlangAtom.cached(value);
   }
 
   /**
@@ -191,6 +193,20 @@ public final class Erlang {
     return new ErlangBinary(value);
   }
 
+  /**
+   * Creates new {@link ErlangBinarySlice} instance over the buffer's readable bytes, without copying.
+   * The instance takes the ownership of the buffer's reference.
+   *
+   * @param value binary's content
+   *
+   * @return {@link ErlangBinarySlice} new instance
+   *
+   * @since 1.7.0
+   */
+  public static ErlangBinarySlice binary (@NonNull ByteBuf value) {
+    return new ErlangBinarySlice(value);
+  }
+
   /**
    * Creates new {@link ErlangBinary} instance from {@link Serializable} object.
    *
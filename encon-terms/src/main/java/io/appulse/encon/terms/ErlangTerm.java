@@ -38,13 +38,10 @@ import io.appulse.encon.terms.type.ErlangExternalFunction;
 import io.appulse.encon.terms.type.ErlangFloat;
 import io.appulse.encon.terms.type.ErlangFunction;
 import io.appulse.encon.terms.type.ErlangInteger;
-import io.appulse.encon.terms.type.ErlangList;
-import io.appulse.encon.terms.type.ErlangMap;
 import io.appulse.encon.terms.type.ErlangPid;
 import io.appulse.encon.terms.type.ErlangPort;
 import io.appulse.encon.terms.type.ErlangReference;
 import io.appulse.encon.terms.type.ErlangString;
-import io.appulse.encon.terms.type.ErlangTuple;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -87,9 +84,15 @@ public abstract class ErlangTerm implements IntegerTerm,
    */
   @SuppressWarnings("unchecked")
   public static <T extends ErlangTerm> T newInstance (@NonNull ByteBuf buffer) {
-    val typeByte = buffer.readByte();
-    val type = TermType.of(typeByte);
+    val type = TermType.of(buffer.getUnsignedByte(buffer.readerIndex()));
+    if (TermDecoder.isContainer(type) || TermDecoder.isFunction(type)) {
+      // the containers are decoded without the recursion,
+      // so a deeply nested term doesn't overflow the stack,
+      // and the funs' free variables are bounded by the same limits
+      return (T) TermDecoder.getDefault().decode(buffer);
+    }
 
+    val typeByte = buffer.readByte();
     switch (type) {
     case SMALL_INTEGER:
     case INTEGER:
@@ -109,19 +112,12 @@ public abstract class ErlangTerm implements IntegerTerm,
     case PID:
     case NEW_PID:
       return (T) new ErlangPid(type, buffer);
-    case SMALL_TUPLE:
-    case LARGE_TUPLE:
-      return (T) new ErlangTuple(type, buffer);
-    case MAP:
-      return (T) new ErlangMap(type, buffer);
     case NIL:
       return (T) NIL;
     case STRING:
       return (T) new ErlangString(type, buffer);
-    case LIST:
-      return (T) new ErlangList(type, buffer);
     case BINARY:
-      return (T) new ErlangBinary(type, buffer);
+      return (T) ErlangBinary.read(type, buffer);
     case FUNCTION:
     case NEW_FUNCTION:
       return (T) new ErlangFunction(type, buffer);
@@ -133,13 +129,24 @@ public abstract class ErlangTerm implements IntegerTerm,
     case SMALL_ATOM_UTF8:
     case ATOM:
     case SMALL_ATOM:
-      return (T) new ErlangAtom(type, buffer);
+      return (T) ErlangAtom.cached(type, buffer);
+    case ATOM_CACHE_REF:
+      return (T) resolveAtomCacheReference(buffer.readUnsignedByte());
     default:
       val message = String.format("Unknown term type %s (%d)", type.name(), typeByte);
       throw new ErlangTermDecodeException(message);
     }
   }
 
+  private static ErlangAtom resolveAtomCacheReference (int index) {
+    val references = AtomCacheReferences.current();
+    if (references == null) {
+      val message = String.format("Atom cache reference %d outside of a distribution header", index);
+      throw new ErlangTermDecodeException(message);
+    }
+    return references.get(index);
+  }
+
   @Setter(PROTECTED)
   TermType type;
 
@@ -164,6 +171,25 @@ public abstract class ErlangTerm implements IntegerTerm,
     this.type = type;
   }
 
+  /**
+   * Constructor for the subclasses of the terms' classes, which are
+   * not the {@link TermType}'s class itself, but extend it.
+   *
+   * @param type term's type
+   *
+   * @param base the extended term's class
+   *
+   * @throws IllegalErlangTermTypeException in case of {@code base} is not the {@link TermType}'s class
+   *
+   * @since 1.7.0
+   */
+  protected ErlangTerm (@NonNull TermType type, @NonNull Class<? extends ErlangTerm> base) {
+    if (!base.equals(type.getType()) || !base.isInstance(this)) {
+      throw new IllegalErlangTermTypeException(getClass(), type);
+    }
+    this.type = type;
+  }
+
   /**
    * Converts the object into byte array.
    *
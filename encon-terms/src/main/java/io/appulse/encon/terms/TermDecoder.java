@@ -0,0 +1,329 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+import io.appulse.encon.terms.type.ErlangFunction;
+import io.appulse.encon.terms.type.ErlangList;
+import io.appulse.encon.terms.type.ErlangMap;
+import io.appulse.encon.terms.type.ErlangTuple;
+
+import io.netty.buffer.ByteBuf;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+/**
+ * Non-recursive decoder of the tuples, lists and maps.
+ * <p>
+ * The containers are decoded with an explicit stack instead of the constructors'
+ * recursion, so a deeply nested term (like a long improper list {@code [1|[2|[3|...]]]})
+ * doesn't overflow the thread's stack. The decoding is also bounded:
+ * <ul>
+ * <li>the nesting depth must not exceed {@link #getMaxDepth()};</li>
+ * <li>the total number of the term's elements must not exceed {@link #getMaxElements()};</li>
+ * <li>the container's declared size must not exceed the buffer's readable bytes, so
+ * a forged size couldn't make the decoder to allocate a huge array.</li>
+ * </ul>
+ * The funs' free variables are decoded by the {@link ErlangFunction}'s constructor,
+ * so they are decoded with {@link #decodeNested(ByteBuf)}, which continues the outer
+ * term's depth and elements accounting: every fun is one more level of nesting.
+ * The default limits could be changed with the {@code io.appulse.encon.terms.maxDepth}
+ * ({@value #DEFAULT_MAX_DEPTH} by default) and {@code io.appulse.encon.terms.maxElements}
+ * ({@link Integer#MAX_VALUE} by default) system properties.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class TermDecoder {
+
+  static final int DEFAULT_MAX_DEPTH = 4096;
+
+  private static final TermDecoder DEFAULT;
+
+  // the budget of the term, which fun's free variables are being decoded now
+  private static final ThreadLocal<Nesting> NESTING = new ThreadLocal<>();
+
+  static {
+    int maxDepth = Integer.getInteger("io.appulse.encon.terms.maxDepth", DEFAULT_MAX_DEPTH);
+    int maxElements = Integer.getInteger("io.appulse.encon.terms.maxElements", Integer.MAX_VALUE);
+    DEFAULT = new TermDecoder(maxDepth, maxElements);
+  }
+
+  /**
+   * Returns the decoder with the default limits, which is used by
+   * {@link ErlangTerm#newInstance(ByteBuf)}.
+   *
+   * @return the default decoder
+   */
+  public static TermDecoder getDefault () {
+    return DEFAULT;
+  }
+
+  /**
+   * Decodes a fun's free variable, continuing the depth and the elements
+   * accounting of the term, which contains the fun.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the decoded term
+   *
+   * @throws ErlangTermDecodeException if the term is broken or exceeds the limits
+   */
+  public static ErlangTerm decodeNested (@NonNull ByteBuf buffer) {
+    val nesting = NESTING.get();
+    if (nesting == null) {
+      // the fun is decoded directly by its constructor
+      return DEFAULT.decode(buffer);
+    }
+    nesting.elements++;
+    return nesting.decoder.decode(buffer, nesting);
+  }
+
+  static boolean isFunction (TermType type) {
+    return type == TermType.FUNCTION || type == TermType.NEW_FUNCTION;
+  }
+
+  static boolean isContainer (TermType type) {
+    switch (type) {
+    case SMALL_TUPLE:
+    case LARGE_TUPLE:
+    case LIST:
+    case MAP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * The maximum nesting depth of the containers.
+   */
+  @Getter
+  int maxDepth;
+
+  /**
+   * The maximum total number of the elements (for maps - keys and values,
+   * for lists - including the tails) in a single term.
+   */
+  @Getter
+  int maxElements;
+
+  /**
+   * Constructs a new decoder with the specific limits.
+   *
+   * @param maxDepth    the maximum nesting depth of the containers
+   *
+   * @param maxElements the maximum total number of the elements in a single term
+   */
+  public TermDecoder (int maxDepth, int maxElements) {
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Max depth must be positive, but it is " + maxDepth);
+    }
+    if (maxElements <= 0) {
+      throw new IllegalArgumentException("Max elements must be positive, but it is " + maxElements);
+    }
+    this.maxDepth = maxDepth;
+    this.maxElements = maxElements;
+  }
+
+  /**
+   * Decodes the next term from the buffer.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the decoded term
+   *
+   * @throws ErlangTermDecodeException if the term is broken or exceeds the limits
+   */
+  public ErlangTerm decode (@NonNull ByteBuf buffer) {
+    return decode(buffer, null);
+  }
+
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  private ErlangTerm decode (ByteBuf buffer, Nesting outer) {
+    Frame[] stack = null;
+    int depth = 0;
+    int baseDepth = outer == null
+                    ? 0
+                    : outer.depth;
+    long elements = outer == null
+                    ? 0
+                    : outer.elements;
+
+    while (true) {
+      val type = TermType.of(buffer.getUnsignedByte(buffer.readerIndex()));
+      ErlangTerm value;
+      if (isContainer(type)) {
+        val frame = readHeader(type, buffer);
+        elements += frame.children.length;
+        checkElements(elements);
+
+        if (frame.children.length > 0) {
+          checkDepth(baseDepth + depth);
+          if (stack == null) {
+            stack = new Frame[Math.min(maxDepth, 16)];
+          } else if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, Math.min(maxDepth, depth * 2));
+          }
+          stack[depth++] = frame;
+          continue;
+        }
+        value = frame.build();
+      } else if (isFunction(type)) {
+        checkDepth(baseDepth + depth);
+        val nesting = new Nesting(this, baseDepth + depth + 1, elements);
+        val previous = NESTING.get();
+        NESTING.set(nesting);
+        try {
+          buffer.skipBytes(1);
+          value = new ErlangFunction(type, buffer);
+        } finally {
+          NESTING.set(previous);
+        }
+        elements = nesting.elements;
+        checkElements(elements);
+      } else {
+        value = ErlangTerm.newInstance(buffer);
+      }
+
+      // attaches the value to its parents, finishing the filled ones
+      while (true) {
+        if (depth == 0) {
+          if (outer != null) {
+            outer.elements = elements;
+          }
+          return value;
+        }
+        val parent = stack[depth - 1];
+        parent.children[parent.filled++] = value;
+        if (parent.filled < parent.children.length) {
+          break;
+        }
+        stack[--depth] = null;
+        value = parent.build();
+      }
+    }
+  }
+
+  private void checkDepth (int depth) {
+    if (depth >= maxDepth) {
+      val message = String.format("The term is nested deeper than %d levels", maxDepth);
+      throw new ErlangTermDecodeException(message);
+    }
+  }
+
+  private void checkElements (long elements) {
+    if (elements > maxElements) {
+      val message = String.format("The term has more than %d elements", maxElements);
+      throw new ErlangTermDecodeException(message);
+    }
+  }
+
+  private Frame readHeader (TermType type, ByteBuf buffer) {
+    buffer.skipBytes(1);
+
+    long size;
+    switch (type) {
+    case SMALL_TUPLE:
+      size = buffer.readUnsignedByte();
+      break;
+    case LARGE_TUPLE:
+      size = buffer.readUnsignedInt();
+      break;
+    case LIST:
+      // the elements and the tail
+      size = buffer.readUnsignedInt() + 1;
+      break;
+    default:
+      // the keys and the values
+      size = buffer.readUnsignedInt() * 2;
+    }
+
+    // every element takes at least one byte
+    if (size > buffer.readableBytes()) {
+      val message = String.format("The %s declares %d elements, but only %d bytes left",
+                                  type, size, buffer.readableBytes());
+      throw new ErlangTermDecodeException(message);
+    }
+    return new Frame(type, new ErlangTerm[(int) size]);
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class Nesting {
+
+    TermDecoder decoder;
+
+    // the depth of the fun's free variables
+    int depth;
+
+    @NonFinal
+    long elements;
+
+    Nesting (TermDecoder decoder, int depth, long elements) {
+      this.decoder = decoder;
+      this.depth = depth;
+      this.elements = elements;
+    }
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class Frame {
+
+    TermType type;
+
+    ErlangTerm[] children;
+
+    @NonFinal
+    int filled;
+
+    Frame (TermType type, ErlangTerm[] children) {
+      this.type = type;
+      this.children = children;
+    }
+
+    ErlangTerm build () {
+      switch (type) {
+      case SMALL_TUPLE:
+      case LARGE_TUPLE:
+        return new ErlangTuple(children);
+      case LIST: {
+        val length = children.length - 1;
+        val tail = children[length];
+        return new ErlangList(tail, Arrays.asList(children).subList(0, length));
+      }
+      default: {
+        val map = new LinkedHashMap<ErlangTerm, ErlangTerm>(children.length);
+        for (int index = 0; index < children.length; index += 2) {
+          if (map.put(children[index], children[index + 1]) != null) {
+            throw new ErlangTermDecodeException("Duplicate key " + children[index]);
+          }
+        }
+        return new ErlangMap(map);
+      }
+      }
+    }
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+import static io.appulse.encon.terms.TermType.INTEGER;
+import static io.appulse.encon.terms.TermType.LARGE_TUPLE;
+import static io.appulse.encon.terms.TermType.LIST;
+import static io.appulse.encon.terms.TermType.MAP;
+import static io.appulse.encon.terms.TermType.NEW_FLOAT;
+import static io.appulse.encon.terms.TermType.NIL;
+import static io.appulse.encon.terms.TermType.SMALL_BIG;
+import static io.appulse.encon.terms.TermType.SMALL_INTEGER;
+import static io.appulse.encon.terms.TermType.SMALL_TUPLE;
+
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+import io.appulse.encon.terms.type.ErlangAtom;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+
+/**
+ * Low-level helpers for writing and reading the external term format
+ * directly to/from {@link ByteBuf}, without creating {@link ErlangTerm} instances.
+ * <p>
+ * The produced bytes are exactly the same as the corresponding terms'
+ * {@link ErlangTerm#writeTo(ByteBuf)} writes.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public final class TermEncoding {
+
+  private static final int MAX_SMALL_INTEGER = 255;
+
+  private static final int MAX_INTEGER = (1 << 27) - 1;
+
+  private static final int MIN_INTEGER = -(1 << 27) - 1;
+
+  private static final int MAX_SMALL_TUPLE_SIZE = 256;
+
+  /**
+   * Returns the type of the next term in the buffer, without moving its reader index.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the next term's type
+   */
+  public static TermType peekType (@NonNull ByteBuf buffer) {
+    return TermType.of(buffer.getUnsignedByte(buffer.readerIndex()));
+  }
+
+  /**
+   * Writes a tuple's header. The tuple's elements must follow it.
+   *
+   * @param buffer byte buffer
+   *
+   * @param arity  the tuple's arity
+   */
+  public static void writeTupleHeader (@NonNull ByteBuf buffer, int arity) {
+    if (arity < MAX_SMALL_TUPLE_SIZE) {
+      buffer.writeByte(SMALL_TUPLE.getCode());
+      buffer.writeByte(arity);
+    } else {
+      buffer.writeByte(LARGE_TUPLE.getCode());
+      buffer.writeInt(arity);
+    }
+  }
+
+  /**
+   * Writes a list's header. The list's elements and its tail
+   * (usually {@link #writeNil(ByteBuf) nil}) must follow it.
+   *
+   * @param buffer byte buffer
+   *
+   * @param length the number of the list's elements
+   */
+  public static void writeListHeader (@NonNull ByteBuf buffer, int length) {
+    buffer.writeByte(LIST.getCode());
+    buffer.writeInt(length);
+  }
+
+  /**
+   * Writes an empty list, which is also the proper list's tail.
+   *
+   * @param buffer byte buffer
+   */
+  public static void writeNil (@NonNull ByteBuf buffer) {
+    buffer.writeByte(NIL.getCode());
+  }
+
+  /**
+   * Writes a map's header. The map's keys and values, one by one, must follow it.
+   *
+   * @param buffer byte buffer
+   *
+   * @param arity  the number of the map's pairs
+   */
+  public static void writeMapHeader (@NonNull ByteBuf buffer, int arity) {
+    buffer.writeByte(MAP.getCode());
+    buffer.writeInt(arity);
+  }
+
+  /**
+   * Writes an integer number.
+   *
+   * @param buffer byte buffer
+   *
+   * @param value  the number
+   */
+  public static void writeInteger (@NonNull ByteBuf buffer, long value) {
+    if ((value & MAX_SMALL_INTEGER) == value) {
+      buffer.writeByte(SMALL_INTEGER.getCode());
+      buffer.writeByte((int) value);
+    } else if (value >= MIN_INTEGER && value <= MAX_INTEGER) {
+      buffer.writeByte(INTEGER.getCode());
+      buffer.writeInt((int) value);
+    } else {
+      // for Long.MIN_VALUE the negation overflows back to itself,
+      // which is exactly its magnitude (2^63) if treated as unsigned
+      long magnitude = value < 0
+                       ? -value
+                       : value;
+
+      int length = (Long.SIZE - Long.numberOfLeadingZeros(magnitude) + Byte.SIZE - 1) / Byte.SIZE;
+      buffer.writeByte(SMALL_BIG.getCode());
+      buffer.writeByte(length);
+      buffer.writeByte(value < 0
+                       ? 1
+                       : 0);
+      for (int index = 0; index < length; index++) {
+        buffer.writeByte((int) (magnitude >>> (index * Byte.SIZE)));
+      }
+    }
+  }
+
+  /**
+   * Writes a floating point number.
+   *
+   * @param buffer byte buffer
+   *
+   * @param value  the number
+   */
+  public static void writeFloat (@NonNull ByteBuf buffer, double value) {
+    buffer.writeByte(NEW_FLOAT.getCode());
+    buffer.writeLong(Double.doubleToLongBits(value));
+  }
+
+  /**
+   * Writes a boolean, as {@code true} or {@code false} atom.
+   *
+   * @param buffer byte buffer
+   *
+   * @param value  the boolean
+   */
+  public static void writeBoolean (@NonNull ByteBuf buffer, boolean value) {
+    ErlangAtom atom = value
+                      ? ErlangAtom.ATOM_TRUE
+                      : ErlangAtom.ATOM_FALSE;
+    atom.writeTo(buffer);
+  }
+
+  /**
+   * Reads a tuple's header.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the tuple's arity
+   *
+   * @throws ErlangTermDecodeException if the next term is not a tuple
+   */
+  public static int readTupleHeader (@NonNull ByteBuf buffer) {
+    TermType type = peekType(buffer);
+    switch (type) {
+    case SMALL_TUPLE:
+      buffer.skipBytes(1);
+      return buffer.readUnsignedByte();
+    case LARGE_TUPLE:
+      buffer.skipBytes(1);
+      return buffer.readInt();
+    default:
+      throw unexpected(type, "tuple");
+    }
+  }
+
+  /**
+   * Reads a list's header. The list's elements and tail must be read after it.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the number of the list's elements
+   *
+   * @throws ErlangTermDecodeException if the next term is not a {@link TermType#LIST}
+   */
+  public static int readListHeader (@NonNull ByteBuf buffer) {
+    TermType type = peekType(buffer);
+    if (type != LIST) {
+      throw unexpected(type, "list");
+    }
+    buffer.skipBytes(1);
+    return buffer.readInt();
+  }
+
+  /**
+   * Reads a map's header.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the number of the map's pairs
+   *
+   * @throws ErlangTermDecodeException if the next term is not a map
+   */
+  public static int readMapHeader (@NonNull ByteBuf buffer) {
+    TermType type = peekType(buffer);
+    if (type != MAP) {
+      throw unexpected(type, "map");
+    }
+    buffer.skipBytes(1);
+    return buffer.readInt();
+  }
+
+  /**
+   * Reads an integer number. The terms, which are not the integers fitting
+   * into {@code long} (see {@link #isLong(ByteBuf)}), are decoded and converted
+   * with {@link ErlangTerm#asLong()}.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the number
+   */
+  public static long readInteger (@NonNull ByteBuf buffer) {
+    if (!isLong(buffer)) {
+      return ErlangTerm.newInstance(buffer).asLong();
+    }
+
+    TermType type = TermType.of(buffer.readUnsignedByte());
+    switch (type) {
+    case SMALL_INTEGER:
+      return buffer.readUnsignedByte();
+    case INTEGER:
+      return buffer.readInt();
+    default: {
+      // SMALL_BIG
+      int length = buffer.readUnsignedByte();
+      boolean negative = buffer.readUnsignedByte() != 0;
+      long magnitude = 0;
+      for (int offset = 0; offset < length; offset++) {
+        magnitude |= (long) buffer.readUnsignedByte() << (offset * Byte.SIZE);
+      }
+      return negative
+             ? -magnitude
+             : magnitude;
+    }
+    }
+  }
+
+  /**
+   * Tells whether the next term is an integer number, which fits into {@code long}.
+   *
+   * @param buffer byte buffer
+   *
+   * @return {@code true} if the next term could be read as {@code long} without losses
+   */
+  public static boolean isLong (@NonNull ByteBuf buffer) {
+    int index = buffer.readerIndex();
+    TermType type = TermType.of(buffer.getUnsignedByte(index));
+    switch (type) {
+    case SMALL_INTEGER:
+    case INTEGER:
+      return true;
+    case SMALL_BIG: {
+      int length = buffer.getUnsignedByte(index + 1);
+      if (length < Long.BYTES) {
+        return true;
+      }
+      if (length > Long.BYTES) {
+        return false;
+      }
+      boolean negative = buffer.getUnsignedByte(index + 2) != 0;
+      int highest = buffer.getUnsignedByte(index + 2 + Long.BYTES);
+      if (highest < 0x80) {
+        return true;
+      }
+      if (!negative || highest > 0x80) {
+        return false;
+      }
+      // only -2^63 is allowed here
+      for (int offset = 0; offset < Long.BYTES - 1; offset++) {
+        if (buffer.getUnsignedByte(index + 3 + offset) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Reads a floating point number. The terms, which are not
+   * {@link TermType#NEW_FLOAT}, are decoded and converted with {@link ErlangTerm#asDouble()}.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the number
+   */
+  public static double readFloat (@NonNull ByteBuf buffer) {
+    if (peekType(buffer) == NEW_FLOAT) {
+      buffer.skipBytes(1);
+      return Double.longBitsToDouble(buffer.readLong());
+    }
+    return ErlangTerm.newInstance(buffer).asDouble();
+  }
+
+  /**
+   * Reads a boolean atom. The known atoms are interned,
+   * so it doesn't allocate for {@code true} and {@code false}.
+   *
+   * @param buffer byte buffer
+   *
+   * @return the boolean
+   */
+  public static boolean readBoolean (@NonNull ByteBuf buffer) {
+    return ErlangTerm.newInstance(buffer).asBoolean();
+  }
+
+  private static ErlangTermDecodeException unexpected (TermType type, String expected) {
+    String message = String.format("Expected %s, but the next term is %s", expected, type);
+    return new ErlangTermDecodeException(message);
+  }
+
+  private TermEncoding () {
+  }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+import static io.appulse.encon.terms.TermToken.END_LIST;
+import static io.appulse.encon.terms.TermToken.END_MAP;
+import static io.appulse.encon.terms.TermToken.END_TUPLE;
+import static io.appulse.encon.terms.TermToken.START_LIST;
+import static io.appulse.encon.terms.TermToken.START_MAP;
+import static io.appulse.encon.terms.TermToken.START_TUPLE;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import io.appulse.encon.terms.type.ErlangAtom;
+import io.appulse.encon.terms.type.LazyErlangTerm;
+
+import io.netty.buffer.ByteBuf;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+/**
+ * StAX-like pull reader of the external term format.
+ * <p>
+ * Instead of materializing the whole term via {@link ErlangTerm#newInstance(ByteBuf)},
+ * the reader walks the buffer token by token. The containers are reported as
+ * their start/end tokens, the scalars are read directly from the buffer (the integers
+ * and floats without allocations, the binaries as the buffer's slices, the atoms
+ * as the interned instances), and the not needed subterms could be skipped
+ * without decoding via {@link #skipChildren()}:
+ * <pre>{@code
+ * TermReader reader = new TermReader(buffer);
+ * reader.next();                 // START_TUPLE
+ * reader.next();                 // ATOM
+ * String tag = reader.getText();
+ * reader.next();                 // INTEGER
+ * long id = reader.getLong();
+ * reader.next();                 // START_LIST
+ * reader.skipChildren();         // END_LIST, the list's elements are not decoded
+ * }</pre>
+ * The instance is not thread-safe.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class TermReader {
+
+  private static final int INITIAL_DEPTH = 8;
+
+  // the list's elements are read, as well as its tail
+  private static final int DONE = -1;
+
+  ByteBuf buffer;
+
+  // the left number of the elements (for maps - keys and values) per the nesting level
+  @NonFinal
+  int[] remaining;
+
+  @NonFinal
+  TermToken[] containers;
+
+  @NonFinal
+  int depth;
+
+  /**
+   * The current token.
+   */
+  @Getter
+  @NonFinal
+  TermToken token;
+
+  @NonFinal
+  int arity;
+
+  @NonFinal
+  long longValue;
+
+  @NonFinal
+  double doubleValue;
+
+  @NonFinal
+  ErlangTerm term;
+
+  @NonFinal
+  ByteBuf slice;
+
+  /**
+   * Constructs a new reader over the buffer's readable bytes.
+   *
+   * @param buffer byte buffer with the terms
+   */
+  public TermReader (@NonNull ByteBuf buffer) {
+    this.buffer = buffer;
+    remaining = new int[INITIAL_DEPTH];
+    containers = new TermToken[INITIAL_DEPTH];
+  }
+
+  /**
+   * Tells whether there are more tokens or not.
+   *
+   * @return {@code true} if the current container is not finished yet,
+   *         or the buffer has more terms
+   */
+  public boolean hasNext () {
+    return depth > 0 || buffer.isReadable();
+  }
+
+  /**
+   * Returns the current nesting level, {@code 0} means the top level.
+   *
+   * @return the nesting level
+   */
+  public int getDepth () {
+    return depth;
+  }
+
+  /**
+   * Advances to the next token.
+   *
+   * @return the next token
+   *
+   * @throws NoSuchElementException if there are no more tokens
+   */
+  public TermToken next () {
+    term = null;
+    slice = null;
+
+    if (depth == 0) {
+      if (!buffer.isReadable()) {
+        throw new NoSuchElementException();
+      }
+      return readValue();
+    }
+
+    int level = depth - 1;
+    if (remaining[level] == 0 && containers[level] == START_LIST) {
+      remaining[level] = DONE;
+      if (TermEncoding.peekType(buffer) != TermType.NIL) {
+        // improper list's tail
+        return readValue();
+      }
+      buffer.skipBytes(1);
+    }
+    if (remaining[level] <= 0) {
+      depth--;
+      token = endOf(containers[level]);
+      return token;
+    }
+
+    remaining[level]--;
+    return readValue();
+  }
+
+  /**
+   * Skips the rest of the current container without decoding it,
+   * so the current token becomes the container's end.
+   * Does nothing, if the current token is not a container's start.
+   *
+   * @return the current token
+   */
+  public TermToken skipChildren () {
+    if (token != START_TUPLE && token != START_LIST && token != START_MAP) {
+      return token;
+    }
+
+    int level = depth - 1;
+    for (int index = remaining[level]; index > 0; index--) {
+      LazyErlangTerm.skip(buffer);
+    }
+    if (containers[level] == START_LIST) {
+      LazyErlangTerm.skip(buffer);
+    }
+    depth--;
+    token = endOf(containers[level]);
+    return token;
+  }
+
+  /**
+   * Returns the arity of the current container: the number of the tuple's or
+   * the list's elements, or the number of the map's pairs.
+   *
+   * @return the container's arity
+   */
+  public int getArity () {
+    if (token != START_TUPLE && token != START_LIST && token != START_MAP) {
+      throw unexpected("container start");
+    }
+    return arity;
+  }
+
+  /**
+   * Tells whether the current integer fits into {@code long}.
+   *
+   * @return {@code true} if {@link #getLong()} returns the exact value
+   */
+  public boolean isLong () {
+    return token == TermToken.INTEGER && term == null;
+  }
+
+  /**
+   * Returns the current integer value.
+   *
+   * @return the integer value, truncated if it doesn't fit into {@code long}
+   */
+  public long getLong () {
+    if (token != TermToken.INTEGER) {
+      throw unexpected("integer");
+    }
+    return term == null
+           ? longValue
+           : term.asLong();
+  }
+
+  /**
+   * Returns the current integer value.
+   *
+   * @return the integer value
+   */
+  public BigInteger getBigInteger () {
+    if (token != TermToken.INTEGER) {
+      throw unexpected("integer");
+    }
+    return term == null
+           ? BigInteger.valueOf(longValue)
+           : term.asBigInteger();
+  }
+
+  /**
+   * Returns the current float or integer value.
+   *
+   * @return the number
+   */
+  public double getDouble () {
+    if (token == TermToken.FLOAT) {
+      return doubleValue;
+    }
+    if (token == TermToken.INTEGER) {
+      return term == null
+             ? longValue
+             : term.asDouble();
+    }
+    throw unexpected("float");
+  }
+
+  /**
+   * Returns the current atom.
+   *
+   * @return the atom
+   */
+  public ErlangAtom getAtom () {
+    if (token != TermToken.ATOM) {
+      throw unexpected("atom");
+    }
+    return (ErlangAtom) term;
+  }
+
+  /**
+   * Returns the current atom as boolean.
+   *
+   * @return {@code true} if the atom is {@code true}
+   */
+  public boolean getBoolean () {
+    return getAtom().asBoolean();
+  }
+
+  /**
+   * Returns the text of the current atom or string.
+   *
+   * @return the text
+   */
+  public String getText () {
+    if (token == TermToken.ATOM) {
+      return term.asText();
+    }
+    if (token == TermToken.STRING) {
+      return slice.toString(ISO_8859_1);
+    }
+    throw unexpected("atom or string");
+  }
+
+  /**
+   * Returns the content of the current binary or string, as a slice of
+   * the reader's buffer. It is valid while the buffer's content is.
+   *
+   * @return the binary's content without copying
+   */
+  public ByteBuf getBinary () {
+    if (token != TermToken.BINARY && token != TermToken.STRING) {
+      throw unexpected("binary or string");
+    }
+    return slice;
+  }
+
+  /**
+   * Returns the current decoded term, for the {@link TermToken#TERM}
+   * and {@link TermToken#ATOM} tokens.
+   *
+   * @return the decoded term
+   */
+  public ErlangTerm getTerm () {
+    if (token != TermToken.TERM && token != TermToken.ATOM) {
+      throw unexpected("term");
+    }
+    return term;
+  }
+
+  @SuppressWarnings({
+      "checkstyle:CyclomaticComplexity",
+      "PMD.CyclomaticComplexity"
+  })
+  private TermToken readValue () {
+    TermType type = TermEncoding.peekType(buffer);
+    switch (type) {
+    case SMALL_TUPLE:
+    case LARGE_TUPLE:
+      arity = TermEncoding.readTupleHeader(buffer);
+      push(START_TUPLE, arity);
+      break;
+    case LIST:
+      arity = TermEncoding.readListHeader(buffer);
+      push(START_LIST, arity);
+      break;
+    case MAP:
+      arity = TermEncoding.readMapHeader(buffer);
+      push(START_MAP, arity * 2);
+      break;
+    case NIL:
+      buffer.skipBytes(1);
+      token = TermToken.NIL;
+      break;
+    case SMALL_INTEGER:
+    case INTEGER:
+    case SMALL_BIG:
+    case LARGE_BIG:
+      if (TermEncoding.isLong(buffer)) {
+        longValue = TermEncoding.readInteger(buffer);
+      } else {
+        term = ErlangTerm.newInstance(buffer);
+      }
+      token = TermToken.INTEGER;
+      break;
+    case FLOAT:
+    case NEW_FLOAT:
+      doubleValue = TermEncoding.readFloat(buffer);
+      token = TermToken.FLOAT;
+      break;
+    case ATOM:
+    case ATOM_UTF8:
+    case SMALL_ATOM:
+    case SMALL_ATOM_UTF8:
+    case ATOM_CACHE_REF:
+      term = ErlangTerm.newInstance(buffer);
+      token = TermToken.ATOM;
+      break;
+    case STRING:
+      buffer.skipBytes(1);
+      slice = buffer.readSlice(buffer.readUnsignedShort());
+      token = TermToken.STRING;
+      break;
+    case BINARY:
+      buffer.skipBytes(1);
+      slice = buffer.readSlice(buffer.readInt());
+      token = TermToken.BINARY;
+      break;
+    default:
+      term = ErlangTerm.newInstance(buffer);
+      token = TermToken.TERM;
+    }
+    return token;
+  }
+
+  private void push (TermToken container, int elements) {
+    if (depth == remaining.length) {
+      remaining = Arrays.copyOf(remaining, depth * 2);
+      containers = Arrays.copyOf(containers, depth * 2);
+    }
+    remaining[depth] = elements;
+    containers[depth] = container;
+    depth++;
+    token = container;
+  }
+
+  private static TermToken endOf (TermToken container) {
+    switch (container) {
+    case START_TUPLE:
+      return END_TUPLE;
+    case START_LIST:
+      return END_LIST;
+    default:
+      return END_MAP;
+    }
+  }
+
+  private IllegalStateException unexpected (String expected) {
+    String message = String.format("Current token is %s, not %s", token, expected);
+    return new IllegalStateException(message);
+  }
+}
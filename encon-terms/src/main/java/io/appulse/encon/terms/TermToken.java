@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+/**
+ * The tokens, which {@link TermReader} emits.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public enum TermToken {
+
+  /**
+   * The beginning of a tuple, its arity is available via {@link TermReader#getArity()}.
+   */
+  START_TUPLE,
+
+  /**
+   * The end of a tuple.
+   */
+  END_TUPLE,
+
+  /**
+   * The beginning of a list, the number of its elements is available
+   * via {@link TermReader#getArity()}. The improper list's tail is emitted
+   * as the last value before {@link #END_LIST}.
+   */
+  START_LIST,
+
+  /**
+   * The end of a list.
+   */
+  END_LIST,
+
+  /**
+   * The beginning of a map, the number of its pairs is available via
+   * {@link TermReader#getArity()}. The keys and values follow one by one.
+   */
+  START_MAP,
+
+  /**
+   * The end of a map.
+   */
+  END_MAP,
+
+  /**
+   * An empty list.
+   */
+  NIL,
+
+  /**
+   * An atom, including the booleans.
+   */
+  ATOM,
+
+  /**
+   * An integer number.
+   */
+  INTEGER,
+
+  /**
+   * A floating point number.
+   */
+  FLOAT,
+
+  /**
+   * A list of bytes in the compact {@link TermType#STRING} form.
+   */
+  STRING,
+
+  /**
+   * A binary.
+   */
+  BINARY,
+
+  /**
+   * Any other term (a pid, a reference, a port, a function, a bit string),
+   * decoded as a whole and available via {@link TermReader#getTerm()}.
+   */
+  TERM;
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+import static io.appulse.encon.terms.TermType.BINARY;
+import static lombok.AccessLevel.PRIVATE;
+
+import io.appulse.encon.terms.type.ErlangAtom;
+
+import io.netty.buffer.ByteBuf;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The {@link TermReader}'s counterpart, which writes the external term format
+ * directly into a buffer, without creating the containers' terms:
+ * <pre>{@code
+ * new TermWriter(buffer)
+ *     .writeStartTuple(3)
+ *     .writeAtom("ok")
+ *     .writeInteger(42)
+ *     .writeStartList(2)
+ *     .writeBinary(first)
+ *     .writeBinary(second)
+ *     .writeEndList();
+ * }</pre>
+ * The tuples and maps are prefixed by their arity, so they don't have the end
+ * tokens, the lists must be finished by {@link #writeEndList()}.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class TermWriter {
+
+  /**
+   * The buffer, the terms are written to.
+   */
+  @Getter
+  ByteBuf buffer;
+
+  /**
+   * Constructs a new writer into the buffer.
+   *
+   * @param buffer byte buffer for writing
+   */
+  public TermWriter (@NonNull ByteBuf buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * Writes a tuple's header, the tuple's elements must follow it.
+   *
+   * @param arity the tuple's arity
+   *
+   * @return this writer
+   */
+  public TermWriter writeStartTuple (int arity) {
+    TermEncoding.writeTupleHeader(buffer, arity);
+    return this;
+  }
+
+  /**
+   * Writes a list's header, the list's elements and {@link #writeEndList()} must follow it.
+   *
+   * @param length the number of the list's elements
+   *
+   * @return this writer
+   */
+  public TermWriter writeStartList (int length) {
+    TermEncoding.writeListHeader(buffer, length);
+    return this;
+  }
+
+  /**
+   * Finishes a proper list, by writing its empty tail.
+   *
+   * @return this writer
+   */
+  public TermWriter writeEndList () {
+    TermEncoding.writeNil(buffer);
+    return this;
+  }
+
+  /**
+   * Writes a map's header, the map's keys and values one by one must follow it.
+   *
+   * @param arity the number of the map's pairs
+   *
+   * @return this writer
+   */
+  public TermWriter writeStartMap (int arity) {
+    TermEncoding.writeMapHeader(buffer, arity);
+    return this;
+  }
+
+  /**
+   * Writes an empty list.
+   *
+   * @return this writer
+   */
+  public TermWriter writeNil () {
+    TermEncoding.writeNil(buffer);
+    return this;
+  }
+
+  /**
+   * Writes an atom. The known atoms are taken from the atom table, without allocations.
+   *
+   * @param value the atom's text
+   *
+   * @return this writer
+   */
+  public TermWriter writeAtom (@NonNull String value) {
+    Erlang.atom(value).writeTo(buffer);
+    return this;
+  }
+
+  /**
+   * Writes an atom.
+   *
+   * @param value the atom
+   *
+   * @return this writer
+   */
+  public TermWriter writeAtom (@NonNull ErlangAtom value) {
+    value.writeTo(buffer);
+    return this;
+  }
+
+  /**
+   * Writes a boolean atom.
+   *
+   * @param value the boolean
+   *
+   * @return this writer
+   */
+  public TermWriter writeBoolean (boolean value) {
+    TermEncoding.writeBoolean(buffer, value);
+    return this;
+  }
+
+  /**
+   * Writes an integer number.
+   *
+   * @param value the number
+   *
+   * @return this writer
+   */
+  public TermWriter writeInteger (long value) {
+    TermEncoding.writeInteger(buffer, value);
+    return this;
+  }
+
+  /**
+   * Writes a floating point number.
+   *
+   * @param value the number
+   *
+   * @return this writer
+   */
+  public TermWriter writeFloat (double value) {
+    TermEncoding.writeFloat(buffer, value);
+    return this;
+  }
+
+  /**
+   * Writes a string.
+   *
+   * @param value the string
+   *
+   * @return this writer
+   */
+  public TermWriter writeString (@NonNull String value) {
+    Erlang.string(value).writeTo(buffer);
+    return this;
+  }
+
+  /**
+   * Writes a binary.
+   *
+   * @param value the binary's content
+   *
+   * @return this writer
+   */
+  public TermWriter writeBinary (@NonNull byte[] value) {
+    buffer.writeByte(BINARY.getCode());
+    buffer.writeInt(value.length);
+    buffer.writeBytes(value);
+    return this;
+  }
+
+  /**
+   * Writes a binary, its content is the value's readable bytes.
+   * The value's reader index is not changed.
+   *
+   * @param value the binary's content
+   *
+   * @return this writer
+   */
+  public TermWriter writeBinary (@NonNull ByteBuf value) {
+    int length = value.readableBytes();
+    buffer.writeByte(BINARY.getCode());
+    buffer.writeInt(length);
+    buffer.writeBytes(value, value.readerIndex(), length);
+    return this;
+  }
+
+  /**
+   * Writes an already created term.
+   *
+   * @param value the term
+   *
+   * @return this writer
+   */
+  public TermWriter writeTerm (@NonNull ErlangTerm value) {
+    value.writeTo(buffer);
+    return this;
+  }
+}
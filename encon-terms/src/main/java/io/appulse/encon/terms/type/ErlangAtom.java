@@ -16,6 +16,7 @@
 
 package io.appulse.encon.terms.type;
 
+import static io.appulse.encon.terms.TermType.ATOM_CACHE_REF;
 import static io.appulse.encon.terms.TermType.ATOM_UTF8;
 import static io.appulse.encon.terms.TermType.SMALL_ATOM;
 import static io.appulse.encon.terms.TermType.SMALL_ATOM_UTF8;
@@ -26,6 +27,7 @@ import static lombok.AccessLevel.PRIVATE;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
+import io.appulse.encon.terms.AtomCacheReferences;
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.TermType;
 import io.appulse.encon.terms.exception.IllegalErlangTermTypeException;
@@ -36,6 +38,7 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
 import lombok.experimental.FieldDefaults;
+import lombok.val;
 
 /**
  * An atom is a literal, a constant with name. An atom is to be enclosed in
@@ -61,6 +64,32 @@ public class ErlangAtom extends ErlangTerm {
 
   private static final int MAX_SMALL_ATOM_BYTES_LENGTH = 255;
 
+  /**
+   * Returns canonical {@link ErlangAtom} instance from the {@link ErlangAtomTable}
+   * for the atom, which is located in the buffer, or decodes a new one.
+   *
+   * @param type   object's type
+   *
+   * @param buffer byte buffer
+   *
+   * @return new or cached {@link ErlangAtom} object
+   */
+  public static ErlangAtom cached (@NonNull TermType type, @NonNull ByteBuf buffer) {
+    return ErlangAtomTable.getInstance().intern(type, buffer);
+  }
+
+  /**
+   * Returns canonical {@link ErlangAtom} instance from the {@link ErlangAtomTable}
+   * for the specified value, or creates a new one.
+   *
+   * @param value {@link String} atom's value
+   *
+   * @return new or cached {@link ErlangAtom} object
+   */
+  public static ErlangAtom cached (@NonNull String value) {
+    return ErlangAtomTable.getInstance().intern(value);
+  }
+
   @Getter(lazy = true, value = PRIVATE)
   String value = createString();
 
@@ -76,16 +105,13 @@ public class ErlangAtom extends ErlangTerm {
    * @param buffer byte buffer
    */
   public ErlangAtom (TermType type, ByteBuf buffer) {
-    super(type);
-
-    int length = type == SMALL_ATOM || type == SMALL_ATOM_UTF8
-                 ? buffer.readUnsignedByte()
-                 : buffer.readUnsignedShort();
+    this(type, readLength(type, buffer), buffer);
+  }
 
-    charset = type == SMALL_ATOM_UTF8 || type == ATOM_UTF8
-              ? UTF_8
-              : ISO_8859_1;
+  ErlangAtom (TermType type, int length, ByteBuf buffer) {
+    super(type);
 
+    charset = charsetOf(type);
     bytes = new byte[length];
     buffer.readBytes(bytes);
   }
@@ -159,6 +185,20 @@ public class ErlangAtom extends ErlangTerm {
     return true;
   }
 
+  @Override
+  public void writeTo (@NonNull ByteBuf buffer) {
+    val references = AtomCacheReferences.current();
+    if (references != null) {
+      val index = references.indexOf(this);
+      if (index >= 0) {
+        buffer.writeByte(ATOM_CACHE_REF.getCode());
+        buffer.writeByte(index);
+        return;
+      }
+    }
+    super.writeTo(buffer);
+  }
+
   @Override
   protected void serialize (ByteBuf buffer) {
     switch (getType()) {
@@ -176,6 +216,46 @@ public class ErlangAtom extends ErlangTerm {
     buffer.writeBytes(bytes);
   }
 
+  static int readLength (TermType type, ByteBuf buffer) {
+    return type == SMALL_ATOM || type == SMALL_ATOM_UTF8
+           ? buffer.readUnsignedByte()
+           : buffer.readUnsignedShort();
+  }
+
+  static Charset charsetOf (TermType type) {
+    return type == SMALL_ATOM_UTF8 || type == ATOM_UTF8
+           ? UTF_8
+           : ISO_8859_1;
+  }
+
+  boolean contentEquals (Charset otherCharset, ByteBuf buffer, int offset, int length) {
+    if (charset != otherCharset || bytes.length != length) {
+      return false;
+    }
+    for (int index = 0; index < length; index++) {
+      if (bytes[index] != buffer.getByte(offset + index)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean contentEquals (String asciiValue) {
+    if (charset != UTF_8 || bytes.length != asciiValue.length()) {
+      return false;
+    }
+    for (int index = 0; index < bytes.length; index++) {
+      if (bytes[index] != asciiValue.charAt(index)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean contentEquals (ErlangAtom other) {
+    return charset == other.charset && Arrays.equals(bytes, other.bytes);
+  }
+
   private String createString () {
     return new String(bytes, charset);
   }
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms.type;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.appulse.encon.terms.TermType;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Bounded, lock-free table of canonical {@link ErlangAtom} instances,
+ * the equivalent of the Erlang's atom table.
+ * <p>
+ * The table is keyed on the atom's raw bytes (and charset), so decoding of an
+ * already known atom doesn't allocate anything and returns the same shared
+ * instance, which makes {@link ErlangAtom#equals(Object)} a reference comparison
+ * in the most cases.
+ * <p>
+ * The table never grows and never evicts: when there is no free slot near
+ * the atom's hash position, the atom is just returned not interned.
+ * The capacity could be changed with the
+ * {@code io.appulse.encon.terms.atomTableCapacity} system property
+ * (rounded up to a power of two, {@value #DEFAULT_CAPACITY} by default).
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class ErlangAtomTable {
+
+  static final int DEFAULT_CAPACITY = 8192;
+
+  private static final int MAX_PROBES = 8;
+
+  private static final int MAX_ATOM_CODE_POINTS_LENGTH = 255;
+
+  private static final ErlangAtomTable INSTANCE;
+
+  static {
+    int capacity = Integer.getInteger("io.appulse.encon.terms.atomTableCapacity", DEFAULT_CAPACITY);
+    INSTANCE = new ErlangAtomTable(capacity);
+    INSTANCE.register(ErlangAtom.ATOM_TRUE);
+    INSTANCE.register(ErlangAtom.ATOM_FALSE);
+  }
+
+  /**
+   * Returns the global atom table instance.
+   *
+   * @return the atom table
+   */
+  public static ErlangAtomTable getInstance () {
+    return INSTANCE;
+  }
+
+  AtomicReferenceArray<ErlangAtom> slots;
+
+  int mask;
+
+  AtomicInteger size;
+
+  LongAdder hits;
+
+  LongAdder misses;
+
+  ErlangAtomTable (int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Atom table capacity must be positive, but it is " + capacity);
+    }
+    int powerOfTwo = Integer.highestOneBit(capacity);
+    if (powerOfTwo < capacity) {
+      powerOfTwo <<= 1;
+    }
+    slots = new AtomicReferenceArray<>(powerOfTwo);
+    mask = powerOfTwo - 1;
+    size = new AtomicInteger();
+    hits = new LongAdder();
+    misses = new LongAdder();
+  }
+
+  /**
+   * Returns the maximum number of atoms the table could hold.
+   *
+   * @return the table's capacity
+   */
+  public int capacity () {
+    return slots.length();
+  }
+
+  /**
+   * Returns the current number of interned atoms.
+   *
+   * @return the number of interned atoms
+   */
+  public int size () {
+    return size.get();
+  }
+
+  /**
+   * Returns the number of lookups, which found an already interned atom.
+   *
+   * @return the number of hits
+   */
+  public long hits () {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups, which created a new atom instance.
+   *
+   * @return the number of misses
+   */
+  public long misses () {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the ratio of the hits to the total number of lookups.
+   *
+   * @return the hit rate, from {@code 0.0} to {@code 1.0}
+   */
+  public double hitRate () {
+    long hitsCount = hits();
+    long total = hitsCount + misses();
+    return total == 0
+           ? 0.0D
+           : (double) hitsCount / total;
+  }
+
+  ErlangAtom intern (@NonNull TermType type, @NonNull ByteBuf buffer) {
+    int length = ErlangAtom.readLength(type, buffer);
+    Charset charset = ErlangAtom.charsetOf(type);
+
+    int offset = buffer.readerIndex();
+    int hash = 1;
+    for (int index = 0; index < length; index++) {
+      hash = 31 * hash + buffer.getByte(offset + index);
+    }
+    hash = spread(hash);
+
+    int slot = hash & mask;
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      ErlangAtom atom = slots.get(slot);
+      if (atom == null) {
+        break;
+      }
+      if (atom.contentEquals(charset, buffer, offset, length)) {
+        buffer.skipBytes(length);
+        hits.increment();
+        return atom;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    misses.increment();
+    return insert(hash, new ErlangAtom(type, length, buffer));
+  }
+
+  ErlangAtom intern (@NonNull String value) {
+    if (value.length() > MAX_ATOM_CODE_POINTS_LENGTH) {
+      misses.increment();
+      return new ErlangAtom(value);
+    }
+
+    int hash = 1;
+    for (int index = 0; index < value.length(); index++) {
+      char character = value.charAt(index);
+      if (character >= 0x80) {
+        // non-ASCII atoms are rare, so just encode it
+        // and look up by the resulting bytes
+        ErlangAtom atom = new ErlangAtom(value);
+        ErlangAtom result = register(atom);
+        if (result == atom) {
+          misses.increment();
+        } else {
+          hits.increment();
+        }
+        return result;
+      }
+      hash = 31 * hash + (byte) character;
+    }
+    hash = spread(hash);
+
+    int slot = hash & mask;
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      ErlangAtom atom = slots.get(slot);
+      if (atom == null) {
+        break;
+      }
+      if (atom.contentEquals(value)) {
+        hits.increment();
+        return atom;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    misses.increment();
+    return insert(hash, new ErlangAtom(value));
+  }
+
+  private ErlangAtom register (ErlangAtom atom) {
+    byte[] bytes = atom.asBinary();
+    int hash = 1;
+    for (byte element : bytes) {
+      hash = 31 * hash + element;
+    }
+    return insert(spread(hash), atom);
+  }
+
+  private ErlangAtom insert (int hash, ErlangAtom atom) {
+    int slot = hash & mask;
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      ErlangAtom existing = slots.get(slot);
+      if (existing == null) {
+        if (slots.compareAndSet(slot, null, atom)) {
+          size.incrementAndGet();
+          return atom;
+        }
+        existing = slots.get(slot);
+      }
+      if (existing.contentEquals(atom)) {
+        return existing;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return atom;
+  }
+
+  private static int spread (int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
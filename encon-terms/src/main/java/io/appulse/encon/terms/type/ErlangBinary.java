@@ -20,11 +20,15 @@ import static io.appulse.encon.terms.TermType.BINARY;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
 
+import java.util.Arrays;
+
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.TermType;
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
 
 import io.netty.buffer.ByteBuf;
-import lombok.EqualsAndHashCode;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import lombok.NonNull;
 import lombok.ToString;
 import lombok.experimental.FieldDefaults;
@@ -38,12 +42,33 @@ import lombok.val;
  * @author Artem Labazin
  */
 @ToString
-@EqualsAndHashCode(callSuper = true)
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public class ErlangBinary extends ErlangTerm {
 
   private static final long serialVersionUID = 2120051138040192507L;
 
+  /**
+   * Reads a binary from the {@link ByteBuf}. Binaries, which are not shorter than
+   * the current thread's {@link ErlangBinarySlice#getThreshold()}, are not copied,
+   * but returned as a retained slice of the buffer.
+   *
+   * @param type   object's type
+   *
+   * @param buffer byte buffer
+   *
+   * @return {@link ErlangBinary} or {@link ErlangBinarySlice} instance
+   *
+   * @since 1.7.0
+   */
+  public static ErlangBinary read (TermType type, @NonNull ByteBuf buffer) {
+    val threshold = ErlangBinarySlice.getThreshold();
+    if (threshold < 0 || buffer.getInt(buffer.readerIndex()) < threshold) {
+      return new ErlangBinary(type, buffer);
+    }
+    val length = buffer.readInt();
+    return new ErlangBinarySlice(buffer.readRetainedSlice(length));
+  }
+
   byte[] bytes;
 
   /**
@@ -57,6 +82,9 @@ public class ErlangBinary extends ErlangTerm {
     super(type);
 
     val length = buffer.readInt();
+    if (length < 0 || length > buffer.readableBytes()) {
+      throw new ErlangTermDecodeException("Wrong binary length: " + length);
+    }
     bytes = new byte[length];
     buffer.readBytes(bytes);
   }
@@ -73,6 +101,22 @@ public class ErlangBinary extends ErlangTerm {
     System.arraycopy(bytes, 0, this.bytes, 0, bytes.length);
   }
 
+  ErlangBinary () {
+    super(BINARY, ErlangBinary.class);
+    bytes = null;
+  }
+
+  /**
+   * Returns the binary's length in bytes.
+   *
+   * @return number of bytes
+   *
+   * @since 1.7.0
+   */
+  public int length () {
+    return bytes.length;
+  }
+
   @Override
   public byte[] asBinary (byte[] defaultValue) {
     return bytes.clone();
@@ -83,9 +127,47 @@ public class ErlangBinary extends ErlangTerm {
     return new String(bytes, UTF_8);
   }
 
+  @Override
+  public boolean equals (Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof ErlangBinary)) {
+      return false;
+    }
+    val other = (ErlangBinary) obj;
+    if (bytes != null && other.bytes != null) {
+      return Arrays.equals(bytes, other.bytes);
+    }
+    return ByteBufUtil.equals(content(), other.content());
+  }
+
+  @Override
+  public int hashCode () {
+    if (bytes != null) {
+      return Arrays.hashCode(bytes);
+    }
+    // the same as Arrays.hashCode, but over the buffer
+    val content = content();
+    int result = 1;
+    for (int index = content.readerIndex(); index < content.writerIndex(); index++) {
+      result = 31 * result + content.getByte(index);
+    }
+    return result;
+  }
+
   @Override
   protected void serialize (ByteBuf buffer) {
     buffer.writeInt(bytes.length);
     buffer.writeBytes(bytes);
   }
+
+  /**
+   * Returns the binary's content without copying, it must not be modified.
+   *
+   * @return binary's content
+   */
+  ByteBuf content () {
+    return Unpooled.wrappedBuffer(bytes);
+  }
 }
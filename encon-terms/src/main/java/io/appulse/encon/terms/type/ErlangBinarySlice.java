@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.terms.type;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.util.ReferenceCounted;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * {@link ErlangBinary}, which doesn't copy its content, but holds a reference-counted
+ * slice of the buffer it was read from (or given to the constructor).
+ * <p>
+ * The slice holds the underlying buffer retained, so the instance must be released
+ * when it is not needed anymore, for example with
+ * {@link io.netty.util.ReferenceCountUtil#release(Object)}. Everything, which takes
+ * the content out of the buffer - {@link #asBinary()}, {@link #asText()} or Java
+ * serialization - makes a copy, so the copied values stay valid after the release.
+ * <p>
+ * Writing a slice into a {@link CompositeByteBuf} adds its content as a new component,
+ * so forwarding a binary doesn't copy it at all.
+ * <p>
+ * The decoder produces slices for binaries not shorter than the threshold, which is
+ * bound to the decoding thread with {@link #bindThreshold(int)}, usually by a node's
+ * connection for the time of a message decoding; negative threshold (the default)
+ * turns it off.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class ErlangBinarySlice extends ErlangBinary implements ReferenceCounted {
+
+  private static final long serialVersionUID = -1386587950476813627L;
+
+  // a mutable holder, so the binding doesn't box the value on every message
+  private static final ThreadLocal<int[]> THRESHOLD = ThreadLocal.withInitial(() -> new int[] { -1 });
+
+  /**
+   * Returns the minimal binary length for decoding it as a slice on the current thread.
+   *
+   * @return length in bytes, or negative value if the slices are turned off
+   */
+  public static int getThreshold () {
+    return THRESHOLD.get()[0];
+  }
+
+  /**
+   * Binds the minimal binary length for decoding it as a slice to the current thread.
+   *
+   * @param value length in bytes, or negative value for turning the slices off
+   */
+  public static void bindThreshold (int value) {
+    THRESHOLD.get()[0] = value;
+  }
+
+  /**
+   * Turns the slices off on the current thread.
+   */
+  public static void unbindThreshold () {
+    THRESHOLD.get()[0] = -1;
+  }
+
+  transient ByteBuf content;
+
+  /**
+   * Constructs Erlang's binary object over the buffer's readable bytes.
+   * The instance takes the ownership of the buffer's reference.
+   *
+   * @param content binary's content
+   */
+  public ErlangBinarySlice (@NonNull ByteBuf content) {
+    super();
+    this.content = content;
+  }
+
+  @Override
+  public int length () {
+    return content.readableBytes();
+  }
+
+  @Override
+  public byte[] asBinary (byte[] defaultValue) {
+    return ByteBufUtil.getBytes(content);
+  }
+
+  @Override
+  public String asText (String defaultValue) {
+    return content.toString(UTF_8);
+  }
+
+  @Override
+  public int refCnt () {
+    return content.refCnt();
+  }
+
+  @Override
+  public ErlangBinarySlice retain () {
+    content.retain();
+    return this;
+  }
+
+  @Override
+  public ErlangBinarySlice retain (int increment) {
+    content.retain(increment);
+    return this;
+  }
+
+  @Override
+  public ErlangBinarySlice touch () {
+    content.touch();
+    return this;
+  }
+
+  @Override
+  public ErlangBinarySlice touch (Object hint) {
+    content.touch(hint);
+    return this;
+  }
+
+  @Override
+  public boolean release () {
+    return content.release();
+  }
+
+  @Override
+  public boolean release (int decrement) {
+    return content.release(decrement);
+  }
+
+  @Override
+  public String toString () {
+    return "ErlangBinarySlice(length=" + length() + ')';
+  }
+
+  @Override
+  protected void serialize (ByteBuf buffer) {
+    val length = content.readableBytes();
+    buffer.writeInt(length);
+
+    if (buffer instanceof CompositeByteBuf) {
+      val composite = (CompositeByteBuf) buffer;
+      // cut off the unused capacity, so the new component goes right after the written bytes
+      composite.capacity(composite.writerIndex());
+      composite.addComponent(true, content.retainedDuplicate());
+    } else {
+      buffer.writeBytes(content, content.readerIndex(), length);
+    }
+  }
+
+  @Override
+  ByteBuf content () {
+    return content;
+  }
+
+  private Object writeReplace () {
+    return new ErlangBinary(asBinary());
+  }
+
+  private void readObject (ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("The slices are serialized as " + ErlangBinary.class.getName());
+  }
+}
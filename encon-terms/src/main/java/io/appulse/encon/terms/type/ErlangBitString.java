@@ -73,6 +73,9 @@ public class ErlangBitString extends ErlangTerm {
       throw new ErlangTermDecodeException("Wrong tail bit count: " + tail);
     }
 
+    if (length < 0 || length > buffer.readableBytes()) {
+      throw new ErlangTermDecodeException("Wrong BitString length: " + length);
+    }
     bits = new byte[length];
     buffer.readBytes(bits);
     pad = 8 - tail;
@@ -21,12 +21,11 @@ import static io.appulse.encon.terms.TermType.NEW_FUNCTION;
 import static java.util.Optional.ofNullable;
 import static lombok.AccessLevel.PRIVATE;
 
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
-
 import io.appulse.encon.terms.Erlang;
 import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.TermDecoder;
 import io.appulse.encon.terms.TermType;
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
 import io.appulse.encon.terms.exception.IllegalErlangTermTypeException;
 
 import io.netty.buffer.ByteBuf;
@@ -122,9 +121,14 @@ public class ErlangFunction extends ErlangTerm {
       throw new IllegalErlangTermTypeException(getClass(), type);
     }
 
-    variables = IntStream.range(0, freeVariablesCount)
-        .mapToObj(it -> ErlangTerm.newInstance(buffer))
-        .toArray(ErlangTerm[]::new);
+    // every variable takes at least one byte
+    if (freeVariablesCount < 0 || freeVariablesCount > buffer.readableBytes()) {
+      throw new ErlangTermDecodeException("Wrong free variables count: " + freeVariablesCount);
+    }
+    variables = new ErlangTerm[freeVariablesCount];
+    for (int variable = 0; variable < freeVariablesCount; variable++) {
+      variables[variable] = TermDecoder.decodeNested(buffer);
+    }
   }
 
   @Builder
@@ -157,8 +161,9 @@ public class ErlangFunction extends ErlangTerm {
       Erlang.atom(module).writeTo(buffer);
       Erlang.number(index).writeTo(buffer);
       Erlang.number(unique).writeTo(buffer);
-      Stream.of(variables)
-          .forEach(it -> it.writeTo(buffer));
+      for (ErlangTerm variable : variables) {
+        variable.writeTo(buffer);
+      }
       break;
     case NEW_FUNCTION:
       int position1 = buffer.writerIndex();
@@ -172,8 +177,9 @@ public class ErlangFunction extends ErlangTerm {
       Erlang.number(oldIndex).writeTo(buffer);
       Erlang.number(unique).writeTo(buffer);
       pid.writeTo(buffer);
-      Stream.of(variables)
-          .forEach(it -> it.writeTo(buffer));
+      for (ErlangTerm variable : variables) {
+        variable.writeTo(buffer);
+      }
 
       int position2 = buffer.writerIndex();
       buffer.writerIndex(position1);
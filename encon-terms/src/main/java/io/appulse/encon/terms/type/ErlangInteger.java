@@ -20,7 +20,6 @@ import static io.appulse.encon.terms.TermType.INTEGER;
 import static io.appulse.encon.terms.TermType.LARGE_BIG;
 import static io.appulse.encon.terms.TermType.SMALL_BIG;
 import static io.appulse.encon.terms.TermType.SMALL_INTEGER;
-import static java.math.BigInteger.ZERO;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.math.BigDecimal;
@@ -136,16 +135,24 @@ public class ErlangInteger extends ErlangTerm {
    * @return new or cached {@link ErlangInteger} object
    */
   public static ErlangInteger cached (BigInteger value) {
-    if (value.bitLength() < Long.BYTES) {
+    if (value.bitLength() < Long.SIZE) {
       return cached(value.longValue());
     }
     return new ErlangInteger(value);
   }
 
-  BigInteger value;
+  long longValue;
+
+  /**
+   * Holds the value only when it doesn't fit into {@code long},
+   * otherwise it is {@code null} and {@link #longValue} is used.
+   */
+  BigInteger bigValue;
 
   @NonFinal
-  byte[] cachedMagnitude;
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  transient byte[] cachedMagnitude;
 
   /**
    * Constructs Erlang's term object with specific {@link TermType} from {@link ByteBuf}.
@@ -157,32 +164,62 @@ public class ErlangInteger extends ErlangTerm {
   public ErlangInteger (TermType type, @NonNull ByteBuf buffer) {
     super(type);
 
+    long decodedLong = 0;
+    BigInteger decodedBig = null;
     switch (type) {
     case SMALL_INTEGER:
-      value = BigInteger.valueOf(buffer.readUnsignedByte());
+      decodedLong = buffer.readUnsignedByte();
       break;
     case INTEGER:
-      value = BigInteger.valueOf(buffer.readInt());
+      decodedLong = buffer.readInt();
       break;
     case SMALL_BIG:
     case LARGE_BIG:
       val arity = type == SMALL_BIG
-                  ? buffer.readByte()
+                  ? buffer.readUnsignedByte()
                   : buffer.readInt();
+      if (arity < 0) {
+        throw new ErlangTermDecodeException("Wrong big integer arity: " + arity);
+      }
 
-      val sign = buffer.readByte();
+      val negative = buffer.readByte() != 0;
+      if (arity <= Long.BYTES) {
+        long magnitude = 0;
+        for (int index = 0; index < arity; index++) {
+          magnitude |= (long) buffer.readUnsignedByte() << (index * Byte.SIZE);
+        }
+
+        if (magnitude >= 0) {
+          decodedLong = negative
+                        ? -magnitude
+                        : magnitude;
+        } else if (negative && magnitude == Long.MIN_VALUE) {
+          decodedLong = Long.MIN_VALUE;
+        } else {
+          decodedBig = BigInteger.valueOf(magnitude & Long.MAX_VALUE).setBit(Long.SIZE - 1);
+          decodedBig = negative
+                       ? decodedBig.negate()
+                       : decodedBig;
+        }
+        break;
+      }
 
+      if (arity > buffer.readableBytes()) {
+        throw new ErlangTermDecodeException("Wrong big integer arity: " + arity);
+      }
       val bytes = new byte[arity];
       buffer.readBytes(bytes);
       reverse(bytes);
 
-      value = sign == 0
-              ? new BigInteger(bytes)
-              : new BigInteger(bytes).negate();
+      decodedBig = negative
+                   ? new BigInteger(1, bytes).negate()
+                   : new BigInteger(1, bytes);
       break;
     default:
       throw new IllegalErlangTermTypeException(getClass(), type);
     }
+    longValue = decodedLong;
+    bigValue = decodedBig;
   }
 
   /**
@@ -228,7 +265,8 @@ public class ErlangInteger extends ErlangTerm {
    */
   public ErlangInteger (long value) {
     super();
-    this.value = BigInteger.valueOf(value);
+    longValue = value;
+    bigValue = null;
     setupType(value);
   }
 
@@ -239,10 +277,16 @@ public class ErlangInteger extends ErlangTerm {
    */
   public ErlangInteger (@NonNull BigInteger value) {
     super();
-    this.value = value;
-    if (value.bitLength() < Long.BYTES) {
-      setupType(value.longValue());
-    } else if (value.abs().toByteArray().length <= MAX_SMALL_BIG_BYTES_LENGTH) {
+    if (value.bitLength() < Long.SIZE) {
+      longValue = value.longValue();
+      bigValue = null;
+      setupType(longValue);
+      return;
+    }
+
+    longValue = 0;
+    bigValue = value;
+    if (magnitudeLength(value) <= MAX_SMALL_BIG_BYTES_LENGTH) {
       setType(SMALL_BIG);
     } else {
       setType(LARGE_BIG);
@@ -251,22 +295,22 @@ public class ErlangInteger extends ErlangTerm {
 
   @Override
   public boolean isByte () {
-    return (value.bitLength() + 1) <= Byte.SIZE;
+    return bigValue == null && longValue >= Byte.MIN_VALUE && longValue <= Byte.MAX_VALUE;
   }
 
   @Override
   public boolean isShort () {
-    return (value.bitLength() + 1) <= Short.SIZE;
+    return bigValue == null && longValue >= Short.MIN_VALUE && longValue <= Short.MAX_VALUE;
   }
 
   @Override
   public boolean isInt () {
-    return (value.bitLength() + 1) <= java.lang.Integer.SIZE;
+    return bigValue == null && longValue >= java.lang.Integer.MIN_VALUE && longValue <= java.lang.Integer.MAX_VALUE;
   }
 
   @Override
   public boolean isLong () {
-    return (value.bitLength() + 1) <= Long.SIZE;
+    return bigValue == null;
   }
 
   @Override
@@ -276,115 +320,163 @@ public class ErlangInteger extends ErlangTerm {
 
   @Override
   public Number asNumber () {
-    return value;
+    return asBigInteger(null);
   }
 
   @Override
   public byte[] asBinary (byte[] defaultValue) {
-    return value.toByteArray();
+    return asBigInteger(null).toByteArray();
   }
 
   @Override
   public boolean asBoolean (boolean defaultValue) {
-    return value.equals(ZERO);
+    return bigValue == null && longValue == 0;
   }
 
   @Override
   public String asText (String defaultValue) {
-    return value.toString();
+    return bigValue == null
+           ? Long.toString(longValue)
+           : bigValue.toString();
   }
 
   @Override
   public byte asByte (byte defaultValue) {
-    return value.byteValue();
+    return bigValue == null
+           ? (byte) longValue
+           : bigValue.byteValue();
   }
 
   @Override
   public short asShort (short defaultValue) {
-    return value.shortValue();
+    return bigValue == null
+           ? (short) longValue
+           : bigValue.shortValue();
   }
 
   @Override
   public int asInt (int defaultValue) {
-    return value.intValue();
+    return bigValue == null
+           ? (int) longValue
+           : bigValue.intValue();
   }
 
   @Override
   public long asLong (long defaultValue) {
-    return value.longValue();
+    return bigValue == null
+           ? longValue
+           : bigValue.longValue();
   }
 
   @Override
   public BigInteger asBigInteger (BigInteger defaultValue) {
-    return value;
+    return bigValue == null
+           ? BigInteger.valueOf(longValue)
+           : bigValue;
   }
 
   @Override
   public float asFloat (float defaultValue) {
-    return value.floatValue();
+    return bigValue == null
+           ? (float) longValue
+           : bigValue.floatValue();
   }
 
   @Override
   public double asDouble (double defaultValue) {
-    return value.doubleValue();
+    return bigValue == null
+           ? (double) longValue
+           : bigValue.doubleValue();
   }
 
   @Override
   public BigDecimal asDecimal (BigDecimal defaultValue) {
-    return new BigDecimal(value);
+    return bigValue == null
+           ? BigDecimal.valueOf(longValue)
+           : new BigDecimal(bigValue);
   }
 
   @Override
   protected void serialize (ByteBuf buffer) {
     switch (getType()) {
     case SMALL_INTEGER:
-      buffer.writeByte(value.shortValue());
+      buffer.writeByte((int) longValue);
       break;
     case INTEGER:
-      buffer.writeInt(value.intValue());
+      buffer.writeInt((int) longValue);
       break;
     case SMALL_BIG:
     case LARGE_BIG:
-      if (cachedMagnitude == null) {
-        byte[] bytes = value.abs().toByteArray();
-        int index = 0;
-        for (; index < bytes.length && bytes[index] == 0; index++) {
-          // skip leading zeros
-        }
-
-        cachedMagnitude = Arrays.copyOfRange(bytes, index, bytes.length);
-        reverse(cachedMagnitude);
-      }
-
-      int length = cachedMagnitude.length;
-      if ((length & 0xFF) == length) {
-        buffer.writeByte(length); // length
+      if (bigValue == null) {
+        serializeLongBig(buffer);
       } else {
-        buffer.writeInt(length); // length
+        serializeBigInteger(buffer);
       }
-      val sign = value.signum() < 0
-                 ? 1
-                 : 0;
-      buffer.writeByte(sign);
-      buffer.writeBytes(cachedMagnitude);
       break;
     default:
       throw new IllegalErlangTermTypeException(getClass(), getType());
     }
   }
 
+  private void serializeLongBig (ByteBuf buffer) {
+    // for Long.MIN_VALUE the negation overflows back to itself,
+    // which is exactly its magnitude (2^63) if treated as unsigned
+    long magnitude = longValue < 0
+                     ? -longValue
+                     : longValue;
+
+    int length = (Long.SIZE - Long.numberOfLeadingZeros(magnitude) + Byte.SIZE - 1) / Byte.SIZE;
+    writeBigLength(buffer, length);
+    buffer.writeByte(longValue < 0
+                     ? 1
+                     : 0);
+    for (int index = 0; index < length; index++) {
+      buffer.writeByte((int) (magnitude >>> (index * Byte.SIZE)));
+    }
+  }
+
+  private void serializeBigInteger (ByteBuf buffer) {
+    if (cachedMagnitude == null) {
+      byte[] bytes = bigValue.abs().toByteArray();
+      int index = 0;
+      for (; index < bytes.length && bytes[index] == 0; index++) {
+        // skip leading zeros
+      }
+
+      cachedMagnitude = Arrays.copyOfRange(bytes, index, bytes.length);
+      reverse(cachedMagnitude);
+    }
+
+    writeBigLength(buffer, cachedMagnitude.length);
+    val sign = bigValue.signum() < 0
+               ? 1
+               : 0;
+    buffer.writeByte(sign);
+    buffer.writeBytes(cachedMagnitude);
+  }
+
+  private void writeBigLength (ByteBuf buffer, int length) {
+    if (getType() == SMALL_BIG) {
+      buffer.writeByte(length);
+    } else {
+      buffer.writeInt(length);
+    }
+  }
+
   private void setupType (long longValue) {
     if ((longValue & MAX_SMALL_INTEGER) == longValue) {
       setType(SMALL_INTEGER);
     } else if (longValue >= MIN_INTEGER && longValue <= MAX_INTEGER) {
       setType(INTEGER);
-    } else if (value.abs().toByteArray().length <= MAX_SMALL_BIG_BYTES_LENGTH) {
-      setType(SMALL_BIG);
     } else {
-      throw new ErlangTermDecodeException();
+      setType(SMALL_BIG);
     }
   }
 
+  private static int magnitudeLength (BigInteger value) {
+    return (value.abs().bitLength() + Byte.SIZE - 1) / Byte.SIZE;
+  }
+
   private void reverse (byte[] data) {
     int left = 0;
     int right = data.length - 1;
@@ -18,15 +18,12 @@ package io.appulse.encon.terms.type;
 
 import static io.appulse.encon.terms.Erlang.NIL;
 import static io.appulse.encon.terms.TermType.LIST;
-import static java.util.Optional.ofNullable;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.TermType;
@@ -91,10 +88,10 @@ public class ErlangList extends ErlangTerm {
     super(type);
 
     val arity = buffer.readInt();
-    elements = IntStream.range(0, arity)
-        .boxed()
-        .map(it -> ErlangTerm.newInstance(buffer))
-        .toArray(ErlangTerm[]::new);
+    elements = new ErlangTerm[arity];
+    for (int index = 0; index < arity; index++) {
+      elements[index] = ErlangTerm.newInstance(buffer);
+    }
 
     tail = ErlangTerm.newInstance(buffer);
   }
@@ -131,9 +128,9 @@ public class ErlangList extends ErlangTerm {
   @Builder
   public ErlangList (ErlangTerm tail, @Singular List<ErlangTerm> elements) {
     super(LIST);
-    this.elements = ofNullable(elements)
-        .map(it -> it.toArray(new ErlangTerm[0]))
-        .orElse(new ErlangTerm[0]);
+    this.elements = elements == null
+                    ? new ErlangTerm[0]
+                    : elements.toArray(new ErlangTerm[0]);
 
     this.tail = tail;
   }
@@ -149,7 +146,15 @@ public class ErlangList extends ErlangTerm {
 
   @Override
   public boolean isTextual () {
-    return isProper() && Stream.of(elements).allMatch(ErlangTerm::isIntegralNumber);
+    if (!isProper()) {
+      return false;
+    }
+    for (ErlangTerm element : elements) {
+      if (!element.isIntegralNumber()) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -158,9 +163,10 @@ public class ErlangList extends ErlangTerm {
       return defaultValue;
     }
 
-    val codePoints = Stream.of(elements)
-        .mapToInt(ErlangTerm::asInt)
-        .toArray();
+    val codePoints = new int[elements.length];
+    for (int index = 0; index < elements.length; index++) {
+      codePoints[index] = elements[index].asInt();
+    }
 
     return new String(codePoints, 0, codePoints.length);
   }
@@ -172,7 +178,7 @@ public class ErlangList extends ErlangTerm {
 
   @Override
   public Iterator<ErlangTerm> elements () {
-    return Stream.of(elements).iterator();
+    return Arrays.asList(elements).iterator();
   }
 
   @Override
@@ -188,8 +194,9 @@ public class ErlangList extends ErlangTerm {
   @Override
   protected void serialize (ByteBuf buffer) {
     buffer.writeInt(elements.length);
-    Stream.of(elements)
-        .forEachOrdered(it -> it.writeTo(buffer));
+    for (ErlangTerm element : elements) {
+      element.writeTo(buffer);
+    }
 
     tail.writeTo(buffer);
   }
@@ -17,16 +17,12 @@
 package io.appulse.encon.terms.type;
 
 import static io.appulse.encon.terms.TermType.MAP;
-import static java.util.stream.Collectors.toMap;
 import static lombok.AccessLevel.PRIVATE;
 
-import java.util.AbstractMap.SimpleEntry;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
-import java.util.function.BinaryOperator;
-import java.util.function.IntFunction;
-import java.util.stream.IntStream;
 
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.TermType;
@@ -69,19 +65,16 @@ public class ErlangMap extends ErlangTerm {
   public ErlangMap (TermType type, @NonNull ByteBuf buffer) {
     super(type);
 
-    IntFunction<ErlangTerm[]> mapFunction = it -> new ErlangTerm[] {
-        ErlangTerm.newInstance(buffer),
-        ErlangTerm.newInstance(buffer)
-    };
-
-    BinaryOperator<ErlangTerm> mergeFunction = (left, right) -> {
-      throw new ErlangTermDecodeException("Duplicate key " + left);
-    };
-
     val arity = buffer.readInt();
-    map = IntStream.range(0, arity)
-        .mapToObj(mapFunction)
-        .collect(toMap(it -> it[0], it -> it[1], mergeFunction, LinkedHashMap::new));
+    val result = new LinkedHashMap<ErlangTerm, ErlangTerm>(arity);
+    for (int index = 0; index < arity; index++) {
+      val key = ErlangTerm.newInstance(buffer);
+      val value = ErlangTerm.newInstance(buffer);
+      if (result.put(key, value) != null) {
+        throw new ErlangTermDecodeException("Duplicate key " + key);
+      }
+    }
+    map = result;
   }
 
   /**
@@ -101,30 +94,17 @@ public class ErlangMap extends ErlangTerm {
 
   @Override
   public Iterator<ErlangTerm> elements () {
-    return map.values()
-        .stream()
-        .map(it -> (ErlangTerm) it)
-        .iterator();
+    return Collections.<ErlangTerm>unmodifiableCollection(map.values()).iterator();
   }
 
   @Override
   public Iterator<Entry<ErlangTerm, ErlangTerm>> fields () {
-    return map.entrySet()
-        .stream()
-        .map(it -> new SimpleEntry<>(
-            it.getKey(),
-            it.getValue()
-        ))
-        .map(it -> (Entry<ErlangTerm, ErlangTerm>) it)
-        .iterator();
+    return Collections.<ErlangTerm, ErlangTerm>unmodifiableMap(map).entrySet().iterator();
   }
 
   @Override
   public Iterator<ErlangTerm> fieldNames () {
-    return map.keySet()
-        .stream()
-        .map(it -> (ErlangTerm) it)
-        .iterator();
+    return Collections.<ErlangTerm>unmodifiableSet(map.keySet()).iterator();
   }
 
   @Override
@@ -146,9 +126,9 @@ public class ErlangMap extends ErlangTerm {
   @Override
   protected void serialize (ByteBuf buffer) {
     buffer.writeInt(map.size());
-    map.entrySet().forEach(it -> {
-      it.getKey().writeTo(buffer);
-      it.getValue().writeTo(buffer);
-    });
+    for (Entry<? extends ErlangTerm, ? extends ErlangTerm> entry : map.entrySet()) {
+      entry.getKey().writeTo(buffer);
+      entry.getValue().writeTo(buffer);
+    }
   }
 }
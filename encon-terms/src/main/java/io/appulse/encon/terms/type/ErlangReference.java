@@ -20,8 +20,6 @@ import static io.appulse.encon.terms.TermType.NEW_REFERENCE;
 import static java.util.Optional.ofNullable;
 import static lombok.AccessLevel.PRIVATE;
 
-import java.util.stream.LongStream;
-
 import io.appulse.encon.common.NodeDescriptor;
 import io.appulse.encon.terms.Erlang;
 import io.appulse.encon.terms.ErlangTerm;
@@ -83,7 +81,7 @@ public class ErlangReference extends ErlangTerm {
       throw new IllegalErlangTermTypeException(getClass(), getType());
     }
 
-    int arity = buffer.readShort();
+    int arity = buffer.readUnsignedShort();
     if (arity > MAX_REFERENCE_ARITY) {
       throw new IllegalArgumentException("Maximum arity value is " + MAX_REFERENCE_ARITY + ", but was " + arity);
     }
@@ -96,9 +94,10 @@ public class ErlangReference extends ErlangTerm {
       creation = buffer.readInt();
     }
 
-    ids = LongStream.range(0, arity)
-        .map(it -> buffer.readInt() & 0xFFFFFFFFL)
-        .toArray();
+    ids = new long[arity];
+    for (int index = 0; index < arity; index++) {
+      ids[index] = buffer.readUnsignedInt();
+    }
 
     if (getType() == NEW_REFERENCE) {
       ids[0] &= 0x3FFFF;
@@ -208,8 +207,8 @@ public class ErlangReference extends ErlangTerm {
       buffer.writeInt((int) ids[0]);
     }
 
-    LongStream.of(ids)
-        .skip(1)
-        .forEachOrdered(it -> buffer.writeInt((int) it));
+    for (int index = 1; index < ids.length; index++) {
+      buffer.writeInt((int) ids[index]);
+    }
   }
 }
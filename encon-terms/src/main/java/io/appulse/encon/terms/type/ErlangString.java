@@ -23,6 +23,7 @@ import static lombok.AccessLevel.PRIVATE;
 
 import io.appulse.encon.terms.Erlang;
 import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.TermEncoding;
 import io.appulse.encon.terms.TermType;
 
 import io.netty.buffer.ByteBuf;
@@ -59,7 +60,7 @@ public class ErlangString extends ErlangTerm {
   public ErlangString (TermType type, @NonNull ByteBuf buffer) {
     super(type);
 
-    val length = buffer.readShort();
+    val length = buffer.readUnsignedShort();
     value = buffer.readCharSequence(length, ISO_8859_1).toString();
   }
 
@@ -100,13 +101,15 @@ public class ErlangString extends ErlangTerm {
       buffer.writeCharSequence(value, ISO_8859_1);
       break;
     case LIST:
-      val elements = value.codePoints()
-          .boxed()
-          .map(ErlangInteger::cached)
-          .toArray(ErlangInteger[]::new);
-
-      buffer.writerIndex(positionBefore);
-      Erlang.list(elements).writeTo(buffer);
+      // the LIST type is already written, so write the code points
+      // as the integers, without the intermediate ErlangInteger objects
+      buffer.writeInt(value.codePointCount(0, length));
+      for (int index = 0; index < length;) {
+        val codePoint = value.codePointAt(index);
+        TermEncoding.writeInteger(buffer, codePoint);
+        index += Character.charCount(codePoint);
+      }
+      TermEncoding.writeNil(buffer);
       break;
     default:
       buffer.writerIndex(positionBefore);
@@ -115,6 +118,12 @@ public class ErlangString extends ErlangTerm {
   }
 
   private boolean is8bitString () {
-    return value.codePoints().allMatch(it -> it >= 0 && it <= 255);
+    for (int index = 0; index < value.length(); index++) {
+      // the surrogates are greater than 255 too
+      if (value.charAt(index) > 255) {
+        return false;
+      }
+    }
+    return true;
   }
 }
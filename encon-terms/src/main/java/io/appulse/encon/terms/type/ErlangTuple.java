@@ -23,8 +23,6 @@ import static lombok.AccessLevel.PRIVATE;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.TermType;
@@ -71,7 +69,7 @@ public class ErlangTuple extends ErlangTerm {
     int arity;
     switch (getType()) {
     case SMALL_TUPLE:
-      arity = buffer.readByte();
+      arity = buffer.readUnsignedByte();
       break;
     case LARGE_TUPLE:
       arity = buffer.readInt();
@@ -80,9 +78,10 @@ public class ErlangTuple extends ErlangTerm {
       throw new IllegalErlangTermTypeException(getClass(), getType());
     }
 
-    elements = IntStream.range(0, arity)
-        .mapToObj(it -> ErlangTerm.newInstance(buffer))
-        .toArray(ErlangTerm[]::new);
+    elements = new ErlangTerm[arity];
+    for (int index = 0; index < arity; index++) {
+      elements[index] = ErlangTerm.newInstance(buffer);
+    }
   }
 
   /**
@@ -118,7 +117,7 @@ public class ErlangTuple extends ErlangTerm {
 
   @Override
   public Iterator<ErlangTerm> elements () {
-    return Stream.of(elements).iterator();
+    return Arrays.asList(elements).iterator();
   }
 
   @Override
@@ -143,7 +142,8 @@ public class ErlangTuple extends ErlangTerm {
     default:
       throw new IllegalErlangTermTypeException(getClass(), getType());
     }
-    Stream.of(elements)
-        .forEachOrdered(it -> it.writeTo(buffer));
+    for (ErlangTerm element : elements) {
+      element.writeTo(buffer);
+    }
   }
 }
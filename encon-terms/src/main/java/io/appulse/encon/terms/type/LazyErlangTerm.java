@@ -0,0 +1,530 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.terms.type;
+
+import static io.appulse.encon.terms.TermType.LIST;
+import static io.appulse.encon.terms.TermType.MAP;
+import static java.util.Collections.emptyIterator;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+import io.appulse.encon.terms.AtomCacheReferences;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.TermType;
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+/**
+ * Lazy view over an encoded tuple, list or map, which decodes its elements only when they are accessed.
+ * <p>
+ * The term keeps a copy of its encoded bytes. The size and the element's positions are
+ * read from the bytes without decoding, so {@code get(0)} of a tuple decodes only the first
+ * element, map lookups decode only the keys and the matched value, and writing the term back
+ * just copies the bytes. Nested tuples, lists and maps are returned as lazy terms too.
+ * The full decoding happens only for the methods, which need the whole term, like
+ * {@link #asTuple()}, {@link #equals(Object)} or {@link #toString()}.
+ * <p>
+ * The atom cache references, bound at the creation time, are kept for the later decoding.
+ * Java serialization writes the decoded term instead of the lazy one.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class LazyErlangTerm extends ErlangTerm {
+
+  private static final long serialVersionUID = 3817407290813542614L;
+
+  /**
+   * Reads the next term from the buffer. Tuples, lists and maps are returned as
+   * {@link LazyErlangTerm} instances, other terms are decoded as usual.
+   *
+   * @param buffer byte buffer
+   *
+   * @return lazy or regular term
+   */
+  public static ErlangTerm read (@NonNull ByteBuf buffer) {
+    val type = TermType.of(buffer.getUnsignedByte(buffer.readerIndex()));
+    if (!isLazy(type)) {
+      return ErlangTerm.newInstance(buffer);
+    }
+
+    val start = buffer.readerIndex();
+    skip(buffer);
+    val bytes = new byte[buffer.readerIndex() - start];
+    buffer.getBytes(start, bytes);
+    return new LazyErlangTerm(type, bytes, 0, bytes.length, AtomCacheReferences.current());
+  }
+
+  /**
+   * Skips the next term in the buffer without decoding it.
+   *
+   * @param buffer byte buffer
+   */
+  @SuppressWarnings({
+      "checkstyle:CyclomaticComplexity",
+      "checkstyle:JavaNCSS",
+      "PMD.CyclomaticComplexity",
+      "PMD.NcssCount"
+  })
+  public static void skip (@NonNull ByteBuf buffer) {
+    // a counter of the terms left to skip instead of a recursion,
+    // so a deep nesting doesn't overflow the stack
+    long remaining = 1;
+    while (remaining > 0) {
+      remaining--;
+
+      val type = TermType.of(buffer.readUnsignedByte());
+      switch (type) {
+      case SMALL_INTEGER:
+      case ATOM_CACHE_REF:
+        buffer.skipBytes(1);
+        break;
+      case INTEGER:
+        buffer.skipBytes(Integer.BYTES);
+        break;
+      case SMALL_BIG:
+        buffer.skipBytes(buffer.readUnsignedByte() + 1);
+        break;
+      case LARGE_BIG:
+      case BIT_BINNARY:
+        // the length and the sign or the last byte's bits
+        buffer.skipBytes(buffer.readInt() + 1);
+        break;
+      case FLOAT:
+        buffer.skipBytes(31);
+        break;
+      case NEW_FLOAT:
+        buffer.skipBytes(Double.BYTES);
+        break;
+      case ATOM:
+      case ATOM_UTF8:
+      case STRING:
+        buffer.skipBytes(buffer.readUnsignedShort());
+        break;
+      case SMALL_ATOM:
+      case SMALL_ATOM_UTF8:
+        buffer.skipBytes(buffer.readUnsignedByte());
+        break;
+      case REFERENCE:
+      case NEW_REFERENCE: {
+        val length = buffer.readUnsignedShort();
+        skipNode(buffer);
+        buffer.skipBytes(1 + length * Integer.BYTES);
+        break;
+      }
+      case NEWER_REFERENCE: {
+        val length = buffer.readUnsignedShort();
+        skipNode(buffer);
+        buffer.skipBytes(Integer.BYTES + length * Integer.BYTES);
+        break;
+      }
+      case PORT:
+        skipNode(buffer);
+        buffer.skipBytes(Integer.BYTES + 1);
+        break;
+      case NEW_PORT:
+        skipNode(buffer);
+        buffer.skipBytes(Integer.BYTES * 2);
+        break;
+      case PID:
+        skipNode(buffer);
+        buffer.skipBytes(Integer.BYTES * 2 + 1);
+        break;
+      case NEW_PID:
+        skipNode(buffer);
+        buffer.skipBytes(Integer.BYTES * 3);
+        break;
+      case SMALL_TUPLE:
+        remaining += buffer.readUnsignedByte();
+        break;
+      case LARGE_TUPLE:
+        remaining += buffer.readUnsignedInt();
+        break;
+      case MAP:
+        remaining += buffer.readUnsignedInt() * 2;
+        break;
+      case NIL:
+        break;
+      case LIST:
+        // elements and the tail
+        remaining += buffer.readUnsignedInt() + 1;
+        break;
+      case BINARY:
+        buffer.skipBytes(buffer.readInt());
+        break;
+      case NEW_FUNCTION:
+        // the size includes the size field itself
+        buffer.skipBytes(buffer.readInt() - Integer.BYTES);
+        break;
+      case FUNCTION:
+        // pid, module, index, uniq and the free variables
+        remaining += buffer.readUnsignedInt() + 4;
+        break;
+      case EXTERNAL_FUNCTION:
+        // module, function and arity
+        remaining += 3;
+        break;
+      default:
+        throw new ErlangTermDecodeException("Unknown term type " + type);
+      }
+    }
+  }
+
+  private static void skipNode (ByteBuf buffer) {
+    val type = TermType.of(buffer.readUnsignedByte());
+    switch (type) {
+    case ATOM:
+    case ATOM_UTF8:
+      buffer.skipBytes(buffer.readUnsignedShort());
+      break;
+    case SMALL_ATOM:
+    case SMALL_ATOM_UTF8:
+      buffer.skipBytes(buffer.readUnsignedByte());
+      break;
+    case ATOM_CACHE_REF:
+      buffer.skipBytes(1);
+      break;
+    default:
+      throw new ErlangTermDecodeException("Node name must be an atom, but it is " + type);
+    }
+  }
+
+  private static boolean isLazy (TermType type) {
+    switch (type) {
+    case SMALL_TUPLE:
+    case LARGE_TUPLE:
+    case LIST:
+    case MAP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  byte[] bytes;
+
+  int offset;
+
+  int length;
+
+  transient AtomCacheReferences references;
+
+  @NonFinal
+  transient volatile ErlangTerm decoded;
+
+  // positions of the elements (for maps - keys and values one by one) and the term's end
+  @NonFinal
+  transient int[] offsets;
+
+  @NonFinal
+  transient ErlangTerm[] elements;
+
+  private LazyErlangTerm (TermType type, byte[] bytes, int offset, int length, AtomCacheReferences references) {
+    super();
+    setType(type);
+    this.bytes = bytes;
+    this.offset = offset;
+    this.length = length;
+    this.references = references;
+  }
+
+  /**
+   * Tells whether the whole term was already decoded or not.
+   *
+   * @return {@code true} if the term was fully decoded
+   */
+  public boolean isDecoded () {
+    return decoded != null;
+  }
+
+  /**
+   * Decodes the whole term.
+   *
+   * @return decoded term
+   */
+  public ErlangTerm decode () {
+    ErlangTerm result = decoded;
+    if (result == null) {
+      synchronized (this) {
+        result = decoded;
+        if (result == null) {
+          result = decode(offset, offset + length);
+          decoded = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public ErlangTuple asTuple () {
+    return decode().asTuple();
+  }
+
+  @Override
+  public ErlangList asList () {
+    return decode().asList();
+  }
+
+  @Override
+  public ErlangMap asMap () {
+    return decode().asMap();
+  }
+
+  @Override
+  public boolean isTextual () {
+    return getType() == LIST && decode().isTextual();
+  }
+
+  @Override
+  public String asText (String defaultValue) {
+    return getType() == LIST
+           ? decode().asText(defaultValue)
+           : defaultValue;
+  }
+
+  @Override
+  public int size () {
+    switch (getType()) {
+    case SMALL_TUPLE:
+      return bytes[offset + 1] & 0xFF;
+    case LARGE_TUPLE:
+    case LIST:
+    case MAP:
+      return (bytes[offset + 1] & 0xFF) << 24 |
+             (bytes[offset + 2] & 0xFF) << 16 |
+             (bytes[offset + 3] & 0xFF) << 8 |
+             bytes[offset + 4] & 0xFF;
+    default:
+      return super.size();
+    }
+  }
+
+  @Override
+  public ErlangTerm getUnsafe (int index) {
+    if (getType() == MAP) {
+      return decode().getUnsafe(index);
+    }
+    if (index < 0 || index >= size()) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return element(index);
+  }
+
+  @Override
+  public ErlangTerm getUnsafe (ErlangTerm term) {
+    if (getType() != MAP) {
+      return null;
+    }
+    val key = term instanceof LazyErlangTerm
+              ? ((LazyErlangTerm) term).decode()
+              : term;
+
+    val size = size();
+    for (int index = 0; index < size; index++) {
+      if (key.equals(key(index))) {
+        return element(index * 2 + 1);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Iterator<ErlangTerm> elements () {
+    return getType() == MAP
+           ? iterator(index -> element(index * 2 + 1))
+           : iterator(this::element);
+  }
+
+  @Override
+  public Iterator<Entry<ErlangTerm, ErlangTerm>> fields () {
+    return getType() == MAP
+           ? iterator(index -> new SimpleEntry<>(key(index), element(index * 2 + 1)))
+           : emptyIterator();
+  }
+
+  @Override
+  public Iterator<ErlangTerm> fieldNames () {
+    return getType() == MAP
+           ? iterator(this::key)
+           : emptyIterator();
+  }
+
+  @Override
+  public boolean equals (Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    val other = obj instanceof LazyErlangTerm
+                ? ((LazyErlangTerm) obj).decode()
+                : obj;
+    return decode().equals(other);
+  }
+
+  @Override
+  public int hashCode () {
+    return decode().hashCode();
+  }
+
+  @Override
+  public String toString () {
+    return decode().toString();
+  }
+
+  @Override
+  public void writeTo (@NonNull ByteBuf buffer) {
+    if (references == null) {
+      buffer.writeBytes(bytes, offset, length);
+    } else {
+      // the atom cache references are valid only inside their message
+      decode().writeTo(buffer);
+    }
+  }
+
+  @Override
+  protected void serialize (ByteBuf buffer) {
+    // it is called only from the ErlangTerm.writeTo, which is overridden
+    buffer.writeBytes(bytes, offset + 1, length - 1);
+  }
+
+  private Object writeReplace () {
+    return decode();
+  }
+
+  private void readObject (ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("The lazy terms are serialized as the decoded ones");
+  }
+
+  private synchronized ErlangTerm element (int index) {
+    if (elements == null) {
+      elements = new ErlangTerm[offsets().length - 1];
+    }
+    ErlangTerm result = elements[index];
+    if (result == null) {
+      val from = offsets[index];
+      val to = offsets[index + 1];
+      val type = TermType.of(bytes[from] & 0xFF);
+      result = isLazy(type)
+               ? new LazyErlangTerm(type, bytes, from, to - from, references)
+               : decode(from, to);
+      elements[index] = result;
+    }
+    return result;
+  }
+
+  private synchronized ErlangTerm key (int index) {
+    // keys are compared, so it doesn't make sense to keep them lazy
+    val positions = offsets();
+    return decode(positions[index * 2], positions[index * 2 + 1]);
+  }
+
+  private synchronized int[] offsets () {
+    if (offsets != null) {
+      return offsets;
+    }
+
+    val buffer = Unpooled.wrappedBuffer(bytes, offset, length);
+    int count;
+    switch (getType()) {
+    case SMALL_TUPLE:
+      buffer.skipBytes(1);
+      count = buffer.readUnsignedByte();
+      break;
+    case LIST:
+      buffer.skipBytes(1);
+      // the tail is an element too
+      count = buffer.readInt() + 1;
+      break;
+    case MAP:
+      buffer.skipBytes(1);
+      count = buffer.readInt() * 2;
+      break;
+    default:
+      buffer.skipBytes(1);
+      count = buffer.readInt();
+    }
+
+    val result = new int[count + 1];
+    for (int index = 0; index < count; index++) {
+      result[index] = offset + buffer.readerIndex();
+      skip(buffer);
+    }
+    result[count] = offset + buffer.readerIndex();
+    offsets = result;
+    return result;
+  }
+
+  private ErlangTerm decode (int from, int to) {
+    val buffer = Unpooled.wrappedBuffer(bytes, from, to - from);
+    if (references == null) {
+      return ErlangTerm.newInstance(buffer);
+    }
+
+    val previous = AtomCacheReferences.current();
+    AtomCacheReferences.bind(references);
+    try {
+      return ErlangTerm.newInstance(buffer);
+    } finally {
+      AtomCacheReferences.bind(previous);
+    }
+  }
+
+  private <T> Iterator<T> iterator (IntFunction<T> function) {
+    return new IndexIterator<>(size(), function);
+  }
+
+  @RequiredArgsConstructor
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class IndexIterator<T> implements Iterator<T> {
+
+    int size;
+
+    IntFunction<T> function;
+
+    @NonFinal
+    int index;
+
+    @Override
+    public boolean hasNext () {
+      return index < size;
+    }
+
+    @Override
+    public T next () {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return function.apply(index++);
+    }
+  }
+}
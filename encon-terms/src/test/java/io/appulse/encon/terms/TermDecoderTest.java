@@ -0,0 +1,237 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.binary;
+import static io.appulse.encon.terms.Erlang.list;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.string;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static io.appulse.encon.terms.TermType.LARGE_TUPLE;
+import static io.appulse.encon.terms.TermType.LIST;
+import static io.appulse.encon.terms.TermType.NIL;
+import static io.appulse.encon.terms.TermType.SMALL_INTEGER;
+import static io.appulse.encon.terms.TermType.SMALL_TUPLE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import static java.util.Arrays.asList;
+
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+import io.appulse.encon.terms.type.ErlangFunction;
+import io.appulse.encon.terms.type.ErlangList;
+import io.appulse.encon.terms.type.ErlangMap;
+import io.appulse.encon.terms.type.ErlangPid;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.val;
+import org.junit.Test;
+
+/**
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public class TermDecoderTest {
+
+  @Test
+  public void regularTerms () {
+    val map = new LinkedHashMap<ErlangTerm, ErlangTerm>();
+    map.put(atom("key"), list(number(1), string("value")));
+    map.put(number(2), tuple());
+
+    val term = tuple(
+        atom("ok"),
+        new ErlangMap(map),
+        list(),
+        list(atom("tail"), asList(number(1), number(2))),
+        binary(new byte[] { 1, 2, 3 }),
+        tuple(tuple(tuple(number(300))))
+    );
+
+    val buffer = Unpooled.wrappedBuffer(term.toBytes());
+    assertThat((ErlangTerm) ErlangTerm.newInstance(buffer))
+        .isEqualTo(term);
+    assertThat(buffer.isReadable())
+        .isFalse();
+  }
+
+  @Test
+  public void deeplyNestedImproperList () {
+    val depth = 100_000;
+    val buffer = Unpooled.buffer();
+    for (int index = 0; index < depth; index++) {
+      buffer.writeByte(LIST.getCode());
+      buffer.writeInt(1);
+      buffer.writeByte(SMALL_INTEGER.getCode());
+      buffer.writeByte(index % 256);
+    }
+    buffer.writeByte(NIL.getCode());
+
+    assertThatThrownBy(() -> ErlangTerm.newInstance(buffer.duplicate()))
+        .isInstanceOf(ErlangTermDecodeException.class)
+        .hasMessageContaining("nested deeper");
+
+    val decoder = new TermDecoder(depth, Integer.MAX_VALUE);
+    ErlangTerm term = decoder.decode(buffer);
+    assertThat(buffer.isReadable())
+        .isFalse();
+
+    int levels = 0;
+    while (term.isList()) {
+      val list = (ErlangList) term;
+      assertThat(list.getUnsafe(0).asInt())
+          .isEqualTo(levels % 256);
+      term = list.getTail();
+      levels++;
+    }
+    assertThat(levels)
+        .isEqualTo(depth);
+    assertThat(term.isNil())
+        .isTrue();
+  }
+
+  @Test
+  public void nestedFunctions () {
+    val pid = ErlangPid.builder()
+        .node("node@localhost")
+        .id(1)
+        .serial(2)
+        .creation(3)
+        .build();
+
+    ErlangTerm term = number(42);
+    for (int index = 0; index < 10; index++) {
+      term = ErlangFunction.builder()
+          .pid(pid)
+          .module("module")
+          .index(index)
+          .unique(index)
+          .variables(new ErlangTerm[] { tuple(term) })
+          .build();
+    }
+    val bytes = term.toBytes();
+
+    // every fun and its tuple are the two levels of nesting
+    assertThatThrownBy(() -> new TermDecoder(15, Integer.MAX_VALUE).decode(Unpooled.wrappedBuffer(bytes)))
+        .isInstanceOf(ErlangTermDecodeException.class)
+        .hasMessageContaining("nested deeper");
+
+    // the free variables and the tuples' elements
+    assertThatThrownBy(() -> new TermDecoder(100, 15).decode(Unpooled.wrappedBuffer(bytes)))
+        .isInstanceOf(ErlangTermDecodeException.class)
+        .hasMessageContaining("elements");
+
+    val buffer = Unpooled.wrappedBuffer(bytes);
+    assertThat(new TermDecoder(20, 20).decode(buffer))
+        .isEqualTo(term);
+    assertThat(buffer.isReadable())
+        .isFalse();
+  }
+
+  @Test
+  public void deeplyNestedTuples () {
+    val buffer = Unpooled.buffer();
+    for (int index = 0; index < 1_000_000; index++) {
+      buffer.writeByte(SMALL_TUPLE.getCode());
+      buffer.writeByte(1);
+    }
+    buffer.writeByte(NIL.getCode());
+
+    assertThatThrownBy(() -> ErlangTerm.newInstance(buffer))
+        .isInstanceOf(ErlangTermDecodeException.class);
+  }
+
+  @Test
+  public void forgedSize () {
+    val buffer = Unpooled.buffer();
+    buffer.writeByte(LARGE_TUPLE.getCode());
+    buffer.writeInt(Integer.MAX_VALUE);
+    buffer.writeByte(NIL.getCode());
+
+    assertThatThrownBy(() -> ErlangTerm.newInstance(buffer))
+        .isInstanceOf(ErlangTermDecodeException.class)
+        .hasMessageContaining("declares");
+  }
+
+  @Test
+  public void maxElements () {
+    val elements = new ErlangTerm[100];
+    for (int index = 0; index < elements.length; index++) {
+      elements[index] = number(index);
+    }
+    val bytes = tuple(list(elements)).toBytes();
+
+    assertThatThrownBy(() -> new TermDecoder(16, 50).decode(Unpooled.wrappedBuffer(bytes)))
+        .isInstanceOf(ErlangTermDecodeException.class)
+        .hasMessageContaining("more than 50 elements");
+
+    assertThat(new TermDecoder(16, 102).decode(Unpooled.wrappedBuffer(bytes)))
+        .isEqualTo(tuple(list(elements)));
+  }
+
+  @Test
+  public void fuzz () {
+    val map = new LinkedHashMap<ErlangTerm, ErlangTerm>();
+    map.put(atom("key"), list(number(1), number(1L << 40), string("value")));
+
+    val seed = tuple(
+        atom("ok"),
+        new ErlangMap(map),
+        list(tuple(number(3.14D), binary(new byte[] { 1, 2, 3 })), tuple()),
+        number(-7)
+    ).toBytes();
+
+    val random = new Random(42);
+    for (int iteration = 0; iteration < 20_000; iteration++) {
+      val bytes = iteration % 4 == 0
+                  ? randomBytes(random)
+                  : mutate(seed, random);
+
+      ByteBuf buffer = Unpooled.wrappedBuffer(bytes);
+      try {
+        ErlangTerm.newInstance(buffer);
+      } catch (RuntimeException ex) {
+        // broken input must be reported as an exception, not as an error,
+        // like the StackOverflowError or the OutOfMemoryError
+      }
+    }
+  }
+
+  private static byte[] mutate (byte[] seed, Random random) {
+    val result = seed.clone();
+    val mutations = 1 + random.nextInt(4);
+    for (int index = 0; index < mutations; index++) {
+      result[random.nextInt(result.length)] = (byte) random.nextInt(256);
+    }
+    return result;
+  }
+
+  private static byte[] randomBytes (Random random) {
+    val result = new byte[1 + random.nextInt(64)];
+    random.nextBytes(result);
+    // mostly the containers' types, to get the deep nesting
+    int[] types = { SMALL_TUPLE.getCode(), LIST.getCode(), TermType.MAP.getCode() };
+    result[0] = (byte) types[random.nextInt(types.length)];
+    return result;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.list;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+import io.appulse.encon.terms.type.ErlangMap;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.val;
+import org.junit.Test;
+
+/**
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public class TermEncodingTest {
+
+  @Test
+  public void integers () {
+    long[] values = {
+        0, 42, 255, 256, -1, 134217727, 134217728, -134217728, -134217729,
+        Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE
+    };
+
+    for (long value : values) {
+      val buffer = Unpooled.buffer();
+      TermEncoding.writeInteger(buffer, value);
+
+      assertThat(bytes(buffer.duplicate()))
+          .as("value %d", value)
+          .isEqualTo(number(value).toBytes());
+
+      assertThat(TermEncoding.readInteger(buffer))
+          .isEqualTo(value);
+      assertThat(buffer.isReadable())
+          .isFalse();
+    }
+  }
+
+  @Test
+  public void bigIntegerFallback () {
+    val value = new BigInteger("92233720368547758070");
+    val buffer = Unpooled.wrappedBuffer(number(value).toBytes());
+
+    assertThat(TermEncoding.readInteger(buffer))
+        .isEqualTo(value.longValue());
+    assertThat(buffer.isReadable())
+        .isFalse();
+  }
+
+  @Test
+  public void containers () {
+    val buffer = Unpooled.buffer();
+
+    TermEncoding.writeTupleHeader(buffer, 2);
+    TermEncoding.writeBoolean(buffer, true);
+    TermEncoding.writeFloat(buffer, 3.14D);
+
+    TermEncoding.writeListHeader(buffer, 1);
+    TermEncoding.writeInteger(buffer, 1);
+    TermEncoding.writeNil(buffer);
+
+    TermEncoding.writeMapHeader(buffer, 1);
+    atom("key").writeTo(buffer);
+    TermEncoding.writeInteger(buffer, 2);
+
+    val map = new LinkedHashMap<ErlangTerm, ErlangTerm>();
+    map.put(atom("key"), number(2));
+
+    val expected = Unpooled.buffer();
+    tuple(atom(true), number(3.14D)).writeTo(expected);
+    list(number(1)).writeTo(expected);
+    new ErlangMap(map).writeTo(expected);
+
+    assertThat(bytes(buffer.duplicate()))
+        .isEqualTo(bytes(expected));
+
+    assertThat(TermEncoding.readTupleHeader(buffer))
+        .isEqualTo(2);
+    assertThat(TermEncoding.readBoolean(buffer))
+        .isTrue();
+    assertThat(TermEncoding.readFloat(buffer))
+        .isEqualTo(3.14D);
+
+    assertThat(TermEncoding.readListHeader(buffer))
+        .isEqualTo(1);
+    assertThat(TermEncoding.readInteger(buffer))
+        .isEqualTo(1);
+    assertThat(TermEncoding.peekType(buffer))
+        .isEqualTo(TermType.NIL);
+    buffer.skipBytes(1);
+
+    assertThatThrownBy(() -> TermEncoding.readTupleHeader(buffer))
+        .isInstanceOf(ErlangTermDecodeException.class);
+    assertThat(TermEncoding.readMapHeader(buffer))
+        .isEqualTo(1);
+  }
+
+  private static byte[] bytes (ByteBuf buffer) {
+    val result = new byte[buffer.readableBytes()];
+    buffer.readBytes(result);
+    return result;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.binary;
+import static io.appulse.encon.terms.Erlang.list;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.string;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static io.appulse.encon.terms.TermToken.ATOM;
+import static io.appulse.encon.terms.TermToken.BINARY;
+import static io.appulse.encon.terms.TermToken.END_LIST;
+import static io.appulse.encon.terms.TermToken.END_MAP;
+import static io.appulse.encon.terms.TermToken.END_TUPLE;
+import static io.appulse.encon.terms.TermToken.FLOAT;
+import static io.appulse.encon.terms.TermToken.INTEGER;
+import static io.appulse.encon.terms.TermToken.NIL;
+import static io.appulse.encon.terms.TermToken.START_LIST;
+import static io.appulse.encon.terms.TermToken.START_MAP;
+import static io.appulse.encon.terms.TermToken.START_TUPLE;
+import static io.appulse.encon.terms.TermToken.STRING;
+import static io.appulse.encon.terms.TermToken.TERM;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+
+import io.appulse.encon.terms.type.ErlangMap;
+import io.appulse.encon.terms.type.ErlangPid;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.val;
+import org.junit.Test;
+
+/**
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public class TermReaderTest {
+
+  @Test
+  public void extractFieldsAndSkipBigList () {
+    val elements = new ErlangTerm[10_000];
+    for (int index = 0; index < elements.length; index++) {
+      elements[index] = tuple(atom("item"), number(index), binary(new byte[] { 1, 2, 3 }));
+    }
+    val buffer = Unpooled.wrappedBuffer(tuple(
+        atom("batch"),
+        number(1_546_300_800_000L),
+        list(elements),
+        string("tail")
+    ).toBytes());
+
+    val reader = new TermReader(buffer);
+    assertThat(reader.next()).isEqualTo(START_TUPLE);
+    assertThat(reader.getArity()).isEqualTo(4);
+
+    assertThat(reader.next()).isEqualTo(ATOM);
+    assertThat(reader.getText()).isEqualTo("batch");
+    assertThat(reader.getAtom()).isSameAs(atom("batch"));
+
+    assertThat(reader.next()).isEqualTo(INTEGER);
+    assertThat(reader.isLong()).isTrue();
+    assertThat(reader.getLong()).isEqualTo(1_546_300_800_000L);
+
+    assertThat(reader.next()).isEqualTo(START_LIST);
+    assertThat(reader.getArity()).isEqualTo(10_000);
+    assertThat(reader.getDepth()).isEqualTo(2);
+    assertThat(reader.skipChildren()).isEqualTo(END_LIST);
+    assertThat(reader.getDepth()).isEqualTo(1);
+
+    assertThat(reader.next()).isEqualTo(STRING);
+    assertThat(reader.getText()).isEqualTo("tail");
+
+    assertThat(reader.next()).isEqualTo(END_TUPLE);
+    assertThat(reader.hasNext()).isFalse();
+    assertThatThrownBy(reader::next)
+        .isInstanceOf(NoSuchElementException.class);
+  }
+
+  @Test
+  public void allTokens () {
+    val map = new LinkedHashMap<ErlangTerm, ErlangTerm>();
+    map.put(atom("key"), number(3.5D));
+
+    val pid = ErlangPid.builder()
+        .node("node@localhost")
+        .id(1)
+        .serial(2)
+        .creation(3)
+        .build();
+    val big = new BigInteger("92233720368547758070");
+
+    val buffer = Unpooled.wrappedBuffer(list(
+        new ErlangMap(map),
+        Erlang.NIL,
+        binary("popa".getBytes(UTF_8)),
+        number(big),
+        pid,
+        atom(true)
+    ).toBytes());
+
+    val reader = new TermReader(buffer);
+    assertThat(reader.next()).isEqualTo(START_LIST);
+    assertThat(reader.getArity()).isEqualTo(6);
+
+    assertThat(reader.next()).isEqualTo(START_MAP);
+    assertThat(reader.getArity()).isEqualTo(1);
+    assertThat(reader.next()).isEqualTo(ATOM);
+    assertThat(reader.getText()).isEqualTo("key");
+    assertThat(reader.next()).isEqualTo(FLOAT);
+    assertThat(reader.getDouble()).isEqualTo(3.5D);
+    assertThat(reader.next()).isEqualTo(END_MAP);
+
+    assertThat(reader.next()).isEqualTo(NIL);
+
+    assertThat(reader.next()).isEqualTo(BINARY);
+    assertThat(reader.getBinary().toString(UTF_8)).isEqualTo("popa");
+
+    assertThat(reader.next()).isEqualTo(INTEGER);
+    assertThat(reader.isLong()).isFalse();
+    assertThat(reader.getBigInteger()).isEqualTo(big);
+
+    assertThat(reader.next()).isEqualTo(TERM);
+    assertThat(reader.getTerm()).isEqualTo(pid);
+
+    assertThat(reader.next()).isEqualTo(ATOM);
+    assertThat(reader.getBoolean()).isTrue();
+
+    assertThat(reader.next()).isEqualTo(END_LIST);
+    assertThat(reader.hasNext()).isFalse();
+  }
+
+  @Test
+  public void improperList () {
+    val buffer = Unpooled.wrappedBuffer(list(atom("tail"), singletonList(number(1))).toBytes());
+
+    val reader = new TermReader(buffer);
+    assertThat(reader.next()).isEqualTo(START_LIST);
+    assertThat(reader.next()).isEqualTo(INTEGER);
+    assertThat(reader.next()).isEqualTo(ATOM);
+    assertThat(reader.getText()).isEqualTo("tail");
+    assertThat(reader.next()).isEqualTo(END_LIST);
+    assertThat(reader.hasNext()).isFalse();
+  }
+
+  @Test
+  public void writer () {
+    val buffer = Unpooled.buffer();
+    new TermWriter(buffer)
+        .writeStartTuple(3)
+        .writeAtom("ok")
+        .writeInteger(42)
+        .writeStartList(2)
+        .writeBinary(new byte[] { 1 })
+        .writeBinary(Unpooled.wrappedBuffer(new byte[] { 2 }))
+        .writeEndList();
+
+    val expected = tuple(
+        atom("ok"),
+        number(42),
+        list(binary(new byte[] { 1 }), binary(new byte[] { 2 }))
+    ).toBytes();
+
+    assertThat(ByteBufUtil.getBytes(buffer))
+        .isEqualTo(expected);
+  }
+}
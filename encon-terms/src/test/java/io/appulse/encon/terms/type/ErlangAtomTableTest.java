@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.terms.type;
+
+import static io.appulse.encon.terms.TermType.SMALL_ATOM;
+import static io.appulse.encon.terms.TermType.SMALL_ATOM_UTF8;
+import static io.netty.buffer.Unpooled.wrappedBuffer;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.Charset;
+
+import io.appulse.encon.terms.Erlang;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.TermType;
+import io.appulse.utils.Bytes;
+
+import lombok.val;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+public class ErlangAtomTableTest {
+
+  @Test
+  public void decodeReturnsCanonicalInstance () {
+    val bytes = bytes(SMALL_ATOM_UTF8, "interned_atom", UTF_8);
+    val table = ErlangAtomTable.getInstance();
+
+    ErlangAtom first = ErlangTerm.newInstance(wrappedBuffer(bytes));
+    val hitsBefore = table.hits();
+    ErlangAtom second = ErlangTerm.newInstance(wrappedBuffer(bytes));
+
+    assertThat(second).isSameAs(first);
+    assertThat(Erlang.atom("interned_atom")).isSameAs(first);
+    assertThat(table.hits()).isGreaterThanOrEqualTo(hitsBefore + 1);
+    assertThat(table.size()).isGreaterThan(0);
+  }
+
+  @Test
+  public void decodeLeavesBufferAfterAtom () {
+    val buffer = wrappedBuffer(Bytes.resizableArray()
+        .writeNB(bytes(SMALL_ATOM_UTF8, "ok", UTF_8))
+        .writeNB(bytes(SMALL_ATOM_UTF8, "ok", UTF_8))
+        .arrayCopy());
+
+    ErlangAtom first = ErlangTerm.newInstance(buffer);
+    ErlangAtom second = ErlangTerm.newInstance(buffer);
+
+    assertThat(second).isSameAs(first);
+    assertThat(buffer.isReadable()).isFalse();
+  }
+
+  @Test
+  public void booleans () {
+    ErlangAtom atom = ErlangTerm.newInstance(wrappedBuffer(bytes(SMALL_ATOM_UTF8, "true", UTF_8)));
+    assertThat(atom).isSameAs(ErlangAtom.ATOM_TRUE);
+  }
+
+  @Test
+  public void charsetsAreNotMixed () {
+    val table = new ErlangAtomTable(16);
+
+    val latin = table.intern(SMALL_ATOM, wrappedBuffer(bytes("é", ISO_8859_1)));
+    val utf = table.intern(SMALL_ATOM_UTF8, wrappedBuffer(bytes("é", UTF_8)));
+
+    assertThat(latin.asText()).isEqualTo("é");
+    assertThat(utf.asText()).isEqualTo("é");
+    assertThat(table.intern("é")).isSameAs(utf);
+    assertThat(table.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void bounded () {
+    val table = new ErlangAtomTable(4);
+    assertThat(table.capacity()).isEqualTo(4);
+
+    for (int index = 0; index < 100; index++) {
+      table.intern("atom_" + index);
+    }
+
+    assertThat(table.size()).isEqualTo(4);
+    assertThat(table.misses()).isEqualTo(100);
+    assertThat(table.hits()).isEqualTo(0);
+    assertThat(table.hitRate()).isEqualTo(0.0D);
+
+    val notInterned = table.intern("atom_99");
+    assertThat(notInterned.asText()).isEqualTo("atom_99");
+  }
+
+  private static byte[] bytes (TermType type, String value, Charset charset) {
+    return Bytes.resizableArray()
+        .write1B(type.getCode())
+        .writeNB(bytes(value, charset))
+        .arrayCopy();
+  }
+
+  private static byte[] bytes (String value, Charset charset) {
+    val bytes = value.getBytes(charset);
+    return Bytes.resizableArray()
+        .write1B(bytes.length)
+        .writeNB(bytes)
+        .arrayCopy();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.terms.type;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.TermType.BINARY;
+import static io.netty.buffer.Unpooled.wrappedBuffer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.appulse.encon.terms.Erlang;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.utils.Bytes;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+public class ErlangBinarySliceTest {
+
+  private static final byte[] VALUE = new byte[] { 1, 2, 3, 4, 5 };
+
+  @After
+  public void after () {
+    ErlangBinarySlice.unbindThreshold();
+  }
+
+  @Test
+  public void decodeWithoutThreshold () {
+    ErlangBinary binary = ErlangTerm.newInstance(wrappedBuffer(bytes(VALUE)));
+
+    assertThat(binary).isNotInstanceOf(ErlangBinarySlice.class);
+    assertThat(binary.asBinary()).isEqualTo(VALUE);
+  }
+
+  @Test
+  public void decode () {
+    ErlangBinarySlice.bindThreshold(VALUE.length);
+    val buffer = wrappedBuffer(bytes(VALUE));
+
+    ErlangBinary binary = ErlangTerm.newInstance(buffer);
+    assertThat(binary).isInstanceOf(ErlangBinarySlice.class);
+    assertThat(buffer.isReadable()).isFalse();
+    assertThat(buffer.refCnt()).isEqualTo(2);
+
+    assertThat(binary.isBinary()).isTrue();
+    assertThat(binary.length()).isEqualTo(VALUE.length);
+    assertThat(binary.asBinary()).isEqualTo(VALUE);
+    assertThat(binary).isEqualTo(Erlang.binary(VALUE));
+    assertThat(binary.hashCode()).isEqualTo(Erlang.binary(VALUE).hashCode());
+
+    assertThat(((ErlangBinarySlice) binary).release()).isFalse();
+    assertThat(buffer.refCnt()).isEqualTo(1);
+  }
+
+  @Test
+  @SneakyThrows
+  public void thresholdIsPerThread () {
+    ErlangBinarySlice.bindThreshold(VALUE.length);
+
+    val other = new AtomicReference<ErlangTerm>();
+    val thread = new Thread(() -> other.set(ErlangTerm.newInstance(wrappedBuffer(bytes(VALUE)))));
+    thread.start();
+    thread.join();
+
+    assertThat(other.get()).isNotInstanceOf(ErlangBinarySlice.class);
+    assertThat(ErlangTerm.<ErlangTerm>newInstance(wrappedBuffer(bytes(VALUE))))
+        .isInstanceOf(ErlangBinarySlice.class);
+  }
+
+  @Test
+  public void encode () {
+    val binary = Erlang.binary(Unpooled.copiedBuffer(VALUE));
+
+    assertThat(binary.toBytes()).isEqualTo(bytes(VALUE));
+    assertThat(binary.refCnt()).isEqualTo(1);
+    binary.release();
+  }
+
+  @Test
+  public void encodeIntoComposite () {
+    val content = Unpooled.copiedBuffer(VALUE);
+    val binary = Erlang.binary(content);
+    val composite = Unpooled.compositeBuffer();
+
+    binary.writeTo(composite);
+    atom("end").writeTo(composite);
+
+    // the binary's content is shared, not copied
+    assertThat(content.refCnt()).isEqualTo(2);
+    assertThat(ByteBufUtil.getBytes(composite)).isEqualTo(Bytes.resizableArray()
+        .writeNB(bytes(VALUE))
+        .writeNB(atom("end").toBytes())
+        .arrayCopy());
+
+    composite.release();
+    binary.release();
+    assertThat(content.refCnt()).isEqualTo(0);
+  }
+
+  @Test
+  @SneakyThrows
+  public void javaSerializationCopies () {
+    val binary = Erlang.binary(Unpooled.copiedBuffer(VALUE));
+
+    val bytes = new ByteArrayOutputStream();
+    try (val output = new ObjectOutputStream(bytes)) {
+      output.writeObject(binary);
+    }
+    binary.release();
+
+    try (val input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      val result = input.readObject();
+      assertThat(result).isExactlyInstanceOf(ErlangBinary.class);
+      assertThat(((ErlangBinary) result).asBinary()).isEqualTo(VALUE);
+    }
+  }
+
+  private static byte[] bytes (byte[] value) {
+    return Bytes.resizableArray()
+        .write1B(BINARY.getCode())
+        .write4B(value.length)
+        .writeNB(value)
+        .arrayCopy();
+  }
+}
@@ -163,6 +163,40 @@ public class ErlangIntegerTest {
     }
   }
 
+  @Test
+  public void longBackedBigs () throws Exception {
+    long[] values = {
+        Long.MAX_VALUE,
+        Long.MIN_VALUE,
+        Long.MIN_VALUE + 1,
+        1546300800000000000L,
+        -(1L << 40)
+    };
+
+    for (long value : values) {
+      val bytes = bigBytes(BigInteger.valueOf(value));
+
+      ErlangInteger decoded = ErlangTerm.newInstance(wrappedBuffer(bytes));
+      assertThat(decoded.isLong()).isTrue();
+      assertThat(decoded.asLong()).isEqualTo(value);
+      assertThat(decoded.asBigInteger()).isEqualTo(BigInteger.valueOf(value));
+      assertThat(decoded.toBytes()).isEqualTo(bytes);
+      assertThat(decoded).isEqualTo(new ErlangInteger(value));
+
+      try (val input = new OtpInputStream(bytes)) {
+        assertThat(decoded.asLong())
+            .isEqualTo(input.read_long());
+      }
+    }
+
+    val unsignedLong = new BigInteger("18446744073709551615");
+    val bytes = bigBytes(unsignedLong);
+    ErlangInteger decoded = ErlangTerm.newInstance(wrappedBuffer(bytes));
+    assertThat(decoded.isLong()).isFalse();
+    assertThat(decoded.asBigInteger()).isEqualTo(unsignedLong);
+    assertThat(decoded.toBytes()).isEqualTo(bytes);
+  }
+
   @Test
   public void cached () {
     ErlangInteger num1 = ErlangInteger.cached(1273);
@@ -57,6 +57,18 @@ public class ErlangStringTest {
     val string2 = repeat("я", 65536);
     assertThat(new ErlangString(string2).toBytes())
         .isEqualTo(bytes(string2));
+
+    val string3 = "emoji 😀 and я";
+    assertThat(new ErlangString(string3).toBytes())
+        .isEqualTo(bytes(string3));
+  }
+
+  @Test
+  public void decodeLong () {
+    val string = repeat("a", 40000);
+    ErlangString decoded = ErlangTerm.newInstance(wrappedBuffer(bytes(string)));
+    assertThat(decoded.asText())
+        .isEqualTo(string);
   }
 
   @Test
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.terms.type;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.binary;
+import static io.appulse.encon.terms.Erlang.list;
+import static io.appulse.encon.terms.Erlang.map;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.string;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static io.netty.buffer.Unpooled.wrappedBuffer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+
+import io.appulse.encon.terms.Erlang;
+import io.appulse.encon.terms.ErlangTerm;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+public class LazyErlangTermTest {
+
+  @Test
+  public void regularTermsAreNotLazy () {
+    val term = LazyErlangTerm.read(wrappedBuffer(atom("popa").toBytes()));
+    assertThat(term).isExactlyInstanceOf(ErlangAtom.class);
+  }
+
+  @Test
+  public void tupleDecodesOnlyAccessedElements () {
+    val original = tuple(atom("reply"), tuple(number(1), number(2)), list(number(3)));
+
+    val term = (LazyErlangTerm) LazyErlangTerm.read(wrappedBuffer(original.toBytes()));
+    assertThat(term.isTuple()).isTrue();
+    assertThat(term.size()).isEqualTo(3);
+
+    assertThat(term.getUnsafe(0)).isEqualTo(atom("reply"));
+    assertThat(term.isDecoded()).isFalse();
+
+    val nested = term.getUnsafe(1);
+    assertThat(nested).isInstanceOf(LazyErlangTerm.class);
+    assertThat(nested.getUnsafe(1)).isEqualTo(number(2));
+    assertThat(((LazyErlangTerm) nested).isDecoded()).isFalse();
+
+    assertThat(term).isEqualTo(original);
+    assertThat(term.asTuple()).isEqualTo(original);
+    assertThat(term.isDecoded()).isTrue();
+  }
+
+  @Test
+  public void listDecodesOnlyAccessedElements () {
+    val original = list(number(1), string("two"), atom("three"));
+
+    val term = LazyErlangTerm.read(wrappedBuffer(original.toBytes()));
+    assertThat(term.isList()).isTrue();
+    assertThat(term.size()).isEqualTo(3);
+    assertThat(term.getUnsafe(2)).isEqualTo(atom("three"));
+    assertThat(term).containsExactly(number(1), string("two"), atom("three"));
+    assertThat(term.asList()).isEqualTo(original);
+  }
+
+  @Test
+  public void mapDecodesOnlyAccessedElements () {
+    val original = map(
+        atom("id"), number(42),
+        atom("payload"), tuple(binary(new byte[] { 1, 2, 3 }), atom("ok"))
+    );
+
+    val term = (LazyErlangTerm) LazyErlangTerm.read(wrappedBuffer(original.toBytes()));
+    assertThat(term.isMap()).isTrue();
+    assertThat(term.size()).isEqualTo(2);
+    assertThat(term.getUnsafe(atom("id"))).isEqualTo(number(42));
+    assertThat(term.getByAtom("payload").get().getUnsafe(1)).isEqualTo(atom("ok"));
+    assertThat(term.getUnsafe(atom("missing"))).isNull();
+    assertThat((Iterable<ErlangTerm>) term::fieldNames).containsExactly(atom("id"), atom("payload"));
+    assertThat(term.isDecoded()).isFalse();
+
+    assertThat(term.asMap()).isEqualTo(original);
+  }
+
+  @Test
+  @SneakyThrows
+  public void javaSerializationDecodes () {
+    val original = tuple(atom("reply"), list(number(1), number(2)));
+    val term = LazyErlangTerm.read(wrappedBuffer(original.toBytes()));
+
+    val bytes = new ByteArrayOutputStream();
+    try (val output = new ObjectOutputStream(bytes)) {
+      output.writeObject(term);
+    }
+
+    try (val input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      val result = input.readObject();
+      assertThat(result).isExactlyInstanceOf(ErlangTuple.class);
+      assertThat(result).isEqualTo(original);
+    }
+  }
+
+  @Test
+  public void writeToCopiesBytes () {
+    val original = tuple(atom("reply"), list(number(1), number(2)), map(atom("a"), atom("b")));
+    val bytes = original.toBytes();
+
+    val term = (LazyErlangTerm) LazyErlangTerm.read(wrappedBuffer(bytes));
+    assertThat(term.toBytes()).isEqualTo(bytes);
+    assertThat(term.isDecoded()).isFalse();
+  }
+
+  @Test
+  public void skip () {
+    val pid = ErlangPid.builder()
+        .node("popa@localhost")
+        .id(1)
+        .serial(2)
+        .creation(3)
+        .build();
+
+    val reference = ErlangReference.builder()
+        .node("popa@localhost")
+        .ids(new long[] { 1, 2, 3 })
+        .creation(3)
+        .build();
+
+    val original = tuple(
+        number(1),
+        number(Integer.MAX_VALUE),
+        number(new BigInteger("92233720368547758070")),
+        number(1.5D),
+        atom("atom"),
+        string("string"),
+        binary(new byte[] { 1, 2, 3 }),
+        Erlang.bitstr(new byte[] { 1, 2 }, 3),
+        pid,
+        reference,
+        list(atom("head"), list(), map()),
+        Erlang.NIL
+    );
+
+    val buffer = Unpooled.buffer();
+    original.writeTo(buffer);
+    atom("end").writeTo(buffer);
+
+    LazyErlangTerm.skip(buffer);
+    assertThat(ErlangTerm.<ErlangTerm>newInstance(buffer)).isEqualTo(atom("end"));
+    assertThat(buffer.isReadable()).isFalse();
+
+    buffer.readerIndex(0);
+    val term = LazyErlangTerm.read(buffer);
+    assertThat(term.getUnsafe(8)).isEqualTo(pid);
+    assertThat(term.getUnsafe(9)).isEqualTo(reference);
+    assertThat(ByteBufUtil.getBytes(buffer)).isEqualTo(atom("end").toBytes());
+  }
+}
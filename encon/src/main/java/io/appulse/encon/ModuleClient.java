@@ -16,6 +16,10 @@
 
 package io.appulse.encon;
 
+import static io.appulse.encon.connection.regular.RegularPipeline.BINARY_SLICE_THRESHOLD;
+import static io.appulse.encon.connection.regular.RegularPipeline.COMPRESSION;
+import static io.appulse.encon.connection.regular.RegularPipeline.DECODE_EXECUTORS;
+import static io.appulse.encon.connection.regular.RegularPipeline.FLUSH_POLICY;
 import static io.netty.channel.ChannelOption.ALLOCATOR;
 import static io.netty.channel.ChannelOption.AUTO_READ;
 import static io.netty.channel.ChannelOption.CONNECT_TIMEOUT_MILLIS;
@@ -27,8 +31,10 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import io.appulse.encon.common.RemoteNode;
 import io.appulse.encon.connection.Connection;
@@ -105,7 +111,67 @@ class ModuleClient implements Closeable {
   }
 
   private CompletableFuture<Connection> createConnection (@NonNull RemoteNode remote) {
+    val size = moduleConnection.getConnectionsPerNode();
+    // the Erlang nodes accept a single connection from a node
+    if (size > 1 && remote.isEncon()) {
+      return createPooledConnection(remote, size);
+    }
+
     log.debug("Creating new client's connection\nto {}", remote);
+    CompletableFuture<Connection> future = openChannel(remote, remoteNode -> {
+      log.debug("Closing connection to {}", remoteNode);
+      node.moduleLookup.remove(remoteNode);
+      node.moduleConnection.remove(remoteNode);
+    });
+
+    moduleConnection.add(future);
+    return future;
+  }
+
+  private CompletableFuture<Connection> createPooledConnection (RemoteNode remote, int size) {
+    log.debug("Creating new client's pool of {} connections\nto {}", size, remote);
+    CompletableFuture<Connection> result = new CompletableFuture<>();
+
+    // the pool goes away with any of its channels, but the late close events
+    // of the already removed pool's channels must not remove the next one
+    Consumer<RemoteNode> closeAction = remoteNode -> {
+      log.debug("Closing pooled connection to {}", remoteNode);
+      node.moduleLookup.remove(remoteNode);
+      node.moduleConnection.remove(remoteNode, result);
+    };
+
+    @SuppressWarnings("unchecked")
+    CompletableFuture<Connection>[] channels = new CompletableFuture[size];
+    for (int index = 0; index < size; index++) {
+      channels[index] = openChannel(remote, closeAction);
+    }
+
+    CompletableFuture.allOf(channels).whenComplete((ignored, throwable) -> {
+      val connections = new ArrayList<Connection>(size);
+      for (val channel : channels) {
+        if (!channel.isCompletedExceptionally()) {
+          connections.add(channel.join());
+        }
+      }
+
+      if (connections.isEmpty()) {
+        log.error("Couldn't open {} connections to {}", size, remote, throwable);
+        result.completeExceptionally(throwable);
+        node.moduleConnection.remove(remote, result);
+        return;
+      }
+      if (throwable != null) {
+        // the pool goes on with the opened channels, down to a single one
+        log.warn("Only {} of {} connections to {} were opened", connections.size(), size, remote, throwable);
+      }
+      result.complete(connections.size() == 1
+                      ? connections.get(0)
+                      : Connection.pooled(remote, connections));
+    });
+    return result;
+  }
+
+  private CompletableFuture<Connection> openChannel (RemoteNode remote, Consumer<RemoteNode> channelCloseAction) {
     CompletableFuture<Connection> future = new CompletableFuture<>();
 
     new Bootstrap()
@@ -118,21 +184,20 @@ class ModuleClient implements Closeable {
         .option(ALLOCATOR, moduleConnection.getAllocator())
         .option(SINGLE_EVENTEXECUTOR_PER_GROUP, true)
         .option(WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(16 * 1024, 64 * 1024))
+        .attr(DECODE_EXECUTORS, moduleConnection.getDecodeGroup())
+        .attr(FLUSH_POLICY, moduleConnection.getFlushPolicy())
+        .attr(COMPRESSION, moduleConnection.getCompression())
+        .attr(BINARY_SLICE_THRESHOLD, moduleConnection.getBinarySliceThreshold())
         .handler(HandshakeClientInitializer.builder()
             .node(node)
             .future(future)
             .remote(remote)
-            .channelCloseAction(remoteNode -> {
-              log.debug("Closing connection to {}", remoteNode);
-              node.moduleLookup.remove(remoteNode);
-              node.moduleConnection.remove(remoteNode);
-            })
+            .channelCloseAction(channelCloseAction)
             .build()
         )
         .connect(remote.getDescriptor().getAddress(),
                  remote.getPort());
 
-    moduleConnection.add(future);
     return future;
   }
 }
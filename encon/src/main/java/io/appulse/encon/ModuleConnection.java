@@ -21,13 +21,18 @@ import static java.util.concurrent.CompletableFuture.completedFuture;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import io.appulse.encon.common.RemoteNode;
+import io.appulse.encon.config.CompressionConfig;
 import io.appulse.encon.connection.Connection;
+import io.appulse.encon.connection.regular.FlushPolicy;
 
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.PooledByteBufAllocator;
@@ -43,10 +48,15 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.ResourceLeakDetector;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.NonStickyEventExecutorGroup;
+import io.netty.util.concurrent.UnorderedThreadPoolEventExecutor;
 import io.netty.util.internal.SystemPropertyUtil;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
@@ -80,10 +90,56 @@ class ModuleConnection implements Closeable {
   @Getter
   ByteBufAllocator allocator;
 
+  /**
+   * Executors for the messages decoding, or {@code null} if they are
+   * decoded on the event loop. Each {@link EventExecutorGroup#next()} call
+   * returns an ordered executor, which is not bound to a specific thread.
+   */
+  @Getter
+  EventExecutorGroup decodeGroup;
+
+  @Getter
+  FlushPolicy flushPolicy;
+
+  @Getter
+  CompressionConfig compression;
+
+  /**
+   * The number of the parallel connections, which are opened to a remote node.
+   */
+  @Getter
+  int connectionsPerNode;
+
+  /**
+   * The minimal length of the incoming binaries, which are decoded as slices,
+   * or a negative value if they are always copied.
+   */
+  @Getter
+  int binarySliceThreshold;
+
   Map<RemoteNode, CompletableFuture<Connection>> cache;
 
-  ModuleConnection (@NonNull String prefix, int bossThreads, int workerThreads) {
+  // the channels, accepted from the remote nodes, an encon node could open several ones
+  Map<RemoteNode, AcceptedChannels> accepted;
+
+  ModuleConnection (@NonNull String prefix,
+                    int bossThreads,
+                    int workerThreads,
+                    int decodeThreads,
+                    @NonNull FlushPolicy flushPolicy,
+                    CompressionConfig compression,
+                    int connectionsPerNode,
+                    int binarySliceThreshold
+  ) {
+    if (connectionsPerNode <= 0) {
+      throw new IllegalArgumentException("Connections per node must be positive, but it is " + connectionsPerNode);
+    }
     cache = new ConcurrentHashMap<>();
+    accepted = new HashMap<>();
+    this.flushPolicy = flushPolicy;
+    this.compression = compression;
+    this.connectionsPerNode = connectionsPerNode;
+    this.binarySliceThreshold = binarySliceThreshold;
 
     val bossThreadFactory = new DefaultThreadFactory(prefix + "-nbg");
     val workerThreadFactory = new DefaultThreadFactory(prefix + "-nwg");
@@ -100,6 +156,15 @@ class ModuleConnection implements Closeable {
       serverChannelClass = NioServerSocketChannel.class;
     }
     allocator = new PooledByteBufAllocator(true);
+
+    if (decodeThreads > 0) {
+      val decodeThreadFactory = new DefaultThreadFactory(prefix + "-ndg");
+      decodeGroup = new NonStickyEventExecutorGroup(
+          new UnorderedThreadPoolEventExecutor(decodeThreads, decodeThreadFactory)
+      );
+    } else {
+      decodeGroup = null;
+    }
   }
 
   @Override
@@ -113,6 +178,10 @@ class ModuleConnection implements Closeable {
       log.debug("Shutting down worker threads group");
       workerGroup.shutdownGracefully();
     }
+    if (decodeGroup != null && !decodeGroup.isShuttingDown() && !decodeGroup.isShutdown()) {
+      log.debug("Shutting down decode threads group");
+      decodeGroup.shutdownGracefully();
+    }
     log.debug("Connection module closed");
   }
 
@@ -124,6 +193,45 @@ class ModuleConnection implements Closeable {
     });
   }
 
+  /**
+   * Adds the accepted connection. The channels, accepted from the same remote node,
+   * are cached together as a pooled connection.
+   *
+   * @param future the accepted connection
+   */
+  void addAccepted (@NonNull CompletableFuture<Connection> future) {
+    future.thenAccept(this::addAccepted);
+  }
+
+  /**
+   * Removes the accepted connection, whose channel is closed. The rest of the channels,
+   * accepted from the same remote node, are still cached.
+   *
+   * @param remote the remote node
+   *
+   * @param future the closed connection
+   *
+   * @return {@code true} if there are no more channels, accepted from the remote node
+   */
+  synchronized boolean removeAccepted (@NonNull RemoteNode remote, @NonNull CompletableFuture<Connection> future) {
+    val channels = accepted.get(remote);
+    if (channels == null || !future.isDone() || future.isCompletedExceptionally() ||
+        !channels.getConnections().remove(future.join())) {
+      return channels == null;
+    }
+
+    val previous = channels.getPooled();
+    if (channels.getConnections().isEmpty()) {
+      log.debug("Removing connection to {}", remote);
+      accepted.remove(remote);
+      cache.remove(remote, previous);
+      return true;
+    }
+    channels.setPooled(completedFuture(channels.pool(remote)));
+    cache.replace(remote, previous, channels.getPooled());
+    return false;
+  }
+
   CompletableFuture<Connection> compute (@NonNull RemoteNode remote,
                                          @NonNull Function<RemoteNode, CompletableFuture<Connection>> function) {
     if (log.isDebugEnabled()) {
@@ -139,10 +247,61 @@ class ModuleConnection implements Closeable {
       return;
     }
 
-    if (future.isDone()) {
-      future.join().close();
-    } else {
+    close(future);
+  }
+
+  /**
+   * Removes the connection, only if it is still the cached one for the remote node.
+   *
+   * @param remote the remote node
+   *
+   * @param future the expected connection
+   */
+  void remove (@NonNull RemoteNode remote, @NonNull CompletableFuture<Connection> future) {
+    if (!cache.remove(remote, future)) {
+      return;
+    }
+    log.debug("Removing connection to {}", remote);
+    close(future);
+  }
+
+  private synchronized void addAccepted (Connection connection) {
+    val remote = connection.getRemote();
+    val channels = accepted.computeIfAbsent(remote, it -> new AcceptedChannels());
+    channels.getConnections().add(connection);
+
+    val previous = channels.getPooled();
+    channels.setPooled(completedFuture(channels.pool(remote)));
+    val added = previous == null
+                ? cache.putIfAbsent(remote, channels.getPooled()) == null
+                : cache.replace(remote, previous, channels.getPooled());
+    log.debug("Accepted connection was added for\n  {}\n(cached: {}, channels: {})",
+              remote, added, channels.getConnections().size());
+  }
+
+  private void close (CompletableFuture<Connection> future) {
+    if (!future.isDone()) {
       future.cancel(false);
+    } else if (!future.isCompletedExceptionally()) {
+      future.join().close();
+    }
+  }
+
+  @Getter
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static class AcceptedChannels {
+
+    List<Connection> connections = new ArrayList<>();
+
+    // the cached connection over all the channels
+    @Setter
+    @NonFinal
+    CompletableFuture<Connection> pooled;
+
+    Connection pool (RemoteNode remote) {
+      return connections.size() == 1
+             ? connections.get(0)
+             : Connection.pooled(remote, connections);
     }
   }
 }
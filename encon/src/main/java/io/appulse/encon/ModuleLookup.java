@@ -16,6 +16,7 @@
 
 package io.appulse.encon;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.util.Map;
@@ -42,6 +43,9 @@ import lombok.val;
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 class ModuleLookup {
 
+  // the EPMD registration's extra data of the encon nodes
+  static final String ENCON_EXTRA = "encon";
+
   EpmdClient epmd;
 
   Map<NodeDescriptor, RemoteNode> cache;
@@ -64,6 +68,9 @@ class ModuleLookup {
               .high(it.getHigh().get())
               .low(it.getLow().get())
               .port(it.getPort().get())
+              .encon(it.getExtra()
+                  .map(extra -> ENCON_EXTRA.equals(new String(extra, UTF_8)))
+                  .orElse(false))
               .build()
           )
           .orElse(null);
@@ -16,6 +16,10 @@
 
 package io.appulse.encon;
 
+import static io.appulse.encon.connection.regular.RegularPipeline.BINARY_SLICE_THRESHOLD;
+import static io.appulse.encon.connection.regular.RegularPipeline.COMPRESSION;
+import static io.appulse.encon.connection.regular.RegularPipeline.DECODE_EXECUTORS;
+import static io.appulse.encon.connection.regular.RegularPipeline.FLUSH_POLICY;
 import static io.netty.channel.ChannelOption.ALLOCATOR;
 import static io.netty.channel.ChannelOption.AUTO_READ;
 import static io.netty.channel.ChannelOption.CONNECT_TIMEOUT_MILLIS;
@@ -81,11 +85,12 @@ class ModuleServer implements Closeable {
         .handler(new LoggingHandler(DEBUG))
         .childHandler(HandshakeServerInitializer.builder()
             .node(node)
-            .consumer(moduleConnection::add)
-            .channelCloseAction(remote -> {
+            .consumer(moduleConnection::addAccepted)
+            .channelCloseAction((remote, connection) -> {
               log.debug("Closing connection to {}", remote);
-              node.moduleLookup.remove(remote);
-              node.moduleConnection.remove(remote);
+              if (node.moduleConnection.removeAccepted(remote, connection)) {
+                node.moduleLookup.remove(remote);
+              }
             })
             .build())
         .option(SO_BACKLOG, 128)
@@ -100,6 +105,10 @@ class ModuleServer implements Closeable {
         .childOption(AUTO_READ, true)
         .childOption(WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(16 * 1024, 64 * 1024))
         .childOption(ALLOCATOR, moduleConnection.getAllocator())
+        .childAttr(DECODE_EXECUTORS, moduleConnection.getDecodeGroup())
+        .childAttr(FLUSH_POLICY, moduleConnection.getFlushPolicy())
+        .childAttr(COMPRESSION, moduleConnection.getCompression())
+        .childAttr(BINARY_SLICE_THRESHOLD, moduleConnection.getBinarySliceThreshold())
         .bind(port);
   }
 }
@@ -16,11 +16,17 @@
 
 package io.appulse.encon;
 
+import static io.appulse.encon.config.MailboxOverflowPolicy.BLOCK;
+import static io.appulse.encon.config.MailboxWaitStrategy.PARK;
+import static java.lang.Boolean.TRUE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Optional.ofNullable;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static lombok.AccessLevel.PACKAGE;
 
 import java.io.Closeable;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -29,8 +35,11 @@ import io.appulse.encon.common.NodeDescriptor;
 import io.appulse.encon.common.RemoteNode;
 import io.appulse.encon.config.NodeConfig;
 import io.appulse.encon.connection.Connection;
+import io.appulse.encon.connection.regular.FlushPolicy;
 import io.appulse.encon.mailbox.Mailbox;
 import io.appulse.encon.mailbox.ModuleMailbox;
+import io.appulse.encon.metrics.EnconMetrics;
+import io.appulse.encon.metrics.MessageTracing;
 import io.appulse.encon.terms.type.ErlangPid;
 import io.appulse.encon.terms.type.ErlangReference;
 import io.appulse.epmd.java.client.EpmdClient;
@@ -42,6 +51,7 @@ import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.ToString;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
@@ -61,6 +71,8 @@ import lombok.val;
 @FieldDefaults(level = PACKAGE, makeFinal = true)
 public final class Node implements Closeable {
 
+  private static final int DEFAULT_MAILBOX_QUEUE_CAPACITY = 4096;
+
   @SneakyThrows
   static Node newInstance (@NonNull String name, @NonNull NodeConfig config) {
 
@@ -86,6 +98,7 @@ public final class Node implements Closeable {
         .protocol(meta.getProtocol())
         .high(meta.getHigh())
         .low(meta.getLow())
+        .extra(ModuleLookup.ENCON_EXTRA.getBytes(UTF_8))
         .build()
     ).get(10, SECONDS).getCreation();
     log.debug("Node '{}' was registered", descriptor.getFullName());
@@ -101,9 +114,20 @@ public final class Node implements Closeable {
     node.moduleMailbox.registerNetKernelMailbox();
 
     config.getMailboxes().forEach(it -> {
-      node.mailbox()
+      val builder = node.mailbox()
           .name(it.getName())
-          .build();
+          .lazyDecoding(TRUE.equals(it.getLazyDecoding()));
+
+      if (it.getQueueType() != null) {
+        builder.queue(it.getQueueType(),
+                      ofNullable(it.getQueueCapacity()).orElse(DEFAULT_MAILBOX_QUEUE_CAPACITY),
+                      ofNullable(it.getWaitStrategy()).orElse(PARK));
+      }
+      if (it.getCapacity() != null && it.getCapacity() > 0) {
+        builder.capacity(it.getCapacity(), ofNullable(it.getOverflowPolicy()).orElse(BLOCK))
+            .lowWaterMark(ofNullable(it.getLowWaterMark()).orElse(0));
+      }
+      builder.build();
     });
 
     log.debug("Node '{}' was created", descriptor.getFullName());
@@ -143,6 +167,15 @@ public final class Node implements Closeable {
 
   ModuleClient moduleClient;
 
+  @NonFinal
+  volatile EnconMetrics metrics = EnconMetrics.NOOP;
+
+  MessageTracing tracing = MessageTracing.fromSystemProperties();
+
+  // the nodes of the same Nodes container, or null if the node is alone
+  @NonFinal
+  volatile Map<NodeDescriptor, Node> colocatedNodes;
+
   @Builder
   private Node (@NonNull NodeDescriptor descriptor,
                 @NonNull Meta meta,
@@ -166,7 +199,19 @@ public final class Node implements Closeable {
     moduleConnection = new ModuleConnection(
         descriptor.getNodeName(),
         config.getServer().getBossThreads(),
-        config.getServer().getWorkerThreads()
+        config.getServer().getWorkerThreads(),
+        ofNullable(config.getServer().getDecodeThreads()).orElse(0),
+        FlushPolicy.builder()
+            .maxMessages(ofNullable(config.getServer().getFlushMaxMessages())
+                .orElse(FlushPolicy.DEFAULT.getMaxMessages()))
+            .maxBytes(ofNullable(config.getServer().getFlushMaxBytes())
+                .orElse(FlushPolicy.DEFAULT.getMaxBytes()))
+            .delayMicros(ofNullable(config.getServer().getFlushDelayMicros())
+                .orElse(FlushPolicy.DEFAULT.getDelayMicros()))
+            .build(),
+        config.getCompression(),
+        ofNullable(config.getServer().getConnectionsPerNode()).orElse(1),
+        ofNullable(config.getServer().getBinarySliceThreshold()).orElse(-1)
     );
     moduleServer = new ModuleServer(this, moduleConnection, port);
     moduleClient = new ModuleClient(this, moduleConnection, config.getShortName());
@@ -338,6 +383,64 @@ public final class Node implements Closeable {
     return moduleMailbox.mailboxes();
   }
 
+  /**
+   * Returns the node's instrumentation, {@link EnconMetrics#NOOP} by default.
+   *
+   * @return the node's metrics
+   *
+   * @since 1.7.0
+   */
+  public EnconMetrics getMetrics () {
+    return metrics;
+  }
+
+  /**
+   * Sets the node's instrumentation. The already opened connections and
+   * the existing mailboxes start to report to the new metrics immediately.
+   *
+   * @param metrics the node's metrics, {@link EnconMetrics#NOOP} disables them
+   *
+   * @since 1.7.0
+   */
+  public void setMetrics (@NonNull EnconMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the node's sampled latency tracing of the incoming messages.
+   * It is disabled by default, see {@link MessageTracing#setSampleRate(int)}.
+   *
+   * @return the node's message tracing
+   *
+   * @since 1.7.0
+   */
+  public MessageTracing getTracing () {
+    return tracing;
+  }
+
+  /**
+   * Returns a node, which lives in the same JVM and was created by
+   * the same {@link Nodes} container, so the messages to it could be
+   * delivered directly, without encoding and the network.
+   *
+   * @param nodeDescriptor the node's identifier
+   *
+   * @return the co-located node with the same cookie, or {@code null}
+   *         if the messages must go through a connection
+   *
+   * @since 1.7.0
+   */
+  public Node colocatedNode (@NonNull NodeDescriptor nodeDescriptor) {
+    val nodes = colocatedNodes;
+    if (nodes == null) {
+      return null;
+    }
+    val result = nodes.get(nodeDescriptor);
+    return result != null && result != this && Objects.equals(cookie, result.getCookie())
+           ? result
+           : null;
+  }
+
   /**
    * Asynchronous connection method to {@link RemoteNode}.
    *
@@ -390,6 +493,11 @@ public final class Node implements Closeable {
   public void close () {
     log.debug("Closing node '{}'", descriptor.getFullName());
 
+    val nodes = colocatedNodes;
+    if (nodes != null) {
+      nodes.remove(descriptor, this);
+    }
+
     if (moduleMailbox != null) {
       moduleMailbox.close();
     }
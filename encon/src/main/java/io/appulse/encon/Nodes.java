@@ -40,6 +40,11 @@ import lombok.val;
 /**
  * The set of different helper functions
  * for management nodes cluster within one Java process.
+ * <p>
+ * The nodes of one container with the same cookie send the messages to
+ * each other in memory: the terms are passed as is, without encoding,
+ * decoding and the network round trip. It could be turned off with
+ * the {@code io.appulse.encon.localDelivery=false} system property.
  *
  * @since 1.0.0
  * @author Artem Labazin
@@ -49,6 +54,9 @@ import lombok.val;
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public final class Nodes implements Iterable<Node>, Closeable {
 
+  private static final boolean LOCAL_DELIVERY =
+      Boolean.parseBoolean(System.getProperty("io.appulse.encon.localDelivery", "true"));
+
   /**
    * Creates blank set of nodes with default config.
    *
@@ -166,6 +174,9 @@ public final class Nodes implements Iterable<Node>, Closeable {
     copy.withDefaultsFrom(defaults);
     val node = Node.newInstance(name, copy);
     nodes.put(node.getDescriptor(), node);
+    if (LOCAL_DELIVERY) {
+      node.colocatedNodes = nodes;
+    }
     return node;
   }
 
@@ -222,7 +233,11 @@ public final class Nodes implements Iterable<Node>, Closeable {
    *         or {@code null} if there was no mapping for identifier.
    */
   public Node remove (@NonNull NodeDescriptor descriptor) {
-    return nodes.remove(descriptor);
+    val node = nodes.remove(descriptor);
+    if (node != null) {
+      node.colocatedNodes = null;
+    }
+    return node;
   }
 
   @Override
@@ -19,16 +19,18 @@ package io.appulse.encon.connection;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.io.Closeable;
+import java.util.List;
 
 import io.appulse.encon.common.RemoteNode;
 import io.appulse.encon.connection.regular.ConnectionHandler;
 import io.appulse.encon.connection.regular.Message;
+import io.appulse.encon.terms.type.ErlangPid;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import lombok.val;
 
 /**
  *
@@ -36,23 +38,96 @@ import lombok.extern.slf4j.Slf4j;
  * @author Artem Labazin
  */
 @Slf4j
-@RequiredArgsConstructor
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public final class Connection implements Closeable {
 
+  /**
+   * Creates a connection, which spreads the outgoing messages across
+   * the several channels to the same remote node.
+   *
+   * @param remote the remote node
+   *
+   * @param connections the single-channel connections to the remote node
+   *
+   * @return a new pooled connection
+   *
+   * @since 1.7.0
+   */
+  public static Connection pooled (@NonNull RemoteNode remote, @NonNull List<Connection> connections) {
+    if (connections.isEmpty()) {
+      throw new IllegalArgumentException("Pooled connection to " + remote + " must have at least one channel");
+    }
+    val handlers = new ConnectionHandler[connections.size()];
+    for (int index = 0; index < handlers.length; index++) {
+      val connection = connections.get(index);
+      if (connection.handlers.length != 1) {
+        throw new IllegalArgumentException("Pooled connection could not include another pooled connection");
+      }
+      handlers[index] = connection.handlers[0];
+    }
+    return new Connection(remote, handlers);
+  }
+
   @NonNull
   @Getter
   RemoteNode remote;
 
-  @NonNull
-  ConnectionHandler handler;
+  ConnectionHandler[] handlers;
+
+  public Connection (@NonNull RemoteNode remote, @NonNull ConnectionHandler handler) {
+    this(remote, new ConnectionHandler[] { handler });
+  }
+
+  private Connection (RemoteNode remote, ConnectionHandler[] handlers) {
+    this.remote = remote;
+    this.handlers = handlers;
+  }
+
+  /**
+   * Returns the number of the channels to the remote node.
+   *
+   * @return the number of the channels
+   *
+   * @since 1.7.0
+   */
+  public int size () {
+    return handlers.length;
+  }
 
   public void send (@NonNull Message message) {
-    handler.send(message);
+    handlers[0].send(message);
+  }
+
+  /**
+   * Sends a message through the sender's channel. All the messages from one
+   * sender go through the same channel, so the remote node receives them
+   * in order.
+   *
+   * @param from the sender's pid
+   *
+   * @param message the message to send
+   *
+   * @since 1.7.0
+   */
+  public void send (@NonNull ErlangPid from, @NonNull Message message) {
+    val index = handlers.length == 1
+                ? 0
+                : Math.floorMod(from.hashCode(), handlers.length);
+
+    handlers[index].send(message);
   }
 
   @Override
   public void close () {
     log.debug("Closing connection...");
+    if (handlers.length == 1) {
+      // a single channel's connection is removed, when the channel is closed already
+      return;
+    }
+    // a pooled connection is removed, when any of its channels is closed,
+    // so the rest of them go away too, and the next send opens a new pool
+    for (val handler : handlers) {
+      handler.close();
+    }
   }
 }
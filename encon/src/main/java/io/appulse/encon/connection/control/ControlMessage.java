@@ -17,12 +17,15 @@
 package io.appulse.encon.connection.control;
 
 import static io.appulse.encon.connection.control.ControlMessageTag.UNDEFINED;
+import static io.appulse.encon.terms.TermType.SMALL_INTEGER;
+import static io.appulse.encon.terms.TermType.SMALL_TUPLE;
 import static java.util.stream.Collectors.toCollection;
 
 import java.util.LinkedList;
 import java.util.stream.Stream;
 
 import io.appulse.encon.connection.control.exception.ControlMessageParsingException;
+import io.appulse.encon.terms.AtomCacheReferences;
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.type.ErlangInteger;
 import io.appulse.encon.terms.type.ErlangNil;
@@ -112,11 +115,52 @@ public abstract class ControlMessage {
     return toTuple().toBytes();
   }
 
+  /**
+   * Writes this control message as a tuple, without building the tuple itself.
+   * The messages with the constant content (like {@link Send}) are written
+   * from the cache of the already encoded ones.
+   *
+   * @param buffer output buffer
+   */
   public final void writeTo (ByteBuf buffer) {
-    toTuple().writeTo(buffer);
+    // the atom cache references make the encoding connection specific
+    if (isCacheable() && AtomCacheReferences.current() == null) {
+      ControlMessageCache.INSTANCE.write(this, cacheFrom(), cacheTo(), buffer);
+    } else {
+      writeTupleTo(buffer);
+    }
   }
 
   public abstract ControlMessageTag getTag ();
 
   protected abstract ErlangTerm[] elements ();
+
+  /**
+   * Tells if the encoded message depends only on its tag,
+   * {@link #cacheFrom()} and {@link #cacheTo()} values.
+   *
+   * @return {@code true} if the encoded message could be cached
+   */
+  boolean isCacheable () {
+    return false;
+  }
+
+  ErlangTerm cacheFrom () {
+    return null;
+  }
+
+  ErlangTerm cacheTo () {
+    return null;
+  }
+
+  final void writeTupleTo (ByteBuf buffer) {
+    val elements = elements();
+    buffer.writeByte(SMALL_TUPLE.getCode());
+    buffer.writeByte(elements.length + 1);
+    buffer.writeByte(SMALL_INTEGER.getCode());
+    buffer.writeByte(getTag().getCode());
+    for (ErlangTerm element : elements) {
+      element.writeTo(buffer);
+    }
+  }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.connection.control;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.appulse.encon.terms.ErlangTerm;
+
+import io.netty.buffer.ByteBuf;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Bounded cache of the already encoded control messages, the repeated sends
+ * to the same destination just copy the cached bytes.
+ * <p>
+ * It is a direct-mapped table: a new entry replaces the old one in
+ * the same slot, so the cache never grows and the stale entries
+ * (for the dead mailboxes, for example) are evicted by the fresh ones.
+ * The capacity could be changed with the
+ * {@code io.appulse.encon.connection.controlMessageCacheCapacity} system property
+ * (rounded up to a power of two, {@value #DEFAULT_CAPACITY} by default).
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class ControlMessageCache {
+
+  static final int DEFAULT_CAPACITY = 4096;
+
+  static final ControlMessageCache INSTANCE;
+
+  static {
+    int capacity = Integer.getInteger("io.appulse.encon.connection.controlMessageCacheCapacity", DEFAULT_CAPACITY);
+    INSTANCE = new ControlMessageCache(capacity);
+  }
+
+  private static boolean same (ErlangTerm first, ErlangTerm second) {
+    if (first == second) {
+      return true;
+    }
+    if (first == null || second == null || first.getType() != second.getType() || !first.equals(second)) {
+      return false;
+    }
+    // the pid's equals doesn't take the node into account
+    return !first.isPid() || first.asPid().getNode().equals(second.asPid().getNode());
+  }
+
+  AtomicReferenceArray<Entry> entries;
+
+  int mask;
+
+  ControlMessageCache (int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Control message cache capacity must be positive, but it is " + capacity);
+    }
+    int powerOfTwo = Integer.highestOneBit(capacity);
+    if (powerOfTwo < capacity) {
+      powerOfTwo <<= 1;
+    }
+    entries = new AtomicReferenceArray<>(powerOfTwo);
+    mask = powerOfTwo - 1;
+  }
+
+  /**
+   * Writes the control message, copying its cached bytes, or encoding
+   * and caching them.
+   *
+   * @param message the control message
+   *
+   * @param from the message's sender, could be {@code null}
+   *
+   * @param to the message's receiver
+   *
+   * @param buffer output buffer
+   */
+  void write (@NonNull ControlMessage message, ErlangTerm from, @NonNull ErlangTerm to, @NonNull ByteBuf buffer) {
+    ControlMessageTag tag = message.getTag();
+    int hash = 31 * (31 * tag.hashCode() + Objects.hashCode(from)) + to.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & mask;
+
+    Entry entry = entries.get(slot);
+    if (entry != null && entry.tag == tag && same(entry.from, from) && same(entry.to, to)) {
+      buffer.writeBytes(entry.bytes);
+      return;
+    }
+
+    int index = buffer.writerIndex();
+    message.writeTupleTo(buffer);
+
+    byte[] bytes = new byte[buffer.writerIndex() - index];
+    buffer.getBytes(index, bytes);
+    entries.set(slot, new Entry(tag, from, to, bytes));
+  }
+
+  @AllArgsConstructor
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static class Entry {
+
+    ControlMessageTag tag;
+
+    ErlangTerm from;
+
+    ErlangTerm to;
+
+    byte[] bytes;
+  }
+}
@@ -58,4 +58,14 @@ public class Send extends ControlMessage {
   public ErlangTerm[] elements () {
     return new ErlangTerm[] { UNUSED, to };
   }
+
+  @Override
+  boolean isCacheable () {
+    return true;
+  }
+
+  @Override
+  ErlangTerm cacheTo () {
+    return to;
+  }
 }
@@ -72,4 +72,19 @@ public class SendToRegisteredProcess extends ControlMessage {
   public ErlangTerm[] elements () {
     return new ErlangTerm[] { from, EMPTY_ATOM, to };
   }
+
+  @Override
+  boolean isCacheable () {
+    return true;
+  }
+
+  @Override
+  ErlangTerm cacheFrom () {
+    return from;
+  }
+
+  @Override
+  ErlangTerm cacheTo () {
+    return to;
+  }
 }
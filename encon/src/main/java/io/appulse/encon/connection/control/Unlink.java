@@ -70,4 +70,19 @@ public class Unlink extends ControlMessage {
   public ErlangTerm[] elements () {
     return new ErlangTerm[] { from, to };
   }
+
+  @Override
+  boolean isCacheable () {
+    return true;
+  }
+
+  @Override
+  ErlangTerm cacheFrom () {
+    return from;
+  }
+
+  @Override
+  ErlangTerm cacheTo () {
+    return to;
+  }
 }
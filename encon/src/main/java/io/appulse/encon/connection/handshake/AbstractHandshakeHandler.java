@@ -16,12 +16,15 @@
 
 package io.appulse.encon.connection.handshake;
 
+import static io.appulse.encon.common.DistributionFlag.DIST_HDR_ATOM_CACHE;
 import static lombok.AccessLevel.PROTECTED;
 
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import io.appulse.encon.Node;
+import io.appulse.encon.common.DistributionFlag;
 import io.appulse.encon.common.RemoteNode;
 import io.appulse.encon.connection.Connection;
 import io.appulse.encon.connection.regular.RegularPipeline;
@@ -58,11 +61,15 @@ abstract class AbstractHandshakeHandler extends ChannelInboundHandlerAdapter {
   @NonFinal
   RemoteNode remote;
 
+  @NonFinal
+  Set<DistributionFlag> remoteFlags;
+
   @Override
   public void exceptionCaught (ChannelHandlerContext context, Throwable cause) throws Exception {
     log.error("Error during channel connection with {}",
               context.channel().remoteAddress(), cause);
 
+    node.getMetrics().handshakeFailed(remote, cause);
     context.fireExceptionCaught(cause);
     context.close();
     future.completeExceptionally(cause);
@@ -78,7 +85,11 @@ abstract class AbstractHandshakeHandler extends ChannelInboundHandlerAdapter {
     log.debug("Replacing pipline to regular for {}", channel.remoteAddress());
 
     AbstractHandshakeChannelInitializer.cleanup(pipeline);
-    val handler = RegularPipeline.setup(pipeline, node, remote, channelCloseAction);
+    val atomCache = remoteFlags != null &&
+                    remoteFlags.contains(DIST_HDR_ATOM_CACHE) &&
+                    node.getMeta().getFlags().contains(DIST_HDR_ATOM_CACHE);
+
+    val handler = RegularPipeline.setup(pipeline, node, remote, channelCloseAction, atomCache);
 
     future.complete(new Connection(remote, handler));
 
@@ -69,6 +69,7 @@ class HandshakeHandlerClient extends AbstractHandshakeHandler {
     log.error("Error during channel connection with {}",
               context.channel().remoteAddress(), cause);
 
+    node.getMetrics().handshakeFailed(remote, cause);
     context.fireExceptionCaught(cause);
     context.close();
   }
@@ -124,6 +125,7 @@ class HandshakeHandlerClient extends AbstractHandshakeHandler {
   }
 
   private void handle (ChallengeMessage message, ChannelHandlerContext context) {
+    remoteFlags = message.getFlags();
     val remoteChallenge = message.getChallenge();
     val digest = HandshakeUtils.generateDigest(remoteChallenge, node.getCookie());
     myChallenge = ThreadLocalRandom.current().nextInt();
@@ -84,6 +84,7 @@ class HandshakeHandlerServer extends AbstractHandshakeHandler {
     if (remote == null) {
       throw new HandshakeException();
     }
+    remoteFlags = message.getFlags();
 
     val statusMessage = StatusMessage.builder()
         .status(OK)
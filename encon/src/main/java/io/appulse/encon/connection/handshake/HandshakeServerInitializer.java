@@ -19,6 +19,7 @@ package io.appulse.encon.connection.handshake;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import io.appulse.encon.Node;
@@ -52,12 +53,13 @@ public final class HandshakeServerInitializer extends AbstractHandshakeChannelIn
 
   Consumer<CompletableFuture<Connection>> consumer;
 
-  Consumer<RemoteNode> channelCloseAction;
+  // the remote node and the closed channel's connection, a node could accept several ones from a remote node
+  BiConsumer<RemoteNode, CompletableFuture<Connection>> channelCloseAction;
 
   @Builder
   public HandshakeServerInitializer (@NonNull Node node,
                                      @NonNull Consumer<CompletableFuture<Connection>> consumer,
-                                     @NonNull Consumer<RemoteNode> channelCloseAction
+                                     @NonNull BiConsumer<RemoteNode, CompletableFuture<Connection>> channelCloseAction
   ) {
     super(DECODER);
     this.node = node;
@@ -71,7 +73,7 @@ public final class HandshakeServerInitializer extends AbstractHandshakeChannelIn
               socketChannel.remoteAddress());
 
     CompletableFuture<Connection> future = new CompletableFuture<>();
-    val handler = new HandshakeHandlerServer(node, future, channelCloseAction);
+    val handler = new HandshakeHandlerServer(node, future, remote -> channelCloseAction.accept(remote, future));
     initChannel(socketChannel, handler);
     consumer.accept(future);
   }
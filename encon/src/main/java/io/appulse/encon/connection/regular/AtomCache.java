@@ -0,0 +1,298 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.connection.regular;
+
+import static io.appulse.encon.terms.TermType.ATOM_UTF8;
+import static io.appulse.encon.terms.TermType.SMALL_ATOM_UTF8;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Arrays;
+
+import io.appulse.encon.terms.AtomCacheReferences;
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+import io.appulse.encon.terms.type.ErlangAtom;
+
+import io.netty.buffer.ByteBuf;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+/**
+ * Per-connection atom cache of the
+ * <a href="http://erlang.org/doc/apps/erts/erl_ext_dist.html#distribution_header">distribution header</a>.
+ * <p>
+ * It holds two independent 2048-entries caches: the incoming one is filled by the remote node's
+ * headers and the outgoing one tracks what was already sent to the remote node.
+ * <p>
+ * Reading and writing are not thread safe. Incoming headers must be read one at a time, in the order
+ * of the frames: on the channel's event loop, or on the connection's decode executor, if it has one.
+ * That executor runs the connection's frames one after another, but not always on the same thread;
+ * its task handoff is what makes the previous header's entries visible to the next one. Outgoing
+ * headers must be written under the instance's lock, in the same order as the messages go to the wire.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class AtomCache {
+
+  static final int DISTRIBUTION_HEADER_TAG = 'D';
+
+  static final int CACHE_SIZE = 2048;
+
+  static final int MAX_REFERENCES = 255;
+
+  private static final int NEW_CACHE_ENTRY_FLAG = 0x08;
+
+  private static final int SEGMENT_INDEX_MASK = 0x07;
+
+  private static final int LONG_ATOMS_FLAG = 0x01;
+
+  private static final int MAX_SHORT_ATOM_LENGTH = 255;
+
+  ErlangAtom[] incoming = new ErlangAtom[CACHE_SIZE];
+
+  ErlangAtom[] outgoing = new ErlangAtom[CACHE_SIZE];
+
+  Writer writer = new Writer();
+
+  /**
+   * Reads the distribution header, without the version and {@code 'D'} tags,
+   * and updates the incoming cache with the new entries.
+   *
+   * @param buffer message's buffer
+   *
+   * @return references for the message's terms decoding
+   */
+  AtomCacheReferences readHeader (ByteBuf buffer) {
+    int count = buffer.readUnsignedByte();
+    val atoms = new ErlangAtom[count];
+    if (count == 0) {
+      return new Reader(atoms);
+    }
+
+    val flagsIndex = buffer.readerIndex();
+    buffer.skipBytes(count / 2 + 1);
+    val longAtoms = (flag(buffer, flagsIndex, count) & LONG_ATOMS_FLAG) != 0;
+
+    for (int index = 0; index < count; index++) {
+      val flag = flag(buffer, flagsIndex, index);
+      val cacheIndex = (flag & SEGMENT_INDEX_MASK) << 8 | buffer.readUnsignedByte();
+
+      if ((flag & NEW_CACHE_ENTRY_FLAG) != 0) {
+        // the atom text has exactly the same layout as
+        // SMALL_ATOM_UTF8/ATOM_UTF8 terms after the tag
+        incoming[cacheIndex] = ErlangAtom.cached(longAtoms ? ATOM_UTF8 : SMALL_ATOM_UTF8, buffer);
+      }
+
+      atoms[index] = incoming[cacheIndex];
+      if (atoms[index] == null) {
+        val message = String.format("Reference to the empty atom cache entry %d", cacheIndex);
+        throw new ErlangTermDecodeException(message);
+      }
+    }
+    return new Reader(atoms);
+  }
+
+  /**
+   * Returns the outgoing references collector, which must be bound
+   * while the message's terms are written and then used for
+   * writing the header.
+   * <p>
+   * Must be called under the instance's lock.
+   *
+   * @return outgoing references collector
+   */
+  Writer writer () {
+    writer.reset();
+    return writer;
+  }
+
+  private static int flag (ByteBuf buffer, int flagsIndex, int index) {
+    val flags = buffer.getUnsignedByte(flagsIndex + index / 2);
+    return index % 2 == 0
+           ? flags & 0x0F
+           : flags >>> 4;
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static final class Reader implements AtomCacheReferences {
+
+    ErlangAtom[] atoms;
+
+    Reader (ErlangAtom[] atoms) {
+      this.atoms = atoms;
+    }
+
+    @Override
+    public ErlangAtom get (int index) {
+      if (index >= atoms.length) {
+        val message = String.format("Atom cache reference %d, but header has only %d", index, atoms.length);
+        throw new ErlangTermDecodeException(message);
+      }
+      return atoms[index];
+    }
+
+    @Override
+    public int indexOf (ErlangAtom atom) {
+      return -1;
+    }
+  }
+
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  final class Writer implements AtomCacheReferences {
+
+    ErlangAtom[] atoms = new ErlangAtom[MAX_REFERENCES];
+
+    int[] cacheIndexes = new int[MAX_REFERENCES];
+
+    byte[][] newEntries = new byte[MAX_REFERENCES][];
+
+    // generation stamp of the cache index usage in the current message,
+    // it saves us from clearing the whole table before each message
+    int[] stamps = new int[CACHE_SIZE];
+
+    int[] references = new int[CACHE_SIZE];
+
+    @NonFinal
+    int generation;
+
+    @NonFinal
+    int count;
+
+    @NonFinal
+    boolean longAtoms;
+
+    @Override
+    public ErlangAtom get (int index) {
+      return atoms[index];
+    }
+
+    @Override
+    public int indexOf (ErlangAtom atom) {
+      val cacheIndex = (atom.hashCode() & Integer.MAX_VALUE) % CACHE_SIZE;
+      if (stamps[cacheIndex] == generation) {
+        val reference = references[cacheIndex];
+        return atoms[reference].equals(atom)
+               ? reference
+               : -1; // collision with another atom from the same message
+      }
+      if (count == MAX_REFERENCES) {
+        return -1;
+      }
+
+      val reference = count++;
+      atoms[reference] = atom;
+      cacheIndexes[reference] = cacheIndex;
+      stamps[cacheIndex] = generation;
+      references[cacheIndex] = reference;
+
+      if (atom.equals(outgoing[cacheIndex])) {
+        newEntries[reference] = null;
+      } else {
+        outgoing[cacheIndex] = atom;
+        val text = atom.asText().getBytes(UTF_8);
+        newEntries[reference] = text;
+        longAtoms |= text.length > MAX_SHORT_ATOM_LENGTH;
+      }
+      return reference;
+    }
+
+    /**
+     * Writes the distribution header, including the version and {@code 'D'} tags.
+     *
+     * @param buffer output buffer
+     */
+    void writeHeader (ByteBuf buffer) {
+      buffer.writeByte(Message.VERSION_TAG);
+      buffer.writeByte(DISTRIBUTION_HEADER_TAG);
+      buffer.writeByte(count);
+      if (count == 0) {
+        return;
+      }
+
+      for (int index = 0; index <= count; index += 2) {
+        int flags = index == count
+                    ? flagLongAtoms()
+                    : flagOf(index);
+
+        if (index + 1 < count) {
+          flags |= flagOf(index + 1) << 4;
+        } else if (index + 1 == count) {
+          flags |= flagLongAtoms() << 4;
+        }
+        buffer.writeByte(flags);
+      }
+
+      for (int index = 0; index < count; index++) {
+        buffer.writeByte(cacheIndexes[index] & 0xFF);
+
+        val text = newEntries[index];
+        if (text == null) {
+          continue;
+        }
+        if (longAtoms) {
+          buffer.writeShort(text.length);
+        } else {
+          buffer.writeByte(text.length);
+        }
+        buffer.writeBytes(text);
+      }
+    }
+
+    /**
+     * Forgets the new cache entries of the current message,
+     * in case if it wasn't sent.
+     */
+    void rollback () {
+      for (int index = 0; index < count; index++) {
+        if (newEntries[index] != null) {
+          outgoing[cacheIndexes[index]] = null;
+        }
+      }
+    }
+
+    void reset () {
+      for (int index = 0; index < count; index++) {
+        atoms[index] = null;
+        newEntries[index] = null;
+      }
+      count = 0;
+      longAtoms = false;
+      generation++;
+      if (generation == 0) {
+        // the stamps wrapped around, so the old ones could match again
+        Arrays.fill(stamps, 0);
+        generation = 1;
+      }
+    }
+
+    private int flagOf (int index) {
+      int flag = (cacheIndexes[index] >>> 8) & SEGMENT_INDEX_MASK;
+      return newEntries[index] == null
+             ? flag
+             : flag | NEW_CACHE_ENTRY_FLAG;
+    }
+
+    private int flagLongAtoms () {
+      return longAtoms
+             ? LONG_ATOMS_FLAG
+             : 0;
+    }
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.connection.regular;
+
+import static io.appulse.encon.terms.TermType.COMPRESSED;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+/**
+ * Connection's compression of the terms into the Erlang's {@code COMPRESSED}
+ * format (the tag, 4 bytes of the uncompressed size and zlib stream).
+ * <p>
+ * The terms are compressed and decompressed in the pooled heap buffers.
+ * The {@link Deflater}s are reused between the messages: every concurrent sender
+ * takes its own one from the connection's pool and returns it back.
+ * The {@link Inflater} is single, because a connection's messages are decoded sequentially,
+ * but it is guarded, because the connection could be closed by another thread
+ * in the middle of the decoding.
+ * <p>
+ * The uncompressed size from the wire is not trusted: the output buffer grows while
+ * inflating, and the size must not exceed the
+ * {@code io.appulse.encon.compression.maxUncompressedSize} system property
+ * ({@value #DEFAULT_MAX_UNCOMPRESSED_SIZE} bytes by default).
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+final class Compression implements Closeable {
+
+  static final int DEFAULT_THRESHOLD = 1024;
+
+  static final int DEFAULT_MAX_UNCOMPRESSED_SIZE = 64 * 1024 * 1024;
+
+  private static final int MAX_UNCOMPRESSED_SIZE =
+      Integer.getInteger("io.appulse.encon.compression.maxUncompressedSize", DEFAULT_MAX_UNCOMPRESSED_SIZE);
+
+  // the initial output buffer's size relatively to the compressed one
+  private static final int INITIAL_RATIO = 4;
+
+  // the tag and the uncompressed size
+  private static final int COMPRESSED_HEADER_LENGTH = 1 + Integer.BYTES;
+
+  @Getter
+  boolean enabled;
+
+  int level;
+
+  int threshold;
+
+  Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+  @NonFinal
+  Inflater inflater;
+
+  @NonFinal
+  volatile boolean closed;
+
+  Compression (boolean enabled, int level, int threshold) {
+    this.enabled = enabled;
+    this.level = level;
+    this.threshold = Math.max(threshold, COMPRESSED_HEADER_LENGTH + 1);
+  }
+
+  /**
+   * Writes the term compressed, if it is not smaller than the threshold
+   * and the compression makes it smaller, or as is.
+   *
+   * @param term the term to write
+   *
+   * @param buffer output buffer
+   *
+   * @param allocator allocator for the temporary buffers
+   */
+  void write (@NonNull ErlangTerm term, @NonNull ByteBuf buffer, @NonNull ByteBufAllocator allocator) {
+    val plain = allocator.heapBuffer();
+    try {
+      term.writeTo(plain);
+      if (!enabled || plain.readableBytes() < threshold || !deflate(plain, buffer, allocator)) {
+        buffer.writeBytes(plain);
+      }
+    } finally {
+      plain.release();
+    }
+  }
+
+  /**
+   * Tells if the next term in the buffer is compressed.
+   *
+   * @param buffer input buffer
+   *
+   * @return {@code true} if the term should be inflated before the decoding
+   */
+  boolean isCompressed (@NonNull ByteBuf buffer) {
+    return buffer.isReadable() && buffer.getUnsignedByte(buffer.readerIndex()) == COMPRESSED.getCode();
+  }
+
+  /**
+   * Inflates the next compressed term and skips it in the buffer.
+   * It must be called by the connection's decoding only, the concurrent
+   * {@link #close()} waits for it.
+   *
+   * @param buffer input buffer
+   *
+   * @param allocator allocator for the result
+   *
+   * @return the uncompressed term's bytes, the caller must release it
+   *
+   * @throws ErlangTermDecodeException if the compressed term is broken or too big
+   */
+  synchronized ByteBuf inflate (@NonNull ByteBuf buffer, @NonNull ByteBufAllocator allocator) {
+    if (closed) {
+      throw new IllegalStateException("The connection's compression is closed");
+    }
+    buffer.skipBytes(1);
+    val size = buffer.readInt();
+    if (size < 0) {
+      throw new ErlangTermDecodeException("Wrong uncompressed term size: " + size);
+    }
+    if (size > MAX_UNCOMPRESSED_SIZE) {
+      throw new ErlangTermDecodeException("Uncompressed term size " + size +
+                                          " exceeds the limit " + MAX_UNCOMPRESSED_SIZE);
+    }
+
+    if (inflater == null) {
+      inflater = new Inflater();
+    }
+
+    val input = buffer.hasArray()
+                ? buffer.retainedDuplicate()
+                : allocator.heapBuffer(buffer.readableBytes()).writeBytes(buffer, buffer.readerIndex(), buffer.readableBytes());
+
+    val available = input.readableBytes();
+    // the declared size is only the upper bound, the real data grows the buffer
+    val initial = (int) Math.min(size, (long) available * INITIAL_RATIO);
+    val result = allocator.heapBuffer(initial, size);
+    try {
+      inflater.setInput(input.array(), input.arrayOffset() + input.readerIndex(), available);
+
+      while (result.writerIndex() < size) {
+        if (!result.isWritable()) {
+          result.ensureWritable(1);
+        }
+        val count = inflater.inflate(result.array(), result.arrayOffset() + result.writerIndex(), result.writableBytes());
+        if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        result.writerIndex(result.writerIndex() + count);
+      }
+      // the zlib stream's trailer could be still unread, when the output is full
+      if (!inflater.finished() && (inflater.inflate(new byte[1]) != 0 || !inflater.finished())) {
+        throw new ErlangTermDecodeException("Compressed term doesn't match its size " + size);
+      }
+      if (result.writerIndex() < size) {
+        throw new ErlangTermDecodeException("Compressed term is smaller than its size " + size);
+      }
+
+      buffer.skipBytes(available - inflater.getRemaining());
+      return result;
+    } catch (DataFormatException ex) {
+      result.release();
+      throw new ErlangTermDecodeException("Broken compressed term", ex);
+    } catch (RuntimeException ex) {
+      result.release();
+      throw ex;
+    } finally {
+      inflater.reset();
+      input.release();
+    }
+  }
+
+  @Override
+  public void close () {
+    closed = true;
+    endDeflaters();
+    synchronized (this) {
+      if (inflater != null) {
+        inflater.end();
+        inflater = null;
+      }
+    }
+  }
+
+  private boolean deflate (ByteBuf plain, ByteBuf buffer, ByteBufAllocator allocator) {
+    val length = plain.readableBytes();
+    // there is no reason to send the compressed term, if it is not smaller
+    val limit = length - COMPRESSED_HEADER_LENGTH;
+
+    Deflater deflater = deflaters.poll();
+    if (deflater == null) {
+      deflater = new Deflater(level);
+    }
+
+    val compressed = allocator.heapBuffer(limit, limit);
+    try {
+      deflater.setInput(plain.array(), plain.arrayOffset() + plain.readerIndex(), length);
+      deflater.finish();
+      while (!deflater.finished() && compressed.isWritable()) {
+        val count = deflater.deflate(compressed.array(),
+                                     compressed.arrayOffset() + compressed.writerIndex(),
+                                     compressed.writableBytes());
+        compressed.writerIndex(compressed.writerIndex() + count);
+      }
+      if (!deflater.finished()) {
+        return false;
+      }
+
+      buffer.writeByte(COMPRESSED.getCode());
+      buffer.writeInt(length);
+      buffer.writeBytes(compressed);
+      return true;
+    } finally {
+      compressed.release();
+      deflater.reset();
+      if (!deflaters.offer(deflater)) {
+        deflater.end();
+      }
+      // the connection was closed while this deflater was in use
+      if (closed) {
+        endDeflaters();
+      }
+    }
+  }
+
+  private void endDeflaters () {
+    Deflater deflater;
+    while ((deflater = deflaters.poll()) != null) {
+      deflater.end();
+    }
+  }
+}
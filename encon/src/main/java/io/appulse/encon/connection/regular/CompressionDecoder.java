@@ -37,8 +37,11 @@ import lombok.val;
  *
  * @since 1.0.0
  * @author Artem Labazin
+ * @deprecated the messages are compressed and decompressed by the {@link ConnectionHandler},
+ *             according to the node's {@code CompressionConfig}
  */
 @Slf4j
+@Deprecated
 @Sharable
 public class CompressionDecoder extends ChannelInboundHandlerAdapter {
 
@@ -40,8 +40,11 @@ import lombok.val;
  *
  * @since 1.0.0
  * @author Artem Labazin
+ * @deprecated the messages are compressed and decompressed by the {@link ConnectionHandler},
+ *             according to the node's {@code CompressionConfig}
  */
 @Slf4j
+@Deprecated
 @Sharable
 @RequiredArgsConstructor
 @FieldDefaults(level = PRIVATE, makeFinal = true)
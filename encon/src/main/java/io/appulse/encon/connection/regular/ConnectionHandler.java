@@ -16,33 +16,54 @@
 
 package io.appulse.encon.connection.regular;
 
+import static io.appulse.encon.connection.regular.AtomCache.DISTRIBUTION_HEADER_TAG;
 import static io.appulse.encon.connection.regular.Message.PASS_THROUGH_TAG;
 import static io.appulse.encon.connection.regular.Message.VERSION_TAG;
+import static java.lang.Boolean.TRUE;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static lombok.AccessLevel.PRIVATE;
 // import static io.netty.buffer.ByteBufUtil.appendPrettyHexDump;
 // import static io.netty.util.internal.StringUtil.NEWLINE;
 
 import java.io.Closeable;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.zip.Deflater;
 
 import io.appulse.encon.Node;
 import io.appulse.encon.common.RemoteNode;
+import io.appulse.encon.config.MailboxOverflowPolicy;
 import io.appulse.encon.connection.control.ControlMessage;
 import io.appulse.encon.connection.control.Exit;
 import io.appulse.encon.connection.control.Exit2;
 import io.appulse.encon.connection.control.Link;
 import io.appulse.encon.connection.control.Send;
 import io.appulse.encon.connection.control.SendToRegisteredProcess;
+import io.appulse.encon.connection.control.SendToRegisteredProcessTraceToken;
+import io.appulse.encon.connection.control.SendTraceToken;
 import io.appulse.encon.connection.control.Unlink;
 import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.encon.metrics.MessageTrace;
+import io.appulse.encon.terms.AtomCacheReferences;
 import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+import io.appulse.encon.terms.type.ErlangBinarySlice;
+import io.appulse.encon.terms.type.ErlangPid;
+import io.appulse.encon.terms.type.LazyErlangTerm;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.util.concurrent.EventExecutor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -65,12 +86,17 @@ public final class ConnectionHandler extends ByteToMessageDecoder implements Clo
 
   private static final ByteBuf TICK_TOCK = Unpooled.wrappedBuffer(new byte[] { 0, 0, 0, 0 });
 
-  private static ErlangTerm readTerm (ByteBuf buffer) {
+  // the connection stops reading, if it has so many frames waiting for the decoding,
+  // and continues after the most of them are processed
+  private static final int PENDING_FRAMES_HIGH_WATER_MARK = 1024;
+
+  private static final int PENDING_FRAMES_LOW_WATER_MARK = PENDING_FRAMES_HIGH_WATER_MARK / 4;
+
+  private static void readVersion (ByteBuf buffer) {
     val versionByte = buffer.readUnsignedByte();
     if (versionByte != VERSION_TAG) {
       throw new IllegalArgumentException("Wrong version byte. Expected 0x83 (131), but was: " + versionByte);
     }
-    return ErlangTerm.newInstance(buffer);
   }
 
   // private static String formatByteBuf (ChannelHandlerContext ctx, String eventName, ByteBuf msg) {
@@ -101,9 +127,54 @@ public final class ConnectionHandler extends ByteToMessageDecoder implements Clo
   @NonNull
   Consumer<RemoteNode> channelCloseAction;
 
+  // not null only if the distribution header was negotiated
+  AtomCache atomCache;
+
   @NonFinal
   Channel channel;
 
+  // not null only if the messages are decoded off the event loop
+  @NonFinal
+  EventExecutor decodeExecutor;
+
+  AtomicInteger pendingFrames = new AtomicInteger();
+
+  AtomicBoolean pendingFramesSuspended = new AtomicBoolean();
+
+  // the number of reasons to not read from the channel:
+  // too many pending frames and every full mailbox with the BLOCK overflow policy
+  AtomicInteger readSuspensions = new AtomicInteger();
+
+  // the full mailboxes, which wait for draining before the reading continues
+  Map<ErlangPid, Mailbox> blockingMailboxes = new ConcurrentHashMap<>();
+
+  @NonFinal
+  FlushPolicy flushPolicy;
+
+  // the length-prefixed outgoing frames, which are waiting for the event loop
+  Queue<ByteBuf> outgoing = new ConcurrentLinkedQueue<>();
+
+  AtomicInteger outgoingMessages = new AtomicInteger();
+
+  AtomicInteger outgoingBytes = new AtomicInteger();
+
+  AtomicBoolean flushScheduled = new AtomicBoolean();
+
+  // the event loop is reading from the channel right now,
+  // the frames sent meanwhile from the event loop are flushed after the read
+  @NonFinal
+  boolean reading;
+
+  @NonFinal
+  boolean flushOnReadComplete;
+
+  @NonFinal
+  Compression compression;
+
+  // the minimal length of the binaries, decoded as slices, or -1
+  @NonFinal
+  int binarySliceThreshold;
+
   @Override
   public void exceptionCaught (ChannelHandlerContext context, Throwable cause) throws Exception {
     log.error("Error during channel connection with {}",
@@ -119,6 +190,28 @@ public final class ConnectionHandler extends ByteToMessageDecoder implements Clo
   public void handlerAdded (ChannelHandlerContext context) throws Exception {
     super.handlerAdded(context);
     channel = context.channel();
+
+    val decodeExecutors = channel.attr(RegularPipeline.DECODE_EXECUTORS).get();
+    if (decodeExecutors != null) {
+      decodeExecutor = decodeExecutors.next();
+    }
+    val policy = channel.attr(RegularPipeline.FLUSH_POLICY).get();
+    flushPolicy = policy != null
+                  ? policy
+                  : FlushPolicy.DEFAULT;
+
+    val compressionConfig = channel.attr(RegularPipeline.COMPRESSION).get();
+    // the compressed terms are always accepted, but sent only if it is enabled
+    compression = compressionConfig != null && TRUE.equals(compressionConfig.getEnabled())
+                  ? new Compression(true,
+                                    ofNullable(compressionConfig.getLevel()).orElse(Deflater.DEFAULT_COMPRESSION),
+                                    ofNullable(compressionConfig.getThreshold()).orElse(Compression.DEFAULT_THRESHOLD))
+                  : new Compression(false, 0, 0);
+
+    binarySliceThreshold = ofNullable(channel.attr(RegularPipeline.BINARY_SLICE_THRESHOLD).get())
+        .orElse(-1);
+
+    node.getMetrics().connectionOpened(remote);
     log.debug("Regular handler for channel {} was added with remote node {}",
               channel.remoteAddress(), remote);
   }
@@ -126,26 +219,47 @@ public final class ConnectionHandler extends ByteToMessageDecoder implements Clo
   @Override
   public void channelInactive (ChannelHandlerContext context) throws Exception {
     super.channelInactive(context);
+    node.getMetrics().connectionClosed(remote);
     log.debug("Regular handler for channel {} became inactive. Remote is {}",
               channel.remoteAddress(), remote);
     close();
   }
 
+  @Override
+  public void channelRead (ChannelHandlerContext context, Object message) throws Exception {
+    reading = true;
+    super.channelRead(context, message);
+  }
+
+  @Override
+  public void channelReadComplete (ChannelHandlerContext context) throws Exception {
+    reading = false;
+    if (flushOnReadComplete) {
+      flushOnReadComplete = false;
+      flushOutgoing();
+    }
+    super.channelReadComplete(context);
+  }
+
   public void send (Message message) {
     log.debug("Sending message\nto {}\n  {}\n",
               remote, message);
 
-    val out = channel.alloc().buffer();
-    message.writeTo(out);
+    if (atomCache != null) {
+      sendWithDistributionHeader(message);
+      return;
+    }
 
-    val messageLength = channel.alloc()
-        .buffer(Integer.BYTES)
-        .writeInt(out.readableBytes());
+    val out = channel.alloc().buffer();
+    out.writeInt(0);
+    if (compression.isEnabled()) {
+      message.writeTo(out, compression, channel.alloc());
+    } else {
+      message.writeTo(out);
+    }
+    out.setInt(0, out.readableBytes() - Integer.BYTES);
 
-    channel.eventLoop().execute(() -> {
-      channel.write(messageLength);
-      channel.writeAndFlush(out);
-    });
+    enqueue(out);
   }
 
   @Override
@@ -160,6 +274,7 @@ public final class ConnectionHandler extends ByteToMessageDecoder implements Clo
     // log.debug("message length is: {}", length);
     if (length == 0) {
       // log.debug("TICK-TOCK message detected, sending response");
+      node.getMetrics().tickReceived(remote);
       TICK_TOCK.retain();
       context.writeAndFlush(TICK_TOCK.duplicate());
       if (buffer.isReadable()) {
@@ -181,47 +296,300 @@ public final class ConnectionHandler extends ByteToMessageDecoder implements Clo
       // log.debug("not enough bytes #3: {} vs {}", buffer.readableBytes(), length + 4);
       return;
     }
+    node.getMetrics().frameReceived(remote, length);
+    val arrived = node.getTracing().isEnabled()
+                  ? System.nanoTime()
+                  : 0L;
+
+    if (decodeExecutor == null) {
+      // the slice doesn't let a broken term to read the next frame's bytes
+      val frame = buffer.readSlice(length);
+      readFrame(frame, frame.writerIndex(), arrived);
+      return;
+    }
+
+    val frame = buffer.readRetainedSlice(length);
+    if (pendingFrames.incrementAndGet() >= PENDING_FRAMES_HIGH_WATER_MARK &&
+        pendingFramesSuspended.compareAndSet(false, true)) {
+      log.debug("Too many pending frames from {}, stop reading", remote);
+      suspendReading();
+    }
+    decodeExecutor.execute(() -> {
+      try {
+        readFrame(frame, frame.writerIndex(), arrived);
+      } catch (Exception ex) {
+        channel.pipeline().fireExceptionCaught(ex);
+      } finally {
+        frame.release();
+        if (pendingFrames.decrementAndGet() <= PENDING_FRAMES_LOW_WATER_MARK &&
+            pendingFramesSuspended.compareAndSet(true, false)) {
+          resumeReading();
+        }
+      }
+    });
+  }
+
+  @Override
+  public void close () {
+    log.debug("Closing regular handler for channel {} and remote node {}",
+              channel.remoteAddress(), remote);
+
+    if (channel.isOpen()) {
+      channel.close();
+    }
+    channelCloseAction.accept(remote);
+
+    ByteBuf frame;
+    while ((frame = outgoing.poll()) != null) {
+      frame.release();
+    }
+    if (compression != null) {
+      compression.close();
+    }
+
+    log.debug("Client handler for {} was closed", channel.remoteAddress());
+  }
+
+  private void sendWithDistributionHeader (Message message) {
+    val out = channel.alloc().buffer();
+    // the cache state must go to the wire in the same order as it changes,
+    // so the encoding and the scheduling of the write are under the same lock
+    synchronized (atomCache) {
+      val references = atomCache.writer();
+      AtomCacheReferences.bind(references);
+      try {
+        if (compression.isEnabled()) {
+          message.writeTermsTo(out, compression, channel.alloc());
+        } else {
+          message.writeTermsTo(out);
+        }
+      } catch (RuntimeException ex) {
+        references.rollback();
+        out.release();
+        throw ex;
+      } finally {
+        AtomCacheReferences.unbind();
+      }
+
+      val prefix = channel.alloc().buffer();
+      prefix.writeInt(0);
+      references.writeHeader(prefix);
+      prefix.setInt(0, prefix.readableBytes() - Integer.BYTES + out.readableBytes());
 
+      // the header's size is known only after the terms encoding,
+      // so the frame is glued from the two buffers without copying
+      val frame = channel.alloc()
+          .compositeBuffer(2)
+          .addComponents(true, prefix, out);
+
+      enqueue(frame);
+    }
+  }
+
+  private void enqueue (ByteBuf frame) {
+    val length = frame.readableBytes();
+    if (!outgoing.offer(frame)) {
+      frame.release();
+      throw new IllegalStateException("The outgoing queue to " + remote + " doesn't accept the frame");
+    }
+    val messages = outgoingMessages.incrementAndGet();
+    val bytes = outgoingBytes.addAndGet(length);
+
+    val delay = flushPolicy.getDelayMicros();
+    val limitReached = messages >= flushPolicy.getMaxMessages() ||
+                       bytes >= flushPolicy.getMaxBytes();
+
+    if (delay == 0 && channel.eventLoop().inEventLoop()) {
+      // it is sent from the event loop itself (an inline mailbox's reply, for example),
+      // so there is no reason to hop through the event loop's task queue;
+      // the replies to the messages of the current read are flushed together
+      if (reading && !limitReached) {
+        flushOnReadComplete = true;
+      } else {
+        flushOutgoing();
+      }
+      return;
+    }
+
+    if (flushScheduled.compareAndSet(false, true)) {
+      if (delay > 0 && !limitReached) {
+        channel.eventLoop().schedule(this::flushOutgoing, delay, MICROSECONDS);
+      } else {
+        channel.eventLoop().execute(this::flushOutgoing);
+      }
+    } else if (delay > 0 && (messages == flushPolicy.getMaxMessages() ||
+                             bytes - length < flushPolicy.getMaxBytes() && bytes >= flushPolicy.getMaxBytes())) {
+      // the limit was just reached, there is no reason to wait for the delayed flush
+      channel.eventLoop().execute(this::flushOutgoing);
+    }
+  }
+
+  // runs on the event loop only
+  private void flushOutgoing () {
+    // reset before the draining, so the frames enqueued after it schedule the next flush
+    flushScheduled.set(false);
+
+    val metrics = node.getMetrics();
+    int messages = 0;
+    int bytes = 0;
+    ByteBuf frame;
+    while ((frame = outgoing.poll()) != null) {
+      val length = frame.readableBytes();
+      outgoingMessages.decrementAndGet();
+      outgoingBytes.addAndGet(-length);
+      metrics.frameSent(remote, length);
+
+      channel.write(frame);
+      messages++;
+      bytes += length;
+      if (messages >= flushPolicy.getMaxMessages() || bytes >= flushPolicy.getMaxBytes()) {
+        channel.flush();
+        messages = 0;
+        bytes = 0;
+      }
+    }
+    if (messages > 0) {
+      channel.flush();
+    }
+  }
+
+  // the arrived is the frame's arrival time, or 0 if the tracing is disabled
+  private void readFrame (ByteBuf buffer, int end, long arrived) {
     // MessageDecoder
-    val passThrough = buffer.readByte();
-    if (passThrough != PASS_THROUGH_TAG) {
+    val index = buffer.readerIndex();
+    val tag = buffer.readUnsignedByte();
+    if (tag == PASS_THROUGH_TAG) {
+      readMessage(buffer, end, true, arrived);
+    } else if (tag == VERSION_TAG && atomCache != null &&
+               buffer.getUnsignedByte(buffer.readerIndex()) == DISTRIBUTION_HEADER_TAG) {
+      buffer.skipBytes(1);
+      AtomCacheReferences.bind(atomCache.readHeader(buffer));
+      try {
+        readMessage(buffer, end, false, arrived);
+      } finally {
+        AtomCacheReferences.unbind();
+      }
+    } else {
       buffer.readerIndex(index);
       // log.error("\n{}", formatByteBuf(context, "POPA", buffer));
-      throw new IllegalArgumentException("Wrong pass through marker. Expected 0x70 (112), but was: " + passThrough +
+      throw new IllegalArgumentException("Wrong pass through marker. Expected 0x70 (112), but was: " + tag +
                                         " at index: " + buffer.readerIndex());
     }
+    buffer.readerIndex(end);
+  }
+
+  private void readMessage (ByteBuf buffer, int end, boolean versioned, long arrived) {
+    val metrics = node.getMetrics();
+    val start = metrics.isEnabled()
+                ? System.nanoTime()
+                : 0L;
+
+    if (versioned) {
+      readVersion(buffer);
+    }
+    val header = readTerm(buffer, false);
 
-    val header = readTerm(buffer);
     ControlMessage controlMessage = ControlMessage.parse(header);
+    val mailbox = findMailbox(controlMessage);
 
     ErlangTerm body = null;
-    if (buffer.isReadable()) {
-      body = readTerm(buffer);
+    if (buffer.readerIndex() < end) {
+      if (versioned) {
+        readVersion(buffer);
+      }
+      try {
+        body = readTerm(buffer, mailbox != null && mailbox.isLazyDecoding());
+      } catch (ErlangTermDecodeException | IndexOutOfBoundsException ex) {
+        // the term is read from the frame's slice, so a truncated term fails at the frame's end
+        // and only this message is dropped, not the connection
+        log.error("Couldn't decode message's body from {}, the message is dropped\n  {}",
+                  remote, controlMessage, ex);
+        metrics.messageDropped(remote);
+        return;
+      }
+    }
+    if (metrics.isEnabled()) {
+      metrics.messageDecoded(remote, System.nanoTime() - start);
     }
 
     // ConnectionHandler
     val message = new Message(controlMessage, body);
+    if (arrived != 0 && (message.getTraceToken() != null || node.getTracing().shouldSample())) {
+      message.setTrace(new MessageTrace(arrived, System.nanoTime()));
+    }
     log.debug("Received message\nfrom {}\n  {}\n", remote, message);
 
-    val mailbox = findMailbox(controlMessage);
     if (mailbox == null) {
       log.warn("There is no mailbox for message\n  {}\n  {}", message, node.mailboxes().keySet());
+      metrics.messageDropped(remote);
     } else {
       mailbox.deliver(message);
+      if (mailbox.isFull() && mailbox.getOverflowPolicy() == MailboxOverflowPolicy.BLOCK) {
+        blockOn(mailbox);
+      }
     }
   }
 
-  @Override
-  public void close () {
-    log.debug("Closing regular handler for channel {} and remote node {}",
-              channel.remoteAddress(), remote);
+  private void blockOn (Mailbox mailbox) {
+    val pid = mailbox.getPid();
+    if (blockingMailboxes.putIfAbsent(pid, mailbox) != null) {
+      return;
+    }
+    log.debug("Mailbox {} is full, stop reading from {}", pid, remote);
+    suspendReading();
+    mailbox.whenDrained(() -> {
+      blockingMailboxes.remove(pid);
+      log.debug("Mailbox {} is drained, continue reading from {}", pid, remote);
+      resumeReading();
+    });
+  }
 
-    if (channel.isOpen()) {
-      channel.close();
+  private void suspendReading () {
+    if (readSuspensions.getAndIncrement() == 0) {
+      updateAutoRead();
     }
-    channelCloseAction.accept(remote);
+  }
 
-    log.debug("Client handler for {} was closed", channel.remoteAddress());
+  private void resumeReading () {
+    if (readSuspensions.decrementAndGet() == 0) {
+      updateAutoRead();
+    }
+  }
+
+  private void updateAutoRead () {
+    // the suspensions and the resumptions come from the different threads,
+    // so the actual state is applied on the event loop in order
+    channel.eventLoop().execute(() -> channel.config().setAutoRead(readSuspensions.get() == 0));
+  }
+
+  private ErlangTerm readTerm (ByteBuf buffer, boolean lazy) {
+    // the lazy terms decode their elements later, on the receiver's thread, without slices
+    if (lazy || binarySliceThreshold < 0) {
+      return decodeTerm(buffer, lazy);
+    }
+    ErlangBinarySlice.bindThreshold(binarySliceThreshold);
+    try {
+      return decodeTerm(buffer, false);
+    } finally {
+      ErlangBinarySlice.unbindThreshold();
+    }
+  }
+
+  private ErlangTerm decodeTerm (ByteBuf buffer, boolean lazy) {
+    if (!compression.isCompressed(buffer)) {
+      return lazy
+             ? LazyErlangTerm.read(buffer)
+             : ErlangTerm.newInstance(buffer);
+    }
+
+    val inflated = compression.inflate(buffer, channel.alloc());
+    try {
+      return lazy
+             ? LazyErlangTerm.read(inflated)
+             : ErlangTerm.newInstance(inflated);
+    } finally {
+      inflated.release();
+    }
   }
 
   private Mailbox findMailbox (@NonNull ControlMessage header) {
@@ -230,6 +598,10 @@ public final class ConnectionHandler extends ByteToMessageDecoder implements Clo
       return handle((Send) header);
     case REG_SEND:
       return handle((SendToRegisteredProcess) header);
+    case SEND_TT:
+      return handle((SendTraceToken) header);
+    case REG_SEND_TT:
+      return handle((SendToRegisteredProcessTraceToken) header);
     case LINK:
       return handle((Link) header);
     case UNLINK:
@@ -256,6 +628,17 @@ public final class ConnectionHandler extends ByteToMessageDecoder implements Clo
     return node.mailbox(mailboxName);
   }
 
+  private Mailbox handle (@NonNull SendTraceToken header) {
+    val toPid = header.getTo();
+    return node.mailbox(toPid);
+  }
+
+  private Mailbox handle (@NonNull SendToRegisteredProcessTraceToken header) {
+    val atom = header.getName();
+    val mailboxName = atom.asText();
+    return node.mailbox(mailboxName);
+  }
+
   private Mailbox handle (@NonNull Link header) {
     val toPid = header.getTo();
     return node.mailbox(toPid);
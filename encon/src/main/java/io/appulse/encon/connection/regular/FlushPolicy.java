@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.connection.regular;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Limits of the outgoing messages coalescing in a connection.
+ * <p>
+ * The messages are written to the channel in batches by its event loop and
+ * the channel is flushed when one of the limits is reached or when there are
+ * no more messages to write.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Value
+@Builder
+public class FlushPolicy {
+
+  /**
+   * The default limits: up to 64 messages or 64KiB per flush, without delay.
+   */
+  public static final FlushPolicy DEFAULT = FlushPolicy.builder()
+      .maxMessages(64)
+      .maxBytes(64 * 1024)
+      .delayMicros(0)
+      .build();
+
+  /**
+   * Maximum number of messages written between two flushes.
+   */
+  int maxMessages;
+
+  /**
+   * Maximum number of bytes written between two flushes.
+   */
+  int maxBytes;
+
+  /**
+   * How long (in microseconds) the first message could wait for the others.
+   */
+  long delayMicros;
+}
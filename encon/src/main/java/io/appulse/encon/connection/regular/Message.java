@@ -24,14 +24,21 @@ import io.appulse.encon.connection.control.Exit2;
 import io.appulse.encon.connection.control.Link;
 import io.appulse.encon.connection.control.Send;
 import io.appulse.encon.connection.control.SendToRegisteredProcess;
+import io.appulse.encon.connection.control.SendToRegisteredProcessTraceToken;
+import io.appulse.encon.connection.control.SendTraceToken;
 import io.appulse.encon.connection.control.Unlink;
+import io.appulse.encon.metrics.MessageTrace;
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.type.ErlangAtom;
 import io.appulse.encon.terms.type.ErlangPid;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 
 /**
  *
@@ -60,6 +67,29 @@ public class Message {
     return new Message(new SendToRegisteredProcess(from, mailbox), body);
   }
 
+  /**
+   * Creates a message to a registered process, which carries a {@code seq_trace} token.
+   *
+   * @param from the sender's pid
+   *
+   * @param mailbox the receiver's registered name
+   *
+   * @param body the message's body
+   *
+   * @param traceToken the sequential trace token
+   *
+   * @return a new message
+   *
+   * @since 1.7.0
+   */
+  public static Message sendToRegisteredProcess (@NonNull ErlangPid from,
+                                                 @NonNull ErlangAtom mailbox,
+                                                 @NonNull ErlangTerm body,
+                                                 @NonNull ErlangTerm traceToken
+  ) {
+    return new Message(new SendToRegisteredProcessTraceToken(from, mailbox, traceToken), body);
+  }
+
   public static Message send (@NonNull String mailbox, @NonNull ErlangTerm body) {
     return send(atom(mailbox), body);
   }
@@ -72,6 +102,23 @@ public class Message {
     return new Message(new Send(pid), body);
   }
 
+  /**
+   * Creates a message to a pid, which carries a {@code seq_trace} token.
+   *
+   * @param pid the receiver's pid
+   *
+   * @param body the message's body
+   *
+   * @param traceToken the sequential trace token
+   *
+   * @return a new message
+   *
+   * @since 1.7.0
+   */
+  public static Message send (@NonNull ErlangPid pid, @NonNull ErlangTerm body, @NonNull ErlangTerm traceToken) {
+    return new Message(new SendTraceToken(pid, traceToken), body);
+  }
+
   public static Message link (@NonNull ErlangPid from, @NonNull ErlangPid to) {
     return new Message(new Link(from, to), null);
   }
@@ -101,14 +148,138 @@ public class Message {
 
   ErlangTerm body;
 
+  /**
+   * The {@link System#nanoTime()} when the message was put into a mailbox,
+   * or {@code 0} if it is not known. It is set only if the node's metrics
+   * are enabled, and it is not a part of the message's identity.
+   *
+   * @since 1.7.0
+   */
+  @NonFinal
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  long enqueuedNanos;
+
+  /**
+   * The latency trace, if the message was sampled by the node's
+   * {@link io.appulse.encon.metrics.MessageTracing}, or {@code null}.
+   * It is not a part of the message's identity.
+   *
+   * @since 1.7.0
+   */
+  @NonFinal
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  MessageTrace trace;
+
+  public Message (@NonNull ControlMessage header, ErlangTerm body) {
+    this.header = header;
+    this.body = body;
+  }
+
+  /**
+   * Stamps the time, when the message was put into a mailbox.
+   * If the same message goes to several mailboxes, the first stamp is kept.
+   *
+   * @param nanos the {@link System#nanoTime()} value
+   *
+   * @since 1.7.0
+   */
+  public void markEnqueued (long nanos) {
+    if (enqueuedNanos == 0) {
+      enqueuedNanos = nanos;
+    }
+  }
+
+  /**
+   * Attaches a latency trace to the message.
+   *
+   * @param trace the message's trace
+   *
+   * @since 1.7.0
+   */
+  public void setTrace (MessageTrace trace) {
+    this.trace = trace;
+  }
+
+  /**
+   * Returns the Erlang's {@code seq_trace} token, which the message carries.
+   *
+   * @return the trace token, or {@code null} if the message doesn't have it
+   *
+   * @since 1.7.0
+   */
+  public ErlangTerm getTraceToken () {
+    switch (header.getTag()) {
+    case SEND_TT:
+      return ((SendTraceToken) header).getTraceToken();
+    case REG_SEND_TT:
+      return ((SendToRegisteredProcessTraceToken) header).getTraceToken();
+    default:
+      return null;
+    }
+  }
+
   public void writeTo (ByteBuf buffer) {
-    buffer.writeByte(0x70);
-    buffer.writeByte(0x83);
+    buffer.writeByte(PASS_THROUGH_TAG);
+    buffer.writeByte(VERSION_TAG);
     header.writeTo(buffer);
 
     if (body != null) {
-      buffer.writeByte(0x83);
+      buffer.writeByte(VERSION_TAG);
+      body.writeTo(buffer);
+    }
+  }
+
+  /**
+   * Writes the message, compressing its body if it is big enough.
+   *
+   * @param buffer output buffer
+   *
+   * @param compression connection's compression
+   *
+   * @param allocator allocator for the temporary buffers
+   */
+  void writeTo (ByteBuf buffer, Compression compression, ByteBufAllocator allocator) {
+    buffer.writeByte(PASS_THROUGH_TAG);
+    buffer.writeByte(VERSION_TAG);
+    header.writeTo(buffer);
+
+    if (body != null) {
+      buffer.writeByte(VERSION_TAG);
+      compression.write(body, buffer, allocator);
+    }
+  }
+
+  /**
+   * Writes the control message and the body as they follow the distribution header,
+   * without the version tags. The atoms are replaced with the atom cache references,
+   * if there are bound ones.
+   *
+   * @param buffer output buffer
+   */
+  void writeTermsTo (ByteBuf buffer) {
+    header.writeTo(buffer);
+    if (body != null) {
       body.writeTo(buffer);
     }
   }
+
+  /**
+   * Writes the control message and the body as they follow the distribution header,
+   * compressing the body if it is big enough. The compressed body keeps
+   * the bound atom cache references, they are resolved after its inflating.
+   *
+   * @param buffer output buffer
+   *
+   * @param compression connection's compression
+   *
+   * @param allocator allocator for the temporary buffers
+   */
+  void writeTermsTo (ByteBuf buffer, Compression compression, ByteBufAllocator allocator) {
+    header.writeTo(buffer);
+    if (body != null) {
+      compression.write(body, buffer, allocator);
+    }
+  }
 }
@@ -22,10 +22,13 @@ import java.util.function.Consumer;
 
 import io.appulse.encon.Node;
 import io.appulse.encon.common.RemoteNode;
+import io.appulse.encon.config.CompressionConfig;
 
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutorGroup;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,6 +40,43 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class RegularPipeline {
 
+  /**
+   * Channel's attribute with the executors for decoding the incoming messages
+   * off the event loop. If it is not set, the messages are decoded on the event loop.
+   *
+   * @since 1.7.0
+   */
+  public static final AttributeKey<EventExecutorGroup> DECODE_EXECUTORS =
+      AttributeKey.valueOf(RegularPipeline.class, "DECODE_EXECUTORS");
+
+  /**
+   * Channel's attribute with the outgoing messages coalescing limits.
+   * If it is not set, the {@link FlushPolicy#DEFAULT} is used.
+   *
+   * @since 1.7.0
+   */
+  public static final AttributeKey<FlushPolicy> FLUSH_POLICY =
+      AttributeKey.valueOf(RegularPipeline.class, "FLUSH_POLICY");
+
+  /**
+   * Channel's attribute with the compression settings of the outgoing messages.
+   * If it is not set, the messages are not compressed.
+   *
+   * @since 1.7.0
+   */
+  public static final AttributeKey<CompressionConfig> COMPRESSION =
+      AttributeKey.valueOf(RegularPipeline.class, "COMPRESSION");
+
+  /**
+   * Channel's attribute with the minimal length of the incoming binaries,
+   * which are decoded as the buffer's slices. If it is not set, the binaries
+   * are always copied.
+   *
+   * @since 1.7.0
+   */
+  public static final AttributeKey<Integer> BINARY_SLICE_THRESHOLD =
+      AttributeKey.valueOf(RegularPipeline.class, "BINARY_SLICE_THRESHOLD");
+
   private static final ChannelDuplexHandler LOGGING_HANDLER;
 
   static {
@@ -47,11 +87,41 @@ public final class RegularPipeline {
                                          @NonNull Node node,
                                          @NonNull RemoteNode remoteNode,
                                          @NonNull Consumer<RemoteNode> channelCloseAction
+  ) {
+    return setup(pipeline, node, remoteNode, channelCloseAction, false);
+  }
+
+  /**
+   * Adds the regular connection handler to the pipeline.
+   *
+   * @param pipeline channel's pipeline
+   *
+   * @param node local node
+   *
+   * @param remoteNode remote node
+   *
+   * @param channelCloseAction action on channel close
+   *
+   * @param atomCache use the distribution header with atom cache or not,
+   *                  it must be negotiated by both nodes
+   *
+   * @return the connection handler
+   *
+   * @since 1.7.0
+   */
+  public static ConnectionHandler setup (@NonNull ChannelPipeline pipeline,
+                                         @NonNull Node node,
+                                         @NonNull RemoteNode remoteNode,
+                                         @NonNull Consumer<RemoteNode> channelCloseAction,
+                                         boolean atomCache
   ) {
     ConnectionHandler handler = ConnectionHandler.builder()
         .node(node)
         .remote(remoteNode)
         .channelCloseAction(channelCloseAction)
+        .atomCache(atomCache
+                   ? new AtomCache()
+                   : null)
         .build();
 
     if (log.isDebugEnabled()) {
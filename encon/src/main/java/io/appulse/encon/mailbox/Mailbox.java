@@ -20,19 +20,30 @@ import static io.appulse.encon.terms.Erlang.NIL;
 import static io.appulse.encon.terms.Erlang.atom;
 import static io.appulse.encon.terms.Erlang.list;
 import static io.appulse.encon.terms.Erlang.tuple;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static lombok.AccessLevel.PACKAGE;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 import io.appulse.encon.Node;
 import io.appulse.encon.common.NodeDescriptor;
 import io.appulse.encon.common.RemoteNode;
+import io.appulse.encon.config.MailboxOverflowPolicy;
 import io.appulse.encon.connection.Connection;
 import io.appulse.encon.connection.control.Exit;
 import io.appulse.encon.connection.control.ExitTraceToken;
@@ -44,6 +55,8 @@ import io.appulse.encon.exception.NoSuchRemoteNodeException;
 import io.appulse.encon.mailbox.exception.MailboxWithSuchNameDoesntExistException;
 import io.appulse.encon.mailbox.exception.MailboxWithSuchPidDoesntExistException;
 import io.appulse.encon.mailbox.exception.ReceivedExitException;
+import io.appulse.encon.mailbox.queue.RingBufferQueue;
+import io.appulse.encon.metrics.MessageTrace;
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.type.ErlangAtom;
 import io.appulse.encon.terms.type.ErlangPid;
@@ -79,6 +92,13 @@ import lombok.val;
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public class Mailbox implements Closeable {
 
+  private static final ErlangAtom MAILBOX_OVERFLOW = atom("mailbox_overflow");
+
+  private static final ErlangAtom GEN_CALL = atom("$gen_call");
+
+  // the mailbox, whose inline consumer runs on the current thread
+  private static final ThreadLocal<Mailbox> INLINE_CONSUMING = new ThreadLocal<>();
+
   @Getter
   @NonFinal
   @Setter(PACKAGE)
@@ -95,11 +115,65 @@ public class Mailbox implements Closeable {
   @NonNull
   BlockingQueue<Message> queue;
 
+  /**
+   * Whether the incoming message bodies are decoded lazily or not.
+   *
+   * @see io.appulse.encon.terms.type.LazyErlangTerm
+   */
+  @Getter
+  boolean lazyDecoding;
+
+  /**
+   * The maximum number of messages in the mailbox, {@code 0} means unbounded.
+   *
+   * @since 1.7.0
+   */
+  @Getter
+  int capacity;
+
+  /**
+   * What to do with a new message, when the mailbox is full,
+   * {@code null} means {@link MailboxOverflowPolicy#BLOCK}.
+   *
+   * @since 1.7.0
+   */
+  MailboxOverflowPolicy overflowPolicy;
+
+  /**
+   * The number of messages, below which the drain listeners are notified,
+   * {@code 0} means a half of the capacity.
+   *
+   * @since 1.7.0
+   */
+  int lowWaterMark;
+
   @Getter
   Set<ErlangPid> links = ConcurrentHashMap.newKeySet();
 
   AtomicBoolean closed = new AtomicBoolean(false);
 
+  Queue<Runnable> drainListeners = new ConcurrentLinkedQueue<>();
+
+  LongAdder dropped = new LongAdder();
+
+  // the REJECT policy was applied, so the mailbox is going to exit
+  AtomicBoolean rejected = new AtomicBoolean();
+
+  // the overflow exit signal still waits for a room in the queue
+  AtomicBoolean overflowExitPending = new AtomicBoolean();
+
+  PendingCalls pendingCalls = new PendingCalls();
+
+  AtomicReference<Runnable> arrivalListener = new AtomicReference<>();
+
+  SequentialTrace sequentialTrace = new SequentialTrace();
+
+  AtomicReference<Consumer<Message>> inlineConsumer = new AtomicReference<>();
+
+  AtomicReference<Consumer<ReceivedExitException>> inlineExitHandler = new AtomicReference<>();
+
+  AtomicBoolean inlineConsuming = new AtomicBoolean();
+
   /**
    * Returns a new mailbox message.
    *
@@ -115,10 +189,13 @@ public class Mailbox implements Closeable {
    */
   @SneakyThrows
   public Message receive (long timeout, TimeUnit unit) {
+    checkBlockingReceive();
     Message message = queue.poll(timeout, unit);
     while (shouldContinueReceive(message)) {
       message = queue.poll(timeout, unit);
     }
+    afterReceive();
+    recordDequeue(message);
     return message;
   }
 
@@ -131,13 +208,99 @@ public class Mailbox implements Closeable {
    */
   @SneakyThrows
   public Message receive () {
+    checkBlockingReceive();
     Message message = queue.take();
     while (shouldContinueReceive(message)) {
       message = queue.take();
     }
+    afterReceive();
+    recordDequeue(message);
     return message;
   }
 
+  /**
+   * Returns a batch of the mailbox's messages, waiting only for the first one.
+   * The rest of the batch is taken from the queue in one operation,
+   * the control messages (links, unlinks and exits) are handled in order and
+   * are not included into the result.
+   *
+   * @param maxMessages the maximum number of messages in the batch
+   *
+   * @param timeout how long to wait for the first message, in units of
+   *        {@code unit}
+   *
+   * @param unit a {@code TimeUnit} determining how to interpret the
+   *        {@code timeout} parameter
+   *
+   * @return the received messages, or an empty list if the
+   *         specified waiting time elapses before a message is available
+   *
+   * @throws ReceivedExitException someone exits, the messages received
+   *         before the exit in this batch are discarded
+   *
+   * @since 1.7.0
+   */
+  @SneakyThrows
+  public List<Message> receive (int maxMessages, long timeout, TimeUnit unit) {
+    if (maxMessages <= 0) {
+      throw new IllegalArgumentException("Maximum number of messages must be positive, but it is " + maxMessages);
+    }
+    if (timeout > 0) {
+      checkBlockingReceive();
+    }
+
+    val deadline = System.nanoTime() + unit.toNanos(timeout);
+    Message first = queue.poll(timeout, unit);
+    while (shouldContinueReceive(first)) {
+      first = queue.poll(Math.max(0, deadline - System.nanoTime()), NANOSECONDS);
+    }
+
+    val result = new ArrayList<Message>(Math.min(maxMessages, queue.size() + 1));
+    if (first == null) {
+      return result;
+    }
+    result.add(first);
+    if (maxMessages > 1) {
+      queue.drainTo(result, maxMessages - 1);
+      removeControlMessages(result, 1);
+    }
+    afterReceive();
+    for (val message : result) {
+      recordDequeue(message);
+    }
+    return result;
+  }
+
+  /**
+   * Passes all the messages, which are in the mailbox right now,
+   * to the consumer without waiting for the new ones.
+   * The control messages (links, unlinks and exits) are handled in order and
+   * are not passed to the consumer.
+   *
+   * @param consumer the messages consumer
+   *
+   * @return the number of the consumed messages
+   *
+   * @throws ReceivedExitException someone exits, the messages after the exit are discarded
+   *
+   * @since 1.7.0
+   */
+  public int drain (@NonNull Consumer<Message> consumer) {
+    val messages = new ArrayList<Message>(queue.size());
+    queue.drainTo(messages);
+    afterReceive();
+
+    int count = 0;
+    for (val message : messages) {
+      if (!shouldContinueReceive(message)) {
+        recordDequeue(message);
+        consumer.accept(message);
+        count++;
+      }
+    }
+    return count;
+  }
+
   /**
    * Retuns mailbox's queue size.
    *
@@ -147,6 +310,152 @@ public class Mailbox implements Closeable {
     return queue.size();
   }
 
+  /**
+   * Tells if the mailbox is bounded and it has reached its capacity.
+   *
+   * @return {@code true} if the mailbox is full
+   *
+   * @since 1.7.0
+   */
+  public boolean isFull () {
+    return capacity > 0 && queue.size() >= capacity;
+  }
+
+  /**
+   * Returns the policy, which is applied to a new message, when the mailbox is full.
+   *
+   * @return the overflow policy
+   *
+   * @since 1.7.0
+   */
+  public MailboxOverflowPolicy getOverflowPolicy () {
+    return overflowPolicy == null
+           ? MailboxOverflowPolicy.BLOCK
+           : overflowPolicy;
+  }
+
+  /**
+   * Returns the number of the messages, which were dropped due to the mailbox overflow.
+   *
+   * @return the number of the dropped messages
+   *
+   * @since 1.7.0
+   */
+  public long getDroppedMessages () {
+    return dropped.sum();
+  }
+
+  /**
+   * Switches the mailbox to the inline mode, where every delivered message
+   * is passed to the consumer right on the delivering thread (a connection's
+   * event loop, a decoding thread or a local sender), without the handoff
+   * to another thread through the mailbox's queue.
+   * <p>
+   * The consumer is never called concurrently: while it runs, the messages
+   * from the other threads are queued and consumed by the running thread
+   * afterwards. The control messages (links, unlinks and exits) are
+   * handled as usual and are not passed to the consumer.
+   * <p>
+   * The consumer must be fast and must not block, because it holds up
+   * the delivery of the other messages from the same connection.
+   * A blocking receive inside the consumer is reported with a warning, and
+   * the mailbox's own receive methods throw {@link IllegalStateException}
+   * in the inline mode.
+   * <p>
+   * An exit from a linked process closes the mailbox as usual, but there
+   * is no receive to throw {@link ReceivedExitException} from, so it is
+   * logged and the mailbox returns to the regular queued mode, see
+   * {@link #setInlineConsumer(Consumer, Consumer)} for handling it.
+   *
+   * @param consumer the messages consumer, or {@code null} to return to
+   *                 the regular queued mode
+   *
+   * @since 1.7.0
+   */
+  public void setInlineConsumer (Consumer<Message> consumer) {
+    setInlineConsumer(consumer, null);
+  }
+
+  /**
+   * Switches the mailbox to the inline mode, like
+   * {@link #setInlineConsumer(Consumer)}, and passes an exit from
+   * a linked process to the exit handler.
+   * <p>
+   * The exit handler is called on the delivering thread after the mailbox
+   * is closed and returned to the regular queued mode, the consumer
+   * doesn't get any messages after that.
+   *
+   * @param consumer the messages consumer, or {@code null} to return to
+   *                 the regular queued mode
+   *
+   * @param exitHandler the received exits handler, or {@code null} to only log them
+   *
+   * @since 1.7.0
+   */
+  public void setInlineConsumer (Consumer<Message> consumer, Consumer<ReceivedExitException> exitHandler) {
+    inlineExitHandler.set(consumer == null
+                          ? null
+                          : exitHandler);
+    inlineConsumer.set(consumer);
+    if (consumer != null) {
+      // the messages, which came before the switch
+      drainInline(consumer);
+    }
+  }
+
+  /**
+   * Tells if the mailbox passes the messages to an inline consumer.
+   *
+   * @return {@code true} if the mailbox is in the inline mode
+   *
+   * @see #setInlineConsumer(Consumer)
+   *
+   * @since 1.7.0
+   */
+  public boolean isInline () {
+    return inlineConsumer.get() != null;
+  }
+
+  /**
+   * Runs the listener once, when the mailbox has a message to receive.
+   * The listener runs immediately, if the mailbox is not empty already.
+   * Only one listener could wait at a time, it lets a handler to be scheduled
+   * on a shared executor instead of blocking a thread on {@link #receive()}.
+   *
+   * @param listener the arrival listener, it must be fast and non-blocking,
+   *        because it runs on a delivering thread
+   *
+   * @throws IllegalStateException if another listener is already waiting
+   *
+   * @since 1.7.0
+   */
+  public void whenNotEmpty (@NonNull Runnable listener) {
+    if (!arrivalListener.compareAndSet(null, listener)) {
+      throw new IllegalStateException("Mailbox " + pid + " already has an arrival listener");
+    }
+    // a message could arrive before the registration
+    if (!queue.isEmpty()) {
+      notifyArrivalListener();
+    }
+  }
+
+  /**
+   * Runs the listener once, after the mailbox drains to its low-water mark.
+   * The listener runs immediately, if the mailbox is already drained or closed.
+   *
+   * @param listener the drain listener, it must be fast and non-blocking,
+   *        because it runs on a receiving thread
+   *
+   * @since 1.7.0
+   */
+  public void whenDrained (@NonNull Runnable listener) {
+    drainListeners.add(listener);
+    // the mailbox could be drained (or closed) before the registration
+    if (closed.get() || queue.size() <= getLowWaterMark()) {
+      notifyDrainListeners();
+    }
+  }
+
   /**
    * Sends a message to local or remote mailbox.
    *
@@ -155,11 +464,14 @@ public class Mailbox implements Closeable {
    * @param body message payload
    */
   public void send (@NonNull ErlangPid to, @NonNull ErlangTerm body) {
-    val message = Message.send(to, body);
+    val traceToken = nextTraceToken();
+    val message = traceToken == null
+                  ? Message.send(to, body)
+                  : Message.send(to, body, traceToken);
     if (isLocal(to)) {
-      getMailbox(to).deliver(message);
+      deliverLocal(getMailbox(to), message);
     } else {
-      getConnection(to).send(message);
+      sendRemote(to, message);
     }
   }
 
@@ -171,8 +483,11 @@ public class Mailbox implements Closeable {
    * @param body message payload
    */
   public void send (@NonNull String mailbox, @NonNull ErlangTerm body) {
-    val message = Message.send(mailbox, body);
-    getMailbox(mailbox).deliver(message);
+    val traceToken = nextTraceToken();
+    val message = traceToken == null
+                  ? Message.send(mailbox, body)
+                  : Message.sendToRegisteredProcess(pid, atom(mailbox), body, traceToken);
+    deliverLocal(getMailbox(mailbox), message);
   }
 
   /**
@@ -199,6 +514,11 @@ public class Mailbox implements Closeable {
    * @param body message payload
    */
   public void send (@NonNull NodeDescriptor descriptor, @NonNull String mailbox, @NonNull ErlangTerm body) {
+    val peer = node.colocatedNode(descriptor);
+    if (peer != null) {
+      sendColocated(peer, mailbox, body);
+      return;
+    }
     RemoteNode remote = node.lookup(descriptor);
     if (remote == null) {
       throw new NoSuchRemoteNodeException(descriptor);
@@ -218,12 +538,46 @@ public class Mailbox implements Closeable {
   public void send (@NonNull RemoteNode remote, @NonNull String mailbox, @NonNull ErlangTerm body) {
     if (isLocal(remote)) {
       send(mailbox, body);
+      return;
+    }
+    val peer = node.colocatedNode(remote.getDescriptor());
+    if (peer != null) {
+      sendColocated(peer, mailbox, body);
     } else {
-      node.connect(remote)
-          .send(Message.sendToRegisteredProcess(pid, mailbox, body));
+      node.connect(remote).send(pid, registeredProcessMessage(mailbox, body));
     }
   }
 
+  /**
+   * Returns the mailbox's Erlang {@code seq_trace} token, like
+   * {@code seq_trace:get_token/0} does.
+   * <p>
+   * The token is taken from the last received message, a message without
+   * a token clears it, and every sent message carries the token with
+   * the updated serial numbers.
+   *
+   * @return the current trace token, or {@code null} if the mailbox is not traced
+   *
+   * @since 1.7.0
+   */
+  public ErlangTerm getTraceToken () {
+    return sequentialTrace.get();
+  }
+
+  /**
+   * Sets the mailbox's Erlang {@code seq_trace} token, like
+   * {@code seq_trace:set_token/1} does, so the next sent messages
+   * start (or continue) a sequential trace.
+   *
+   * @param token the {@code {Flags, Label, Serial, From, LastCnt}} token,
+   *        or {@code null} to stop the tracing
+   *
+   * @since 1.7.0
+   */
+  public void setTraceToken (ErlangTerm token) {
+    sequentialTrace.set(token);
+  }
+
   /**
    * Send an RPC request to the remote Erlang node. This convenience function
    * creates the following message and sends it to 'rex' on the remote node:
@@ -430,27 +784,192 @@ public class Mailbox implements Closeable {
    * @since 1.6.4
    */
   public void call (@NonNull RemoteNode remote, @NonNull ErlangAtom module, @NonNull ErlangAtom function, ErlangTerm ...args) {
-    ErlangTerm argumentsList;
-    if (args == null || args.length == 0) {
-      argumentsList = NIL;
-    } else if (args.length == 1 && args[0].isList()) {
-      argumentsList = args[0];
-    } else {
-      argumentsList = list(args);
-    }
-
     send(remote, "rex", tuple(
         pid,
-        tuple(
-            atom("call"),
-            module,
-            function,
-            argumentsList,
-            atom("user")
-        )
+        rpcRequest(module, function, args)
     ));
   }
 
+  /**
+   * Sends an RPC request to the remote Erlang node, like {@code rpc:call/5} does,
+   * and returns the future result without blocking.
+   * <p>
+   * The request is sent as a {@code gen_server} call to the node's 'rex' process,
+   * so the reply is correlated by a reference and many requests could be in flight
+   * from one mailbox at the same time.
+   *
+   * @param remoteNodeName remote node name
+   *
+   * @param module the name of the Erlang module containing the function to be called.
+   *
+   * @param function the name of the function to call.
+   *
+   * @param timeout how long to wait for the reply, in units of {@code unit},
+   *        a non-positive value means forever
+   *
+   * @param unit a {@code TimeUnit} determining how to interpret the {@code timeout} parameter
+   *
+   * @param args a list of Erlang terms, to be used as arguments to the function.
+   *
+   * @return the future result of the function call
+   *
+   * @see #genCall(RemoteNode, String, ErlangTerm, long, TimeUnit)
+   *
+   * @since 1.7.0
+   */
+  public CompletableFuture<ErlangTerm> callAsync (@NonNull String remoteNodeName,
+                                                  @NonNull String module,
+                                                  @NonNull String function,
+                                                  long timeout,
+                                                  @NonNull TimeUnit unit,
+                                                  ErlangTerm ...args
+  ) {
+    val descriptor = NodeDescriptor.from(remoteNodeName);
+    RemoteNode remote = node.lookup(descriptor);
+    if (remote == null) {
+      throw new NoSuchRemoteNodeException(descriptor);
+    }
+    return callAsync(remote, atom(module), atom(function), timeout, unit, args);
+  }
+
+  /**
+   * Sends an RPC request to the remote Erlang node, like {@code rpc:call/5} does,
+   * and returns the future result without blocking.
+   *
+   * @param remote remote node descriptor
+   *
+   * @param module the atom of the Erlang module containing the function to be called.
+   *
+   * @param function the atom of the function to call.
+   *
+   * @param timeout how long to wait for the reply, in units of {@code unit},
+   *        a non-positive value means forever
+   *
+   * @param unit a {@code TimeUnit} determining how to interpret the {@code timeout} parameter
+   *
+   * @param args a list of Erlang terms, to be used as arguments to the function.
+   *
+   * @return the future result of the function call
+   *
+   * @since 1.7.0
+   */
+  public CompletableFuture<ErlangTerm> callAsync (@NonNull RemoteNode remote,
+                                                  @NonNull ErlangAtom module,
+                                                  @NonNull ErlangAtom function,
+                                                  long timeout,
+                                                  @NonNull TimeUnit unit,
+                                                  ErlangTerm ...args
+  ) {
+    return genCall(remote, "rex", rpcRequest(module, function, args), timeout, unit);
+  }
+
+  /**
+   * Makes a {@code gen_server:call} to a registered process, local or remote,
+   * without blocking.
+   * <p>
+   * The request is sent in the form of:
+   * <pre>
+   * { :'$gen_call', { selfPid, reference }, request }
+   * </pre>
+   * and the {@code { reference, reply }} message completes the returned future instead of
+   * going to the mailbox's queue. The future is completed by the thread, which delivers
+   * the reply (usually a network one), so the long-running continuations must use
+   * the {@code *Async} methods of the {@link CompletableFuture}.
+   * <p>
+   * The future fails with {@link java.util.concurrent.TimeoutException} if the timeout
+   * elapses and with {@link java.util.concurrent.CancellationException} if this mailbox exits.
+   *
+   * @param remote the node, where the process is registered
+   *
+   * @param process the registered process name
+   *
+   * @param request the call's request
+   *
+   * @param timeout how long to wait for the reply, in units of {@code unit},
+   *        a non-positive value means forever
+   *
+   * @param unit a {@code TimeUnit} determining how to interpret the {@code timeout} parameter
+   *
+   * @return the future reply
+   *
+   * @since 1.7.0
+   */
+  public CompletableFuture<ErlangTerm> genCall (@NonNull RemoteNode remote,
+                                                @NonNull String process,
+                                                @NonNull ErlangTerm request,
+                                                long timeout,
+                                                @NonNull TimeUnit unit
+  ) {
+    val reference = node.newReference();
+    val future = pendingCalls.register(reference, timeout, unit);
+    try {
+      send(remote, process, genCallRequest(reference, request));
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+  /**
+   * Makes a {@code gen_server:call} to a process, local or remote, without blocking.
+   *
+   * @param to the process PID
+   *
+   * @param request the call's request
+   *
+   * @param timeout how long to wait for the reply, in units of {@code unit},
+   *        a non-positive value means forever
+   *
+   * @param unit a {@code TimeUnit} determining how to interpret the {@code timeout} parameter
+   *
+   * @return the future reply
+   *
+   * @see #genCall(RemoteNode, String, ErlangTerm, long, TimeUnit)
+   *
+   * @since 1.7.0
+   */
+  public CompletableFuture<ErlangTerm> genCall (@NonNull ErlangPid to,
+                                                @NonNull ErlangTerm request,
+                                                long timeout,
+                                                @NonNull TimeUnit unit
+  ) {
+    val reference = node.newReference();
+    val future = pendingCalls.register(reference, timeout, unit);
+    try {
+      send(to, genCallRequest(reference, request));
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+  /**
+   * Replies to a {@code gen_server} call, which was received by this mailbox.
+   *
+   * @param from the second element of the received
+   *        {@code { :'$gen_call', from, request }} tuple
+   *
+   * @param reply the call's reply
+   *
+   * @since 1.7.0
+   */
+  public void reply (@NonNull ErlangTerm from, @NonNull ErlangTerm reply) {
+    val caller = from.getUnsafe(0).asPid();
+    val reference = from.getUnsafe(1);
+    send(caller, tuple(reference, reply));
+  }
+
+  /**
+   * Returns the number of the asynchronous calls, which are waiting for their replies.
+   *
+   * @return the number of the pending calls
+   *
+   * @since 1.7.0
+   */
+  public int getPendingCalls () {
+    return pendingCalls.size();
+  }
+
   /**
    * Receive an RPC reply from the remote Erlang node. This convenience
    * function receives a message from the remote node, and expects it to have
@@ -509,7 +1028,7 @@ public class Mailbox implements Closeable {
     if (isLocal(to)) {
       getMailbox(to).deliver(message);
     } else {
-      getConnection(to).send(message);
+      sendRemote(to, message);
     }
     links.add(to);
   }
@@ -526,7 +1045,7 @@ public class Mailbox implements Closeable {
     if (isLocal(to)) {
       getMailbox(to).deliver(message);
     } else {
-      getConnection(to).send(message);
+      sendRemote(to, message);
     }
   }
 
@@ -546,14 +1065,23 @@ public class Mailbox implements Closeable {
 
     links.forEach(it -> {
       val message = Message.exit(pid, it, reason);
-      if (isLocal(it)) {
-        getMailbox(it).deliver(message);
-      } else {
-        getConnection(it).send(message);
+      if (!isLocal(it)) {
+        sendRemote(it, message);
+        return;
+      }
+      // the linked mailbox could exit first, for example, when the node is closing
+      val mailbox = node.mailbox(it);
+      if (mailbox == null) {
+        log.debug("Linked mailbox {} doesn't exist anymore, exit signal {} dropped", it, message);
+        return;
       }
+      mailbox.deliver(message);
     });
 
     node.remove(this);
+    pendingCalls.cancelAll();
+    // nobody will drain this mailbox anymore
+    notifyDrainListeners();
   }
 
   /**
@@ -584,7 +1112,38 @@ public class Mailbox implements Closeable {
    */
   public void deliver (@NonNull Message message) {
     log.debug("{}:{} got message\n{}\n", pid, name, message);
-    queue.add(message);
+    if (!pendingCalls.isEmpty() && pendingCalls.complete(message)) {
+      return;
+    }
+    if (node.getMetrics().isEnabled()) {
+      message.markEnqueued(System.nanoTime());
+    }
+    val tracing = node.getTracing();
+    if (tracing.isEnabled()) {
+      MessageTrace trace = message.getTrace();
+      if (trace == null && (message.getTraceToken() != null || tracing.shouldSample())) {
+        trace = new MessageTrace();
+        message.setTrace(trace);
+      }
+      if (trace != null) {
+        tracing.delivered(trace);
+      }
+    }
+
+    val consumer = inlineConsumer.get();
+    if (consumer != null && deliverInline(consumer, message)) {
+      return;
+    }
+    if (capacity > 0 && queue.size() >= capacity && !isControl(message)) {
+      overflow(message);
+    } else if (!queue.offer(message)) {
+      // the bounded queue itself is full, it must not throw on the connection's thread
+      overflow(message);
+    }
+    if (consumer != null) {
+      drainInline(consumer);
+    }
+    notifyArrivalListener();
   }
 
   @Override
@@ -608,6 +1167,41 @@ public class Mailbox implements Closeable {
     return mailbox;
   }
 
+  private void sendRemote (ErlangPid to, Message message) {
+    val peer = node.colocatedNode(to.getDescriptor());
+    if (peer == null) {
+      getConnection(to).send(pid, message);
+      return;
+    }
+    // the terms are immutable, so the receiver could share them with us,
+    // instead of getting its own decoded copy
+    val mailbox = peer.mailbox(to);
+    if (mailbox == null) {
+      // a remote node drops the messages to the unknown PIDs silently too
+      log.debug("Mailbox {} doesn't exist on co-located node, message {} dropped", to, message);
+      return;
+    }
+    deliverLocal(mailbox, message);
+  }
+
+  private void sendColocated (Node peer, String mailbox, ErlangTerm body) {
+    val message = registeredProcessMessage(mailbox, body);
+    val receiver = peer.mailbox(mailbox);
+    if (receiver == null) {
+      log.debug("Mailbox '{}' doesn't exist on co-located node '{}', message {} dropped",
+                mailbox, peer.getDescriptor().getFullName(), message);
+      return;
+    }
+    deliverLocal(receiver, message);
+  }
+
+  private Message registeredProcessMessage (String mailbox, ErlangTerm body) {
+    val traceToken = nextTraceToken();
+    return traceToken == null
+           ? Message.sendToRegisteredProcess(pid, mailbox, body)
+           : Message.sendToRegisteredProcess(pid, atom(mailbox), body, traceToken);
+  }
+
   private Connection getConnection (@NonNull ErlangPid remotePid) {
     val remoteNode = node.lookup(remotePid);
     if (remoteNode == null) {
@@ -642,6 +1236,302 @@ public class Mailbox implements Closeable {
     throw new ReceivedExitException(from, reason);
   }
 
+  private ErlangTerm rpcRequest (ErlangAtom module, ErlangAtom function, ErlangTerm[] args) {
+    ErlangTerm argumentsList;
+    if (args == null || args.length == 0) {
+      argumentsList = NIL;
+    } else if (args.length == 1 && args[0].isList()) {
+      argumentsList = args[0];
+    } else {
+      argumentsList = list(args);
+    }
+
+    return tuple(
+        atom("call"),
+        module,
+        function,
+        argumentsList,
+        atom("user")
+    );
+  }
+
+  private ErlangTerm genCallRequest (ErlangTerm reference, ErlangTerm request) {
+    return tuple(
+        GEN_CALL,
+        tuple(pid, reference),
+        request
+    );
+  }
+
+  private void overflow (Message message) {
+    if (isControl(message)) {
+      // the control messages go above the mailbox's capacity,
+      // so only the bounded queue itself could reject it
+      log.warn("Mailbox '{}:{}' queue is full, the control message is dropped\n  {}", pid, name, message);
+      dropped.increment();
+      return;
+    }
+
+    switch (getOverflowPolicy()) {
+    case DROP_NEWEST:
+      log.debug("Mailbox '{}:{}' is full, the new message is dropped", pid, name);
+      dropped.increment();
+      break;
+    case DROP_OLDEST:
+      if (!dropOldest()) {
+        // the oldest one is a control message, which is never dropped and
+        // never moved, so the new message is dropped instead
+        log.debug("Mailbox '{}:{}' is full, the new message is dropped", pid, name);
+        dropped.increment();
+        break;
+      }
+      log.debug("Mailbox '{}:{}' is full, the oldest message is dropped", pid, name);
+      dropped.increment();
+      if (!queue.offer(message)) {
+        log.debug("Mailbox '{}:{}' is full, the new message is dropped", pid, name);
+        dropped.increment();
+      }
+      break;
+    case REJECT:
+      dropped.increment();
+      if (rejected.compareAndSet(false, true)) {
+        log.warn("Mailbox '{}:{}' overflows its capacity {}, exiting", pid, name, capacity);
+        overflowExitPending.set(true);
+        queueOverflowExit();
+      }
+      break;
+    case BLOCK:
+    default:
+      // the remote senders are throttled by the connection, see ConnectionHandler,
+      // but the messages, which are already in flight, still go above the capacity
+      if (!queue.offer(message)) {
+        log.warn("Mailbox '{}:{}' queue is full even above its capacity {}, the new message is dropped",
+                 pid, name, capacity);
+        dropped.increment();
+      }
+    }
+  }
+
+  // the mailbox exits on its consumer's thread, not on the delivering one,
+  // and the exit signal wakes up the consumer, which waits for a message
+  private void queueOverflowExit () {
+    if (overflowExitPending.compareAndSet(true, false) &&
+        !queue.offer(Message.exit(pid, pid, MAILBOX_OVERFLOW))) {
+      // the bounded queue itself is full, so the consumer doesn't wait
+      // and it retries after the next receive
+      overflowExitPending.set(true);
+    }
+  }
+
+  // the local senders wait for a full mailbox with the BLOCK policy to drain,
+  // like the connections stop reading for the remote ones
+  private void deliverLocal (Mailbox receiver, Message message) {
+    while (receiver.shouldBlock(this, message)) {
+      val drained = new CountDownLatch(1);
+      receiver.whenDrained(drained::countDown);
+      try {
+        drained.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    receiver.deliver(message);
+  }
+
+  private boolean shouldBlock (Mailbox sender, Message message) {
+    return sender != this &&
+           getOverflowPolicy() == MailboxOverflowPolicy.BLOCK &&
+           isFull() &&
+           !closed.get() &&
+           !isControl(message) &&
+           // an inline consumer runs on a delivering thread, it must not block
+           INLINE_CONSUMING.get() == null;
+  }
+
+  private boolean dropOldest () {
+    val oldest = queue.peek();
+    if (oldest == null || isControl(oldest)) {
+      return false;
+    }
+    // the receiver could take the head meanwhile, so exactly the peeked message is removed
+    return queue instanceof RingBufferQueue
+           ? ((RingBufferQueue<Message>) queue).pollIf(it -> it == oldest) != null
+           : queue.remove(oldest);
+  }
+
+  private int getLowWaterMark () {
+    return lowWaterMark > 0
+           ? Math.min(lowWaterMark, capacity)
+           : capacity / 2;
+  }
+
+  private void afterReceive () {
+    if (overflowExitPending.get()) {
+      queueOverflowExit();
+    }
+    if (!drainListeners.isEmpty() && queue.size() <= getLowWaterMark()) {
+      notifyDrainListeners();
+    }
+  }
+
+  private void recordDequeue (Message message) {
+    if (message == null) {
+      return;
+    }
+    val traceToken = message.getTraceToken();
+    if (traceToken != null || sequentialTrace.get() != null) {
+      sequentialTrace.set(traceToken);
+    }
+
+    val trace = message.getTrace();
+    if (trace != null && trace.getDeliveredNanos() != 0) {
+      node.getTracing().received(trace);
+    }
+    if (message.getEnqueuedNanos() == 0) {
+      return;
+    }
+    val metrics = node.getMetrics();
+    if (metrics.isEnabled()) {
+      metrics.messageDequeued(this, System.nanoTime() - message.getEnqueuedNanos());
+    }
+  }
+
+  private ErlangTerm nextTraceToken () {
+    return sequentialTrace.get() == null
+           ? null
+           : sequentialTrace.next(pid);
+  }
+
+  private void checkBlockingReceive () {
+    if (inlineConsumer.get() != null) {
+      throw new IllegalStateException("Mailbox " + pid + " is in the inline mode, its messages go to the consumer");
+    }
+    val consuming = INLINE_CONSUMING.get();
+    if (consuming != null) {
+      log.warn("Mailbox '{}:{}' blocks on receive inside the inline consumer of '{}:{}', "
+               + "it stalls the delivering thread {}",
+               pid, name, consuming.getPid(), consuming.getName(), Thread.currentThread().getName());
+    }
+  }
+
+  // passes the message to the consumer without the queue, if nobody else consumes right now
+  private boolean deliverInline (Consumer<Message> consumer, Message message) {
+    if (!inlineConsuming.compareAndSet(false, true)) {
+      return false;
+    }
+    try {
+      if (!queue.isEmpty()) {
+        // the earlier messages go first
+        return false;
+      }
+      consumeInline(consumer, message);
+    } finally {
+      inlineConsuming.set(false);
+    }
+    // the other threads could queue their messages, while the flag was held
+    drainInline(consumer);
+    return true;
+  }
+
+  private void drainInline (Consumer<Message> consumer) {
+    while (!queue.isEmpty() && inlineConsuming.compareAndSet(false, true)) {
+      try {
+        Message message;
+        while ((message = queue.poll()) != null) {
+          consumeInline(consumer, message);
+        }
+      } finally {
+        inlineConsuming.set(false);
+      }
+      afterReceive();
+    }
+  }
+
+  private void consumeInline (Consumer<Message> consumer, Message message) {
+    val previous = INLINE_CONSUMING.get();
+    INLINE_CONSUMING.set(this);
+    try {
+      if (!shouldContinueReceive(message)) {
+        recordDequeue(message);
+        consumer.accept(message);
+      }
+    } catch (ReceivedExitException ex) {
+      // the mailbox is closed already, there is nobody to throw the exit to
+      exitInline(consumer, ex);
+    } catch (RuntimeException ex) {
+      log.error("Mailbox '{}:{}' inline consumer error", pid, name, ex);
+    } finally {
+      if (previous == null) {
+        INLINE_CONSUMING.remove();
+      } else {
+        INLINE_CONSUMING.set(previous);
+      }
+    }
+  }
+
+  private void exitInline (Consumer<Message> consumer, ReceivedExitException exception) {
+    if (!inlineConsumer.compareAndSet(consumer, null)) {
+      return;
+    }
+    val handler = inlineExitHandler.getAndSet(null);
+    if (handler == null) {
+      log.warn("Mailbox '{}:{}' received exit in the inline mode, it is closed now", pid, name, exception);
+      return;
+    }
+    try {
+      handler.accept(exception);
+    } catch (RuntimeException ex) {
+      log.error("Mailbox '{}:{}' inline exit handler error", pid, name, ex);
+    }
+  }
+
+  private void notifyArrivalListener () {
+    if (arrivalListener.get() == null) {
+      return;
+    }
+    val listener = arrivalListener.getAndSet(null);
+    if (listener != null) {
+      listener.run();
+    }
+  }
+
+  private void notifyDrainListeners () {
+    Runnable listener;
+    while ((listener = drainListeners.poll()) != null) {
+      try {
+        listener.run();
+      } catch (RuntimeException ex) {
+        log.error("Mailbox '{}:{}' drain listener error", pid, name, ex);
+      }
+    }
+  }
+
+  private boolean isControl (Message message) {
+    switch (message.getHeader().getTag()) {
+    case LINK:
+    case UNLINK:
+    case EXIT:
+    case EXIT2:
+    case EXIT_TT:
+    case EXIT2_TT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private void removeControlMessages (List<Message> messages, int from) {
+    int index = from;
+    for (int cursor = from; cursor < messages.size(); cursor++) {
+      val message = messages.get(cursor);
+      if (!shouldContinueReceive(message)) {
+        messages.set(index++, message);
+      }
+    }
+    messages.subList(index, messages.size()).clear();
+  }
+
   private boolean shouldContinueReceive (Message message) {
     if (message == null) {
       return false;
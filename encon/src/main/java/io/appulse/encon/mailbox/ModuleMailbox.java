@@ -27,7 +27,13 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Supplier;
 
 import io.appulse.encon.Node;
+import io.appulse.encon.config.MailboxOverflowPolicy;
+import io.appulse.encon.config.MailboxQueueType;
+import io.appulse.encon.config.MailboxWaitStrategy;
 import io.appulse.encon.connection.regular.Message;
+import io.appulse.encon.mailbox.queue.BatchingQueue;
+import io.appulse.encon.mailbox.queue.MailboxQueues;
+import io.appulse.encon.mailbox.queue.MpscArrayQueue;
 import io.appulse.encon.terms.type.ErlangPid;
 
 import lombok.NoArgsConstructor;
@@ -46,6 +52,9 @@ import lombok.extern.slf4j.Slf4j;
 @FieldDefaults(level = PRIVATE, makeFinal = true)
 public final class ModuleMailbox implements Closeable {
 
+  // the maximum capacity of the built-in bounded queues
+  private static final int MAX_QUEUE_CAPACITY = 1 << 30;
+
   @NonNull
   Node node;
 
@@ -98,7 +107,10 @@ public final class ModuleMailbox implements Closeable {
     log.debug("Removing mailbox {}", mailbox);
 
     ofNullable(pids.remove(mailbox.getPid()))
-        .ifPresent(it -> it.close());
+        .ifPresent(it -> {
+          it.close();
+          node.getMetrics().mailboxRemoved(it);
+        });
 
     ofNullable(mailbox.getName())
         .ifPresent(names::remove);
@@ -142,22 +154,133 @@ public final class ModuleMailbox implements Closeable {
 
     BlockingQueue<Message> queue = new LinkedBlockingQueue<>();
 
+    MailboxQueueType queueType;
+
+    int queueCapacity;
+
+    MailboxWaitStrategy waitStrategy;
+
+    boolean lazyDecoding;
+
+    int capacity;
+
+    MailboxOverflowPolicy overflowPolicy;
+
+    int lowWaterMark;
+
     public NewMailboxBuilder name (String mailboxName) {
       this.name = mailboxName;
       return this;
     }
 
+    /**
+     * Turns on the lazy decoding of the incoming message bodies.
+     *
+     * @param lazy lazy decoding or not
+     *
+     * @return this builder
+     *
+     * @see io.appulse.encon.terms.type.LazyErlangTerm
+     *
+     * @since 1.7.0
+     */
+    public NewMailboxBuilder lazyDecoding (boolean lazy) {
+      this.lazyDecoding = lazy;
+      return this;
+    }
+
     public NewMailboxBuilder queue (BlockingQueue<Message> mailboxQueue) {
       this.queue = mailboxQueue;
+      this.queueType = null;
+      return this;
+    }
+
+    /**
+     * Sets one of the built-in queue types.
+     *
+     * @param type the queue's type
+     *
+     * @param capacity the capacity of the bounded queue types, it is increased
+     *                 if the mailbox's {@link #capacity(int, MailboxOverflowPolicy) capacity}
+     *                 doesn't fit into it
+     *
+     * @param waitStrategy how the lock-free queue types wait for a message
+     *
+     * @return this builder
+     *
+     * @since 1.7.0
+     */
+    public NewMailboxBuilder queue (@NonNull MailboxQueueType type,
+                                    int capacity,
+                                    @NonNull MailboxWaitStrategy waitStrategy
+    ) {
+      this.queueType = type;
+      this.queueCapacity = capacity;
+      this.waitStrategy = waitStrategy;
+      return this;
+    }
+
+    /**
+     * Limits the number of messages in the mailbox.
+     *
+     * @param maxMessages the mailbox's capacity, {@code 0} means unbounded
+     *
+     * @param policy what to do with a new message, when the mailbox is full
+     *
+     * @return this builder
+     *
+     * @since 1.7.0
+     */
+    public NewMailboxBuilder capacity (int maxMessages, @NonNull MailboxOverflowPolicy policy) {
+      if (maxMessages < 0) {
+        throw new IllegalArgumentException("Mailbox capacity must not be negative, but it is " + maxMessages);
+      }
+      this.capacity = maxMessages;
+      this.overflowPolicy = policy;
+      return this;
+    }
+
+    /**
+     * Sets the number of messages, below which the connections, blocked by
+     * the {@link MailboxOverflowPolicy#BLOCK} policy, resume reading.
+     *
+     * @param messages the low-water mark, {@code 0} means a half of the capacity
+     *
+     * @return this builder
+     *
+     * @since 1.7.0
+     */
+    public NewMailboxBuilder lowWaterMark (int messages) {
+      if (messages < 0) {
+        throw new IllegalArgumentException("Mailbox low-water mark must not be negative, but it is " + messages);
+      }
+      this.lowWaterMark = messages;
       return this;
     }
 
     public Mailbox build () {
+      if (queueType != null) {
+        queue = MailboxQueues.newQueue(queueType, getQueueCapacity(), waitStrategy);
+      } else if (capacity > 0 && queue.remainingCapacity() < capacity) {
+        throw new IllegalArgumentException("Mailbox capacity " + capacity +
+                                           " is greater than its queue's capacity " + queue.remainingCapacity());
+      }
+      if (capacity > 0 && overflowPolicy == MailboxOverflowPolicy.DROP_OLDEST &&
+          (queue instanceof MpscArrayQueue || queue instanceof BatchingQueue)) {
+        // the sender removes the oldest message, so the queue must allow several consumers
+        throw new IllegalArgumentException("DROP_OLDEST overflow policy requires a multi-consumer queue, " +
+                                           "but it is " + queue.getClass().getSimpleName());
+      }
+
       ErlangPid pid = pidProducer.get();
       Mailbox mailbox = Mailbox.builder()
           .name(name)
           .node(node)
           .queue(queue)
+          .lazyDecoding(lazyDecoding)
+          .capacity(capacity)
+          .overflowPolicy(overflowPolicy)
+          .lowWaterMark(lowWaterMark)
           .pid(pid)
           .build();
 
@@ -165,7 +288,17 @@ public final class ModuleMailbox implements Closeable {
       ofNullable(mailbox.getName())
           .ifPresent(it -> register(mailbox, it));
 
+      node.getMetrics().mailboxCreated(mailbox);
       return mailbox;
     }
+
+    private int getQueueCapacity () {
+      if (capacity <= 0 || queueType == MailboxQueueType.LINKED || queueType == MailboxQueueType.BATCHING) {
+        return queueCapacity;
+      }
+      // the control messages and the BLOCK policy's messages go above
+      // the mailbox's capacity, so the bounded queue keeps the room for them
+      return (int) Math.max(queueCapacity, Math.min(2L * capacity, MAX_QUEUE_CAPACITY));
+    }
   }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.appulse.encon.connection.control.ControlMessageTag;
+import io.appulse.encon.connection.regular.Message;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.type.ErlangReference;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * The mailbox's outstanding requests, which are waiting for
+ * the {@code {Reference, Reply}} messages.
+ * <p>
+ * The replies are matched in the delivering thread, so nobody blocks
+ * on the mailbox's queue for them, and the timeouts are tracked by one
+ * shared hashed wheel timer, which is cheap for thousands of requests.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+class PendingCalls {
+
+  private static final Timer TIMER = new HashedWheelTimer(
+      new DefaultThreadFactory("encon-call-timeouts", true),
+      10, TimeUnit.MILLISECONDS
+  );
+
+  // the key is built from the reference's ids, which are unique for the node
+  Map<Long, PendingCall> calls = new ConcurrentHashMap<>();
+
+  boolean isEmpty () {
+    return calls.isEmpty();
+  }
+
+  int size () {
+    return calls.size();
+  }
+
+  CompletableFuture<ErlangTerm> register (@NonNull ErlangReference reference, long timeout, @NonNull TimeUnit unit) {
+    val key = keyOf(reference);
+    val future = new CompletableFuture<ErlangTerm>();
+    val call = new PendingCall(reference, future);
+    calls.put(key, call);
+
+    if (timeout > 0) {
+      val handle = TIMER.newTimeout(it -> future.completeExceptionally(new TimeoutException()), timeout, unit);
+      future.whenComplete((result, throwable) -> handle.cancel());
+    }
+    // a completion of any kind (a reply, a timeout or a user's cancel) releases the slot
+    future.whenComplete((result, throwable) -> calls.remove(key, call));
+    return future;
+  }
+
+  /**
+   * Completes a pending call, if the message is a reply for it.
+   *
+   * @param message the delivered message
+   *
+   * @return {@code true} if the message was consumed as a reply
+   */
+  boolean complete (@NonNull Message message) {
+    if (calls.isEmpty() || !isSend(message.getHeader().getTag())) {
+      return false;
+    }
+
+    val body = message.getBody();
+    if (body == null || !body.isTuple() || body.size() != 2) {
+      return false;
+    }
+    val first = body.getUnsafe(0);
+    if (!first.isReference()) {
+      return false;
+    }
+
+    val reference = first.asReference();
+    if (reference.getIds() == null || reference.getIds().length < 2) {
+      return false;
+    }
+    val call = calls.get(keyOf(reference));
+    if (call == null || !call.isReplyTo(reference)) {
+      return false;
+    }
+    call.getFuture().complete(body.getUnsafe(1));
+    return true;
+  }
+
+  void cancelAll () {
+    calls.values().forEach(it -> it.getFuture().completeExceptionally(
+        new CancellationException("The mailbox was closed")
+    ));
+    calls.clear();
+  }
+
+  private static boolean isSend (ControlMessageTag tag) {
+    // the replies to a traced call carry the seq_trace token
+    return tag == ControlMessageTag.SEND || tag == ControlMessageTag.SEND_TT;
+  }
+
+  private static Long keyOf (ErlangReference reference) {
+    val ids = reference.getIds();
+    return ids[1] << 18 | ids[0];
+  }
+
+  @RequiredArgsConstructor
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static class PendingCall {
+
+    ErlangReference reference;
+
+    @Getter
+    CompletableFuture<ErlangTerm> future;
+
+    boolean isReplyTo (ErlangReference reply) {
+      // the reference could come back with another wire type and creation width,
+      // so only the meaningful parts are compared
+      return Arrays.equals(reference.getIds(), reply.getIds()) &&
+             reference.getNode().asText().equals(reply.getNode().asText());
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox;
+
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static lombok.AccessLevel.PRIVATE;
+
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.type.ErlangPid;
+
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * The mailbox's Erlang {@code seq_trace} token, propagated the same way
+ * as the Erlang process does it: the token is taken from every received message
+ * (and cleared by a message without a token) and is attached to every sent one.
+ * <p>
+ * The token's format is {@code {Flags, Label, Serial, From, LastCnt}},
+ * the serial numbers are updated with the mailbox's trace clock on every send,
+ * the tokens of an unknown format are passed as is.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE)
+final class SequentialTrace {
+
+  private static final int TOKEN_SIZE = 5;
+
+  private static final int SERIAL = 2;
+
+  private static boolean isSerial (ErlangTerm token) {
+    return token != null &&
+           token.isTuple() &&
+           token.size() == TOKEN_SIZE &&
+           token.getUnsafe(SERIAL).isLong();
+  }
+
+  // the token and the clock are changed together, so they are guarded by the same lock
+  ErlangTerm token;
+
+  long clock;
+
+  SequentialTrace () {
+    token = null;
+    clock = 0;
+  }
+
+  synchronized ErlangTerm get () {
+    return token;
+  }
+
+  synchronized void set (ErlangTerm newToken) {
+    token = newToken;
+    if (isSerial(newToken)) {
+      clock = Math.max(clock, newToken.getUnsafe(SERIAL).asLong());
+    }
+  }
+
+  synchronized ErlangTerm next (ErlangPid from) {
+    val current = token;
+    if (!isSerial(current)) {
+      return current;
+    }
+    token = tuple(
+        current.getUnsafe(0),
+        current.getUnsafe(1),
+        number(++clock),
+        from,
+        current.getUnsafe(SERIAL)
+    );
+    return token;
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox.queue;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+import io.appulse.encon.config.MailboxWaitStrategy;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+/**
+ * Base class of the lock-free mailbox queues, it implements the blocking
+ * operations on top of the non-blocking {@link #offer(Object)} and {@link #poll()}
+ * with the configured {@link MailboxWaitStrategy}.
+ * <p>
+ * The iterators are weakly consistent: they never throw
+ * {@link java.util.ConcurrentModificationException}, they return the elements,
+ * which were in the queue at the iterator's creation, and they skip the ones,
+ * consumed during the iteration. The removal of an arbitrary element
+ * ({@link #remove(Object)}, {@link Iterator#remove()}) is not supported.
+ *
+ * @param <E> the type of elements
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public abstract class AbstractMailboxQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+  private static final int SPIN_TRIES = 100;
+
+  private static final int YIELD_TRIES = SPIN_TRIES + 100;
+
+  // the parked consumer is woken up by the producers, but it also wakes up itself
+  // from time to time, in case of a few concurrent consumers or producers
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Getter
+  MailboxWaitStrategy waitStrategy;
+
+  @NonFinal
+  volatile Thread waiter;
+
+  protected AbstractMailboxQueue (@NonNull MailboxWaitStrategy waitStrategy) {
+    super();
+    this.waitStrategy = waitStrategy;
+  }
+
+  @Override
+  public void put (E element) throws InterruptedException {
+    int counter = 0;
+    while (!offer(element)) {
+      counter = idle(counter, MAX_PARK_NANOS, false);
+    }
+  }
+
+  @Override
+  public boolean offer (E element, long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int counter = 0;
+    while (!offer(element)) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      counter = idle(counter, Math.min(remaining, MAX_PARK_NANOS), false);
+    }
+    return true;
+  }
+
+  @Override
+  public E take () throws InterruptedException {
+    int counter = 0;
+    E element = poll();
+    while (element == null) {
+      counter = idle(counter, MAX_PARK_NANOS, true);
+      element = poll();
+    }
+    return element;
+  }
+
+  @Override
+  public E poll (long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int counter = 0;
+    E element = poll();
+    while (element == null) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      counter = idle(counter, Math.min(remaining, MAX_PARK_NANOS), true);
+      element = poll();
+    }
+    return element;
+  }
+
+  @Override
+  public int drainTo (Collection<? super E> collection) {
+    return drainTo(collection, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo (@NonNull Collection<? super E> collection, int maxElements) {
+    if (collection == this) {
+      throw new IllegalArgumentException();
+    }
+    int count = 0;
+    while (count < maxElements) {
+      E element = poll();
+      if (element == null) {
+        break;
+      }
+      collection.add(element);
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public boolean remove (Object element) {
+    throw new UnsupportedOperationException("Mailbox queues don't support removal of an arbitrary element");
+  }
+
+  /**
+   * Creates a weakly consistent iterator over the elements with the
+   * {@code [from, to)} indexes.
+   *
+   * @param from the first element's index, usually the consumer's position
+   *
+   * @param to the index after the last element, usually the producer's position
+   *
+   * @param reader returns an element by its index or {@code null}
+   *               if the element is already consumed or not written yet
+   *
+   * @return a new iterator instance
+   */
+  protected final Iterator<E> iterator (long from, long to, @NonNull LongFunction<E> reader) {
+    return new IndexIterator<>(from, to, reader);
+  }
+
+  /**
+   * Wakes up the consumer, which waits for a new element.
+   * It must be called by the producers after each successful {@link #offer(Object)}.
+   */
+  protected final void signal () {
+    Thread thread = waiter;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private int idle (int counter, long parkNanos, boolean consumer) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+
+    switch (waitStrategy) {
+    case SPIN:
+      // the producers of a full queue don't need the low latency,
+      // but they could take the CPU from the consumer
+      if (!consumer && counter >= SPIN_TRIES) {
+        Thread.yield();
+      }
+      break;
+    case YIELD:
+      if (counter >= SPIN_TRIES) {
+        Thread.yield();
+      }
+      break;
+    case PARK:
+    default:
+      if (counter >= YIELD_TRIES) {
+        park(parkNanos, consumer);
+        return counter;
+      } else if (counter >= SPIN_TRIES) {
+        Thread.yield();
+      }
+    }
+    return counter + 1;
+  }
+
+  private void park (long nanos, boolean consumer) {
+    if (!consumer) {
+      LockSupport.parkNanos(this, nanos);
+      return;
+    }
+    waiter = Thread.currentThread();
+    // re-check after the publishing of the waiter, so a concurrent
+    // producer either sees the waiter or its element is seen here
+    if (isEmpty()) {
+      LockSupport.parkNanos(this, nanos);
+    }
+    waiter = null;
+  }
+
+  @FieldDefaults(level = PRIVATE)
+  private static final class IndexIterator<E> implements Iterator<E> {
+
+    final long to;
+
+    final LongFunction<E> reader;
+
+    long index;
+
+    E next;
+
+    IndexIterator (long from, long to, LongFunction<E> reader) {
+      this.to = to;
+      this.reader = reader;
+      index = from;
+      next = advance();
+    }
+
+    @Override
+    public boolean hasNext () {
+      return next != null;
+    }
+
+    @Override
+    public E next () {
+      E result = next;
+      if (result == null) {
+        throw new NoSuchElementException();
+      }
+      next = advance();
+      return result;
+    }
+
+    private E advance () {
+      while (index < to) {
+        E element = reader.apply(index++);
+        if (element != null) {
+          return element;
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox.queue;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.appulse.encon.config.MailboxWaitStrategy;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+/**
+ * Unbounded lock-free multi-producer single-consumer queue with batched consuming.
+ * <p>
+ * The producers push the elements onto a shared stack with a single CAS,
+ * and the consumer takes the whole stack with a single swap, when its local batch
+ * is empty. So, under a load, the consumer touches the shared state once
+ * per a batch instead of once per an element.
+ * The {@link #poll()} family methods must not be called concurrently.
+ *
+ * @param <E> the type of elements
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class BatchingQueue<E> extends AbstractMailboxQueue<E> {
+
+  AtomicReference<Node<E>> stack = new AtomicReference<>();
+
+  AtomicInteger size = new AtomicInteger();
+
+  // the consumer's local batch, in the delivery order, the consumed elements are nulled;
+  // every batch is a new array, so the iterators could tell that it was replaced
+  @NonFinal
+  volatile AtomicReferenceArray<E> batch = new AtomicReferenceArray<>(0);
+
+  // the position in the batch, it is touched only by the consumer
+  @NonFinal
+  int position;
+
+  /**
+   * Constructs the queue.
+   *
+   * @param waitStrategy how to wait for an element
+   */
+  public BatchingQueue (MailboxWaitStrategy waitStrategy) {
+    super(waitStrategy);
+  }
+
+  @Override
+  public boolean offer (@NonNull E element) {
+    Node<E> node = new Node<>(element, null);
+    Node<E> head;
+    do {
+      head = stack.get();
+      node.next = head;
+    } while (!stack.compareAndSet(head, node));
+
+    size.incrementAndGet();
+    signal();
+    return true;
+  }
+
+  @Override
+  public E poll () {
+    if (position == batch.length() && !takeBatch()) {
+      return null;
+    }
+    size.decrementAndGet();
+    E element = batch.get(position);
+    batch.lazySet(position++, null);
+    return element;
+  }
+
+  @Override
+  public E peek () {
+    if (position == batch.length() && !takeBatch()) {
+      return null;
+    }
+    return batch.get(position);
+  }
+
+  @Override
+  public int size () {
+    return Math.max(0, size.get());
+  }
+
+  @Override
+  public int remainingCapacity () {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  public Iterator<E> iterator () {
+    AtomicReferenceArray<E> current;
+    Node<E> head;
+    // the pushed nodes are never changed, but the stack must be read before
+    // the consumer moves it into a new batch, otherwise its elements are missed
+    do {
+      current = batch;
+      head = stack.get();
+    } while (current != batch);
+
+    List<E> pending = new ArrayList<>();
+    for (Node<E> node = head; node != null; node = node.next) {
+      pending.add(node.value);
+    }
+
+    List<E> result = new ArrayList<>(current.length() + pending.size());
+    for (int index = 0; index < current.length(); index++) {
+      E element = current.get(index);
+      if (element != null) {
+        result.add(element);
+      }
+    }
+    // the stack is in the reverse order
+    for (int index = pending.size() - 1; index >= 0; index--) {
+      result.add(pending.get(index));
+    }
+    return new SnapshotIterator<>(result.iterator());
+  }
+
+  private boolean takeBatch () {
+    Node<E> head = stack.getAndSet(null);
+    if (head == null) {
+      return false;
+    }
+    int length = 0;
+    for (Node<E> node = head; node != null; node = node.next) {
+      length++;
+    }
+    // the stack is in the reverse order
+    AtomicReferenceArray<E> elements = new AtomicReferenceArray<>(length);
+    int index = length;
+    for (Node<E> node = head; node != null; node = node.next) {
+      elements.lazySet(--index, node.value);
+    }
+    position = 0;
+    batch = elements;
+    return true;
+  }
+
+  // hides the snapshot list's modification methods
+  @AllArgsConstructor
+  @FieldDefaults(level = PRIVATE, makeFinal = true)
+  private static class SnapshotIterator<E> implements Iterator<E> {
+
+    Iterator<E> delegate;
+
+    @Override
+    public boolean hasNext () {
+      return delegate.hasNext();
+    }
+
+    @Override
+    public E next () {
+      return delegate.next();
+    }
+  }
+
+  @AllArgsConstructor
+  @FieldDefaults(level = PRIVATE)
+  private static class Node<E> {
+
+    final E value;
+
+    Node<E> next;
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox.queue;
+
+/**
+ * Helper methods for the queues' capacities.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+final class Capacities {
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  static int powerOfTwo (int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Queue capacity must be positive, but it is " + capacity);
+    }
+    if (capacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException("Queue capacity must not be greater than " + MAX_CAPACITY +
+                                         ", but it is " + capacity);
+    }
+    int result = Integer.highestOneBit(capacity);
+    return result < capacity
+           ? result << 1
+           : result;
+  }
+
+  private Capacities () {
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox.queue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import io.appulse.encon.config.MailboxQueueType;
+import io.appulse.encon.config.MailboxWaitStrategy;
+
+import lombok.NonNull;
+
+/**
+ * Factory of the mailbox queues.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public final class MailboxQueues {
+
+  /**
+   * Creates a new queue of the specified type.
+   *
+   * @param type the queue's type
+   *
+   * @param capacity the capacity of the bounded queues, it is ignored by the unbounded ones
+   *
+   * @param waitStrategy the lock-free queues' wait strategy, it is ignored by the {@link MailboxQueueType#LINKED}
+   *
+   * @param <E> the type of elements
+   *
+   * @return a new queue instance
+   */
+  public static <E> BlockingQueue<E> newQueue (@NonNull MailboxQueueType type,
+                                               int capacity,
+                                               @NonNull MailboxWaitStrategy waitStrategy
+  ) {
+    switch (type) {
+    case MPSC:
+      return new MpscArrayQueue<>(capacity, waitStrategy);
+    case RING_BUFFER:
+      return new RingBufferQueue<>(capacity, waitStrategy);
+    case BATCHING:
+      return new BatchingQueue<>(waitStrategy);
+    case LINKED:
+    default:
+      return new LinkedBlockingQueue<>();
+    }
+  }
+
+  private MailboxQueues () {
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox.queue;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.appulse.encon.config.MailboxWaitStrategy;
+
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Bounded lock-free multi-producer single-consumer array queue.
+ * <p>
+ * The producers claim the slots with a CAS on the producer index and
+ * the only consumer reads them without any atomic read-modify-write
+ * operations, so the delivering threads don't contend with the receiving one.
+ * The {@link #poll()} family methods must not be called concurrently.
+ *
+ * @param <E> the type of elements
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class MpscArrayQueue<E> extends AbstractMailboxQueue<E> {
+
+  AtomicReferenceArray<E> buffer;
+
+  int mask;
+
+  AtomicLong producerIndex = new AtomicLong();
+
+  AtomicLong consumerIndex = new AtomicLong();
+
+  /**
+   * Constructs the queue with the parking wait strategy.
+   *
+   * @param capacity the queue's capacity, rounded up to a power of two
+   */
+  public MpscArrayQueue (int capacity) {
+    this(capacity, MailboxWaitStrategy.PARK);
+  }
+
+  /**
+   * Constructs the queue.
+   *
+   * @param capacity the queue's capacity, rounded up to a power of two
+   *
+   * @param waitStrategy how to wait for an element or a free slot
+   */
+  public MpscArrayQueue (int capacity, MailboxWaitStrategy waitStrategy) {
+    super(waitStrategy);
+    int length = Capacities.powerOfTwo(capacity);
+    buffer = new AtomicReferenceArray<>(length);
+    mask = length - 1;
+  }
+
+  @Override
+  public boolean offer (@NonNull E element) {
+    long index;
+    do {
+      index = producerIndex.get();
+      if (index - consumerIndex.get() > mask) {
+        return false;
+      }
+    } while (!producerIndex.compareAndSet(index, index + 1));
+
+    buffer.set((int) index & mask, element);
+    signal();
+    return true;
+  }
+
+  @Override
+  public E poll () {
+    long index = consumerIndex.get();
+    int offset = (int) index & mask;
+    E element = buffer.get(offset);
+    if (element == null) {
+      if (index == producerIndex.get()) {
+        return null;
+      }
+      // the slot is claimed by a producer, but the element is not written yet
+      do {
+        element = buffer.get(offset);
+      } while (element == null);
+    }
+    buffer.lazySet(offset, null);
+    consumerIndex.lazySet(index + 1);
+    return element;
+  }
+
+  @Override
+  public E peek () {
+    long index = consumerIndex.get();
+    int offset = (int) index & mask;
+    E element = buffer.get(offset);
+    if (element == null && index != producerIndex.get()) {
+      do {
+        element = buffer.get(offset);
+      } while (element == null);
+    }
+    return element;
+  }
+
+  @Override
+  public int size () {
+    // the consumer index is read first, so the size is never negative
+    long consumer = consumerIndex.get();
+    long producer = producerIndex.get();
+    return (int) Math.min(producer - consumer, mask + 1);
+  }
+
+  @Override
+  public int remainingCapacity () {
+    return mask + 1 - size();
+  }
+
+  @Override
+  public Iterator<E> iterator () {
+    long consumer = consumerIndex.get();
+    return iterator(consumer, producerIndex.get(), this::elementAt);
+  }
+
+  private E elementAt (long index) {
+    E element = buffer.get((int) index & mask);
+    // the element is valid only if the slot was not released for the next lap
+    // after the read, the null means the producer hasn't written it yet
+    return consumerIndex.get() <= index
+           ? element
+           : null;
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox.queue;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+import io.appulse.encon.config.MailboxWaitStrategy;
+
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer ring buffer
+ * (the Dmitry Vyukov's bounded MPMC queue).
+ * <p>
+ * Every slot has a sequence number, which tells the producers and
+ * the consumers whether the slot is free or occupied for the current
+ * lap around the ring, so both sides need only one CAS per operation.
+ *
+ * @param <E> the type of elements
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public class RingBufferQueue<E> extends AbstractMailboxQueue<E> {
+
+  AtomicReferenceArray<E> buffer;
+
+  AtomicLongArray sequences;
+
+  int mask;
+
+  AtomicLong producerIndex = new AtomicLong();
+
+  AtomicLong consumerIndex = new AtomicLong();
+
+  /**
+   * Constructs the ring buffer.
+   *
+   * @param capacity the ring buffer's capacity, rounded up to a power of two
+   *
+   * @param waitStrategy how to wait for an element or a free slot
+   */
+  public RingBufferQueue (int capacity, MailboxWaitStrategy waitStrategy) {
+    super(waitStrategy);
+    int length = Capacities.powerOfTwo(capacity);
+    buffer = new AtomicReferenceArray<>(length);
+    sequences = new AtomicLongArray(length);
+    for (int index = 0; index < length; index++) {
+      sequences.lazySet(index, index);
+    }
+    mask = length - 1;
+  }
+
+  @Override
+  public boolean offer (@NonNull E element) {
+    long index = producerIndex.get();
+    while (true) {
+      int offset = (int) index & mask;
+      long difference = sequences.get(offset) - index;
+      if (difference == 0) {
+        if (producerIndex.compareAndSet(index, index + 1)) {
+          buffer.lazySet(offset, element);
+          sequences.set(offset, index + 1);
+          signal();
+          return true;
+        }
+        index = producerIndex.get();
+      } else if (difference < 0) {
+        // the slot is still occupied by the previous lap's element
+        return false;
+      } else {
+        index = producerIndex.get();
+      }
+    }
+  }
+
+  @Override
+  public E poll () {
+    long index = consumerIndex.get();
+    while (true) {
+      int offset = (int) index & mask;
+      long difference = sequences.get(offset) - (index + 1);
+      if (difference == 0) {
+        if (consumerIndex.compareAndSet(index, index + 1)) {
+          E element = buffer.get(offset);
+          buffer.lazySet(offset, null);
+          // frees the slot for the next lap's producer
+          sequences.set(offset, index + mask + 1);
+          return element;
+        }
+        index = consumerIndex.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        index = consumerIndex.get();
+      }
+    }
+  }
+
+  /**
+   * Retrieves and removes the head of this queue, only if it matches the condition.
+   * Unlike a {@link #peek()} and {@link #poll()} pair, the tested element is
+   * exactly the removed one, even with the concurrent consumers.
+   *
+   * @param condition the head's condition
+   *
+   * @return the removed head, or {@code null} if the queue is empty or
+   *         the head doesn't match the condition
+   */
+  public E pollIf (@NonNull Predicate<? super E> condition) {
+    long index = consumerIndex.get();
+    while (true) {
+      int offset = (int) index & mask;
+      long difference = sequences.get(offset) - (index + 1);
+      if (difference == 0) {
+        E element = buffer.get(offset);
+        // the null means the slot was just taken by another consumer
+        if (element != null) {
+          if (!condition.test(element)) {
+            return null;
+          }
+          if (consumerIndex.compareAndSet(index, index + 1)) {
+            buffer.lazySet(offset, null);
+            sequences.set(offset, index + mask + 1);
+            return element;
+          }
+        }
+        index = consumerIndex.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        index = consumerIndex.get();
+      }
+    }
+  }
+
+  @Override
+  public E peek () {
+    long index = consumerIndex.get();
+    int offset = (int) index & mask;
+    return sequences.get(offset) == index + 1
+           ? buffer.get(offset)
+           : null;
+  }
+
+  @Override
+  public int size () {
+    long consumer = consumerIndex.get();
+    long producer = producerIndex.get();
+    return (int) Math.max(0, Math.min(producer - consumer, mask + 1));
+  }
+
+  @Override
+  public int remainingCapacity () {
+    return mask + 1 - size();
+  }
+
+  @Override
+  public Iterator<E> iterator () {
+    long consumer = consumerIndex.get();
+    return iterator(consumer, producerIndex.get(), this::elementAt);
+  }
+
+  private E elementAt (long index) {
+    int offset = (int) index & mask;
+    if (sequences.get(offset) != index + 1) {
+      return null;
+    }
+    E element = buffer.get(offset);
+    // the sequence is re-checked, in case of the element was consumed meanwhile
+    return sequences.get(offset) == index + 1
+           ? element
+           : null;
+  }
+}
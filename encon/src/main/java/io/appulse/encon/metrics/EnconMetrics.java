@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.metrics;
+
+import io.appulse.encon.common.RemoteNode;
+import io.appulse.encon.mailbox.Mailbox;
+
+/**
+ * Instrumentation SPI of a {@link io.appulse.encon.Node}.
+ * <p>
+ * The node calls these methods from the I/O threads, the decoding threads and
+ * the mailbox consumers, so the implementations must be thread-safe and cheap.
+ * All methods do nothing by default, an implementation overrides only
+ * the events it is interested in.
+ * <p>
+ * The timings are measured only if {@link #isEnabled()} returns {@code true},
+ * so with the default {@link #NOOP} instance the instrumentation costs a single
+ * check per event.
+ *
+ * @see io.appulse.encon.Node#setMetrics(EnconMetrics)
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+public interface EnconMetrics {
+
+  /**
+   * The metrics, which record nothing.
+   */
+  EnconMetrics NOOP = new EnconMetrics() {
+
+    @Override
+    public boolean isEnabled () {
+      return false;
+    }
+  };
+
+  /**
+   * Tells if the events should be measured and reported at all.
+   *
+   * @return {@code true} if the events are recorded
+   */
+  default boolean isEnabled () {
+    return true;
+  }
+
+  /**
+   * A connection with a remote node was established (after the handshake).
+   *
+   * @param remote the remote node
+   */
+  default void connectionOpened (RemoteNode remote) {
+  }
+
+  /**
+   * A connection with a remote node was closed.
+   *
+   * @param remote the remote node
+   */
+  default void connectionClosed (RemoteNode remote) {
+  }
+
+  /**
+   * A handshake with a remote node failed.
+   *
+   * @param remote the remote node, or {@code null} if it is not known yet
+   *
+   * @param cause the failure reason
+   */
+  default void handshakeFailed (RemoteNode remote, Throwable cause) {
+  }
+
+  /**
+   * A tick (an empty keep-alive frame) was received from a remote node.
+   * The missing ticks mean the connection is stale.
+   *
+   * @param remote the remote node
+   */
+  default void tickReceived (RemoteNode remote) {
+  }
+
+  /**
+   * A frame was received from a remote node.
+   *
+   * @param remote the remote node
+   *
+   * @param bytes the frame's size without the length prefix
+   */
+  default void frameReceived (RemoteNode remote, int bytes) {
+  }
+
+  /**
+   * A frame was written to a remote node.
+   *
+   * @param remote the remote node
+   *
+   * @param bytes the frame's size with the length prefix
+   */
+  default void frameSent (RemoteNode remote, int bytes) {
+  }
+
+  /**
+   * A message from a remote node was decoded.
+   *
+   * @param remote the remote node
+   *
+   * @param nanos the decoding time of the control message and the body
+   */
+  default void messageDecoded (RemoteNode remote, long nanos) {
+  }
+
+  /**
+   * A message from a remote node was dropped, because it couldn't be decoded
+   * or there is no such mailbox.
+   *
+   * @param remote the remote node
+   */
+  default void messageDropped (RemoteNode remote) {
+  }
+
+  /**
+   * A new mailbox was created.
+   *
+   * @param mailbox the mailbox
+   */
+  default void mailboxCreated (Mailbox mailbox) {
+  }
+
+  /**
+   * A mailbox was removed from its node.
+   *
+   * @param mailbox the mailbox
+   */
+  default void mailboxRemoved (Mailbox mailbox) {
+  }
+
+  /**
+   * A message was taken from a mailbox's queue.
+   *
+   * @param mailbox the mailbox
+   *
+   * @param nanos the time the message spent in the queue
+   */
+  default void messageDequeued (Mailbox mailbox, long nanos) {
+  }
+
+  /**
+   * A message handler method was invoked.
+   *
+   * @param mailbox the mailbox, which received the message
+   *
+   * @param handler the handler's name, the same instance for all the handler's invocations
+   *
+   * @param nanos the invocation time
+   *
+   * @param failed {@code true} if the handler threw an exception
+   */
+  default void handlerInvoked (Mailbox mailbox, String handler, long nanos, boolean failed) {
+  }
+}
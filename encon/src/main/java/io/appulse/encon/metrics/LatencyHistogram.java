@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.metrics;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, in the spirit of the HdrHistogram.
+ * <p>
+ * The values are counted in the log-linear buckets: every power of two range
+ * is split into {@value #SUB_BUCKETS} linear sub-buckets, so a value is
+ * recorded with the relative error less than 1/{@value #SUB_BUCKETS} (about 3%),
+ * and the whole {@code long} range takes a fixed amount of memory.
+ * The recording is a single atomic increment, it doesn't allocate and could be
+ * done from any number of threads.
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  static int indexOf (long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = magnitude - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  static long highestValueOf (int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    long subBucket = SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a latency, the negative values are recorded as {@code 0}.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record (long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(indexOf(value));
+
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * Returns the number of the recorded values.
+   *
+   * @return the values count
+   */
+  public long getCount () {
+    long result = 0;
+    for (int index = 0; index < BUCKETS; index++) {
+      result += counts.get(index);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the maximum recorded value.
+   *
+   * @return the maximum latency in nanoseconds, or {@code 0} if nothing was recorded
+   */
+  public long getMax () {
+    return max.get();
+  }
+
+  /**
+   * Returns the value, which the given percentage of the recorded values
+   * are less than or equal to. The result is the highest value of the bucket
+   * it falls into, but never more than the maximum recorded value.
+   *
+   * @param percentile the percentile, from {@code 0.0} to {@code 100.0}
+   *
+   * @return the latency in nanoseconds, or {@code 0} if nothing was recorded
+   */
+  public long getValueAtPercentile (double percentile) {
+    if (percentile < 0.0D || percentile > 100.0D) {
+      throw new IllegalArgumentException("Percentile must be from 0 to 100, but it is " + percentile);
+    }
+
+    val snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int index = 0; index < BUCKETS; index++) {
+      snapshot[index] = counts.get(index);
+      total += snapshot[index];
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    long target = Math.max(1, (long) Math.ceil(percentile / 100.0D * total));
+    long seen = 0;
+    for (int index = 0; index < BUCKETS; index++) {
+      seen += snapshot[index];
+      if (seen >= target) {
+        return Math.min(highestValueOf(index), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Forgets all the recorded values.
+   */
+  public void reset () {
+    for (int index = 0; index < BUCKETS; index++) {
+      counts.set(index, 0);
+    }
+    max.set(0);
+  }
+
+  @Override
+  public String toString () {
+    return String.format("count=%d, p50=%d, p90=%d, p99=%d, p99.9=%d, max=%d",
+                         getCount(),
+                         getValueAtPercentile(50.0D),
+                         getValueAtPercentile(90.0D),
+                         getValueAtPercentile(99.0D),
+                         getValueAtPercentile(99.9D),
+                         getMax());
+  }
+}
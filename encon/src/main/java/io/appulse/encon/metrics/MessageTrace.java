@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.metrics;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The {@link System#nanoTime()} stamps of a sampled message on its way
+ * through the node. A stamp is {@code 0}, if the message didn't pass
+ * the stage, for example, a message from a local mailbox has
+ * neither the arrival nor the decoding stamps.
+ * <p>
+ * The trace is filled in by the threads, which pass the message to each other
+ * through the mailbox's queue, so the stamps don't need any synchronization.
+ *
+ * @see MessageTracing
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@Getter
+@ToString
+@FieldDefaults(level = PRIVATE)
+public final class MessageTrace {
+
+  /**
+   * The time, when the whole frame was read from the connection.
+   */
+  long arrivedNanos;
+
+  /**
+   * The time, when the frame was decoded into a message.
+   */
+  long decodedNanos;
+
+  /**
+   * The time, when the message was put into a mailbox.
+   */
+  long deliveredNanos;
+
+  /**
+   * The time, when the message was taken from the mailbox.
+   */
+  long receivedNanos;
+
+  /**
+   * The time, when the message handler returned.
+   */
+  long handledNanos;
+
+  /**
+   * Creates a trace of a message, which came from a remote node.
+   *
+   * @param arrivedNanos the time, when the frame was read
+   *
+   * @param decodedNanos the time, when the frame was decoded
+   */
+  public MessageTrace (long arrivedNanos, long decodedNanos) {
+    this.arrivedNanos = arrivedNanos;
+    this.decodedNanos = decodedNanos;
+  }
+
+  /**
+   * Creates a trace of a message, which was sent by a local mailbox.
+   */
+  public MessageTrace () {
+    this(0, 0);
+  }
+
+  /**
+   * Returns the first known stamp of the message.
+   *
+   * @return the earliest non-zero stamp
+   */
+  public long getStartNanos () {
+    return arrivedNanos != 0
+           ? arrivedNanos
+           : deliveredNanos;
+  }
+
+  void markDelivered (long nanos) {
+    deliveredNanos = nanos;
+  }
+
+  void markReceived (long nanos) {
+    receivedNanos = nanos;
+  }
+
+  void markHandled (long nanos) {
+    handledNanos = nanos;
+  }
+}
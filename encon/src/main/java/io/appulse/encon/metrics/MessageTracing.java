@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.metrics;
+
+import static java.util.Collections.unmodifiableMap;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+/**
+ * Sampled end-to-end latency tracing of the incoming messages.
+ * <p>
+ * Every N-th message (randomly) gets a {@link MessageTrace}, which is stamped
+ * at the frame arrival, the decoding completion, the delivery to a mailbox,
+ * the receiving from the mailbox and the handler's completion. The differences
+ * between the stamps are recorded into the per-{@link Stage} histograms, so
+ * a latency spike could be attributed to the reading and decoding, the mailbox
+ * queueing or the handler itself.
+ * <p>
+ * The messages with an Erlang {@code seq_trace} token are traced always,
+ * while the tracing is enabled.
+ * <p>
+ * The tracing is disabled by default, the sample rate could be set with
+ * the {@code io.appulse.encon.tracing.sampleRate} system property or at runtime.
+ * When it is disabled, it costs a single volatile read per message.
+ *
+ * @see io.appulse.encon.Node#getTracing()
+ *
+ * @since 1.7.0
+ * @author Artem Labazin
+ */
+@FieldDefaults(level = PRIVATE, makeFinal = true)
+public final class MessageTracing {
+
+  /**
+   * Creates a message tracing with the sample rate from
+   * the {@code io.appulse.encon.tracing.sampleRate} system property.
+   *
+   * @return a new message tracing instance
+   */
+  public static MessageTracing fromSystemProperties () {
+    return new MessageTracing(Integer.getInteger("io.appulse.encon.tracing.sampleRate", 0));
+  }
+
+  Map<Stage, LatencyHistogram> histograms;
+
+  @NonFinal
+  volatile int sampleRate;
+
+  /**
+   * Constructor.
+   *
+   * @param sampleRate one of how many messages is traced, {@code 0} disables the tracing
+   */
+  public MessageTracing (int sampleRate) {
+    setSampleRate(sampleRate);
+
+    val map = new EnumMap<Stage, LatencyHistogram>(Stage.class);
+    for (val stage : Stage.values()) {
+      map.put(stage, new LatencyHistogram());
+    }
+    histograms = unmodifiableMap(map);
+  }
+
+  /**
+   * Returns one of how many messages is traced.
+   *
+   * @return the sample rate, {@code 0} means the tracing is disabled
+   */
+  public int getSampleRate () {
+    return sampleRate;
+  }
+
+  /**
+   * Sets one of how many messages is traced, {@code 1} traces every message.
+   *
+   * @param sampleRate the sample rate, {@code 0} disables the tracing
+   */
+  public void setSampleRate (int sampleRate) {
+    if (sampleRate < 0) {
+      throw new IllegalArgumentException("Sample rate must not be negative, but it is " + sampleRate);
+    }
+    this.sampleRate = sampleRate;
+  }
+
+  /**
+   * Tells if the messages are traced at all.
+   *
+   * @return {@code true} if the tracing is enabled
+   */
+  public boolean isEnabled () {
+    return sampleRate > 0;
+  }
+
+  /**
+   * Decides if the next message should be traced.
+   *
+   * @return {@code true} if the message is sampled
+   */
+  public boolean shouldSample () {
+    val rate = sampleRate;
+    return rate == 1 ||
+           rate > 1 && ThreadLocalRandom.current().nextInt(rate) == 0;
+  }
+
+  /**
+   * Stamps the message's delivery to a mailbox.
+   *
+   * @param trace the message's trace
+   */
+  public void delivered (@NonNull MessageTrace trace) {
+    trace.markDelivered(System.nanoTime());
+  }
+
+  /**
+   * Stamps the message's receiving from a mailbox and records
+   * the {@link Stage#DECODE}, {@link Stage#DISPATCH}, {@link Stage#QUEUE}
+   * and {@link Stage#TOTAL} latencies.
+   *
+   * @param trace the message's trace
+   */
+  public void received (@NonNull MessageTrace trace) {
+    val now = System.nanoTime();
+    trace.markReceived(now);
+
+    if (trace.getArrivedNanos() != 0) {
+      record(Stage.DECODE, trace.getDecodedNanos() - trace.getArrivedNanos());
+      record(Stage.DISPATCH, trace.getDeliveredNanos() - trace.getDecodedNanos());
+    }
+    record(Stage.QUEUE, now - trace.getDeliveredNanos());
+    record(Stage.TOTAL, now - trace.getStartNanos());
+  }
+
+  /**
+   * Stamps the message handler's completion and records
+   * the {@link Stage#HANDLER} latency.
+   *
+   * @param trace the message's trace
+   */
+  public void handled (@NonNull MessageTrace trace) {
+    if (trace.getReceivedNanos() == 0) {
+      return;
+    }
+    val now = System.nanoTime();
+    trace.markHandled(now);
+    record(Stage.HANDLER, now - trace.getReceivedNanos());
+  }
+
+  /**
+   * Returns the latency histogram of a stage.
+   *
+   * @param stage the message's stage
+   *
+   * @return the stage's latencies, in nanoseconds
+   */
+  public LatencyHistogram getHistogram (@NonNull Stage stage) {
+    return histograms.get(stage);
+  }
+
+  /**
+   * Returns the latency histograms of all the stages.
+   *
+   * @return the per-stage latencies, in nanoseconds
+   */
+  public Map<Stage, LatencyHistogram> getBreakdown () {
+    return histograms;
+  }
+
+  /**
+   * Forgets all the recorded latencies.
+   */
+  public void reset () {
+    for (val histogram : histograms.values()) {
+      histogram.reset();
+    }
+  }
+
+  @Override
+  public String toString () {
+    val builder = new StringBuilder()
+        .append("MessageTracing(sampleRate=").append(sampleRate).append(')');
+    for (val entry : histograms.entrySet()) {
+      builder.append("\n  ").append(entry.getKey()).append(": ").append(entry.getValue());
+    }
+    return builder.toString();
+  }
+
+  private void record (Stage stage, long nanos) {
+    histograms.get(stage).record(nanos);
+  }
+
+  /**
+   * The stages of a message's way through the node.
+   */
+  public enum Stage {
+
+    /**
+     * From the frame arrival to the decoded message, including the waiting
+     * for a decoding thread, if the decoding is done off the event loop.
+     */
+    DECODE,
+
+    /**
+     * From the decoded message to the delivery into a mailbox.
+     */
+    DISPATCH,
+
+    /**
+     * The time in the mailbox's queue.
+     */
+    QUEUE,
+
+    /**
+     * The message handler's execution.
+     */
+    HANDLER,
+
+    /**
+     * From the frame arrival (or the local delivery) to the receiving from the mailbox.
+     */
+    TOTAL;
+  }
+}
@@ -16,6 +16,13 @@
 
 package io.appulse.encon;
 
+import static io.appulse.encon.config.MailboxOverflowPolicy.BLOCK;
+import static io.appulse.encon.config.MailboxOverflowPolicy.DROP_NEWEST;
+import static io.appulse.encon.config.MailboxOverflowPolicy.DROP_OLDEST;
+import static io.appulse.encon.config.MailboxOverflowPolicy.REJECT;
+import static io.appulse.encon.config.MailboxQueueType.MPSC;
+import static io.appulse.encon.config.MailboxQueueType.RING_BUFFER;
+import static io.appulse.encon.config.MailboxWaitStrategy.PARK;
 import static io.appulse.encon.terms.Erlang.atom;
 import static io.appulse.encon.terms.Erlang.number;
 import static io.appulse.encon.terms.Erlang.string;
@@ -27,14 +34,26 @@ import static java.lang.Boolean.FALSE;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static java.util.Optional.ofNullable;
 import static io.appulse.encon.connection.control.ControlMessageTag.SEND;
+import static io.appulse.encon.connection.control.ControlMessageTag.REG_SEND_TT;
+import static io.appulse.encon.connection.control.ControlMessageTag.SEND_TT;
 
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import io.appulse.encon.common.RemoteNode;
 import io.appulse.encon.config.MailboxConfig;
 import io.appulse.encon.config.NodeConfig;
 import io.appulse.encon.config.ServerConfig;
@@ -42,6 +61,8 @@ import io.appulse.encon.connection.control.ControlMessage;
 import io.appulse.encon.connection.regular.Message;
 import io.appulse.encon.mailbox.Mailbox;
 import io.appulse.encon.mailbox.exception.ReceivedExitException;
+import io.appulse.encon.metrics.EnconMetrics;
+import io.appulse.encon.metrics.MessageTracing.Stage;
 import io.appulse.encon.terms.ErlangTerm;
 import io.appulse.encon.terms.type.ErlangAtom;
 import io.appulse.epmd.java.server.SubcommandServer;
@@ -359,6 +380,502 @@ public class NodeTest {
     assertThat(false).isTrue();
   }
 
+  @Test
+  public void metrics () throws Exception {
+    val name1 = createName();
+    val name2 = createName();
+
+    node = Nodes.singleNode(name1, true);
+
+    val created = new AtomicInteger();
+    val frames = new AtomicInteger();
+    val decoded = new AtomicInteger();
+    val dequeued = new AtomicInteger();
+    node.setMetrics(new EnconMetrics() {
+
+      @Override
+      public void mailboxCreated (Mailbox mailbox) {
+        created.incrementAndGet();
+      }
+
+      @Override
+      public void frameReceived (RemoteNode remote, int bytes) {
+        frames.incrementAndGet();
+      }
+
+      @Override
+      public void messageDecoded (RemoteNode remote, long nanos) {
+        decoded.incrementAndGet();
+      }
+
+      @Override
+      public void messageDequeued (Mailbox mailbox, long nanos) {
+        assertThat(nanos).isGreaterThanOrEqualTo(0);
+        dequeued.incrementAndGet();
+      }
+    });
+
+    Mailbox mailbox1 = node.mailbox()
+        .name("popa1")
+        .build();
+
+    assertThat(created.get()).isEqualTo(1);
+
+    try (val node2 = Nodes.singleNode(name2, true)) {
+      Mailbox mailbox2 = node2.mailbox().build();
+
+      mailbox2.send(name1, "popa1", string("Hello world"));
+      assertThat(mailbox1.receive().getBody().asText())
+          .isEqualTo("Hello world");
+
+      assertThat(frames.get()).isGreaterThanOrEqualTo(1);
+      assertThat(decoded.get()).isEqualTo(1);
+      assertThat(dequeued.get()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void tracing () throws Exception {
+    val name1 = createName();
+    val name2 = createName();
+
+    node = Nodes.singleNode(name1, true);
+    node.getTracing().setSampleRate(1);
+
+    Mailbox mailbox1 = node.mailbox()
+        .name("popa1")
+        .build();
+
+    try (val node2 = Nodes.singleNode(name2, true)) {
+      Mailbox mailbox2 = node2.mailbox().build();
+      mailbox2.setTraceToken(tuple(number(0), atom("label"), number(0), mailbox2.getPid(), number(0)));
+
+      mailbox2.send(name1, "popa1", string("Hello world"));
+      val request = mailbox1.receive();
+      assertThat(request.getHeader().getTag()).isEqualTo(REG_SEND_TT);
+      assertThat(request.getTrace()).isNotNull();
+      assertThat(request.getTraceToken())
+          .isEqualTo(tuple(number(0), atom("label"), number(1), mailbox2.getPid(), number(0)));
+      assertThat(mailbox1.getTraceToken())
+          .isEqualTo(request.getTraceToken());
+
+      mailbox1.send(mailbox2.getPid(), string("Hello back"));
+      val response = mailbox2.receive();
+      assertThat(response.getHeader().getTag()).isEqualTo(SEND_TT);
+      assertThat(response.getTraceToken())
+          .isEqualTo(tuple(number(0), atom("label"), number(2), mailbox1.getPid(), number(1)));
+      // the other node doesn't sample the messages
+      assertThat(response.getTrace()).isNull();
+
+      val tracing = node.getTracing();
+      assertThat(tracing.getHistogram(Stage.DECODE).getCount()).isEqualTo(1);
+      assertThat(tracing.getHistogram(Stage.DISPATCH).getCount()).isEqualTo(1);
+      assertThat(tracing.getHistogram(Stage.QUEUE).getCount()).isEqualTo(1);
+      assertThat(tracing.getHistogram(Stage.TOTAL).getCount()).isEqualTo(1);
+      assertThat(tracing.getHistogram(Stage.TOTAL).getMax())
+          .isGreaterThanOrEqualTo(tracing.getHistogram(Stage.QUEUE).getMax());
+
+      // a message without a token clears the receiver's token
+      Mailbox mailbox3 = node.mailbox().build();
+      mailbox3.send(mailbox1.getPid(), string("untraced"));
+      assertThat(mailbox1.receive().getTraceToken()).isNull();
+      assertThat(mailbox1.getTraceToken()).isNull();
+      assertThat(tracing.getHistogram(Stage.DECODE).getCount()).isEqualTo(1);
+      assertThat(tracing.getHistogram(Stage.TOTAL).getCount()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void pooledConnections () throws Exception {
+    val config = NodeConfig.builder()
+        .shortName(true)
+        .server(ServerConfig.builder()
+            .connectionsPerNode(4)
+            .build())
+        .build();
+
+    val name1 = createName();
+    val name2 = createName();
+
+    node = Nodes.singleNode(name1, config);
+    Mailbox receiver = node.mailbox()
+        .name("popa1")
+        .build();
+
+    try (val node2 = Nodes.singleNode(name2, config)) {
+      val senders = new ArrayList<Mailbox>();
+      for (int index = 0; index < 8; index++) {
+        senders.add(node2.mailbox().build());
+      }
+
+      // the lookup tells it by the EPMD registration's extra data,
+      // but not every EPMD implementation keeps it
+      val remote = copyOf(node2.lookup(name1), true);
+      assertThat(node2.connect(remote).size()).isEqualTo(4);
+
+      val messages = 100;
+      for (int count = 0; count < messages; count++) {
+        for (int index = 0; index < senders.size(); index++) {
+          senders.get(index).send(remote, "popa1", tuple(number(index), number(count)));
+        }
+      }
+
+      // the messages from one sender are received in order
+      val expected = new int[senders.size()];
+      for (int count = 0; count < messages * senders.size(); count++) {
+        val body = receiver.receive(5, SECONDS).getBody();
+        val sender = body.getUnsafe(0).asInt();
+        assertThat(body.getUnsafe(1).asInt()).isEqualTo(expected[sender]);
+        expected[sender]++;
+      }
+
+      // the accepting node caches all the channels from the remote node
+      assertThat(node.connect(node.lookup(name2)).size()).isEqualTo(4);
+    }
+  }
+
+  @Test
+  public void pooledConnectionsOnlyToEnconNodes () throws Exception {
+    val config = NodeConfig.builder()
+        .shortName(true)
+        .server(ServerConfig.builder()
+            .connectionsPerNode(4)
+            .build())
+        .build();
+
+    val name1 = createName();
+    val name2 = createName();
+
+    node = Nodes.singleNode(name1, config);
+    try (val node2 = Nodes.singleNode(name2, config)) {
+      // the Erlang nodes accept a single connection from a node
+      val remote = copyOf(node2.lookup(name1), false);
+      assertThat(node2.connect(remote).size()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void inlineMailbox () throws Exception {
+    val name1 = createName();
+    val name2 = createName();
+
+    node = Nodes.singleNode(name1, true);
+    Mailbox echo = node.mailbox()
+        .name("echo")
+        .build();
+
+    val threads = ConcurrentHashMap.<String>newKeySet();
+    echo.setInlineConsumer(message -> {
+      threads.add(Thread.currentThread().getName());
+      val body = message.getBody();
+      echo.send(body.getUnsafe(0).asPid(), body.getUnsafe(1));
+    });
+    assertThat(echo.isInline()).isTrue();
+
+    try (val node2 = Nodes.singleNode(name2, true)) {
+      Mailbox client = node2.mailbox().build();
+      for (int index = 0; index < 100; index++) {
+        client.send(name1, "echo", tuple(client.getPid(), number(index)));
+      }
+      for (int index = 0; index < 100; index++) {
+        assertThat(client.receive(5, SECONDS).getBody()).isEqualTo(number(index));
+      }
+    }
+
+    // the messages are handled by the network threads, not by the test's one
+    assertThat(threads)
+        .isNotEmpty()
+        .doesNotContain(Thread.currentThread().getName());
+
+    assertThatThrownBy(() -> echo.receive(1, MILLISECONDS))
+        .isInstanceOf(IllegalStateException.class);
+
+    echo.setInlineConsumer(null);
+    Mailbox local = node.mailbox().build();
+    local.send(echo.getPid(), string("queued"));
+    assertThat(echo.receive(1, SECONDS).getBody().asText())
+        .isEqualTo("queued");
+  }
+
+  @Test
+  public void inlineMailboxExit () throws Exception {
+    node = Nodes.singleNode(createName(), true);
+
+    Mailbox inline = node.mailbox().build();
+    Mailbox linked = node.mailbox().build();
+
+    val received = new ArrayList<String>();
+    val exits = new ArrayList<ReceivedExitException>();
+    inline.setInlineConsumer(message -> received.add(message.getBody().asText()), exits::add);
+    linked.link(inline.getPid());
+
+    linked.send(inline.getPid(), string("before"));
+    linked.exit("boom");
+
+    assertThat(received).containsExactly("before");
+    assertThat(exits).hasSize(1);
+    assertThat(exits.get(0).getFrom()).isEqualTo(linked.getPid());
+    assertThat(inline.isInline()).isFalse();
+    assertThat(node.mailbox(inline.getPid())).isNull();
+  }
+
+  @Test
+  public void receiveBatch () throws Exception {
+    val name = createName();
+    node = Nodes.singleNode(name, true);
+
+    Mailbox mailbox1 = node.mailbox().build();
+    Mailbox mailbox2 = node.mailbox().build();
+
+    mailbox1.link(mailbox2.getPid());
+    for (int index = 0; index < 10; index++) {
+      mailbox1.send(mailbox2.getPid(), number(index));
+    }
+
+    val batch = mailbox2.receive(4, 1, SECONDS);
+    assertThat(batch).hasSize(4);
+    for (int index = 0; index < 4; index++) {
+      assertThat(batch.get(index).getBody()).isEqualTo(number(index));
+    }
+    assertThat(mailbox2.getLinks()).contains(mailbox1.getPid());
+
+    val rest = new ArrayList<ErlangTerm>();
+    assertThat(mailbox2.drain(it -> rest.add(it.getBody()))).isEqualTo(6);
+    assertThat(rest).containsExactly(number(4), number(5), number(6), number(7), number(8), number(9));
+
+    assertThat(mailbox2.receive(4, 100, MILLISECONDS)).isEmpty();
+  }
+
+  @Test
+  public void boundedMailbox () throws Exception {
+    val name = createName();
+    node = Nodes.singleNode(name, true);
+
+    Mailbox sender = node.mailbox().build();
+    Mailbox dropNewest = node.mailbox()
+        .capacity(3, DROP_NEWEST)
+        .build();
+    Mailbox dropOldest = node.mailbox()
+        .capacity(3, DROP_OLDEST)
+        .build();
+
+    for (int index = 0; index < 5; index++) {
+      sender.send(dropNewest.getPid(), number(index));
+      sender.send(dropOldest.getPid(), number(index));
+    }
+
+    assertThat(dropNewest.isFull()).isTrue();
+    assertThat(dropNewest.getDroppedMessages()).isEqualTo(2);
+    assertThat(dropNewest.receive(10, 1, SECONDS))
+        .extracting(Message::getBody)
+        .containsExactly(number(0), number(1), number(2));
+
+    assertThat(dropOldest.getDroppedMessages()).isEqualTo(2);
+    assertThat(dropOldest.receive(10, 1, SECONDS))
+        .extracting(Message::getBody)
+        .containsExactly(number(2), number(3), number(4));
+
+    Mailbox blocking = node.mailbox()
+        .capacity(2, BLOCK)
+        .build();
+    sender.send(blocking.getPid(), number(1));
+    sender.send(blocking.getPid(), number(2));
+    // the local sender waits for the mailbox's draining
+    val blocked = CompletableFuture.runAsync(() -> sender.send(blocking.getPid(), number(3)));
+    MILLISECONDS.sleep(200);
+    assertThat(blocked).isNotDone();
+    assertThat(blocking.size()).isEqualTo(2);
+
+    blocking.receive();
+    blocked.get(1, SECONDS);
+    assertThat(blocking.receive(10, 1, SECONDS))
+        .extracting(Message::getBody)
+        .containsExactly(number(2), number(3));
+
+    // the connection's messages go above the capacity, the connection stops reading instead
+    val drained = new AtomicBoolean();
+    blocking.deliver(Message.send(blocking.getPid(), number(1)));
+    blocking.deliver(Message.send(blocking.getPid(), number(2)));
+    blocking.deliver(Message.send(blocking.getPid(), number(3)));
+    blocking.whenDrained(() -> drained.set(true));
+
+    assertThat(blocking.size()).isEqualTo(3);
+    assertThat(drained).isFalse();
+    blocking.receive();
+    assertThat(drained).isFalse();
+    blocking.receive();
+    assertThat(drained).isTrue();
+  }
+
+  @Test
+  public void boundedQueueMailbox () throws Exception {
+    val name = createName();
+    node = Nodes.singleNode(name, true);
+
+    Mailbox sender = node.mailbox().build();
+    Mailbox dropOldest = node.mailbox()
+        .queue(RING_BUFFER, 4, PARK)
+        .capacity(3, DROP_OLDEST)
+        .build();
+
+    sender.send(dropOldest.getPid(), number(0));
+    sender.link(dropOldest.getPid());
+    sender.send(dropOldest.getPid(), number(1));
+    // the oldest message is dropped, and then the control message
+    // at the head is neither dropped nor moved back
+    sender.send(dropOldest.getPid(), number(2));
+    sender.send(dropOldest.getPid(), number(3));
+    assertThat(dropOldest.getDroppedMessages()).isEqualTo(2);
+    assertThat(dropOldest.receive(10, 1, SECONDS))
+        .extracting(Message::getBody)
+        .containsExactly(number(1), number(2));
+    assertThat(dropOldest.getLinks()).containsExactly(sender.getPid());
+
+    // the queue is sized from the mailbox's capacity, so the connection's messages
+    // with the BLOCK policy go above the capacity, and the queue itself drops, but doesn't throw
+    Mailbox blocking = node.mailbox()
+        .queue(MPSC, 2, PARK)
+        .capacity(2, BLOCK)
+        .build();
+    for (int index = 0; index < 5; index++) {
+      blocking.deliver(Message.send(blocking.getPid(), number(index)));
+    }
+    assertThat(blocking.size()).isEqualTo(4);
+    assertThat(blocking.getDroppedMessages()).isEqualTo(1);
+
+    assertThatThrownBy(() -> node.mailbox()
+        .queue(new ArrayBlockingQueue<>(2))
+        .capacity(3, BLOCK)
+        .build()
+    ).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void rejectingMailbox () throws Exception {
+    val name = createName();
+    node = Nodes.singleNode(name, true);
+
+    Mailbox mailbox1 = node.mailbox().build();
+    Mailbox mailbox2 = node.mailbox()
+        .capacity(1, REJECT)
+        .build();
+
+    mailbox1.link(mailbox2.getPid());
+    mailbox2.receive(100, MILLISECONDS);
+
+    mailbox1.send(mailbox2.getPid(), number(1));
+    mailbox1.send(mailbox2.getPid(), number(2));
+    mailbox1.send(mailbox2.getPid(), number(3));
+    assertThat(mailbox2.getDroppedMessages()).isEqualTo(2);
+
+    // the mailbox exits on its consumer's thread after the queued messages,
+    // and the exit signal wakes up the waiting consumer
+    val consumer = CompletableFuture.supplyAsync(() -> {
+      assertThat(mailbox2.receive().getBody()).isEqualTo(number(1));
+      return mailbox2.receive();
+    });
+    assertThatThrownBy(() -> consumer.get(1, SECONDS))
+        .hasCauseInstanceOf(ReceivedExitException.class)
+        .hasMessageContaining("mailbox_overflow");
+
+    assertThat(node.mailbox(mailbox2.getPid())).isNull();
+    try {
+      mailbox1.receive();
+    } catch (ReceivedExitException ex) {
+      assertThat(ex.getFrom()).isEqualTo(mailbox2.getPid());
+      assertThat(ex.getReason().asText()).isEqualTo("mailbox_overflow");
+      return;
+    }
+    throw new IllegalStateException();
+  }
+
+  @Test
+  public void genCall () throws Exception {
+    val name = createName();
+    node = Nodes.singleNode(name, true);
+
+    Mailbox client = node.mailbox().build();
+    Mailbox server = node.mailbox()
+        .name("calc")
+        .build();
+
+    val futures = new ArrayList<CompletableFuture<ErlangTerm>>();
+    for (int index = 0; index < 100; index++) {
+      futures.add(client.genCall(server.getPid(), number(index), 5, SECONDS));
+    }
+    assertThat(client.getPendingCalls()).isEqualTo(100);
+
+    // the replies go in the reverse order, but each one finds its own future
+    val requests = server.receive(100, 1, SECONDS);
+    assertThat(requests).hasSize(100);
+    for (int index = requests.size() - 1; index >= 0; index--) {
+      val request = requests.get(index).getBody();
+      assertThat(request.getUnsafe(0)).isEqualTo(atom("$gen_call"));
+      server.reply(request.getUnsafe(1), number(request.getUnsafe(2).asInt() * 2));
+    }
+
+    for (int index = 0; index < futures.size(); index++) {
+      assertThat(futures.get(index).get(1, SECONDS)).isEqualTo(number(index * 2));
+    }
+    assertThat(client.getPendingCalls()).isEqualTo(0);
+    assertThat(client.size()).isEqualTo(0);
+
+    val timedOut = client.genCall(server.getPid(), atom("ignored"), 100, MILLISECONDS);
+    try {
+      timedOut.get(5, SECONDS);
+      throw new IllegalStateException();
+    } catch (ExecutionException ex) {
+      assertThat(ex.getCause()).isInstanceOf(TimeoutException.class);
+    }
+    assertThat(client.getPendingCalls()).isEqualTo(0);
+    assertThat(server.receive(1, SECONDS).getBody().getUnsafe(2)).isEqualTo(atom("ignored"));
+  }
+
+  @Test
+  public void tracedGenCall () throws Exception {
+    val name = createName();
+    node = Nodes.singleNode(name, true);
+
+    Mailbox client = node.mailbox().build();
+    Mailbox server = node.mailbox().build();
+
+    client.setTraceToken(tuple(number(0), atom("label"), number(0), client.getPid(), number(0)));
+    val future = client.genCall(server.getPid(), atom("ping"), 5, SECONDS);
+
+    // the server inherits the token, so its reply is a SEND_TT message
+    val request = server.receive(1, SECONDS);
+    assertThat(request.getHeader().getTag()).isEqualTo(SEND_TT);
+    assertThat(server.getTraceToken()).isNotNull();
+    server.reply(request.getBody().getUnsafe(1), atom("pong"));
+
+    assertThat(future.get(1, SECONDS)).isEqualTo(atom("pong"));
+    assertThat(client.getPendingCalls()).isEqualTo(0);
+    assertThat(client.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void whenNotEmpty () throws Exception {
+    val name = createName();
+    node = Nodes.singleNode(name, true);
+
+    Mailbox mailbox1 = node.mailbox().build();
+    Mailbox mailbox2 = node.mailbox().build();
+
+    val notified = new AtomicBoolean();
+    mailbox2.whenNotEmpty(() -> notified.set(true));
+    assertThat(notified).isFalse();
+
+    mailbox1.send(mailbox2.getPid(), number(1));
+    assertThat(notified).isTrue();
+
+    // the listener is one-shot, and it runs immediately for a non-empty mailbox
+    notified.set(false);
+    mailbox1.send(mailbox2.getPid(), number(2));
+    assertThat(notified).isFalse();
+    mailbox2.whenNotEmpty(() -> notified.set(true));
+    assertThat(notified).isTrue();
+  }
+
   @Test
   public void exit () throws Exception {
     val name = createName();
@@ -423,6 +940,18 @@ public class NodeTest {
     assertThat(response2).isEqualTo(response1);
   }
 
+  private static RemoteNode copyOf (RemoteNode remote, boolean encon) {
+    return RemoteNode.builder()
+        .descriptor(remote.getDescriptor())
+        .protocol(remote.getProtocol())
+        .type(remote.getType())
+        .high(remote.getHigh())
+        .low(remote.getLow())
+        .port(remote.getPort())
+        .encon(encon)
+        .build();
+  }
+
   private String createName () {
     return new StringBuilder()
         .append("node_")
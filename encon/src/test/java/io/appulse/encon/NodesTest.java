@@ -19,6 +19,8 @@ package io.appulse.encon;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static java.util.Optional.ofNullable;
+import static io.appulse.encon.terms.Erlang.string;
+import static io.appulse.encon.terms.Erlang.tuple;
 
 import java.net.InetAddress;
 import java.util.concurrent.ExecutorService;
@@ -30,6 +32,7 @@ import io.appulse.encon.config.Defaults;
 import io.appulse.encon.config.MailboxConfig;
 import io.appulse.encon.config.NodeConfig;
 import io.appulse.encon.config.ServerConfig;
+import io.appulse.encon.mailbox.Mailbox;
 import io.appulse.epmd.java.server.SubcommandServer;
 import io.appulse.utils.SocketUtils;
 
@@ -112,4 +115,57 @@ public class NodesTest {
           .isNotPresent();
     }
   }
+
+  @Test
+  public void colocatedDelivery () {
+    val config = Config.builder()
+        .defaults(Defaults.builder()
+            .cookie("kojima-secret")
+            .build())
+        .build();
+
+    try (val nodes = Nodes.start(config)) {
+      val node1 = nodes.newNode("colocated-1");
+      val node2 = nodes.newNode("colocated-2");
+      val stranger = nodes.newNode("colocated-3", NodeConfig.builder()
+          .cookie("another-secret")
+          .build());
+
+      assertThat(node1.colocatedNode(node2.getDescriptor()))
+          .isSameAs(node2);
+      assertThat(node1.colocatedNode(node1.getDescriptor()))
+          .isNull();
+      assertThat(node1.colocatedNode(stranger.getDescriptor()))
+          .isNull();
+
+      Mailbox mailbox1 = node1.mailbox()
+          .name("one")
+          .build();
+
+      Mailbox mailbox2 = node2.mailbox()
+          .name("two")
+          .build();
+
+      val body = tuple(mailbox1.getPid(), string("hello"));
+      mailbox1.send(node2.getDescriptor().getFullName(), "two", body);
+
+      assertThat(mailbox2.receive().getBody())
+          .isSameAs(body);
+
+      val reply = string("world");
+      mailbox2.send(mailbox1.getPid(), reply);
+      assertThat(mailbox1.receive().getBody())
+          .isSameAs(reply);
+
+      // nobody with such name on the other side, the message is just dropped
+      mailbox1.send(node2.getDescriptor().getFullName(), "nobody", reply);
+
+      nodes.remove(node2.getDescriptor());
+      assertThat(node1.colocatedNode(node2.getDescriptor()))
+          .isNull();
+      assertThat(node2.colocatedNode(node1.getDescriptor()))
+          .isNull();
+      node2.close();
+    }
+  }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.connection.control;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.type.ErlangPid;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.val;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+public class ControlMessageCacheTest {
+
+  ErlangPid from = pid("from@localhost", 1);
+
+  ErlangPid to = pid("to@localhost", 2);
+
+  @Test
+  public void sameBytesAsTuple () {
+    ControlMessage[] messages = {
+        new Send(to),
+        new Send(atom("mailbox")),
+        new SendToRegisteredProcess(from, atom("mailbox")),
+        new Link(from, to),
+        new Unlink(from, to),
+        new Exit(from, to, atom("normal"))
+    };
+
+    for (val message : messages) {
+      val expected = message.toTuple().toBytes();
+
+      // the second write is from the cache
+      assertThat(write(message)).isEqualTo(expected);
+      assertThat(write(message)).isEqualTo(expected);
+
+      ControlMessage parsed = ControlMessage.parse(ErlangTerm.newInstance(Unpooled.wrappedBuffer(expected)));
+      assertThat(parsed.getTag()).isEqualTo(message.getTag());
+    }
+  }
+
+  @Test
+  public void differentDestinations () {
+    val cache = new ControlMessageCache(1);
+
+    val first = new Send(to);
+    val second = new Send(pid("another@localhost", 2));
+
+    assertThat(write(cache, first)).isEqualTo(first.toTuple().toBytes());
+    assertThat(write(cache, second)).isEqualTo(second.toTuple().toBytes());
+    assertThat(write(cache, first)).isEqualTo(first.toTuple().toBytes());
+  }
+
+  private static byte[] write (ControlMessage message) {
+    ByteBuf buffer = Unpooled.buffer();
+    message.writeTo(buffer);
+    return ByteBufUtil.getBytes(buffer);
+  }
+
+  private static byte[] write (ControlMessageCache cache, ControlMessage message) {
+    ByteBuf buffer = Unpooled.buffer();
+    cache.write(message, message.cacheFrom(), message.cacheTo(), buffer);
+    return ByteBufUtil.getBytes(buffer);
+  }
+
+  private static ErlangPid pid (String node, int id) {
+    return ErlangPid.builder()
+        .node(node)
+        .id(id)
+        .serial(1)
+        .creation(1)
+        .build();
+  }
+}
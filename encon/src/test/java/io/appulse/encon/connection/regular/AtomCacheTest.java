@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appulse.encon.connection.regular;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.Erlang.tuple;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.appulse.encon.terms.AtomCacheReferences;
+import io.appulse.encon.terms.ErlangTerm;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.val;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+public class AtomCacheTest {
+
+  AtomCache sender = new AtomCache();
+
+  AtomCache receiver = new AtomCache();
+
+  @After
+  public void after () {
+    AtomCacheReferences.unbind();
+  }
+
+  @Test
+  public void roundTrip () {
+    val term = tuple(atom("ok"), atom("hello"), number(42), atom("ok"));
+
+    val first = encode(term);
+    val firstSize = first.readableBytes();
+    assertThat(decode(first)).isEqualTo(term);
+
+    // the atoms are cached, so the second message has only their references
+    val second = encode(term);
+    assertThat(second.readableBytes()).isLessThan(firstSize);
+    assertThat(decode(second)).isEqualTo(term);
+  }
+
+  @Test
+  public void emptyHeader () {
+    val term = number(42);
+
+    val buffer = encode(term);
+    assertThat(buffer.getUnsignedByte(2)).isEqualTo((short) 0);
+    assertThat(decode(buffer)).isEqualTo(term);
+  }
+
+  @Test
+  public void longAtoms () {
+    val builder = new StringBuilder();
+    for (int index = 0; index < 40; index++) {
+      builder.append("юникод");
+    }
+    val term = tuple(atom(builder.toString()), atom("short"));
+
+    assertThat(decode(encode(term))).isEqualTo(term);
+    assertThat(decode(encode(term))).isEqualTo(term);
+  }
+
+  @Test
+  public void rollback () {
+    val term = atom("forgotten");
+
+    val writer = sender.writer();
+    AtomCacheReferences.bind(writer);
+    term.writeTo(Unpooled.buffer());
+    AtomCacheReferences.unbind();
+    writer.rollback();
+
+    // the rolled back entry must be sent again as a new one
+    assertThat(decode(encode(term))).isEqualTo(term);
+  }
+
+  private ByteBuf encode (ErlangTerm term) {
+    val terms = Unpooled.buffer();
+    val writer = sender.writer();
+    AtomCacheReferences.bind(writer);
+    try {
+      term.writeTo(terms);
+    } finally {
+      AtomCacheReferences.unbind();
+    }
+
+    val result = Unpooled.buffer();
+    writer.writeHeader(result);
+    return result.writeBytes(terms);
+  }
+
+  private ErlangTerm decode (ByteBuf buffer) {
+    assertThat(buffer.readUnsignedByte()).isEqualTo((short) Message.VERSION_TAG);
+    assertThat(buffer.readUnsignedByte()).isEqualTo((short) AtomCache.DISTRIBUTION_HEADER_TAG);
+
+    AtomCacheReferences.bind(receiver.readHeader(buffer));
+    try {
+      return ErlangTerm.newInstance(buffer);
+    } finally {
+      AtomCacheReferences.unbind();
+    }
+  }
+}
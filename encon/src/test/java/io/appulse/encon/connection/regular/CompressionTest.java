@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.connection.regular;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.binary;
+import static io.appulse.encon.terms.Erlang.list;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.encon.terms.TermType.COMPRESSED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.encon.terms.exception.ErlangTermDecodeException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import lombok.val;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+public class CompressionTest {
+
+  ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+  Compression compression = new Compression(true, 6, 64);
+
+  @After
+  public void after () {
+    compression.close();
+  }
+
+  @Test
+  public void roundTrip () {
+    val term = list(binary(new byte[4096]), atom("ok"), number(42));
+
+    val buffer = Unpooled.directBuffer();
+    compression.write(term, buffer, allocator);
+    // trailing term, which must stay in the buffer
+    atom("tail").writeTo(buffer);
+
+    assertThat(buffer.getUnsignedByte(0)).isEqualTo(COMPRESSED.getCode());
+    assertThat(buffer.readableBytes()).isLessThan(term.toBytes().length);
+
+    assertThat(compression.isCompressed(buffer)).isTrue();
+    ByteBuf inflated = compression.inflate(buffer, allocator);
+    try {
+      assertThat(ErlangTerm.<ErlangTerm>newInstance(inflated)).isEqualTo(term);
+    } finally {
+      inflated.release();
+    }
+    assertThat(ErlangTerm.<ErlangTerm>newInstance(buffer)).isEqualTo(atom("tail"));
+
+    // the inflater and the deflater are reused
+    val again = Unpooled.buffer();
+    compression.write(term, again, allocator);
+    ByteBuf inflatedAgain = compression.inflate(again, allocator);
+    try {
+      assertThat(ErlangTerm.<ErlangTerm>newInstance(inflatedAgain)).isEqualTo(term);
+    } finally {
+      inflatedAgain.release();
+    }
+  }
+
+  @Test
+  public void belowThreshold () {
+    val term = atom("small");
+
+    val buffer = Unpooled.buffer();
+    compression.write(term, buffer, allocator);
+
+    assertThat(compression.isCompressed(buffer)).isFalse();
+    assertThat(ErlangTerm.<ErlangTerm>newInstance(buffer)).isEqualTo(term);
+  }
+
+  @Test
+  public void incompressible () {
+    val bytes = new byte[1024];
+    new Random(42).nextBytes(bytes);
+    val term = binary(bytes);
+
+    val buffer = Unpooled.buffer();
+    compression.write(term, buffer, allocator);
+
+    assertThat(compression.isCompressed(buffer)).isFalse();
+    assertThat(ErlangTerm.<ErlangTerm>newInstance(buffer)).isEqualTo(term);
+  }
+
+  @Test
+  public void disabled () {
+    val disabled = new Compression(false, 6, 64);
+    val term = binary(new byte[4096]);
+
+    val buffer = Unpooled.buffer();
+    disabled.write(term, buffer, allocator);
+
+    assertThat(disabled.isCompressed(buffer)).isFalse();
+    assertThat(ErlangTerm.<ErlangTerm>newInstance(buffer)).isEqualTo(term);
+    disabled.close();
+  }
+
+  @Test
+  public void forgedSize () {
+    // a few bytes of zlib stream, which declares a huge uncompressed term
+    val huge = compressed(Integer.MAX_VALUE, new byte[16]);
+    assertThatThrownBy(() -> compression.inflate(huge, allocator))
+        .isInstanceOf(ErlangTermDecodeException.class)
+        .hasMessageContaining("exceeds the limit");
+
+    // the declared size is under the limit, but it is not backed by the data
+    val lying = compressed(Compression.DEFAULT_MAX_UNCOMPRESSED_SIZE, new byte[16]);
+    assertThatThrownBy(() -> compression.inflate(lying, allocator))
+        .isInstanceOf(ErlangTermDecodeException.class)
+        .hasMessageContaining("smaller than its size");
+
+    // the inflater is still usable
+    val data = new byte[100_000];
+    Arrays.fill(data, (byte) 7);
+    val inflated = compression.inflate(compressed(data.length, data), allocator);
+    try {
+      assertThat(inflated.readableBytes()).isEqualTo(data.length);
+    } finally {
+      inflated.release();
+    }
+  }
+
+  @Test
+  public void closed () {
+    compression.close();
+    val buffer = compressed(16, new byte[16]);
+    assertThatThrownBy(() -> compression.inflate(buffer, allocator))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private static ByteBuf compressed (int declaredSize, byte[] data) {
+    val deflater = new Deflater();
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      val output = new byte[data.length + 64];
+      val length = deflater.deflate(output);
+      return Unpooled.buffer()
+          .writeByte(COMPRESSED.getCode())
+          .writeInt(declaredSize)
+          .writeBytes(output, 0, length);
+    } finally {
+      deflater.end();
+    }
+  }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.connection.regular;
+
+import static io.appulse.encon.terms.Erlang.atom;
+import static io.appulse.encon.terms.Erlang.binary;
+import static io.appulse.encon.terms.Erlang.list;
+import static io.appulse.encon.terms.Erlang.number;
+import static io.appulse.epmd.java.core.model.NodeType.R6_ERLANG;
+import static io.appulse.epmd.java.core.model.Protocol.TCP;
+import static io.appulse.epmd.java.core.model.Version.R6;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.appulse.encon.Node;
+import io.appulse.encon.Nodes;
+import io.appulse.encon.common.NodeDescriptor;
+import io.appulse.encon.common.RemoteNode;
+import io.appulse.encon.config.CompressionConfig;
+import io.appulse.encon.mailbox.Mailbox;
+import io.appulse.encon.terms.ErlangTerm;
+import io.appulse.epmd.java.server.SubcommandServer;
+import io.appulse.utils.SocketUtils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.NonStickyEventExecutorGroup;
+import io.netty.util.concurrent.UnorderedThreadPoolEventExecutor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+@Slf4j
+public class ConnectionHandlerTest {
+
+  private static ExecutorService executor;
+
+  private static Future<?> future;
+
+  Node node;
+
+  EventExecutorGroup decodeExecutors;
+
+  @BeforeClass
+  public static void beforeClass () throws Exception {
+    if (SocketUtils.isPortAvailable(4369)) {
+      executor = Executors.newSingleThreadExecutor();
+      val server = SubcommandServer.builder()
+          .port(SocketUtils.findFreePort().orElseThrow(RuntimeException::new))
+          .ip(InetAddress.getByName("0.0.0.0"))
+          .build();
+
+      future = executor.submit(() -> {
+        try {
+          server.run();
+        } catch (Throwable ex) {
+          log.error("EPMD server error", ex);
+        }
+      });
+      SECONDS.sleep(1);
+    }
+  }
+
+  @AfterClass
+  public static void afterClass () {
+    if (future != null) {
+      future.cancel(true);
+    }
+
+    ofNullable(executor)
+      .ifPresent(ExecutorService::shutdown);
+  }
+
+  @Before
+  public void before () {
+    val name = "node_" + ThreadLocalRandom.current().nextInt(1000) + "@localhost";
+    node = Nodes.singleNode(name, true);
+  }
+
+  @After
+  public void after () throws Exception {
+    if (decodeExecutors != null) {
+      decodeExecutors.shutdownGracefully(0, 1, SECONDS).sync();
+      decodeExecutors = null;
+    }
+    if (node != null) {
+      node.close();
+      node = null;
+    }
+    MILLISECONDS.sleep(300);
+  }
+
+  @Test
+  public void decodeExecutorsKeepOrder () throws Exception {
+    // the same kind of group, as the node's one: the tasks of a connection
+    // are ordered, but they run on any thread of the pool
+    decodeExecutors = new NonStickyEventExecutorGroup(new UnorderedThreadPoolEventExecutor(4), 8);
+
+    val count = 2_000;
+    val mailboxes = new Mailbox[] { node.mailbox().build(), node.mailbox().build() };
+    val channels = new EmbeddedChannel[mailboxes.length];
+    for (int index = 0; index < channels.length; index++) {
+      channels[index] = channel("remote" + index);
+    }
+
+    for (int i = 0; i < count; i++) {
+      for (int index = 0; index < channels.length; index++) {
+        channels[index].writeInbound(frame(Message.send(mailboxes[index].getPid(), number(i))));
+      }
+    }
+
+    for (val mailbox : mailboxes) {
+      for (int i = 0; i < count; i++) {
+        val message = mailbox.receive(5, SECONDS);
+        assertThat(message).isNotNull();
+        assertThat(message.getBody().asInt()).isEqualTo(i);
+      }
+    }
+    for (val channel : channels) {
+      channel.finishAndReleaseAll();
+    }
+  }
+
+  @Test
+  public void pendingFramesToggleAutoRead () throws Exception {
+    decodeExecutors = new DefaultEventExecutorGroup(1);
+    // the group has the only executor, the same as the handler's one
+    val decodeExecutor = decodeExecutors.next();
+
+    val mailbox = node.mailbox().build();
+    val channel = channel("remote");
+
+    // the decoding is held, while the frames are piling up:
+    // B1, F0..F766, B2, F767, B3, F768..F1023
+    val first = new Gate(decodeExecutor);
+    writeFrames(channel, mailbox, 0, 767);
+    val second = new Gate(decodeExecutor);
+    writeFrames(channel, mailbox, 767, 768);
+    val third = new Gate(decodeExecutor);
+    writeFrames(channel, mailbox, 768, 1023);
+
+    channel.runPendingTasks();
+    assertThat(channel.config().isAutoRead()).isTrue();
+
+    // the 1024th pending frame stops the reading
+    writeFrames(channel, mailbox, 1023, 1024);
+    channel.runPendingTasks();
+    assertThat(channel.config().isAutoRead()).isFalse();
+
+    // 257 pending frames left
+    first.open();
+    second.awaitReached();
+    channel.runPendingTasks();
+    assertThat(channel.config().isAutoRead()).isFalse();
+
+    // 256 pending frames left
+    second.open();
+    third.awaitReached();
+    channel.runPendingTasks();
+    assertThat(channel.config().isAutoRead()).isTrue();
+
+    third.open();
+    for (int i = 0; i < 1024; i++) {
+      val message = mailbox.receive(5, SECONDS);
+      assertThat(message).isNotNull();
+      assertThat(message.getBody().asInt()).isEqualTo(i);
+    }
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void flushesAfterDelay () throws Exception {
+    val flushes = new AtomicInteger();
+    val channel = channel("remote", FlushPolicy.builder()
+        .maxMessages(10)
+        .maxBytes(64 * 1024)
+        .delayMicros(MILLISECONDS.toMicros(50))
+        .build(), flushes);
+    val handler = channel.pipeline().get(ConnectionHandler.class);
+    val pid = node.mailbox().build().getPid();
+
+    for (int i = 0; i < 3; i++) {
+      handler.send(Message.send(pid, number(i)));
+    }
+    channel.runPendingTasks();
+    assertThat(channel.outboundMessages()).isEmpty();
+    assertThat(flushes.get()).isEqualTo(0);
+
+    MILLISECONDS.sleep(100);
+    channel.runPendingTasks();
+    assertThat(bodies(channel)).containsExactly(0, 1, 2);
+    assertThat(flushes.get()).isEqualTo(1);
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void flushesWhenLimitReached () throws Exception {
+    val flushes = new AtomicInteger();
+    val channel = channel("remote", FlushPolicy.builder()
+        .maxMessages(2)
+        .maxBytes(64 * 1024)
+        .delayMicros(SECONDS.toMicros(10))
+        .build(), flushes);
+    val handler = channel.pipeline().get(ConnectionHandler.class);
+    val pid = node.mailbox().build().getPid();
+
+    handler.send(Message.send(pid, number(0)));
+    channel.runPendingTasks();
+    assertThat(channel.outboundMessages()).isEmpty();
+
+    // the second message reaches the limit, so the delay is not waited for,
+    // the messages, enqueued before the flush, are written in batches of the limit
+    for (int i = 1; i < 5; i++) {
+      handler.send(Message.send(pid, number(i)));
+    }
+    channel.runPendingTasks();
+    assertThat(bodies(channel)).containsExactly(0, 1, 2, 3, 4);
+    assertThat(flushes.get()).isEqualTo(3);
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void flushesImmediatelyWithoutDelay () throws Exception {
+    val flushes = new AtomicInteger();
+    val channel = channel("remote", FlushPolicy.DEFAULT, flushes);
+    val handler = channel.pipeline().get(ConnectionHandler.class);
+    val pid = node.mailbox().build().getPid();
+
+    // the test thread is the embedded channel's event loop
+    handler.send(Message.send(pid, number(0)));
+    assertThat(bodies(channel)).containsExactly(0);
+    handler.send(Message.send(pid, number(1)));
+    assertThat(bodies(channel)).containsExactly(1);
+    assertThat(flushes.get()).isEqualTo(2);
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void compressesWithDistributionHeader () throws Exception {
+    val compression = CompressionConfig.builder()
+        .enabled(true)
+        .threshold(64)
+        .build();
+    val sender = channel("receiver", compression, new AtomCache());
+    val receiver = channel("sender", compression, new AtomCache());
+    val mailbox = node.mailbox().build();
+
+    val body = list(binary(new byte[4096]), atom("ok"));
+    for (int i = 0; i < 2; i++) {
+      sender.pipeline().get(ConnectionHandler.class).send(Message.send(mailbox.getPid(), body));
+
+      ByteBuf frame = sender.readOutbound();
+      assertThat(frame.readableBytes()).isLessThan(body.toBytes().length);
+      receiver.writeInbound(frame);
+
+      val message = mailbox.receive(5, SECONDS);
+      assertThat(message).isNotNull();
+      assertThat(message.getBody()).isEqualTo(body);
+    }
+    sender.finishAndReleaseAll();
+    receiver.finishAndReleaseAll();
+  }
+
+  private EmbeddedChannel channel (String remoteName) {
+    return channel(remoteName, null, new AtomicInteger());
+  }
+
+  private EmbeddedChannel channel (String remoteName, FlushPolicy flushPolicy, AtomicInteger flushes) {
+    val channel = new EmbeddedChannel();
+    channel.attr(RegularPipeline.DECODE_EXECUTORS).set(decodeExecutors);
+    channel.attr(RegularPipeline.FLUSH_POLICY).set(flushPolicy);
+    channel.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+
+      @Override
+      public void flush (ChannelHandlerContext context) throws Exception {
+        flushes.incrementAndGet();
+        super.flush(context);
+      }
+    });
+    channel.pipeline().addLast(ConnectionHandler.builder()
+        .node(node)
+        .remote(remote(remoteName))
+        .channelCloseAction(it -> { })
+        .build());
+    return channel;
+  }
+
+  private EmbeddedChannel channel (String remoteName, CompressionConfig compression, AtomCache atomCache) {
+    val channel = new EmbeddedChannel();
+    channel.attr(RegularPipeline.COMPRESSION).set(compression);
+    channel.pipeline().addLast(ConnectionHandler.builder()
+        .node(node)
+        .remote(remote(remoteName))
+        .channelCloseAction(it -> { })
+        .atomCache(atomCache)
+        .build());
+    return channel;
+  }
+
+  private static RemoteNode remote (String name) {
+    return RemoteNode.builder()
+        .descriptor(NodeDescriptor.from(name + "@localhost"))
+        .protocol(TCP)
+        .type(R6_ERLANG)
+        .high(R6)
+        .low(R6)
+        .port(4321)
+        .build();
+  }
+
+  // reads the integers, sent in the written frames
+  private static List<Integer> bodies (EmbeddedChannel channel) {
+    val result = new ArrayList<Integer>();
+    ByteBuf frame;
+    while ((frame = channel.readOutbound()) != null) {
+      try {
+        assertThat(frame.readInt()).isEqualTo(frame.readableBytes());
+        assertThat(frame.readUnsignedByte()).isEqualTo((short) 112);
+        // the versioned header and the versioned body
+        frame.skipBytes(1);
+        ErlangTerm.newInstance(frame);
+        frame.skipBytes(1);
+        result.add(ErlangTerm.newInstance(frame).asInt());
+      } finally {
+        frame.release();
+      }
+    }
+    return result;
+  }
+
+  private static void writeFrames (EmbeddedChannel channel, Mailbox mailbox, int from, int to) {
+    val buffer = Unpooled.buffer();
+    for (int i = from; i < to; i++) {
+      buffer.writeBytes(frame(Message.send(mailbox.getPid(), number(i))));
+    }
+    channel.writeInbound(buffer);
+  }
+
+  private static ByteBuf frame (Message message) {
+    val body = Unpooled.buffer();
+    message.writeTo(body);
+    return Unpooled.buffer()
+        .writeInt(body.readableBytes())
+        .writeBytes(body);
+  }
+
+  /**
+   * A task, which holds the executor until it is opened.
+   */
+  private static class Gate {
+
+    CountDownLatch reached = new CountDownLatch(1);
+
+    CountDownLatch opened = new CountDownLatch(1);
+
+    Gate (EventExecutor executor) {
+      executor.execute(() -> {
+        reached.countDown();
+        try {
+          opened.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+
+    void awaitReached () throws InterruptedException {
+      assertThat(reached.await(5, SECONDS)).isTrue();
+    }
+
+    void open () {
+      opened.countDown();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.mailbox.queue;
+
+import static io.appulse.encon.config.MailboxWaitStrategy.PARK;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+import io.appulse.encon.config.MailboxQueueType;
+import io.appulse.encon.config.MailboxWaitStrategy;
+
+import lombok.val;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+public class MailboxQueuesTest {
+
+  private static final int PRODUCERS = 4;
+
+  private static final int MESSAGES_PER_PRODUCER = 20_000;
+
+  @Test
+  public void fifo () throws Exception {
+    for (val type : MailboxQueueType.values()) {
+      BlockingQueue<Integer> queue = MailboxQueues.newQueue(type, 8, PARK);
+      for (int index = 0; index < 5; index++) {
+        assertThat(queue.offer(index)).isTrue();
+      }
+      assertThat(queue.size()).isEqualTo(5);
+      assertThat(queue.peek()).isEqualTo(0);
+
+      for (int index = 0; index < 5; index++) {
+        assertThat(queue.take()).isEqualTo(index);
+      }
+      assertThat(queue.isEmpty()).isTrue();
+      assertThat(queue.poll()).isNull();
+      assertThat(queue.poll(10, MILLISECONDS)).isNull();
+    }
+  }
+
+  @Test
+  public void bounded () {
+    for (val type : new MailboxQueueType[] { MailboxQueueType.MPSC, MailboxQueueType.RING_BUFFER }) {
+      BlockingQueue<Integer> queue = MailboxQueues.newQueue(type, 3, PARK);
+      for (int index = 0; index < 4; index++) {
+        assertThat(queue.offer(index)).isTrue();
+      }
+      assertThat(queue.offer(4)).isFalse();
+      assertThat(queue.remainingCapacity()).isEqualTo(0);
+
+      // wraps around the ring
+      assertThat(queue.poll()).isEqualTo(0);
+      assertThat(queue.offer(4)).isTrue();
+      assertThat(queue.drainTo(new ArrayList<>())).isEqualTo(4);
+    }
+  }
+
+  @Test
+  public void iteration () throws Exception {
+    val types = new MailboxQueueType[] {
+        MailboxQueueType.MPSC,
+        MailboxQueueType.RING_BUFFER,
+        MailboxQueueType.BATCHING
+    };
+    for (val type : types) {
+      BlockingQueue<Integer> queue = MailboxQueues.newQueue(type, 4, PARK);
+      assertThat(queue.iterator().hasNext()).isFalse();
+
+      for (int index = 0; index < 4; index++) {
+        queue.put(index);
+      }
+      assertThat(queue.poll()).isEqualTo(0);
+      // wraps around the ring and, for the batching one, it is both in the batch and in the stack
+      queue.put(4);
+
+      assertThat(queue).containsExactly(1, 2, 3, 4);
+      assertThat(queue.contains(3)).isTrue();
+      assertThat(queue.contains(0)).isFalse();
+      assertThat(queue.toArray()).containsExactly(1, 2, 3, 4);
+      assertThat(queue.toString()).isEqualTo("[1, 2, 3, 4]");
+
+      assertThatThrownBy(() -> queue.remove(Integer.valueOf(2)))
+          .isInstanceOf(UnsupportedOperationException.class);
+      assertThatThrownBy(() -> {
+        val iterator = queue.iterator();
+        iterator.next();
+        iterator.remove();
+      }).isInstanceOf(UnsupportedOperationException.class);
+      assertThat(queue.size()).isEqualTo(4);
+    }
+  }
+
+  @Test
+  public void concurrentProducers () throws Exception {
+    for (val type : MailboxQueueType.values()) {
+      for (val waitStrategy : MailboxWaitStrategy.values()) {
+        BlockingQueue<long[]> queue = MailboxQueues.newQueue(type, 256, waitStrategy);
+        checkConcurrentProducers(queue);
+      }
+    }
+  }
+
+  private void checkConcurrentProducers (BlockingQueue<long[]> queue) throws Exception {
+    val start = new CountDownLatch(1);
+    List<Thread> producers = new ArrayList<>();
+    for (int producer = 0; producer < PRODUCERS; producer++) {
+      val id = producer;
+      val thread = new Thread(() -> {
+        try {
+          start.await();
+          for (long index = 0; index < MESSAGES_PER_PRODUCER; index++) {
+            queue.put(new long[] { id, index });
+          }
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      thread.start();
+      producers.add(thread);
+    }
+    start.countDown();
+
+    val expected = new long[PRODUCERS];
+    for (int count = 0; count < PRODUCERS * MESSAGES_PER_PRODUCER; count++) {
+      val message = queue.poll(5, SECONDS);
+      assertThat(message).isNotNull();
+      // every producer's messages are received in order
+      assertThat(message[1]).isEqualTo(expected[(int) message[0]]);
+      expected[(int) message[0]]++;
+    }
+    for (val thread : producers) {
+      thread.join();
+    }
+    assertThat(queue.isEmpty()).isTrue();
+  }
+}
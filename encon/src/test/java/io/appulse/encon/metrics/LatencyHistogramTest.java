@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appulse.encon.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import lombok.val;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin
+ * @since 1.7.0
+ */
+public class LatencyHistogramTest {
+
+  @Test
+  public void empty () {
+    val histogram = new LatencyHistogram();
+
+    assertThat(histogram.getCount()).isEqualTo(0);
+    assertThat(histogram.getMax()).isEqualTo(0);
+    assertThat(histogram.getValueAtPercentile(99.0D)).isEqualTo(0);
+  }
+
+  @Test
+  public void percentiles () {
+    val histogram = new LatencyHistogram();
+    for (long value = 1; value <= 100_000; value++) {
+      histogram.record(value * 1000);
+    }
+
+    assertThat(histogram.getCount()).isEqualTo(100_000);
+    assertThat(histogram.getMax()).isEqualTo(100_000_000);
+    assertThat((double) histogram.getValueAtPercentile(50.0D))
+        .isCloseTo(50_000_000, within(50_000_000 / 32.0D));
+    assertThat((double) histogram.getValueAtPercentile(99.0D))
+        .isCloseTo(99_000_000, within(99_000_000 / 32.0D));
+    assertThat(histogram.getValueAtPercentile(100.0D)).isEqualTo(100_000_000);
+
+    histogram.reset();
+    assertThat(histogram.getCount()).isEqualTo(0);
+    assertThat(histogram.getMax()).isEqualTo(0);
+  }
+
+  @Test
+  public void buckets () {
+    long previousValue = -1;
+    int previousIndex = 0;
+    for (int shift = 0; shift < Long.SIZE - 1; shift++) {
+      for (long value : new long[] { (1L << shift) - 1, 1L << shift, (1L << shift) + 1 }) {
+        // the neighbours of the small powers of two overlap
+        if (value <= previousValue) {
+          continue;
+        }
+        val index = LatencyHistogram.indexOf(value);
+        assertThat(LatencyHistogram.highestValueOf(index)).isGreaterThanOrEqualTo(value);
+        assertThat(index).isGreaterThanOrEqualTo(previousIndex);
+        previousValue = value;
+        previousIndex = index;
+      }
+    }
+    assertThat(LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(Long.MAX_VALUE)))
+        .isEqualTo(Long.MAX_VALUE);
+
+    val histogram = new LatencyHistogram();
+    histogram.record(Long.MAX_VALUE);
+    histogram.record(-1);
+    assertThat(histogram.getCount()).isEqualTo(2);
+    assertThat(histogram.getValueAtPercentile(0.0D)).isEqualTo(0);
+  }
+}